@@ -20,6 +20,9 @@
 
 package org.monarchinitiative.exomiser.core.analysis;
 
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.LazyGenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
 import org.monarchinitiative.exomiser.core.analysis.sample.PedigreeSampleValidator;
 import org.monarchinitiative.exomiser.core.analysis.sample.Sample;
 import org.monarchinitiative.exomiser.core.analysis.util.*;
@@ -31,12 +34,13 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
@@ -57,11 +61,38 @@ abstract class AbstractAnalysisRunner implements AnalysisRunner {
     protected final VariantFilterRunner variantFilterRunner;
     private final GeneFilterRunner geneFilterRunner;
 
+    private final int variantProcessingThreads;
+    private final CombinedScorePvalueCalculatorCache pvalueCalculatorCache;
+
     protected AbstractAnalysisRunner(GenomeAnalysisService genomeAnalysisService, VariantFilterRunner variantFilterRunner, GeneFilterRunner geneFilterRunner) {
+        this(genomeAnalysisService, variantFilterRunner, geneFilterRunner, 1);
+    }
+
+    /**
+     * @param variantProcessingThreads number of threads used to annotate and filter the variants loaded from the VCF.
+     *                                 A value of 1 will load and filter the variants sequentially on the calling thread.
+     * @since 13.2.0
+     */
+    protected AbstractAnalysisRunner(GenomeAnalysisService genomeAnalysisService, VariantFilterRunner variantFilterRunner, GeneFilterRunner geneFilterRunner, int variantProcessingThreads) {
+        this(genomeAnalysisService, variantFilterRunner, geneFilterRunner, variantProcessingThreads, new CombinedScorePvalueCalculatorCache(CombinedScorePvalueCalculator.DEFAULT_BOOTSTRAP_POPULATION));
+    }
+
+    /**
+     * @param pvalueCalculatorCache cache of the bootstrapped combined score distributions used to calculate the gene
+     *                              p-values. This can be shared between runners so that batch analyses of samples with
+     *                              the same phenotypes and prioritiser only bootstrap the distribution once.
+     * @since 13.2.0
+     */
+    protected AbstractAnalysisRunner(GenomeAnalysisService genomeAnalysisService, VariantFilterRunner variantFilterRunner, GeneFilterRunner geneFilterRunner, int variantProcessingThreads, CombinedScorePvalueCalculatorCache pvalueCalculatorCache) {
+        if (variantProcessingThreads < 1) {
+            throw new IllegalArgumentException("variantProcessingThreads must be greater than 0, but was " + variantProcessingThreads);
+        }
         this.genomeAnalysisService = genomeAnalysisService;
 
         this.variantFilterRunner = variantFilterRunner;
         this.geneFilterRunner = geneFilterRunner;
+        this.variantProcessingThreads = variantProcessingThreads;
+        this.pvalueCalculatorCache = Objects.requireNonNull(pvalueCalculatorCache);
     }
 
     @Override
@@ -73,11 +104,12 @@ public AnalysisResults run(Sample sample, Analysis analysis) {
         // all the sample-related bits, might be worth encapsulating
         Path vcfPath = sample.getVcfPath();
         VcfReader vcfReader = vcfPath == null ? new NoOpVcfReader() : new VcfFileReader(vcfPath);
-        // n.b. this next block will safely handle a null VCF file
-        VariantFactory variantFactory = new VariantFactoryImpl(genomeAnalysisService.getVariantAnnotator(), vcfReader);
 
         List<String> sampleNames = vcfReader.readSampleIdentifiers();
         String probandIdentifier = SampleIdentifiers.checkProbandIdentifier(sample.getProbandSampleName(), sampleNames);
+        // n.b. this next block will safely handle a null VCF file. Only alleles observed in the proband are wanted so
+        // this check is pushed down into the VariantFactory to avoid needlessly annotating all the other alleles.
+        VariantFactoryImpl variantFactory = new VariantFactoryImpl(genomeAnalysisService.getVariantAnnotator(), vcfReader, VcfAllelePredicate.sampleHasAltAllele(probandIdentifier));
         Pedigree validatedPedigree = PedigreeSampleValidator.validate(sample.getPedigree(), probandIdentifier, sampleNames);
         InheritanceModeOptions inheritanceModeOptions = analysis.getInheritanceModeOptions();
 
@@ -110,7 +142,7 @@ public AnalysisResults run(Sample sample, Analysis analysis) {
                 // Variants take up 99% of all the memory in an analysis - this scales approximately linearly with the
                 //  sample size so for whole genomes this is best run as a stream to filter out the unwanted variants
                 //  with as many filters as possible in one go
-                variantEvaluations = loadAndFilterVariants(variantFactory, probandIdentifier, allGenes, analysisGroup, analysis, filterStats);
+                variantEvaluations = loadAndFilterVariants(vcfReader, variantFactory, allGenes, analysisGroup, analysis, filterStats);
                 // This is done here as there are GeneFilter steps which may require Variants in the genes, or the
                 //  InheritanceModeDependent steps which definitely need them...
                 assignVariantsToGenes(variantEvaluations, allGenes);
@@ -129,7 +161,7 @@ public AnalysisResults run(Sample sample, Analysis analysis) {
         // If no variant steps have been run and there is a VCF present, don't load it here - See issues #129, #478
         List<Gene> genesToScore = variantsLoaded ? getGenesWithVariants(allGenes) : allGenes.values().stream().filter(genesToScore()).collect(Collectors.toUnmodifiableList());
         // Temporarily add a new PValueGeneScorer so as not to break semver will revert to RawScoreGeneScorer in 14.0.0
-        CombinedScorePvalueCalculator combinedScorePvalueCalculator = buildCombinedScorePvalueCalculator(sample, analysis, genesToScore.size());
+        CombinedScorePvalueCalculator combinedScorePvalueCalculator = buildCombinedScorePvalueCalculator(analysis, sample.getHpoIds(), allGenes.values(), genesToScore.size());
         GeneScorer geneScorer = new PvalueGeneScorer(probandIdentifier, sample.getSex(), inheritanceModeAnnotator, combinedScorePvalueCalculator);
 
         logger.info("Scoring genes");
@@ -171,10 +203,20 @@ private void logWarningIfSubOptimalAnalysisSumbitted(List<AnalysisGroup> analysi
         }
     }
 
-    private CombinedScorePvalueCalculator buildCombinedScorePvalueCalculator(Sample sample, Analysis analysis, int numFilteredGenes) {
+    /**
+     * The main prioritiser has already been run over all the known genes as one of the analysis steps, regardless of
+     * whether they passed the filters, so these results are re-used for the phenotype score cache rather than running
+     * the prioritiser a second time on a fresh set of genes. The resulting distribution only depends on the prioritiser
+     * and the sample phenotypes, so it is cached for re-use by subsequent analyses.
+     */
+    private CombinedScorePvalueCalculator buildCombinedScorePvalueCalculator(Analysis analysis, List<String> hpoIds, Collection<Gene> allGenes, int numFilteredGenes) {
         var prioritiser = analysis.getMainPrioritiser();
-        List<Gene> knownGenes = genomeAnalysisService.getKnownGenes();
-        return prioritiser == null ? CombinedScorePvalueCalculator.withRandomScores(0, knownGenes.size(), numFilteredGenes) : CombinedScorePvalueCalculator.of(0, prioritiser, sample.getHpoIds(), knownGenes, numFilteredGenes);
+        if (prioritiser == null) {
+            return CombinedScorePvalueCalculator.withRandomScores(0, allGenes.size(), numFilteredGenes);
+        }
+        int bootstrapPopulation = pvalueCalculatorCache.getBootstrapPopulation();
+        return pvalueCalculatorCache.getOrCreate(genomeAnalysisService.getGenomeAssembly(), prioritiser, hpoIds,
+                () -> CombinedScorePvalueCalculator.fromPrioritisedGenes(prioritiser.getPriorityType(), allGenes, bootstrapPopulation));
     }
 
     /**
@@ -186,31 +228,60 @@ private Map<String, Gene> makeKnownGenes() {
                 .collect(toConcurrentMap(Gene::getGeneSymbol, Function.identity()));
     }
 
-    private List<VariantEvaluation> loadAndFilterVariants(VariantFactory variantFactory, String probandIdentifier, Map<String, Gene> allGenes, AnalysisGroup analysisGroup, Analysis analysis, FilterStats filterStats) {
+    private List<VariantEvaluation> loadAndFilterVariants(VcfReader vcfReader, VariantFactoryImpl variantFactory, Map<String, Gene> allGenes, AnalysisGroup analysisGroup, Analysis analysis, FilterStats filterStats) {
         GeneReassigner geneReassigner = createNonCodingVariantGeneReassigner(analysis, allGenes);
         List<VariantFilter> variantFilters = prepareVariantFilterSteps(analysis, analysisGroup);
 
         List<VariantEvaluation> filteredVariants;
         VariantLogger variantLogger = new VariantLogger();
 
-        // this can be done using parallel which dramatically reduces runtime at the expense of RAM and
-        //  inability to scale past one job running on one machine
-        try (Stream<VariantEvaluation> variantStream = variantFactory.createVariantEvaluations()) {
-                    filteredVariants = variantStream
-//                        .parallel()
-                        .peek(variantLogger.logLoadedAndPassedVariants())
-                        .filter(isObservedInProband(probandIdentifier))
-                        .map(geneReassigner::reassignRegulatoryAndNonCodingVariantAnnotations)
-                        .map(flagWhiteListedVariants())
-                        .filter(isAssociatedWithKnownGene(allGenes))
-                        .filter(runVariantFilters(variantFilters, filterStats))
-                        .peek(variantLogger.countPassedVariant())
+        // n.b. alleles not observed in the proband have already been removed by the VariantFactory
+        BiFunction<Stream<VariantEvaluation>, VariantCounter, Stream<VariantEvaluation>> loadAndFilter = (variants, variantCounter) -> variants
+                .peek(variantCounter::countLoaded)
+                .map(geneReassigner::reassignRegulatoryAndNonCodingVariantAnnotations)
+                .map(flagWhiteListedVariants())
+                .filter(isAssociatedWithKnownGene(allGenes))
+                .filter(runVariantFilters(variantFilters, filterStats))
+                .peek(variantCounter::countPassed);
+
+        if (variantProcessingThreads == 1) {
+            try (Stream<VariantEvaluation> variantStream = variantFactory.createVariantEvaluations()) {
+                filteredVariants = loadAndFilter.apply(variantStream, variantLogger)
                         .collect(Collectors.toUnmodifiableList());
+            }
+        } else {
+            // Decode the VCF on one thread, annotate and filter on the workers and collect the results in VCF order. The
+            // number of records in-flight is bounded so the memory use is the same as for the sequential stream.
+            logger.info("Loading and filtering variants using {} threads", variantProcessingThreads);
+            OrderedParallelPipeline pipeline = new OrderedParallelPipeline(variantProcessingThreads);
+            try (Stream<VariantContext> variantContexts = vcfReader.readVariantContexts().peek(AbstractAnalysisRunner::decodeGenotypes)) {
+                List<VariantEvaluation> processed = pipeline.processBatches(variantContexts, batch -> {
+                    // counted locally so that the workers only update the shared counts once per batch
+                    BatchVariantCounter batchCounter = new BatchVariantCounter();
+                    List<VariantEvaluation> batchResults = loadAndFilter.apply(batch.stream().flatMap(variantContext -> variantFactory.createVariantEvaluations(variantContext).stream()), batchCounter)
+                            .collect(Collectors.toList());
+                    variantLogger.add(batchCounter.loaded, batchCounter.passed);
+                    return batchResults;
+                });
+                filteredVariants = List.copyOf(processed);
+            }
+            variantFactory.logVariantEvaluationsCount();
         }
         variantLogger.logResults();
         return filteredVariants;
     }
 
+    /**
+     * htsjdk decodes the genotypes of a record lazily, using buffers shared by all the records read by the codec, so
+     * these must be decoded on the thread reading the VCF before the record is handed over to a worker thread.
+     */
+    private static void decodeGenotypes(VariantContext variantContext) {
+        GenotypesContext genotypes = variantContext.getGenotypes();
+        if (genotypes instanceof LazyGenotypesContext) {
+            ((LazyGenotypesContext) genotypes).decode();
+        }
+    }
+
     // TODO: might be worth pulling out into an AnalysisSupport class or adding to the GenomeAnalysisService?
     private GeneReassigner createNonCodingVariantGeneReassigner(Analysis analysis, Map<String, Gene> allGenes) {
         ChromosomalRegionIndex<TopologicalDomain> tadIndex = genomeAnalysisService.getTopologicallyAssociatedDomainIndex();
@@ -222,18 +293,64 @@ private GeneReassigner createNonCodingVariantGeneReassigner(Analysis analysis, M
     private List<VariantFilter> prepareVariantFilterSteps(Analysis analysis, AnalysisGroup analysisGroup) {
         logger.info("Filtering variants with:");
         List<VariantFilter> list = new ArrayList<>();
+        VariantDataLoader variantDataLoader = createVariantDataLoader(analysis, analysisGroup);
+        boolean variantDataProvided = false;
         for (AnalysisStep analysisStep : analysisGroup.getAnalysisSteps()) {
             if (analysisStep instanceof VariantFilter) {
                 logger.info("{}", analysisStep);
-                VariantFilter variantFilter = wrapWithFilterDataProvider((VariantFilter) analysisStep, analysis);
-                list.add(variantFilter);
+                VariantFilter variantFilter = (VariantFilter) analysisStep;
+                if (variantDataLoader != null && requiresVariantData(variantFilter)) {
+                    // Every variant is run through the filters in order, so the data loaded for the first of the
+                    // filters requiring it is already present for the others.
+                    list.add(variantDataProvided ? variantFilter : wrapWithVariantDataProvider(variantFilter, variantDataLoader));
+                    variantDataProvided = true;
+                } else {
+                    list.add(wrapWithFilterDataProvider(variantFilter, analysis));
+                }
             }
         }
         return list;
     }
 
+    private VariantFilter wrapWithVariantDataProvider(VariantFilter variantFilter, VariantDataLoader variantDataLoader) {
+        logger.info("Wrapping {} with VariantDataProvider for {}", variantFilter, variantDataLoader);
+        return new VariantDataProvider(variantDataLoader, variantFilter);
+    }
+
+    @Nullable
+    private VariantDataLoader createVariantDataLoader(Analysis analysis, AnalysisGroup analysisGroup) {
+        // Variants failing a filter might not be run through the remaining filters, so there is no point in sharing a
+        // lookup which would load the (slow) tabix data for all variants rather than only those requiring it.
+        if (requiresFrequencyAndPathogenicityData(analysisGroup) && !VariantDataServiceImpl.containsTabixSource(analysis.getPathogenicitySources())) {
+            return new VariantDataLoader(genomeAnalysisService, analysis.getFrequencySources(), analysis.getPathogenicitySources());
+        }
+        return null;
+    }
+
+    private boolean requiresFrequencyAndPathogenicityData(AnalysisGroup analysisGroup) {
+        boolean requiresFrequencyData = false;
+        boolean requiresPathogenicityData = false;
+        for (AnalysisStep analysisStep : analysisGroup.getAnalysisSteps()) {
+            requiresFrequencyData |= requiresFrequencyData(analysisStep);
+            requiresPathogenicityData |= analysisStep instanceof PathogenicityFilter;
+        }
+        return requiresFrequencyData && requiresPathogenicityData;
+    }
+
+    private boolean requiresFrequencyData(AnalysisStep analysisStep) {
+        return analysisStep instanceof FrequencyFilter || analysisStep instanceof KnownVariantFilter;
+    }
+
+    private boolean requiresVariantData(AnalysisStep analysisStep) {
+        return requiresFrequencyData(analysisStep) || analysisStep instanceof PathogenicityFilter;
+    }
+
+    /**
+     * Wraps the filter with the provider for the data it requires. Only the data required by the filter will be
+     * looked-up.
+     */
     private VariantFilter wrapWithFilterDataProvider(VariantFilter variantFilter, Analysis analysis) {
-        if (variantFilter instanceof FrequencyFilter || variantFilter instanceof KnownVariantFilter) {
+        if (requiresFrequencyData(variantFilter)) {
             logger.info("Wrapping {} with VariantDataProvider for sources {}", variantFilter, analysis.getFrequencySources());
             return new FrequencyDataProvider(genomeAnalysisService, analysis.getFrequencySources(), variantFilter);
         }
@@ -244,16 +361,6 @@ private VariantFilter wrapWithFilterDataProvider(VariantFilter variantFilter, An
         return variantFilter;
     }
 
-    private Predicate<VariantEvaluation> isObservedInProband(String probandId) {
-        // gnomAD high quality criteria: (GQ >= 20, DP >= 10, and have now added: allele balance > 0.2 for heterozygote genotypes)
-        return variantEvaluation -> {
-            SampleGenotype probandGenotype = variantEvaluation.getSampleGenotype(probandId);
-            // Getting a SampleGenotype.empty() really shouldn't happen, as the samples and pedigree should have been checked previously
-            // only add VariantEvaluation where the proband has an ALT allele (OTHER_ALT should be present as an ALT in another VariantEvaluation)
-            return probandGenotype.getCalls().contains(AlleleCall.ALT);
-        };
-    }
-
     private UnaryOperator<VariantEvaluation> flagWhiteListedVariants() {
         return variantEvaluation -> {
             if (genomeAnalysisService.variantIsWhiteListed(variantEvaluation)) {
@@ -376,27 +483,65 @@ private void collectFilterStatsForFilter(Filter<?> filter, List<Gene> genes, Fil
     }
 
     /**
-     * Utility class for logging numbers of processed and passed variants.
+     * Counts the variants loaded from the VCF and those which passed the variant filters.
      */
-    private static class VariantLogger {
-        private final AtomicInteger loaded = new AtomicInteger();
-        private final AtomicInteger passed = new AtomicInteger();
-
-        private Consumer<VariantEvaluation> logLoadedAndPassedVariants() {
-            return variantEvaluation -> {
-                loaded.incrementAndGet();
-                if (loaded.get() % 100000 == 0) {
-                    logger.info("Loaded {} variants - {} passed variant filters...", loaded.get(), passed.get());
-                }
-            };
+    private interface VariantCounter {
+
+        void countLoaded(VariantEvaluation variantEvaluation);
+
+        void countPassed(VariantEvaluation variantEvaluation);
+    }
+
+    /**
+     * Counts for a single batch of variants processed by one thread.
+     */
+    private static class BatchVariantCounter implements VariantCounter {
+        private long loaded;
+        private long passed;
+
+        @Override
+        public void countLoaded(VariantEvaluation variantEvaluation) {
+            loaded++;
         }
 
-        private Consumer<VariantEvaluation> countPassedVariant() {
-            return variantEvaluation -> {
-                if (variantEvaluation.passedFilters()) {
-                    passed.incrementAndGet();
-                }
-            };
+        @Override
+        public void countPassed(VariantEvaluation variantEvaluation) {
+            if (variantEvaluation.passedFilters()) {
+                passed++;
+            }
+        }
+    }
+
+    /**
+     * Utility class for logging numbers of processed and passed variants. When loading the variants sequentially this
+     * counts each variant, otherwise the workers add the counts of each batch.
+     */
+    private static class VariantLogger implements VariantCounter {
+
+        private static final long PROGRESS_INTERVAL = 100000;
+
+        private final AtomicLong loaded = new AtomicLong();
+        private final AtomicLong passed = new AtomicLong();
+
+        @Override
+        public void countLoaded(VariantEvaluation variantEvaluation) {
+            add(1, 0);
+        }
+
+        @Override
+        public void countPassed(VariantEvaluation variantEvaluation) {
+            if (variantEvaluation.passedFilters()) {
+                passed.incrementAndGet();
+            }
+        }
+
+        void add(long loadedCount, long passedCount) {
+            long passedTotal = passed.addAndGet(passedCount);
+            long loadedTotal = loaded.addAndGet(loadedCount);
+            // log each time the total passes another multiple of the interval
+            if (loadedTotal / PROGRESS_INTERVAL > (loadedTotal - loadedCount) / PROGRESS_INTERVAL) {
+                logger.info("Loaded {} variants - {} passed variant filters...", loadedTotal, passedTotal);
+            }
         }
 
         void logResults() {
@@ -21,6 +21,7 @@
 package org.monarchinitiative.exomiser.core.analysis;
 
 import org.monarchinitiative.exomiser.core.Exomiser;
+import org.monarchinitiative.exomiser.core.analysis.util.CombinedScorePvalueCalculator;
 import org.monarchinitiative.exomiser.core.genome.GenomeAnalysisService;
 import org.monarchinitiative.exomiser.core.genome.GenomeAnalysisServiceProvider;
 import org.monarchinitiative.exomiser.core.genome.GenomeAssembly;
@@ -28,8 +29,6 @@
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
 
 /**
  * High-level factory for creating an {@link Analysis} and {@link AnalysisRunner}. This is
@@ -41,20 +40,57 @@
  * @since 7.0.0
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
-@Component
 public class AnalysisFactory {
 
     private static final Logger logger = LoggerFactory.getLogger(AnalysisFactory.class);
 
+    /**
+     * @since 13.2.0
+     */
+    public static final int DEFAULT_VARIANT_PROCESSING_THREADS = 1;
+
     private final GenomeAnalysisServiceProvider genomeAnalysisServiceProvider;
     private final PriorityFactory priorityFactory;
     private final OntologyService ontologyService;
+    private final int variantProcessingThreads;
+    private final CombinedScorePvalueCalculatorCache pvalueCalculatorCache;
 
-    @Autowired
+    /**
+     * Creates an AnalysisFactory which processes the variants sequentially and uses the default p-value bootstrap
+     * population.
+     */
     public AnalysisFactory(GenomeAnalysisServiceProvider genomeAnalysisServiceProvider, PriorityFactory priorityFactory, OntologyService ontologyService) {
+        this(genomeAnalysisServiceProvider, priorityFactory, ontologyService, DEFAULT_VARIANT_PROCESSING_THREADS, CombinedScorePvalueCalculator.DEFAULT_BOOTSTRAP_POPULATION);
+    }
+
+    /**
+     * @param variantProcessingThreads  the number of threads each {@link AnalysisRunner} will use to annotate and filter
+     *                                  variants. {@link #DEFAULT_VARIANT_PROCESSING_THREADS} processes the variants
+     *                                  sequentially.
+     * @param pvalueBootstrapPopulation the number of combined scores bootstrapped to calculate the gene p-values,
+     *                                  by default {@link CombinedScorePvalueCalculator#DEFAULT_BOOTSTRAP_POPULATION}.
+     * @since 13.2.0
+     */
+    public AnalysisFactory(GenomeAnalysisServiceProvider genomeAnalysisServiceProvider, PriorityFactory priorityFactory, OntologyService ontologyService, int variantProcessingThreads, int pvalueBootstrapPopulation) {
+        if (variantProcessingThreads < 1) {
+            throw new IllegalArgumentException("exomiser.variant-processing-threads must be greater than 0, but was " + variantProcessingThreads);
+        }
+        if (pvalueBootstrapPopulation < 1) {
+            throw new IllegalArgumentException("exomiser.pvalue-bootstrap-population must be greater than 0, but was " + pvalueBootstrapPopulation);
+        }
         this.genomeAnalysisServiceProvider = genomeAnalysisServiceProvider;
         this.priorityFactory = priorityFactory;
         this.ontologyService = ontologyService;
+        this.variantProcessingThreads = variantProcessingThreads;
+        this.pvalueCalculatorCache = new CombinedScorePvalueCalculatorCache(pvalueBootstrapPopulation);
+    }
+
+    /**
+     * @return the number of threads each {@link AnalysisRunner} will use to annotate and filter variants.
+     * @since 13.2.0
+     */
+    public int getVariantProcessingThreads() {
+        return variantProcessingThreads;
     }
 
     public AnalysisRunner getAnalysisRunner(GenomeAssembly genomeAssembly, AnalysisMode analysisMode) {
@@ -65,11 +101,11 @@ public AnalysisRunner getAnalysisRunner(GenomeAssembly genomeAssembly, AnalysisM
 
         switch (analysisMode) {
             case FULL:
-                return new SimpleAnalysisRunner(genomeAnalysisService);
+                return new SimpleAnalysisRunner(genomeAnalysisService, variantProcessingThreads, pvalueCalculatorCache);
             case PASS_ONLY:
             default:
                 //this guy takes up the least RAM
-                return new PassOnlyAnalysisRunner(genomeAnalysisService);
+                return new PassOnlyAnalysisRunner(genomeAnalysisService, variantProcessingThreads, pvalueCalculatorCache);
         }
     }
 
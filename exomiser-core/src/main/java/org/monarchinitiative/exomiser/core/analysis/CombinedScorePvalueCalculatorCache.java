@@ -0,0 +1,119 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.monarchinitiative.exomiser.core.analysis.util.CombinedScorePvalueCalculator;
+import org.monarchinitiative.exomiser.core.genome.GenomeAssembly;
+import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Small LRU cache of {@link CombinedScorePvalueCalculator} keyed by the genome assembly, main {@link Prioritiser} and
+ * sample HPO ids. The bootstrapped combined score distribution only depends on the phenotype scores of the known genes,
+ * so batch runs of samples sharing the same phenotypes and prioritiser settings can re-use the same distribution rather
+ * than bootstrapping a new one for each sample.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+class CombinedScorePvalueCalculatorCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CombinedScorePvalueCalculatorCache.class);
+
+    static final int DEFAULT_MAX_SIZE = 16;
+
+    private final int bootstrapPopulation;
+    private final Map<Key, CombinedScorePvalueCalculator> cache;
+
+    CombinedScorePvalueCalculatorCache(int bootstrapPopulation) {
+        this(bootstrapPopulation, DEFAULT_MAX_SIZE);
+    }
+
+    CombinedScorePvalueCalculatorCache(int bootstrapPopulation, int maxSize) {
+        if (bootstrapPopulation < 1) {
+            throw new IllegalArgumentException("bootstrapPopulation must be greater than 0, but was " + bootstrapPopulation);
+        }
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative, but was " + maxSize);
+        }
+        this.bootstrapPopulation = bootstrapPopulation;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CombinedScorePvalueCalculator> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    int getBootstrapPopulation() {
+        return bootstrapPopulation;
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the cached {@link CombinedScorePvalueCalculator} for the given assembly, prioritiser and HPO ids or creates
+     * a new one using the supplied function. The order and duplication of the HPO ids is not significant.
+     */
+    CombinedScorePvalueCalculator getOrCreate(GenomeAssembly genomeAssembly, Prioritiser<?> prioritiser, Collection<String> hpoIds, Supplier<CombinedScorePvalueCalculator> calculatorSupplier) {
+        Key key = new Key(genomeAssembly, prioritiser, new TreeSet<>(hpoIds));
+        CombinedScorePvalueCalculator cached = cache.get(key);
+        if (cached != null) {
+            logger.debug("Using cached combined score distribution for {} {}", prioritiser.getPriorityType(), key.hpoIds);
+            return cached;
+        }
+        // built outside the lock so that concurrent analyses are not blocked by the bootstrapping
+        CombinedScorePvalueCalculator calculator = calculatorSupplier.get();
+        CombinedScorePvalueCalculator existing = cache.putIfAbsent(key, calculator);
+        return existing == null ? calculator : existing;
+    }
+
+    private static class Key {
+        private final GenomeAssembly genomeAssembly;
+        private final Prioritiser<?> prioritiser;
+        private final SortedSet<String> hpoIds;
+
+        private Key(GenomeAssembly genomeAssembly, Prioritiser<?> prioritiser, SortedSet<String> hpoIds) {
+            this.genomeAssembly = genomeAssembly;
+            this.prioritiser = prioritiser;
+            this.hpoIds = hpoIds;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return genomeAssembly == key.genomeAssembly && prioritiser.equals(key.prioritiser) && hpoIds.equals(key.hpoIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(genomeAssembly, prioritiser, hpoIds);
+        }
+    }
+}
@@ -24,29 +24,38 @@
 import org.monarchinitiative.exomiser.core.filters.FilterType;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
+ * Thread-safe counter of the filter results. This is called for every variant by each of the variant processing
+ * threads, so uses striped counters rather than synchronising on each result.
+ *
  * @since 12.0.0
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
  */
 class FilterStats {
 
-    private final Map<FilterType, FilterCounter> filterCounters = new EnumMap<>(FilterType.class);
-    // filtersRun requires an ordered map.
-    private final Set<FilterType> filtersRun = new LinkedHashSet<>();
+    private final ConcurrentMap<FilterType, FilterCounter> filterCounters = new ConcurrentHashMap<>();
+    // filtersRun requires an ordered set. This is very rarely written to and each thread will always add the filters in
+    // the same order, so the insertion order is preserved regardless of the number of threads adding results.
+    private final Set<FilterType> filtersRun = new CopyOnWriteArraySet<>();
 
-    public synchronized void addResult(FilterResult result) {
+    public void addResult(FilterResult result) {
         FilterType filterType = result.getFilterType();
-        filtersRun.add(filterType);
-
-        FilterCounter counter = filterCounters.getOrDefault(filterType, new FilterCounter());
+        FilterCounter counter = filterCounters.get(filterType);
+        if (counter == null) {
+            filtersRun.add(filterType);
+            counter = filterCounters.computeIfAbsent(filterType, key -> new FilterCounter());
+        }
         if (result.passed()) {
-            counter.passCount++;
+            counter.passCount.increment();
         } else if (result.failed()) {
-            counter.failCount++;
+            counter.failCount.increment();
         }
-        filterCounters.put(filterType, counter);
     }
 
     public int getPassCountForFilter(FilterType filterType) {
@@ -90,8 +99,8 @@ public static class FilterCount {
 
         private FilterCount(FilterType filterType, FilterCounter filterCounter) {
             this.filterType = filterType;
-            this.passCount = filterCounter.passCount;
-            this.failCount = filterCounter.failCount;
+            this.passCount = filterCounter.getPassCount();
+            this.failCount = filterCounter.getFailCount();
         }
 
         public FilterType getFilterType() {
@@ -132,15 +141,15 @@ public String toString() {
     }
 
     private static class FilterCounter {
-        int passCount = 0;
-        int failCount = 0;
+        final LongAdder passCount = new LongAdder();
+        final LongAdder failCount = new LongAdder();
 
         int getPassCount() {
-            return passCount;
+            return passCount.intValue();
         }
 
         int getFailCount() {
-            return failCount;
+            return failCount.intValue();
         }
     }
 
@@ -0,0 +1,198 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2022 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Staged, order-preserving pipeline for processing a {@link Stream} of inputs across several worker threads. Inputs are
+ * read from the source on a single decoding thread and submitted in batches to a fixed pool of worker threads. The
+ * results are collected on the calling thread in exactly the same order as the inputs were read from the source, so
+ * the output is identical to that of processing the inputs sequentially.
+ * <p>
+ * The number of batches in-flight is bounded so that the memory use of the pipeline remains flat regardless of the
+ * size of the input. This is intended for loading and filtering the variants from a VCF file, where the source is the
+ * decoded VCF records and the workers perform the annotation, data lookups and filtering.
+ *
+ * @since 13.2.0
+ */
+class OrderedParallelPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderedParallelPipeline.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final int workers;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+
+    OrderedParallelPipeline(int workers) {
+        this(workers, DEFAULT_BATCH_SIZE);
+    }
+
+    OrderedParallelPipeline(int workers, int batchSize) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be greater than 0, but was " + workers);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0, but was " + batchSize);
+        }
+        this.workers = workers;
+        this.batchSize = batchSize;
+        // enough to keep the workers busy while the collector is draining the head of the queue
+        this.maxBatchesInFlight = workers * 2;
+    }
+
+    int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Applies the processor function to each of the inputs from the source using the worker threads and returns the
+     * results in source order. The source {@link Stream} is not closed by this method.
+     *
+     * @param source    the input stream, read on a single thread.
+     * @param processor function to apply to each input. This MUST be thread-safe.
+     * @param <T>       input type
+     * @param <R>       output type
+     * @return a list of the results of applying the processor to each input in the same order as the source.
+     */
+    <T, R> List<R> process(Stream<T> source, Function<? super T, ? extends List<R>> processor) {
+        return processBatches(source, batch -> processBatch(batch, processor));
+    }
+
+    /**
+     * Applies the batch processor to each batch of inputs read from the source using the worker threads and returns the
+     * results in source order. This allows the processor to accumulate state, such as counts, locally for each batch
+     * rather than sharing it between the workers for every input. The source {@link Stream} is not closed by this
+     * method.
+     *
+     * @param source         the input stream, read on a single thread.
+     * @param batchProcessor function to apply to each batch of inputs, returning the results in input order. This MUST
+     *                       be thread-safe.
+     * @param <T>            input type
+     * @param <R>            output type
+     * @return a list of the results of applying the processor to each batch in the same order as the source.
+     */
+    <T, R> List<R> processBatches(Stream<T> source, Function<? super List<T>, ? extends List<R>> batchProcessor) {
+        ExecutorService workerPool = Executors.newFixedThreadPool(workers, namedDaemonThreadFactory("exomiser-variant-worker"));
+        // The bounded queue of pending batches provides the back-pressure on the decoding thread
+        BlockingQueue<Future<List<R>>> pendingBatches = new ArrayBlockingQueue<>(maxBatchesInFlight);
+        Future<List<R>> endOfInput = CompletableFuture.completedFuture(List.of());
+        AtomicReference<RuntimeException> decoderException = new AtomicReference<>();
+
+        Thread decoder = namedDaemonThreadFactory("exomiser-variant-decoder").newThread(() -> {
+            try {
+                Iterator<T> iterator = source.iterator();
+                while (iterator.hasNext() && !Thread.currentThread().isInterrupted()) {
+                    List<T> batch = new ArrayList<>(batchSize);
+                    while (batch.size() < batchSize && iterator.hasNext()) {
+                        batch.add(iterator.next());
+                    }
+                    pendingBatches.put(workerPool.submit(() -> Collections.<R>unmodifiableList(batchProcessor.apply(batch))));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                decoderException.set(e);
+            } finally {
+                putEndOfInput(pendingBatches, endOfInput);
+            }
+        });
+
+        decoder.start();
+        List<R> results = new ArrayList<>();
+        try {
+            Future<List<R>> batchResult;
+            while ((batchResult = pendingBatches.take()) != endOfInput) {
+                results.addAll(batchResult.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing variants", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            // stop the decoder and workers should the collector have failed
+            decoder.interrupt();
+            pendingBatches.clear();
+            workerPool.shutdownNow();
+            joinQuietly(decoder);
+        }
+        if (decoderException.get() != null) {
+            throw decoderException.get();
+        }
+        return results;
+    }
+
+    private static <T, R> List<R> processBatch(List<T> batch, Function<? super T, ? extends List<R>> processor) {
+        List<R> batchResults = new ArrayList<>(batch.size());
+        for (T input : batch) {
+            batchResults.addAll(processor.apply(input));
+        }
+        return batchResults;
+    }
+
+    private static <R> void putEndOfInput(BlockingQueue<Future<List<R>>> pendingBatches, Future<List<R>> endOfInput) {
+        try {
+            pendingBatches.put(endOfInput);
+        } catch (InterruptedException e) {
+            // the collector has given up and will not be waiting for the end of the input
+            logger.debug("Decoder interrupted before end of input was signalled");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory namedDaemonThreadFactory(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
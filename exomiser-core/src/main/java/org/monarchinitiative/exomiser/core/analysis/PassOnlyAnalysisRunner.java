@@ -44,6 +44,14 @@ class PassOnlyAnalysisRunner extends AbstractAnalysisRunner {
         super(genomeAnalysisService, new SparseVariantFilterRunner(), new SimpleGeneFilterRunner());
     }
 
+    PassOnlyAnalysisRunner(GenomeAnalysisService genomeAnalysisService, int variantProcessingThreads) {
+        super(genomeAnalysisService, new SparseVariantFilterRunner(), new SimpleGeneFilterRunner(), variantProcessingThreads);
+    }
+
+    PassOnlyAnalysisRunner(GenomeAnalysisService genomeAnalysisService, int variantProcessingThreads, CombinedScorePvalueCalculatorCache pvalueCalculatorCache) {
+        super(genomeAnalysisService, new SparseVariantFilterRunner(), new SimpleGeneFilterRunner(), variantProcessingThreads, pvalueCalculatorCache);
+    }
+
     @Override
     protected Predicate<VariantEvaluation> isAssociatedWithKnownGene(Map<String, Gene> genes) {
         return variantEvaluation -> {
@@ -43,6 +43,14 @@ class SimpleAnalysisRunner extends AbstractAnalysisRunner {
         super(genomeAnalysisService, new SimpleVariantFilterRunner(), new SimpleGeneFilterRunner());
     }
 
+    SimpleAnalysisRunner(GenomeAnalysisService genomeAnalysisService, int variantProcessingThreads) {
+        super(genomeAnalysisService, new SimpleVariantFilterRunner(), new SimpleGeneFilterRunner(), variantProcessingThreads);
+    }
+
+    SimpleAnalysisRunner(GenomeAnalysisService genomeAnalysisService, int variantProcessingThreads, CombinedScorePvalueCalculatorCache pvalueCalculatorCache) {
+        super(genomeAnalysisService, new SimpleVariantFilterRunner(), new SimpleGeneFilterRunner(), variantProcessingThreads, pvalueCalculatorCache);
+    }
+
     @Override
     protected Predicate<VariantEvaluation> isAssociatedWithKnownGene(Map<String, Gene> genes) {
         return variantEvaluation -> genes.containsKey(variantEvaluation.getGeneSymbol());
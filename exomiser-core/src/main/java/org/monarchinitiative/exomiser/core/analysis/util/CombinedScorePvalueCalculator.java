@@ -16,33 +16,53 @@
  */
 public class CombinedScorePvalueCalculator {
 
+    /**
+     * The default number of bootstrapped combined scores. The value of 500K was chosen to be suitably large that either
+     * an exome or genome's worth of returned variants (hundreds to thousands) will have a significant population to be
+     * compared with.
+     *
+     * @since 13.2.0
+     */
+    public static final int DEFAULT_BOOTSTRAP_POPULATION = 500_000;
+
     private static final Logger logger = LoggerFactory.getLogger(CombinedScorePvalueCalculator.class);
     private final Set<PriorityType> priorityTypes;
+    // sorted in ascending order so that the p-value can be found using a binary search
     private final double[] bootstrappedScores;
 
     private CombinedScorePvalueCalculator(PriorityType prioritiserType, double[] phenoScoreCache) {
-        // Create a constant-sized population of 500K combined scores so that the combined score p-value calculation
-        // always runs in an acceptable time for any analysis combination (WGS/ES, FULL/PASS_ONLY). The value of 500K
-        // was chosen to be suitably large that either an exome or genome's worth of returned variants (hundreds to thousands)
-        // will have a significant population to be compared with.
+        this(prioritiserType, phenoScoreCache, DEFAULT_BOOTSTRAP_POPULATION, new SplittableRandom());
+    }
+
+    private CombinedScorePvalueCalculator(PriorityType prioritiserType, double[] phenoScoreCache, int population, SplittableRandom random) {
+        // Create a constant-sized population of combined scores so that the combined score p-value calculation
+        // always runs in an acceptable time for any analysis combination (WGS/ES, FULL/PASS_ONLY).
+        if (population < 1) {
+            throw new IllegalArgumentException("Bootstrap population must be greater than 0, but was " + population);
+        }
         this.priorityTypes = Set.of(prioritiserType);
-        long population = 500_000L;
-        // TODO: Replace Random with java.util.random.RandomGenerator when upgrading java version >= 17
-        this.bootstrappedScores = phenoScoreCache.length == 0 ? new double[]{} : new Random()
-                .ints(population, 0, phenoScoreCache.length)
-                .parallel()
-                .mapToDouble(index -> {
-                    double randomPhenoScore = phenoScoreCache[index];
-                    double randomVariantScore = ThreadLocalRandom.current().nextDouble();
-                    return GeneScorer.calculateCombinedScore(randomVariantScore, randomPhenoScore, priorityTypes);
-                })
-                .toArray();
+        this.bootstrappedScores = phenoScoreCache.length == 0 ? new double[]{} : bootstrapCombinedScores(phenoScoreCache, population, random, priorityTypes);
         logger.debug("Created bootstrapped population of {}", bootstrappedScores.length);
-        SummaryStatistics summaryStatistics = new SummaryStatistics(bootstrappedScores);
         if (logger.isDebugEnabled()) {
+            SummaryStatistics summaryStatistics = new SummaryStatistics(bootstrappedScores);
             logger.debug("Combined score distribution:\n{}", summaryStatistics.asciiDistribution(bootstrappedScores));
+            logger.debug("Combined score {}", summaryStatistics);
+        }
+    }
+
+    /**
+     * Draws the population sequentially from a single {@link SplittableRandom} so that the same seed will always produce
+     * the same population. The scores are returned sorted in ascending order, i.e. as an empirical CDF.
+     */
+    private static double[] bootstrapCombinedScores(double[] phenoScoreCache, int population, SplittableRandom random, Set<PriorityType> priorityTypes) {
+        double[] combinedScores = new double[population];
+        for (int i = 0; i < population; i++) {
+            double randomPhenoScore = phenoScoreCache[random.nextInt(phenoScoreCache.length)];
+            double randomVariantScore = random.nextDouble();
+            combinedScores[i] = GeneScorer.calculateCombinedScore(randomVariantScore, randomPhenoScore, priorityTypes);
         }
-        logger.debug("Combined score {}", summaryStatistics);
+        Arrays.sort(combinedScores);
+        return combinedScores;
     }
 
     /**
@@ -79,9 +99,56 @@ public static CombinedScorePvalueCalculator noOpCombinedScorePvalueCalculator()
         return NoOpPvalueScorer.instance();
     }
 
+    /**
+     * Creates a {@link CombinedScorePvalueCalculator} from genes which have already been prioritised with a
+     * {@link Prioritiser} of the given {@link PriorityType}, so that the prioritiser does not need to be run a second
+     * time. The genes should be the complete set of known genes, not just those which passed the filters. Genes without
+     * a {@link PriorityResult} of the given type are given a phenotype score of 0.
+     *
+     * @param priorityType     the type of the main prioritiser used to score the genes
+     * @param prioritisedGenes all the known genes, prioritised with the main prioritiser
+     * @return a {@link CombinedScorePvalueCalculator} instance
+     * @since 13.2.0
+     */
+    public static CombinedScorePvalueCalculator fromPrioritisedGenes(PriorityType priorityType, Collection<Gene> prioritisedGenes) {
+        return fromPrioritisedGenes(priorityType, prioritisedGenes, DEFAULT_BOOTSTRAP_POPULATION);
+    }
+
+    /**
+     * Creates a {@link CombinedScorePvalueCalculator} from genes which have already been prioritised with a
+     * {@link Prioritiser} of the given {@link PriorityType}, bootstrapping a population of the specified size. Larger
+     * populations give a finer resolution of p-values at the cost of a longer set-up time and more memory (8 bytes per
+     * score).
+     *
+     * @param priorityType        the type of the main prioritiser used to score the genes
+     * @param prioritisedGenes    all the known genes, prioritised with the main prioritiser
+     * @param bootstrapPopulation the number of combined scores to bootstrap. Must be greater than 0.
+     * @return a {@link CombinedScorePvalueCalculator} instance
+     * @since 13.2.0
+     */
+    public static CombinedScorePvalueCalculator fromPrioritisedGenes(PriorityType priorityType, Collection<Gene> prioritisedGenes, int bootstrapPopulation) {
+        Objects.requireNonNull(priorityType);
+        Objects.requireNonNull(prioritisedGenes);
+        logger.debug("Setting up phenotype score cache from {} prioritised genes", prioritisedGenes.size());
+        var phenoScoreCache = collectPhenoScores(priorityType, prioritisedGenes);
+        logger.debug("Creating {} bootstrapped combined scores...", bootstrapPopulation);
+        return new CombinedScorePvalueCalculator(priorityType, phenoScoreCache, bootstrapPopulation, new SplittableRandom());
+    }
+
+    /**
+     * Creates a {@link CombinedScorePvalueCalculator} with a reproducible population drawn from the supplied phenotype
+     * scores using the given seed.
+     */
+    static CombinedScorePvalueCalculator fromPhenoScores(PriorityType priorityType, double[] phenoScores, int bootstrapPopulation, long seed) {
+        return new CombinedScorePvalueCalculator(priorityType, phenoScores, bootstrapPopulation, new SplittableRandom(seed));
+    }
+
     private static double[] generatePhenoScoreCache(Prioritiser<?> prioritiser, List<String> hpoIds, List<Gene> genes) {
         prioritiser.prioritizeGenes(hpoIds, genes);
-        PriorityType priorityType = prioritiser.getPriorityType();
+        return collectPhenoScores(prioritiser.getPriorityType(), genes);
+    }
+
+    private static double[] collectPhenoScores(PriorityType priorityType, Collection<Gene> genes) {
         return genes.stream()
                 .mapToDouble(gene -> {
                     PriorityResult priorityResult = gene.getPriorityResult(priorityType);
@@ -94,20 +161,40 @@ private static double[] generatePhenoScoreCache(Prioritiser<?> prioritiser, List
     }
 
     double calculatePvalueFromCombinedScore(double combinedScore) {
-        // this is run in a hot loop for the gene score calculation, so pre-compute the population statistics on class
-        // instantiation
+        // this is run in a hot loop for the gene score calculation, so the population is sorted on class instantiation
+        // and the number of scores >= combinedScore found with a binary search rather than a scan of the population
         if (combinedScore == 0 || bootstrappedScores.length == 0) {
             return 1d;
         }
-        int numHigherScores = 1;
-        for (int i = 0; i < bootstrappedScores.length; ++i) {
-            double randomCombined = bootstrappedScores[i];
-            if (randomCombined >= combinedScore) {
-                ++numHigherScores;
+        int numHigherScores = 1 + bootstrappedScores.length - lowerBound(bootstrappedScores, combinedScore);
+        return (double) numHigherScores / bootstrappedScores.length;
+    }
+
+    /**
+     * Returns the index of the first element in the sorted array which is greater than or equal to the key, or the
+     * length of the array if there is no such element. Unlike {@link Arrays#binarySearch(double[], double)} this is
+     * well-defined for arrays containing duplicate values.
+     */
+    private static int lowerBound(double[] sortedValues, double key) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
+        return low;
+    }
 
-        return (double) numHigherScores / bootstrappedScores.length;
+    /**
+     * @return the bootstrapped combined scores, sorted in ascending order. This is the backing array and must not be
+     * modified.
+     */
+    double[] bootstrappedScores() {
+        return bootstrappedScores;
     }
 
     private static class NoOpPvalueScorer extends CombinedScorePvalueCalculator {
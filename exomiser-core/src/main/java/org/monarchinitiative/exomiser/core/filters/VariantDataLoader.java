@@ -0,0 +1,83 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.filters;
+
+import org.monarchinitiative.exomiser.core.genome.VariantDataService;
+import org.monarchinitiative.exomiser.core.model.VariantData;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Loads the frequency and pathogenicity data for a {@link VariantEvaluation} using a single combined lookup. This is
+ * used by a {@link VariantDataProvider} decorating the first of the filters of an analysis which require the data. As
+ * each variant is run through the filters in order, the data will already be present for the subsequent filters.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class VariantDataLoader {
+
+    private final VariantDataService variantDataService;
+    private final Set<FrequencySource> frequencySources;
+    private final Set<PathogenicitySource> pathogenicitySources;
+
+    public VariantDataLoader(VariantDataService variantDataService, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+        this.variantDataService = variantDataService;
+        this.frequencySources = frequencySources.isEmpty() ? EnumSet.noneOf(FrequencySource.class) : EnumSet.copyOf(frequencySources);
+        this.pathogenicitySources = pathogenicitySources.isEmpty() ? EnumSet.noneOf(PathogenicitySource.class) : EnumSet.copyOf(pathogenicitySources);
+    }
+
+    VariantDataService getVariantDataService() {
+        return variantDataService;
+    }
+
+    /**
+     * Adds the frequency and pathogenicity data to the variant. Data already set on the variant, for instance from the
+     * input VCF, is not replaced.
+     *
+     * @param variantEvaluation the variant to add the data to
+     */
+    public void loadVariantData(VariantEvaluation variantEvaluation) {
+        boolean requiresFrequencyData = !variantEvaluation.getFrequencyData().hasKnownFrequency();
+        boolean requiresPathogenicityData = variantEvaluation.getPathogenicityData().isEmpty();
+        if (requiresFrequencyData || requiresPathogenicityData) {
+            VariantData variantData = variantDataService.getVariantData(variantEvaluation, frequencySources, pathogenicitySources);
+            if (requiresFrequencyData) {
+                variantEvaluation.setFrequencyData(variantData.getFrequencyData());
+            }
+            if (requiresPathogenicityData) {
+                variantEvaluation.setPathogenicityData(variantData.getPathogenicityData());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VariantDataLoader{" +
+                "frequencySources=" + frequencySources +
+                ", pathogenicitySources=" + pathogenicitySources +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.filters;
+
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+
+/**
+ * Decorator implementation to provide both the frequency and pathogenicity data to the variant just before it is
+ * needed by the decorated VariantFilter. Only the first of the filters of an analysis requiring this data should be
+ * decorated, so that the data for each variant is only looked-up once.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class VariantDataProvider extends AbstractFilterDataProvider {
+
+    private final VariantDataLoader variantDataLoader;
+
+    public VariantDataProvider(VariantDataLoader variantDataLoader, VariantFilter variantFilter) {
+        super(variantDataLoader.getVariantDataService(), variantFilter);
+        this.variantDataLoader = variantDataLoader;
+    }
+
+    @Override
+    public void provideVariantData(VariantEvaluation variantEvaluation) {
+        variantDataLoader.loadVariantData(variantEvaluation);
+    }
+
+}
@@ -92,6 +92,11 @@ public PathogenicityData getVariantPathogenicityData(Variant variant, Set<Pathog
         return variantDataService.getVariantPathogenicityData(variant, pathogenicitySources);
     }
 
+    @Override
+    public VariantData getVariantData(Variant variant, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+        return variantDataService.getVariantData(variant, frequencySources, pathogenicitySources);
+    }
+
 //    @Override
 //    public Stream<VariantEvaluation> createVariantEvaluations(Stream<VariantContext> variantContextStream) {
 //        return variantFactory.createVariantEvaluations(variantContextStream);
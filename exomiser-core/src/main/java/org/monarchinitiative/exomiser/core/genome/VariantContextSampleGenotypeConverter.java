@@ -65,17 +65,8 @@ public static SampleGenotypes createAlleleSampleGenotypes(VariantContext variant
         for (Genotype genotype : variantContext.getGenotypes()) {
             logger.debug("Building sample genotype for {}", genotype);
             String sampleName = genotype.getSampleName();
-            SampleGenotype sampleGenotype = buildSampleGenotype(refAllele, altAllele, genotype);
             CopyNumber copyNumber = buildCopyNumber(genotype);
-            if (sampleGenotype.isNoCall() && !copyNumber.isEmpty()) {
-                // Canvas hack to
-                logger.debug("Building sample genotype from CN {}", genotype);
-                int CN = copyNumber.copies();
-                // BUT chrX 140205371 Canvas:REF:chrX:140205371-140208082 N . 7.53 PASS DQ=31.0549859513643;dq20;END=140208082;CIPOS=-221,221;CIEND=-291,221 RC:BC:CN 56:5:1
-                // MCC is a Canvas-specific major chromosome count - WT is 1 (1 maternal, 1 paternal)
-                int MCC = parseIntAttribute(genotype, "MCC", -1);
-                sampleGenotype = (CN == 0 || CN == MCC) ? SampleGenotype.homAlt() : SampleGenotype.het();
-            }
+            SampleGenotype sampleGenotype = buildAlleleSampleGenotype(refAllele, altAllele, genotype, copyNumber);
             logger.debug("Variant [{} {}] sample {} {} has genotype {}", variantContext.getReference(), altAllele, genotype, genotype.getType(), sampleGenotype);
             SampleData sampleData = SampleData.of(sampleName, sampleGenotype, copyNumber);
             samples.add(sampleData);
@@ -83,6 +74,41 @@ public static SampleGenotypes createAlleleSampleGenotypes(VariantContext variant
         return SampleGenotypes.of(samples);
     }
 
+    /**
+     * Returns the {@link SampleGenotype} of a single sample for the {@param altAlleleId} without building the
+     * {@link SampleGenotypes} for all the other samples in the {@link VariantContext}. The returned genotype is identical
+     * to that found for the sample in the output of {@link #createAlleleSampleGenotypes(VariantContext, int)}.
+     *
+     * @param variantContext
+     * @param altAlleleId
+     * @param sampleName
+     * @return the {@link SampleGenotype} for the sample or {@link SampleGenotype#empty()} if the sample is not present
+     * @since 13.2.0
+     */
+    public static SampleGenotype createAlleleSampleGenotype(VariantContext variantContext, int altAlleleId, String sampleName) {
+        Genotype genotype = variantContext.getGenotype(sampleName);
+        if (genotype == null) {
+            return SampleGenotype.empty();
+        }
+        Allele refAllele = variantContext.getReference();
+        Allele altAllele = variantContext.getAlternateAllele(altAlleleId);
+        return buildAlleleSampleGenotype(refAllele, altAllele, genotype, buildCopyNumber(genotype));
+    }
+
+    private static SampleGenotype buildAlleleSampleGenotype(Allele refAllele, Allele altAllele, Genotype genotype, CopyNumber copyNumber) {
+        SampleGenotype sampleGenotype = buildSampleGenotype(refAllele, altAllele, genotype);
+        if (sampleGenotype.isNoCall() && !copyNumber.isEmpty()) {
+            // Canvas hack to
+            logger.debug("Building sample genotype from CN {}", genotype);
+            int CN = copyNumber.copies();
+            // BUT chrX 140205371 Canvas:REF:chrX:140205371-140208082 N . 7.53 PASS DQ=31.0549859513643;dq20;END=140208082;CIPOS=-221,221;CIEND=-291,221 RC:BC:CN 56:5:1
+            // MCC is a Canvas-specific major chromosome count - WT is 1 (1 maternal, 1 paternal)
+            int MCC = parseIntAttribute(genotype, "MCC", -1);
+            return (CN == 0 || CN == MCC) ? SampleGenotype.homAlt() : SampleGenotype.het();
+        }
+        return sampleGenotype;
+    }
+
     private static CopyNumber buildCopyNumber(Genotype genotype) {
         if (genotype.hasExtendedAttribute("CN")) {
             int copyNumber = parseIntAttribute(genotype, "CN", -1);
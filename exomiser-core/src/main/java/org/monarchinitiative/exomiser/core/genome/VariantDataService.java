@@ -26,6 +26,7 @@
 package org.monarchinitiative.exomiser.core.genome;
 
 import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.VariantData;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
@@ -45,4 +46,20 @@ public interface VariantDataService {
 
     public PathogenicityData getVariantPathogenicityData(Variant variant, Set<PathogenicitySource> pathogenicitySources);
 
+    /**
+     * Combined lookup of the frequency and pathogenicity data for a variant. Implementations where both are held in the
+     * same datastore should override this to read the data for the variant only once.
+     *
+     * @param variant              the variant for which the data is required
+     * @param frequencySources     the frequency sources to return
+     * @param pathogenicitySources the pathogenicity sources to return
+     * @return the {@link VariantData} for the variant
+     * @since 13.2.0
+     */
+    public default VariantData getVariantData(Variant variant, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+        FrequencyData frequencyData = getVariantFrequencyData(variant, frequencySources);
+        PathogenicityData pathogenicityData = getVariantPathogenicityData(variant, pathogenicitySources);
+        return VariantData.of(frequencyData, pathogenicityData);
+    }
+
 }
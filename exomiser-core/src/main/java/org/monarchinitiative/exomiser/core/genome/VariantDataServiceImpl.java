@@ -22,25 +22,24 @@
 package org.monarchinitiative.exomiser.core.genome;
 
 import de.charite.compbio.jannovar.annotation.VariantEffect;
-import org.monarchinitiative.exomiser.core.genome.dao.FrequencyDao;
-import org.monarchinitiative.exomiser.core.genome.dao.InMemoryVariantWhiteList;
-import org.monarchinitiative.exomiser.core.genome.dao.PathogenicityDao;
-import org.monarchinitiative.exomiser.core.genome.dao.VariantWhiteList;
+import org.monarchinitiative.exomiser.core.genome.dao.*;
+import org.monarchinitiative.exomiser.core.model.AlleleProtoAdaptor;
 import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.VariantData;
 import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityScore;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.EnumSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource.*;
 
@@ -59,6 +58,8 @@ public class VariantDataServiceImpl implements VariantDataService {
     // Default data sources
     private final FrequencyDao defaultFrequencyDao;
     private final PathogenicityDao defaultPathogenicityDao;
+    // Optional combined access to the default frequency and pathogenicity data
+    private final AllelePropertiesDao allelePropertiesDao;
 
     // Optional data sources
     private final FrequencyDao localFrequencyDao;
@@ -70,12 +71,16 @@ public class VariantDataServiceImpl implements VariantDataService {
     private final FrequencyDao svFrequencyDao;
     private final PathogenicityDao svPathogenicityDao;
 
+    // runs the concurrent lookups of the tabix and default data sources
+    private final Executor ioExecutor;
+
     private VariantDataServiceImpl(Builder builder) {
 
         this.whiteList = builder.variantWhiteList;
 
         this.defaultFrequencyDao = builder.defaultFrequencyDao;
         this.defaultPathogenicityDao = builder.defaultPathogenicityDao;
+        this.allelePropertiesDao = builder.allelePropertiesDao;
 
         this.localFrequencyDao = builder.localFrequencyDao;
         this.caddDao = builder.caddDao;
@@ -84,6 +89,8 @@ private VariantDataServiceImpl(Builder builder) {
 
         this.svFrequencyDao = builder.svFrequencyDao;
         this.svPathogenicityDao = builder.svPathogenicityDao;
+
+        this.ioExecutor = builder.ioExecutor;
     }
 
     @Override
@@ -99,7 +106,10 @@ public FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySourc
         }
         // This could be run alongside the pathogenicities as they are all stored in the same datastore
         FrequencyData defaultFrequencyData = defaultFrequencyDao.getFrequencyData(variant);
+        return buildFrequencyData(variant, defaultFrequencyData, frequencySources);
+    }
 
+    private FrequencyData buildFrequencyData(Variant variant, FrequencyData defaultFrequencyData, Set<FrequencySource> frequencySources) {
         List<Frequency> allFrequencies = new ArrayList<>();
         for (Frequency frequency : defaultFrequencyData.getKnownFrequencies()) {
             if (frequencySources.contains(frequency.getSource())) {
@@ -136,32 +146,43 @@ public PathogenicityData getVariantPathogenicityData(Variant variant, Set<Pathog
         }
 
         PathogenicityData defaultPathogenicityData;
-        List<PathogenicityScore> allPathScores = new ArrayList<>();
+        List<PathogenicityScore> allPathScores;
         if (containsTabixSource(pathogenicitySources)) {
             CompletableFuture<PathogenicityData> futureDefaultData = CompletableFuture.supplyAsync(() -> defaultPathogenicityDao
-                    .getPathogenicityData(variant));
-            // run async - tabix sources are slow compared to MVStore
-            List<CompletableFuture<PathogenicityData>> futurePathData = new ArrayList<>();
-            // REMM is trained on non-coding regulatory bits of the genome, this outperforms CADD for non-coding variants
-            if (pathogenicitySources.contains(REMM) && variant.isNonCodingVariant()) {
-                futurePathData.add(CompletableFuture.supplyAsync(() -> remmDao.getPathogenicityData(variant)));
-            }
-            // CADD does all of it although is not as good as REMM for the non-coding regions.
-            if (pathogenicitySources.contains(CADD)) {
-                futurePathData.add(CompletableFuture.supplyAsync(() -> caddDao.getPathogenicityData(variant)));
-            }
-            if (pathogenicitySources.contains(TEST)) {
-                futurePathData.add(CompletableFuture.supplyAsync(() -> testPathScoreDao.getPathogenicityData(variant)));
-            }
-            for (CompletableFuture<PathogenicityData> pathogenicityDataCompletableFuture : futurePathData) {
-                PathogenicityData pathogenicityData = pathogenicityDataCompletableFuture.join();
-                allPathScores.addAll(pathogenicityData.getPredictedPathogenicityScores());
-            }
+                    .getPathogenicityData(variant), ioExecutor);
+            allPathScores = getTabixPathogenicityScores(variant, pathogenicitySources);
             defaultPathogenicityData = futureDefaultData.join();
         } else {
+            allPathScores = new ArrayList<>();
             defaultPathogenicityData = defaultPathogenicityDao.getPathogenicityData(variant);
         }
 
+        return buildPathogenicityData(variant, defaultPathogenicityData, allPathScores, pathogenicitySources);
+    }
+
+    private List<PathogenicityScore> getTabixPathogenicityScores(Variant variant, Set<PathogenicitySource> pathogenicitySources) {
+        // run async - tabix sources are slow compared to MVStore
+        List<CompletableFuture<PathogenicityData>> futurePathData = new ArrayList<>();
+        // REMM is trained on non-coding regulatory bits of the genome, this outperforms CADD for non-coding variants
+        if (pathogenicitySources.contains(REMM) && variant.isNonCodingVariant()) {
+            futurePathData.add(CompletableFuture.supplyAsync(() -> remmDao.getPathogenicityData(variant), ioExecutor));
+        }
+        // CADD does all of it although is not as good as REMM for the non-coding regions.
+        if (pathogenicitySources.contains(CADD)) {
+            futurePathData.add(CompletableFuture.supplyAsync(() -> caddDao.getPathogenicityData(variant), ioExecutor));
+        }
+        if (pathogenicitySources.contains(TEST)) {
+            futurePathData.add(CompletableFuture.supplyAsync(() -> testPathScoreDao.getPathogenicityData(variant), ioExecutor));
+        }
+        List<PathogenicityScore> tabixPathScores = new ArrayList<>();
+        for (CompletableFuture<PathogenicityData> pathogenicityDataCompletableFuture : futurePathData) {
+            PathogenicityData pathogenicityData = pathogenicityDataCompletableFuture.join();
+            tabixPathScores.addAll(pathogenicityData.getPredictedPathogenicityScores());
+        }
+        return tabixPathScores;
+    }
+
+    private PathogenicityData buildPathogenicityData(Variant variant, PathogenicityData defaultPathogenicityData, List<PathogenicityScore> allPathScores, Set<PathogenicitySource> pathogenicitySources) {
         // we're going to deliberately ignore synonymous variants from dbNSFP as these shouldn't be there
         // e.g. ?assembly=hg37&chr=1&start=158581087&ref=G&alt=A has a MutationTaster score of 1
         if (variant.getVariantEffect() != VariantEffect.SYNONYMOUS_VARIANT) {
@@ -171,7 +192,36 @@ public PathogenicityData getVariantPathogenicityData(Variant variant, Set<Pathog
         return PathogenicityData.of(defaultPathogenicityData.getClinVarData(), allPathScores);
     }
 
-    private boolean containsTabixSource(Set<PathogenicitySource> pathogenicitySources) {
+    /**
+     * Combined lookup of the frequency and pathogenicity data for a variant. Where an {@link AllelePropertiesDao} has
+     * been provided the stored data for small variants is read only once, otherwise, or when any of the pathogenicity
+     * sources are read from tabix files, this falls back to the separate frequency and pathogenicity lookups.
+     *
+     * @since 13.2.0
+     */
+    @Override
+    public VariantData getVariantData(Variant variant, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+        if (isStructural(variant)) {
+            FrequencyData frequencyData = svFrequencyDao.getFrequencyData(variant);
+            PathogenicityData pathogenicityData = svPathogenicityDao.getPathogenicityData(variant);
+            return VariantData.of(frequencyData, pathogenicityData);
+        }
+        if (allelePropertiesDao == null || containsTabixSource(pathogenicitySources)) {
+            return VariantDataService.super.getVariantData(variant, frequencySources, pathogenicitySources);
+        }
+        AlleleProto.AlleleProperties alleleProperties = allelePropertiesDao.getAlleleProperties(variant);
+        List<PathogenicityScore> allPathScores = new ArrayList<>();
+        FrequencyData frequencyData = buildFrequencyData(variant, AlleleProtoAdaptor.toFrequencyData(alleleProperties), frequencySources);
+        PathogenicityData pathogenicityData = buildPathogenicityData(variant, AlleleProtoAdaptor.toPathogenicityData(alleleProperties), allPathScores, pathogenicitySources);
+        return VariantData.of(frequencyData, pathogenicityData);
+    }
+
+    /**
+     * @return true if any of the pathogenicity sources are read from a separate tabix file rather than the main
+     * variant datastore. These are considerably slower to look-up.
+     * @since 13.2.0
+     */
+    public static boolean containsTabixSource(Set<PathogenicitySource> pathogenicitySources) {
         for (PathogenicitySource source : TABIX_SOURCES) {
             if (pathogenicitySources.contains(source)) {
                 return true;
@@ -219,6 +269,7 @@ public static class Builder {
 
         private FrequencyDao defaultFrequencyDao;
         private PathogenicityDao defaultPathogenicityDao;
+        private AllelePropertiesDao allelePropertiesDao;
 
         private FrequencyDao localFrequencyDao;
 
@@ -229,6 +280,8 @@ public static class Builder {
         private FrequencyDao svFrequencyDao = new StubFrequencyDao();
         private PathogenicityDao svPathogenicityDao = new StubPathogenicityDao();
 
+        private Executor ioExecutor = ForkJoinPool.commonPool();
+
         public Builder variantWhiteList(VariantWhiteList variantWhiteList) {
             this.variantWhiteList = variantWhiteList;
             return this;
@@ -244,6 +297,20 @@ public Builder defaultPathogenicityDao(PathogenicityDao defaultPathogenicityDao)
             return this;
         }
 
+        /**
+         * Sets the {@link AllelePropertiesDao} as the source of the default frequency and pathogenicity data. This will
+         * also enable the combined lookup of the default data via {@link VariantDataServiceImpl#getVariantData(Variant, Set, Set)}.
+         *
+         * @since 13.2.0
+         */
+        public Builder allelePropertiesDao(AllelePropertiesDao allelePropertiesDao) {
+            this.allelePropertiesDao = allelePropertiesDao;
+            AllelePropertiesDaoAdapter allelePropertiesDaoAdapter = new AllelePropertiesDaoAdapter(allelePropertiesDao);
+            this.defaultFrequencyDao = allelePropertiesDaoAdapter;
+            this.defaultPathogenicityDao = allelePropertiesDaoAdapter;
+            return this;
+        }
+
         public Builder localFrequencyDao(FrequencyDao localFrequencyDao) {
             this.localFrequencyDao = localFrequencyDao;
             return this;
@@ -274,6 +341,17 @@ public Builder svPathogenicityDao(PathogenicityDao svPathogenicityDao) {
             return this;
         }
 
+        /**
+         * Sets the {@link Executor} used to query the tabix data sources concurrently with the default data sources.
+         * This should be a dedicated executor for blocking I/O, otherwise the common {@link ForkJoinPool} is used.
+         *
+         * @since 13.2.0
+         */
+        public Builder ioExecutor(Executor ioExecutor) {
+            this.ioExecutor = Objects.requireNonNull(ioExecutor);
+            return this;
+        }
+
         public VariantDataServiceImpl build() {
             return new VariantDataServiceImpl(this);
         }
@@ -44,9 +44,10 @@
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -63,18 +64,34 @@ public class VariantFactoryImpl implements VariantFactory {
     private final VariantContextConverter variantContextConverter;
 
     private final VcfReader vcfReader;
+    private final VcfAllelePredicate allelePredicate;
+
+    // counts the variants created record-by-record by createVariantEvaluations(VariantContext)
+    private final VariantCounter recordCounter = new VariantCounter();
 
     public VariantFactoryImpl(VariantAnnotator variantAnnotator, Path vcfPath) {
         this(variantAnnotator, new VcfFileReader(vcfPath));
     }
 
     public VariantFactoryImpl(VariantAnnotator variantAnnotator, VcfReader vcfReader) {
+        this(variantAnnotator, vcfReader, VcfAllelePredicate.acceptAll());
+    }
+
+    /**
+     * @param allelePredicate predicate applied to each alternate allele directly after the {@link VariantContext} has
+     *                        been read, before the allele is converted and annotated. Alleles failing this will not
+     *                        produce a {@link VariantEvaluation}.
+     * @since 13.2.0
+     */
+    public VariantFactoryImpl(VariantAnnotator variantAnnotator, VcfReader vcfReader, VcfAllelePredicate allelePredicate) {
         Objects.requireNonNull(variantAnnotator);
         Objects.requireNonNull(vcfReader);
+        Objects.requireNonNull(allelePredicate);
         this.variantAnnotator = variantAnnotator;
         this.genomeAssembly = variantAnnotator.genomeAssembly();
         this.variantContextConverter = VariantContextConverter.of(genomeAssembly.genomicAssembly(), VariantTrimmer.leftShiftingTrimmer(VariantTrimmer.retainingCommonBase()));
         this.vcfReader = vcfReader;
+        this.allelePredicate = allelePredicate;
     }
 
     @Override
@@ -83,27 +100,60 @@ public Stream<VariantEvaluation> createVariantEvaluations() {
         VariantCounter counter = new VariantCounter();
         return vcfReader.readVariantContexts()
                 .peek(counter.countVariantContext())
-                .flatMap(toVariantEvaluations())
+                .flatMap(toVariantEvaluations(counter))
                 .peek(counter.countAnnotatedVariant())
                 .onClose(counter::logCount);
     }
 
+    /**
+     * Creates the {@link VariantEvaluation} for each alternate allele of a single {@link VariantContext}. This is
+     * thread-safe and produces exactly the same {@link VariantEvaluation} as {@link #createVariantEvaluations()} so that
+     * records read from the VCF can be annotated concurrently by several worker threads. The variants created are
+     * counted by this factory and a summary can be logged using {@link #logVariantEvaluationsCount()} once all the
+     * records have been processed.
+     *
+     * @param variantContext a record read from the VCF file
+     * @return the {@link VariantEvaluation} for each allele of the {@link VariantContext} passing the allele predicate
+     * @since 13.2.0
+     */
+    public List<VariantEvaluation> createVariantEvaluations(VariantContext variantContext) {
+        recordCounter.countVariantContext().accept(variantContext);
+        return toVariantEvaluations(recordCounter).apply(variantContext)
+                .peek(recordCounter.countAnnotatedVariant())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Logs a summary of the variants created by this factory using {@link #createVariantEvaluations(VariantContext)}.
+     *
+     * @since 13.2.0
+     */
+    public void logVariantEvaluationsCount() {
+        recordCounter.logCount();
+    }
+
     /**
      * An Exomiser VariantEvaluation is a single-allele variant whereas the VariantContext can have multiple alleles.
      * This means that a multi allele Variant record in a VCF can result in several VariantEvaluations - one for each
      * alternate allele.
      */
-    private Function<VariantContext, Stream<VariantEvaluation>> toVariantEvaluations() {
+    private Function<VariantContext, Stream<VariantEvaluation>> toVariantEvaluations(VariantCounter counter) {
         return variantContext -> variantContext.getAlternateAlleles().stream()
-                .map(buildAlleleVariantEvaluations(variantContext))
+                .map(buildAlleleVariantEvaluations(variantContext, counter))
                 .flatMap(Collection::stream);
     }
 
-    private Function<Allele, List<VariantEvaluation>> buildAlleleVariantEvaluations(VariantContext variantContext) {
+    private Function<Allele, List<VariantEvaluation>> buildAlleleVariantEvaluations(VariantContext variantContext, VariantCounter counter) {
         return altAllele -> {
             // Itererating by alleleId here this is less clean, but faster
             // alternate Alleles are always after the reference allele, which is 0
             int altAlleleId = variantContext.getAlleleIndex(altAllele) - 1;
+            // cheap sample-level checks go first so that unwanted alleles never get converted or annotated
+            if (!allelePredicate.test(variantContext, altAlleleId)) {
+                counter.countSkippedAllele();
+                logger.trace("Skipping allele {} - failed allele predicate", altAllele);
+                return List.of();
+            }
             GenotypesContext genotypes = variantContext.getGenotypes();
             // n.b. samples with no genotypes (e.g. ./. or .) will return no variants
             if (alleleIsObservedInGenotypes(altAllele, genotypes) || hasCopyNumber(altAllele, genotypes)) {
@@ -116,7 +166,7 @@ private Function<Allele, List<VariantEvaluation>> buildAlleleVariantEvaluations(
 
     // this is required in case of incorrectly merged multi-sample VCF files to remove alleles not represented in the sample genotypes
     // however sometimes genotyping isn't run...
-    private synchronized boolean alleleIsObservedInGenotypes(Allele allele, GenotypesContext genotypesContext) {
+    private boolean alleleIsObservedInGenotypes(Allele allele, GenotypesContext genotypesContext) {
         for (Genotype genotype : genotypesContext) {
             List<Allele> genotypeAlleles = genotype.getAlleles();
             if (genotypeAlleles.contains(allele)) {
@@ -201,37 +251,45 @@ private VariantEvaluation.Builder addAnnotations(VariantEvaluation.Builder varia
      * Data class for tracking number of annotated variants
      */
     private static class VariantCounter {
-        final AtomicInteger variantRecords = new AtomicInteger(0);
-        final AtomicInteger structuralVariants = new AtomicInteger(0);
-        final AtomicInteger unannotatedVariants = new AtomicInteger(0);
-        final AtomicInteger annotatedVariants = new AtomicInteger(0);
+        final LongAdder variantRecords = new LongAdder();
+        final LongAdder structuralVariants = new LongAdder();
+        final LongAdder unannotatedVariants = new LongAdder();
+        final LongAdder annotatedVariants = new LongAdder();
+        final LongAdder skippedAlleles = new LongAdder();
         final Instant start = Instant.now();
 
+        void countSkippedAllele() {
+            skippedAlleles.increment();
+        }
+
         Consumer<VariantContext> countVariantContext() {
-            return variantContext -> variantRecords.incrementAndGet();
+            return variantContext -> variantRecords.increment();
         }
 
         Consumer<VariantEvaluation> countAnnotatedVariant() {
             return variantEvaluation -> {
                 // This does add a few seconds overhead over 4 mill variants
                 if (variantEvaluation.isSymbolic()) {
-                    structuralVariants.incrementAndGet();
+                    structuralVariants.increment();
                 }
                 if (variantEvaluation.hasTranscriptAnnotations()) {
-                    annotatedVariants.incrementAndGet();
+                    annotatedVariants.increment();
                 } else {
-                    unannotatedVariants.incrementAndGet();
+                    unannotatedVariants.increment();
                 }
             };
         }
 
         void logCount() {
-            if (unannotatedVariants.get() > 0) {
+            if (unannotatedVariants.sum() > 0) {
                 logger.info("Processed {} variant records into {} single allele variants (including {} structural variants), {} are missing annotations, most likely due to non-numeric chromosome designations",
-                        variantRecords.get(), annotatedVariants.get(), structuralVariants.get(), unannotatedVariants.get());
+                        variantRecords.sum(), annotatedVariants.sum(), structuralVariants.sum(), unannotatedVariants.sum());
             } else {
                 logger.info("Processed {} variant records into {} single allele variants (including {} structural variants)",
-                        variantRecords.get(), annotatedVariants.get(), structuralVariants.get());
+                        variantRecords.sum(), annotatedVariants.sum(), structuralVariants.sum());
+            }
+            if (skippedAlleles.sum() > 0) {
+                logger.info("Skipped {} alleles not matching the sample predicate before annotation", skippedAlleles.sum());
             }
             Duration duration = Duration.between(start, Instant.now());
             long ms = duration.toMillis();
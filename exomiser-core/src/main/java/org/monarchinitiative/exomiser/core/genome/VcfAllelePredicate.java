@@ -0,0 +1,94 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2022 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.monarchinitiative.exomiser.core.model.AlleleCall;
+import org.monarchinitiative.exomiser.core.model.SampleGenotype;
+
+import java.util.Objects;
+
+/**
+ * Sample-level predicate applied by the {@link VariantFactoryImpl} to each alternate allele of a {@link VariantContext}
+ * as soon as it has been decoded from the VCF file. Alleles failing the predicate are dropped before any variant
+ * conversion, trimming or transcript annotation is performed, which saves a great deal of work on large multi-sample
+ * VCF files where the proband does not carry many of the alleles.
+ * <p>
+ * Alleles passing the predicate will produce exactly the same {@link org.monarchinitiative.exomiser.core.model.VariantEvaluation}
+ * as they would have without it.
+ *
+ * @since 13.2.0
+ */
+@FunctionalInterface
+public interface VcfAllelePredicate {
+
+    /**
+     * @param variantContext the decoded VCF record
+     * @param altAlleleId    zero-based index of the alternate allele in the {@link VariantContext}
+     * @return true if the allele should be converted into a {@link org.monarchinitiative.exomiser.core.model.VariantEvaluation}
+     */
+    boolean test(VariantContext variantContext, int altAlleleId);
+
+    default VcfAllelePredicate and(VcfAllelePredicate other) {
+        Objects.requireNonNull(other);
+        return (variantContext, altAlleleId) -> test(variantContext, altAlleleId) && other.test(variantContext, altAlleleId);
+    }
+
+    /**
+     * @return a predicate which will accept all alleles.
+     */
+    static VcfAllelePredicate acceptAll() {
+        return (variantContext, altAlleleId) -> true;
+    }
+
+    /**
+     * Accepts only alleles where the named sample has an ALT call for that allele. This is identical to checking
+     * that {@code variantEvaluation.getSampleGenotype(sampleName).getCalls().contains(AlleleCall.ALT)}, including the
+     * copy-number derived genotypes for samples with no GT.
+     *
+     * @param sampleName name of the sample, usually the proband, as it appears in the VCF header
+     */
+    static VcfAllelePredicate sampleHasAltAllele(String sampleName) {
+        Objects.requireNonNull(sampleName);
+        return (variantContext, altAlleleId) -> {
+            SampleGenotype sampleGenotype = VariantContextSampleGenotypeConverter.createAlleleSampleGenotype(variantContext, altAlleleId, sampleName);
+            return sampleGenotype.getCalls().contains(AlleleCall.ALT);
+        };
+    }
+
+    /**
+     * Accepts only alleles from VCF records with a PHRED-scaled QUAL greater than or equal to the supplied threshold.
+     * This matches the behaviour of the {@link org.monarchinitiative.exomiser.core.filters.QualityFilter}.
+     *
+     * @param minimumQualityThreshold minimum PHRED QUAL score
+     */
+    static VcfAllelePredicate minimumQuality(double minimumQualityThreshold) {
+        return (variantContext, altAlleleId) -> variantContext.getPhredScaledQual() >= minimumQualityThreshold;
+    }
+
+    /**
+     * Accepts only alleles from VCF records which have either a PASS or missing ('.') FILTER field. This matches the
+     * behaviour of the {@link org.monarchinitiative.exomiser.core.filters.FailedVariantFilter}.
+     */
+    static VcfAllelePredicate passedFilters() {
+        return (variantContext, altAlleleId) -> variantContext.isNotFiltered();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Bloom filter of the {@link AlleleKey} contained in the variants database. This is written alongside the database as
+ * a sidecar file and memory-mapped when read, allowing the {@link AllelePropertiesDaoMvStore} to skip the lookup for
+ * alleles which are definitely not in the database.
+ * <p>
+ * The file format is a 40 byte header (magic number, format version, number of hash functions, number of bits, number
+ * of keys and the {@link DataFileChecksum} of the variants database) followed by the bits packed into big-endian longs.
+ * A filter is only used with the database it was built from, as a filter of a different database would wrongly skip
+ * the lookup of alleles which are present. Any change to the hashing of the keys requires a new format version.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class AllelePresenceFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AllelePresenceFilter.class);
+
+    private static final int MAGIC = 0x45584246; // EXBF
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 40;
+
+    // mapped in 1GB segments as a MappedByteBuffer is limited to Integer.MAX_VALUE bytes
+    private static final int WORDS_PER_SEGMENT_SHIFT = 27;
+    private static final long WORDS_PER_SEGMENT_MASK = (1L << WORDS_PER_SEGMENT_SHIFT) - 1;
+
+    private final int numHashFunctions;
+    private final long numBits;
+    private final long numKeys;
+    private final long sourceChecksum;
+    private final long[] words;
+    private final ByteBuffer[] segments;
+
+    private AllelePresenceFilter(int numHashFunctions, long numBits, long numKeys, long sourceChecksum, long[] words, ByteBuffer[] segments) {
+        this.numHashFunctions = numHashFunctions;
+        this.numBits = numBits;
+        this.numKeys = numKeys;
+        this.sourceChecksum = sourceChecksum;
+        this.words = words;
+        this.segments = segments;
+    }
+
+    /**
+     * Creates a new, empty, in-memory filter sized for the expected number of keys.
+     *
+     * @param expectedKeys              the number of keys expected to be added to the filter
+     * @param falsePositiveProbability  the desired false-positive probability, when the filter contains the expected
+     *                                  number of keys, e.g. 0.01
+     */
+    public static Builder builder(long expectedKeys, double falsePositiveProbability) {
+        return new Builder(expectedKeys, falsePositiveProbability);
+    }
+
+    /**
+     * Memory-maps a filter written by {@link Builder#writeTo(Path, long)}, provided it was built from the variants
+     * database with the expected checksum.
+     *
+     * @param path                   the filter file
+     * @param expectedSourceChecksum the {@link DataFileChecksum} of the variants database the filter will be used with
+     * @return the filter, or an empty {@code Optional} if the filter is of an older format version or was built from a
+     * different database
+     * @throws IllegalStateException if the file is not a valid filter
+     * @throws UncheckedIOException  if the file cannot be read
+     */
+    public static Optional<AllelePresenceFilter> map(Path path, long expectedSourceChecksum) {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (fileChannel.size() < HEADER_BYTES) {
+                throw new IllegalStateException(path + " is not an allele presence filter");
+            }
+            ByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalStateException(path + " is not an allele presence filter");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                logger.warn("Ignoring allele presence filter {} with unsupported format version {}. Please re-build this from the variants database.", path, version);
+                return Optional.empty();
+            }
+            int numHashFunctions = header.getInt();
+            header.getInt();
+            long numBits = header.getLong();
+            long numKeys = header.getLong();
+            long sourceChecksum = header.getLong();
+            if (sourceChecksum != expectedSourceChecksum) {
+                logger.warn("Ignoring stale allele presence filter {} - this was built from a different variants database", path);
+                return Optional.empty();
+            }
+            long numWords = numBits >>> 6;
+            if (fileChannel.size() != HEADER_BYTES + numWords * Long.BYTES) {
+                throw new IllegalStateException("Allele presence filter " + path + " is truncated");
+            }
+            int numSegments = (int) ((numWords + WORDS_PER_SEGMENT_MASK) >>> WORDS_PER_SEGMENT_SHIFT);
+            ByteBuffer[] segments = new ByteBuffer[numSegments];
+            for (int i = 0; i < numSegments; i++) {
+                long firstWord = (long) i << WORDS_PER_SEGMENT_SHIFT;
+                long segmentWords = Math.min(numWords - firstWord, WORDS_PER_SEGMENT_MASK + 1);
+                segments[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + firstWord * Long.BYTES, segmentWords * Long.BYTES);
+            }
+            return Optional.of(new AllelePresenceFilter(numHashFunctions, numBits, numKeys, sourceChecksum, null, segments));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read allele presence filter " + path, e);
+        }
+    }
+
+    /**
+     * @return false if the key is definitely not present, true if it might be present
+     */
+    public boolean mightContain(AlleleKey alleleKey) {
+        long hash1 = hash(alleleKey);
+        long hash2 = secondHash(hash1);
+        for (int i = 0; i < numHashFunctions; i++) {
+            if (!isSet(bitIndex(hash1, hash2, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public long getNumKeys() {
+        return numKeys;
+    }
+
+    /**
+     * @return the {@link DataFileChecksum} of the variants database this filter was built from, or 0 for a filter
+     * which has not been written
+     */
+    public long getSourceChecksum() {
+        return sourceChecksum;
+    }
+
+    private boolean isSet(long bitIndex) {
+        long wordIndex = bitIndex >>> 6;
+        long word;
+        if (words != null) {
+            word = words[(int) wordIndex];
+        } else {
+            ByteBuffer segment = segments[(int) (wordIndex >>> WORDS_PER_SEGMENT_SHIFT)];
+            word = segment.getLong((int) (wordIndex & WORDS_PER_SEGMENT_MASK) * Long.BYTES);
+        }
+        return (word & (1L << bitIndex)) != 0;
+    }
+
+    private long bitIndex(long hash1, long hash2, int i) {
+        // Kirsch-Mitzenmacher double hashing
+        return Long.remainderUnsigned(hash1 + i * hash2, numBits);
+    }
+
+    private static long hash(AlleleKey alleleKey) {
+        long hash = fmix64(((long) alleleKey.getChr() << 32) | (alleleKey.getPosition() & 0xFFFFFFFFL));
+        hash = hashString(hash, alleleKey.getRef());
+        hash = hashString(hash, alleleKey.getAlt());
+        return fmix64(hash);
+    }
+
+    private static long secondHash(long hash1) {
+        return fmix64(hash1 ^ 0x9E3779B97F4A7C15L);
+    }
+
+    private static long hashString(long hash, String value) {
+        hash = hash * 31 + value.length();
+        for (int i = 0; i < value.length(); i++) {
+            hash = hash * 31 + value.charAt(i);
+        }
+        return fmix64(hash);
+    }
+
+    // MurmurHash3 64-bit finaliser
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    public String toString() {
+        return "AllelePresenceFilter{" +
+                "numHashFunctions=" + numHashFunctions +
+                ", numBits=" + numBits +
+                ", numKeys=" + numKeys +
+                ", sourceChecksum=" + Long.toHexString(sourceChecksum) +
+                '}';
+    }
+
+    /**
+     * Builds the in-memory filter and writes this to disk.
+     */
+    public static class Builder {
+
+        private final AllelePresenceFilter filter;
+        private long numKeys = 0;
+
+        private Builder(long expectedKeys, double falsePositiveProbability) {
+            if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+                throw new IllegalArgumentException("falsePositiveProbability must be between 0 and 1");
+            }
+            long keys = Math.max(1, expectedKeys);
+            double optimalBits = -keys * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2));
+            long numWords = Math.max(1, (long) Math.ceil(optimalBits / 64));
+            if (numWords > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many keys for an allele presence filter: " + expectedKeys);
+            }
+            long numBits = numWords * 64;
+            int numHashFunctions = (int) Math.max(1, Math.round((double) numBits / keys * Math.log(2)));
+            this.filter = new AllelePresenceFilter(numHashFunctions, numBits, 0, 0, new long[(int) numWords], null);
+        }
+
+        public Builder put(AlleleKey alleleKey) {
+            long hash1 = hash(alleleKey);
+            long hash2 = secondHash(hash1);
+            long[] words = filter.words;
+            for (int i = 0; i < filter.numHashFunctions; i++) {
+                long bitIndex = filter.bitIndex(hash1, hash2, i);
+                words[(int) (bitIndex >>> 6)] |= 1L << bitIndex;
+            }
+            numKeys++;
+            return this;
+        }
+
+        public AllelePresenceFilter build() {
+            return new AllelePresenceFilter(filter.numHashFunctions, filter.numBits, numKeys, 0, filter.words.clone(), null);
+        }
+
+        /**
+         * @param path           the filter file
+         * @param sourceChecksum the {@link DataFileChecksum} of the variants database the keys were read from. This
+         *                       must be calculated once the database has been compacted, as compaction rewrites the
+         *                       file.
+         */
+        public void writeTo(Path path, long sourceChecksum) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(filter.numHashFunctions);
+                out.writeInt(0);
+                out.writeLong(filter.numBits);
+                out.writeLong(numKeys);
+                out.writeLong(sourceChecksum);
+                for (long word : filter.words) {
+                    out.writeLong(word);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write allele presence filter " + path, e);
+            }
+        }
+    }
+}
@@ -32,6 +32,9 @@
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * MVStore implementation of the {@link AllelePropertiesDao}
  *
@@ -43,10 +46,30 @@ public class AllelePropertiesDaoMvStore implements AllelePropertiesDao {
 
     private static final Logger logger = LoggerFactory.getLogger(AllelePropertiesDaoMvStore.class);
 
-    private final MVMap<AlleleProto.AlleleKey, AlleleProto.AlleleProperties> map;
+    private final MVMap<AlleleProto.AlleleKey, Object> map;
+    @Nullable
+    private final AllelePresenceFilter presenceFilter;
+
+    private final LongAdder presenceFilterHits = new LongAdder();
+    private final LongAdder presenceFilterMisses = new LongAdder();
+    private final LongAdder presenceFilterFalsePositives = new LongAdder();
 
     public AllelePropertiesDaoMvStore(MVStore mvStore) {
-        map = MvStoreUtil.openAlleleMVMap(mvStore);
+        this(mvStore, null);
+    }
+
+    /**
+     * @param mvStore        the variants database
+     * @param presenceFilter filter of the alleles in the database, used to skip the lookup of alleles which are
+     *                       definitely not present. Can be null, in which case all alleles are looked-up.
+     * @since 13.2.0
+     */
+    public AllelePropertiesDaoMvStore(MVStore mvStore, @Nullable AllelePresenceFilter presenceFilter) {
+        this.map = MvStoreUtil.openAlleleLookupMVMap(mvStore);
+        this.presenceFilter = presenceFilter;
+        if (presenceFilter != null) {
+            logger.debug("Using {}", presenceFilter);
+        }
     }
 
     @Caching(cacheable = {
@@ -55,11 +78,71 @@ public AllelePropertiesDaoMvStore(MVStore mvStore) {
     })
     @Override
     public AlleleProto.AlleleProperties getAlleleProperties(AlleleProto.AlleleKey alleleKey, GenomeAssembly genomeAssembly) {
-        AlleleProto.AlleleProperties alleleProperties = map.getOrDefault(alleleKey, AlleleProto.AlleleProperties.getDefaultInstance());
+        if (isFilteredOut(alleleKey)) {
+            return AlleleProto.AlleleProperties.getDefaultInstance();
+        }
+        Object value = map.get(alleleKey);
+        AlleleProto.AlleleProperties alleleProperties = value == null ? AlleleProto.AlleleProperties.getDefaultInstance() : MvStoreUtil.toAlleleProperties(value);
         logger.debug("{} {}", alleleKey, alleleProperties);
+        countPresenceFilterResult(alleleProperties);
         return alleleProperties;
     }
 
+    private boolean isFilteredOut(AlleleProto.AlleleKey alleleKey) {
+        if (presenceFilter != null && !presenceFilter.mightContain(alleleKey)) {
+            presenceFilterMisses.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void countPresenceFilterResult(AlleleProto.AlleleProperties alleleProperties) {
+        if (presenceFilter == null) {
+            return;
+        }
+        if (alleleProperties.equals(AlleleProto.AlleleProperties.getDefaultInstance())) {
+            presenceFilterFalsePositives.increment();
+        } else {
+            presenceFilterHits.increment();
+        }
+    }
+
+    /**
+     * @return the number of lookups where the presence filter indicated the allele might be present and it was found
+     * @since 13.2.0
+     */
+    public long getPresenceFilterHits() {
+        return presenceFilterHits.sum();
+    }
+
+    /**
+     * @return the number of lookups skipped as the presence filter indicated the allele was not present
+     * @since 13.2.0
+     */
+    public long getPresenceFilterMisses() {
+        return presenceFilterMisses.sum();
+    }
+
+    /**
+     * @return the number of lookups where the presence filter indicated the allele might be present but it was not
+     * @since 13.2.0
+     */
+    public long getPresenceFilterFalsePositives() {
+        return presenceFilterFalsePositives.sum();
+    }
+
+    /**
+     * Logs the number of presence filter hits, misses and false positives. Nothing is logged if there is no presence
+     * filter.
+     *
+     * @since 13.2.0
+     */
+    public void logPresenceFilterCounts() {
+        if (presenceFilter != null) {
+            logger.info("Allele presence filter hits: {}, misses: {}, false positives: {}", getPresenceFilterHits(), getPresenceFilterMisses(), getPresenceFilterFalsePositives());
+        }
+    }
+
     @Caching(cacheable = {
             @Cacheable(cacheNames = "hg19.allele", keyGenerator = "variantKeyGenerator", condition = "T(org.monarchinitiative.exomiser.core.genome.GenomeAssembly).HG19.containsContig(#variant.contig())"),
             @Cacheable(cacheNames = "hg38.allele", keyGenerator = "variantKeyGenerator", condition = "T(org.monarchinitiative.exomiser.core.genome.GenomeAssembly).HG38.containsContig(#variant.contig())"),
@@ -69,5 +152,4 @@ public AlleleProto.AlleleProperties getAlleleProperties(Variant variant) {
         AlleleProto.AlleleKey alleleKey = AlleleProtoAdaptor.toAlleleKey(variant);
         return getAlleleProperties(alleleKey, variant.getGenomeAssembly());
     }
-
 }
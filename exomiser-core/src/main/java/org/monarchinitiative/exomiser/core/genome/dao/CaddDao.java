@@ -74,7 +74,18 @@ private PathogenicityData processResults(Variant variant) {
         return getCaddPathogenicityData(caddInDelTabixDataSource, chromosome, start, ref, alt);
     }
 
-    private synchronized PathogenicityData getCaddPathogenicityData(TabixDataSource tabixDataSource, String chromosome, int start, String ref, String alt) {
+    private PathogenicityData getCaddPathogenicityData(TabixDataSource tabixDataSource, String chromosome, int start, String ref, String alt) {
+        if (tabixDataSource.supportsConcurrentQueries()) {
+            return queryCaddPathogenicityData(tabixDataSource, chromosome, start, ref, alt);
+        }
+        // The TabixReader.Iterator reads from the same underlying stream as the reader, so the query and iteration
+        // must be guarded. Locking on the data source rather than the DAO allows SNV and InDel lookups to run concurrently.
+        synchronized (tabixDataSource) {
+            return queryCaddPathogenicityData(tabixDataSource, chromosome, start, ref, alt);
+        }
+    }
+
+    private PathogenicityData queryCaddPathogenicityData(TabixDataSource tabixDataSource, String chromosome, int start, String ref, String alt) {
         try {
             TabixReader.Iterator results = tabixDataSource.query(chromosome, start, start);
             String line;
@@ -0,0 +1,103 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.CaddScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.svart.VariantType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DenseScoreStore} implementation of the CADD {@link PathogenicityDao}. SNV scores are read from a store with
+ * the PHRED-scaled scores of the three possible alternate alleles at each position, see {@link #snvScoreIndex(String, String)}.
+ * There are too many possible indels to store densely, so these are delegated to another {@link PathogenicityDao},
+ * usually the tabix-based {@link CaddDao}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class CaddDaoDense implements PathogenicityDao {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaddDaoDense.class);
+
+    private final DenseScoreStore caddSnvScores;
+    private final PathogenicityDao caddInDelDao;
+
+    public CaddDaoDense(DenseScoreStore caddSnvScores, PathogenicityDao caddInDelDao) {
+        if (caddSnvScores.getScoresPerPosition() != 3) {
+            throw new IllegalArgumentException("CADD SNV scores must have three scores per position, not " + caddSnvScores.getScoresPerPosition());
+        }
+        this.caddSnvScores = caddSnvScores;
+        this.caddInDelDao = caddInDelDao;
+    }
+
+    /**
+     * Returns the index of the score for the alternate allele of an SNV, which is the position of the alt base in ACGT
+     * with the ref base removed. e.g. for a ref of C the alts A, G and T have the indices 0, 1 and 2.
+     *
+     * @return the index of the SNV score, or -1 if the ref or alt are not single A, C, G or T bases, or are the same
+     */
+    public static int snvScoreIndex(String ref, String alt) {
+        if (ref.length() != 1 || alt.length() != 1) {
+            return -1;
+        }
+        int refIndex = baseIndex(ref.charAt(0));
+        int altIndex = baseIndex(alt.charAt(0));
+        if (refIndex == -1 || altIndex == -1 || refIndex == altIndex) {
+            return -1;
+        }
+        return altIndex > refIndex ? altIndex - 1 : altIndex;
+    }
+
+    private static int baseIndex(char base) {
+        switch (base) {
+            case 'A':
+                return 0;
+            case 'C':
+                return 1;
+            case 'G':
+                return 2;
+            case 'T':
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    @Override
+    public PathogenicityData getPathogenicityData(Variant variant) {
+        if (variant.variantType() != VariantType.SNV) {
+            return caddInDelDao.getPathogenicityData(variant);
+        }
+        logger.debug("Getting CADD data for {}", variant);
+        int index = snvScoreIndex(variant.ref(), variant.alt());
+        if (index == -1) {
+            return PathogenicityData.empty();
+        }
+        float score = caddSnvScores.getScore(variant.contigId(), variant.start(), index);
+        if (Float.isNaN(score)) {
+            return PathogenicityData.empty();
+        }
+        return PathogenicityData.of(CaddScore.of(score));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Identifies the build of a data file from which a derived file, such as an {@link AllelePresenceFilter}, was written.
+ * The checksum is stored in the header of the derived file and checked against the source when the derived file is
+ * opened, so that a derived file left over from a different build of the source is not used.
+ * <p>
+ * The checksum combines the size of the file with a CRC32 of its first and last blocks. This is quick to calculate
+ * regardless of the size of the file, and unlike the last modified time of the file, is unchanged when the data
+ * directory is copied.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public final class DataFileChecksum {
+
+    private static final int BLOCK_BYTES = 64 * 1024;
+
+    private DataFileChecksum() {
+    }
+
+    /**
+     * @param dataFile the source data file
+     * @return the checksum of the file
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static long of(Path dataFile) {
+        try (FileChannel fileChannel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            long size = fileChannel.size();
+            CRC32 crc32 = new CRC32();
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_BYTES);
+            readBlock(fileChannel, 0, block);
+            crc32.update(block.flip());
+            readBlock(fileChannel, Math.max(0, size - BLOCK_BYTES), block.clear());
+            crc32.update(block.flip());
+            return (size << 32) ^ crc32.getValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to calculate checksum of " + dataFile, e);
+        }
+    }
+
+    private static void readBlock(FileChannel fileChannel, long position, ByteBuffer block) throws IOException {
+        while (block.hasRemaining()) {
+            int read = fileChannel.read(block, position + block.position());
+            if (read < 0) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Immutable, memory-mapped array of quantised scores for every position of each chromosome, written by the
+ * {@link DenseScoreStoreWriter}. This is intended for whole-genome per-position scores such as REMM (one score per
+ * position) or CADD SNVs (one score for each of the three possible alternate alleles), where a lookup is a single read
+ * of the array rather than a tabix query and parsing of the text lines.
+ * <p>
+ * The file is laid out as:
+ * <pre>
+ * header     magic, version, scores per position, number of chromosomes, scale, reserved, source checksum
+ *            (int, int, int, int, float, int, long)
+ * directory  per chromosome: chr, first position, number of positions, reserved, data offset (int, int, int, int, long)
+ * data       per chromosome and position: the quantised scores (unsigned short x scores per position)
+ * </pre>
+ * Scores are stored as {@code round(score * scale) + 1}, with 0 indicating there is no score for that position.
+ * The stored scores are therefore accurate to within {@code 0.5 / scale} of the original values. The source checksum
+ * is the {@link DataFileChecksum} of the tabix file the scores were converted from, so that a store can be checked
+ * against the tabix file configured alongside it.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class DenseScoreStore {
+
+    static final int MAGIC = 0x45584453; // EXDS
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 6 * Integer.BYTES + Long.BYTES;
+    static final int DIRECTORY_ENTRY_BYTES = 4 * Integer.BYTES + Long.BYTES;
+    static final int MISSING = 0;
+    static final int MAX_QUANTISED = 0xFFFF;
+
+    private final int scoresPerPosition;
+    private final float scale;
+    private final long sourceChecksum;
+    private final ChromosomeRegion[] chromosomeRegions;
+    private final MappedRegion data;
+
+    private DenseScoreStore(int scoresPerPosition, float scale, long sourceChecksum, ChromosomeRegion[] chromosomeRegions, MappedRegion data) {
+        this.scoresPerPosition = scoresPerPosition;
+        this.scale = scale;
+        this.sourceChecksum = sourceChecksum;
+        this.chromosomeRegions = chromosomeRegions;
+        this.data = data;
+    }
+
+    /**
+     * Memory-maps a store written by the {@link DenseScoreStoreWriter}.
+     *
+     * @throws IllegalStateException if the file is not a valid store
+     * @throws UncheckedIOException  if the file cannot be read
+     */
+    public static DenseScoreStore open(Path path) {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (fileChannel.size() < HEADER_BYTES) {
+                throw new IllegalStateException(path + " is not a dense score store");
+            }
+            ByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalStateException(path + " is not a dense score store");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported dense score store version " + version + " in " + path);
+            }
+            int scoresPerPosition = header.getInt();
+            int numChromosomes = header.getInt();
+            float scale = header.getFloat();
+            header.getInt();
+            long sourceChecksum = header.getLong();
+
+            long dataStart = HEADER_BYTES + (long) numChromosomes * DIRECTORY_ENTRY_BYTES;
+            if (fileChannel.size() < dataStart) {
+                throw new IllegalStateException("Dense score store " + path + " is truncated");
+            }
+            ByteBuffer directory = fileChannel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) numChromosomes * DIRECTORY_ENTRY_BYTES);
+            ChromosomeRegion[] regions = new ChromosomeRegion[numChromosomes];
+            int maxChr = 0;
+            long dataLength = 0;
+            for (int i = 0; i < numChromosomes; i++) {
+                int chr = directory.getInt();
+                int firstPosition = directory.getInt();
+                int numPositions = directory.getInt();
+                directory.getInt();
+                long dataOffset = directory.getLong();
+                regions[i] = new ChromosomeRegion(chr, firstPosition, numPositions, dataOffset);
+                maxChr = Math.max(maxChr, chr);
+                dataLength = Math.max(dataLength, dataOffset + (long) numPositions * scoresPerPosition * Short.BYTES);
+            }
+            if (fileChannel.size() < dataStart + dataLength) {
+                throw new IllegalStateException("Dense score store " + path + " is truncated");
+            }
+            ChromosomeRegion[] chromosomeRegions = new ChromosomeRegion[maxChr + 1];
+            for (ChromosomeRegion region : regions) {
+                chromosomeRegions[region.chr] = region;
+            }
+            MappedRegion data = new MappedRegion(fileChannel, dataStart, dataLength, 0);
+            return new DenseScoreStore(scoresPerPosition, scale, sourceChecksum, chromosomeRegions, data);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open dense score store " + path, e);
+        }
+    }
+
+    static int quantise(float score, float scale) {
+        long quantised = Math.round((double) score * scale) + 1;
+        return (int) Math.max(1, Math.min(MAX_QUANTISED, quantised));
+    }
+
+    public int getScoresPerPosition() {
+        return scoresPerPosition;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * @return the {@link DataFileChecksum} of the tabix file the scores were converted from
+     */
+    public long getSourceChecksum() {
+        return sourceChecksum;
+    }
+
+    /**
+     * @param chr      the chromosome number, as used in the {@link org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey}
+     * @param position the 1-based position on the chromosome
+     * @param index    the index of the score at the position, from 0 to scores per position - 1
+     * @return the score, or {@link Float#NaN} if there is no score for the position
+     */
+    public float getScore(int chr, int position, int index) {
+        ChromosomeRegion region = getChromosomeRegion(chr);
+        if (region == null || index < 0 || index >= scoresPerPosition) {
+            return Float.NaN;
+        }
+        return decode(readQuantised(region, position, index));
+    }
+
+    /**
+     * @return the maximum score with the index for the positions from start to end inclusive, or {@link Float#NaN} if
+     * there are no scores for any of these positions
+     */
+    public float getMaxScore(int chr, int start, int end, int index) {
+        ChromosomeRegion region = getChromosomeRegion(chr);
+        if (region == null || index < 0 || index >= scoresPerPosition) {
+            return Float.NaN;
+        }
+        int max = MISSING;
+        for (int position = start; position <= end; position++) {
+            max = Math.max(max, readQuantised(region, position, index));
+        }
+        return decode(max);
+    }
+
+    private ChromosomeRegion getChromosomeRegion(int chr) {
+        if (chr < 0 || chr >= chromosomeRegions.length) {
+            return null;
+        }
+        return chromosomeRegions[chr];
+    }
+
+    private int readQuantised(ChromosomeRegion region, int position, int index) {
+        long positionIndex = (long) position - region.firstPosition;
+        if (positionIndex < 0 || positionIndex >= region.numPositions) {
+            return MISSING;
+        }
+        long offset = region.dataOffset + (positionIndex * scoresPerPosition + index) * Short.BYTES;
+        return Short.toUnsignedInt(data.getShort(offset));
+    }
+
+    private float decode(int quantised) {
+        return quantised == MISSING ? Float.NaN : (quantised - 1) / scale;
+    }
+
+    @Override
+    public String toString() {
+        return "DenseScoreStore{" +
+                "scoresPerPosition=" + scoresPerPosition +
+                ", scale=" + scale +
+                ", sourceChecksum=" + sourceChecksum +
+                ", size=" + data.length() +
+                '}';
+    }
+
+    private static class ChromosomeRegion {
+
+        private final int chr;
+        private final int firstPosition;
+        private final int numPositions;
+        private final long dataOffset;
+
+        private ChromosomeRegion(int chr, int firstPosition, int numPositions, long dataOffset) {
+            this.chr = chr;
+            this.firstPosition = firstPosition;
+            this.numPositions = numPositions;
+            this.dataOffset = dataOffset;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.monarchinitiative.exomiser.core.genome.dao.DenseScoreStore.*;
+
+/**
+ * Writes a {@link DenseScoreStore}. Each chromosome must be written in one go, in ascending position order, as they
+ * are in a tabix file. Positions between the first and last written positions of a chromosome which have no score are
+ * stored as missing. The scores are streamed to a temporary file next to the output and combined into the store when
+ * the writer is closed.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class DenseScoreStoreWriter implements Closeable {
+
+    private final Path outputPath;
+    private final int scoresPerPosition;
+    private final float scale;
+    private final long sourceChecksum;
+
+    private final Path dataPath;
+    private final DataOutputStream dataOut;
+
+    private final List<long[]> directory = new ArrayList<>();
+    private final Set<Integer> writtenChromosomes = new HashSet<>();
+
+    private int currentChr = -1;
+    private int firstPosition;
+    // the next position to be written to the data file
+    private int nextPosition;
+    // the scores for the current position, which is buffered as these can be on several lines of the input
+    private int pendingPosition = -1;
+    private final int[] pendingScores;
+
+    private long dataLength = 0;
+    private long chrDataOffset = 0;
+    private long numScores = 0;
+
+    /**
+     * @param outputPath        the file to write the store to
+     * @param sourceChecksum    the {@link DataFileChecksum} of the tabix file the scores are converted from
+     * @param scoresPerPosition the number of scores for each position
+     * @param scale             the multiplier used to quantise the scores, which must be non-negative. Scores greater
+     *                          than {@code 65534 / scale} are stored as this maximum value.
+     */
+    public DenseScoreStoreWriter(Path outputPath, long sourceChecksum, int scoresPerPosition, float scale) {
+        if (scoresPerPosition < 1) {
+            throw new IllegalArgumentException("scoresPerPosition must be greater than 0");
+        }
+        if (!(scale > 0)) {
+            throw new IllegalArgumentException("scale must be greater than 0");
+        }
+        this.outputPath = outputPath;
+        this.scoresPerPosition = scoresPerPosition;
+        this.scale = scale;
+        this.sourceChecksum = sourceChecksum;
+        this.pendingScores = new int[scoresPerPosition];
+        this.dataPath = outputPath.resolveSibling(outputPath.getFileName() + ".data.tmp");
+        try {
+            this.dataOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataPath), 1 << 16));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create dense score store " + outputPath, e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the position is before the previous position on the chromosome, or the
+     *                                  chromosome has already been written
+     */
+    public void write(int chr, int position, int index, float score) {
+        if (index < 0 || index >= scoresPerPosition) {
+            throw new IllegalArgumentException("Score index " + index + " must be between 0 and " + (scoresPerPosition - 1));
+        }
+        if (Float.isNaN(score)) {
+            throw new IllegalArgumentException("Score for " + chr + "-" + position + " is NaN");
+        }
+        try {
+            if (chr != currentChr) {
+                startChromosome(chr, position);
+            } else if (position < pendingPosition) {
+                throw new IllegalArgumentException("Scores must be written in position order. " + chr + "-" + position + " is before " + chr + "-" + pendingPosition);
+            } else if (position > pendingPosition) {
+                flushPendingPosition();
+                pendingPosition = position;
+            }
+            pendingScores[index] = quantise(score, scale);
+            numScores++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write to dense score store " + outputPath, e);
+        }
+    }
+
+    private void startChromosome(int chr, int position) throws IOException {
+        if (writtenChromosomes.contains(chr)) {
+            throw new IllegalArgumentException("Scores for chromosome " + chr + " have already been written");
+        }
+        endChromosome();
+        writtenChromosomes.add(chr);
+        currentChr = chr;
+        chrDataOffset = dataLength;
+        firstPosition = position;
+        nextPosition = position;
+        pendingPosition = position;
+    }
+
+    private void endChromosome() throws IOException {
+        if (currentChr == -1) {
+            return;
+        }
+        flushPendingPosition();
+        int numPositions = nextPosition - firstPosition;
+        directory.add(new long[]{currentChr, firstPosition, numPositions, chrDataOffset});
+    }
+
+    private void flushPendingPosition() throws IOException {
+        // positions without a score are written as missing
+        for (; nextPosition < pendingPosition; nextPosition++) {
+            for (int i = 0; i < scoresPerPosition; i++) {
+                dataOut.writeShort(MISSING);
+            }
+            dataLength += scoresPerPosition * Short.BYTES;
+        }
+        for (int i = 0; i < scoresPerPosition; i++) {
+            dataOut.writeShort(pendingScores[i]);
+        }
+        dataLength += scoresPerPosition * Short.BYTES;
+        nextPosition = pendingPosition + 1;
+        Arrays.fill(pendingScores, MISSING);
+    }
+
+    public long getNumScores() {
+        return numScores;
+    }
+
+    /**
+     * Writes the store to the output path and removes the temporary file.
+     */
+    @Override
+    public void close() {
+        try {
+            endChromosome();
+            dataOut.close();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(outputPath), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(scoresPerPosition);
+                out.writeInt(directory.size());
+                out.writeFloat(scale);
+                out.writeInt(0);
+                out.writeLong(sourceChecksum);
+                for (long[] entry : directory) {
+                    out.writeInt((int) entry[0]);
+                    out.writeInt((int) entry[1]);
+                    out.writeInt((int) entry[2]);
+                    out.writeInt(0);
+                    out.writeLong(entry[3]);
+                }
+                out.flush();
+                Files.copy(dataPath, out);
+            }
+            Files.delete(dataPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write dense score store " + outputPath, e);
+        }
+    }
+}
@@ -64,7 +64,16 @@ private FrequencyData processResults(Variant variant) {
         return getPositionFrequencyData(chromosome, start, ref, alt);
     }
 
-    private synchronized FrequencyData getPositionFrequencyData(String chromosome, int start, String ref, String alt) {
+    private FrequencyData getPositionFrequencyData(String chromosome, int start, String ref, String alt) {
+        if (tabixDataSource.supportsConcurrentQueries()) {
+            return queryPositionFrequencyData(chromosome, start, ref, alt);
+        }
+        synchronized (tabixDataSource) {
+            return queryPositionFrequencyData(chromosome, start, ref, alt);
+        }
+    }
+
+    private FrequencyData queryPositionFrequencyData(String chromosome, int start, String ref, String alt) {
         //Local frequency file defined as tab-delimited lines in 'VCF-lite' format:
         //chr   pos ref alt freq(%)
         //1 12345   A   T   23.0  (an A->T SNP on chr1 at position 12345 with frequency of 23.0%)
@@ -0,0 +1,80 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only memory-mapped region of a file. As a {@link java.nio.MappedByteBuffer} is limited to
+ * {@link Integer#MAX_VALUE} bytes the region is mapped in 1GB segments. Each segment is extended by the overlap so that
+ * any record of up to that length which starts in a segment can be read from it.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+final class MappedRegion {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final ByteBuffer[] segments;
+    private final long length;
+
+    MappedRegion(FileChannel fileChannel, long start, long length, int overlap) throws IOException {
+        this.length = length;
+        int numSegments = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        this.segments = new ByteBuffer[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            long segmentStart = (long) i << SEGMENT_SHIFT;
+            long segmentLength = Math.min(length - segmentStart, (1L << SEGMENT_SHIFT) + overlap);
+            segments[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, start + segmentStart, segmentLength);
+        }
+    }
+
+    long length() {
+        return length;
+    }
+
+    /**
+     * @return the segment containing the offset. Reads from this must use {@link #positionOf(long)}.
+     */
+    ByteBuffer segmentOf(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)];
+    }
+
+    int positionOf(long offset) {
+        return (int) (offset & SEGMENT_MASK);
+    }
+
+    short getShort(long offset) {
+        return segmentOf(offset).getShort(positionOf(offset));
+    }
+
+    int getInt(long offset) {
+        return segmentOf(offset).getInt(positionOf(offset));
+    }
+
+    long getLong(long offset) {
+        return segmentOf(offset).getLong(positionOf(offset));
+    }
+}
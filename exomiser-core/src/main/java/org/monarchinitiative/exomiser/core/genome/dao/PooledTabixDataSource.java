@@ -0,0 +1,252 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import htsjdk.tribble.readers.TabixReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * {@link TabixDataSource} backed by a bounded pool of readers, each with its own file handle and BGZF block cache, over
+ * the same tabix file. Unlike the {@link TabixReaderAdaptor} queries from different threads do not contend for a single
+ * reader, so callers do not need to synchronise access to this data source. Readers are opened as they are needed, up
+ * to the maximum size of the pool, after which a query waits for a reader to be returned by another thread.
+ * <p>
+ * A reader is borrowed for the duration of a single query, so the results of the query are read into memory before the
+ * reader is returned to the pool. This is intended for the small number of lines returned by a query of a single
+ * position or variant.
+ * <p>
+ * The number of queries and the time spent in them, including waiting for a reader, are recorded and logged when the
+ * data source is closed so that the cost of each tabix source can be reported.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class PooledTabixDataSource implements TabixDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledTabixDataSource.class);
+
+    private final String source;
+    private final Supplier<TabixDataSource> readerFactory;
+    private final int maxReaders;
+    private final BlockingQueue<TabixDataSource> idleReaders;
+    private final Queue<TabixDataSource> openReaders = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger readerCount = new AtomicInteger();
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder queryTimeNanos = new LongAdder();
+
+    /**
+     * @param source        the name of the tabix file
+     * @param readerFactory opens a new single-threaded reader of the tabix file
+     * @param maxReaders    the maximum number of readers to open
+     */
+    public PooledTabixDataSource(String source, Supplier<TabixDataSource> readerFactory, int maxReaders) {
+        if (maxReaders < 1) {
+            throw new IllegalArgumentException("maxReaders must be greater than 0");
+        }
+        this.source = source;
+        this.readerFactory = readerFactory;
+        this.maxReaders = maxReaders;
+        this.idleReaders = new ArrayBlockingQueue<>(maxReaders);
+        // open the first reader here so that a missing or invalid file fails fast
+        readerCount.incrementAndGet();
+        idleReaders.add(openReader());
+    }
+
+    /**
+     * Creates a {@link PooledTabixDataSource} of up to maxReaders {@link TabixReaderAdaptor} for the tabix file.
+     *
+     * @throws UncheckedIOException if the file or its index cannot be read
+     */
+    public static PooledTabixDataSource of(Path tabixPath, int maxReaders) {
+        String source = tabixPath.toAbsolutePath().toString();
+        return new PooledTabixDataSource(source, () -> {
+            try {
+                return new TabixReaderAdaptor(new TabixReader(source));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to open tabix file " + source, e);
+            }
+        }, maxReaders);
+    }
+
+    private TabixDataSource openReader() {
+        TabixDataSource reader = readerFactory.get();
+        openReaders.add(reader);
+        logger.debug("Opened reader {} of {} for {}", openReaders.size(), maxReaders, source);
+        return reader;
+    }
+
+    private TabixDataSource borrowReader() {
+        TabixDataSource reader = idleReaders.poll();
+        if (reader != null) {
+            return reader;
+        }
+        int count = readerCount.get();
+        while (count < maxReaders) {
+            if (readerCount.compareAndSet(count, count + 1)) {
+                try {
+                    return openReader();
+                } catch (RuntimeException e) {
+                    readerCount.decrementAndGet();
+                    throw e;
+                }
+            }
+            count = readerCount.get();
+        }
+        try {
+            return idleReaders.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a reader of " + source, e);
+        }
+    }
+
+    private void returnReader(TabixDataSource reader) {
+        idleReaders.add(reader);
+    }
+
+    @Override
+    public boolean supportsConcurrentQueries() {
+        return true;
+    }
+
+    /**
+     * @deprecated Unless you're 100% certain, use the method query(String chromosome, int start, int end) which will
+     * automatically translate the chromosome name to the internal tabix identifier.
+     */
+    @Deprecated
+    @Override
+    public TabixReader.Iterator query(String query) {
+        long startNanos = System.nanoTime();
+        TabixDataSource reader = borrowReader();
+        try {
+            return readResults(reader.query(query), startNanos);
+        } finally {
+            returnReader(reader);
+        }
+    }
+
+    @Override
+    public TabixReader.Iterator query(String chromosome, int start, int end) {
+        long startNanos = System.nanoTime();
+        TabixDataSource reader = borrowReader();
+        try {
+            return readResults(reader.query(chromosome, start, end), startNanos);
+        } finally {
+            returnReader(reader);
+        }
+    }
+
+    private TabixReader.Iterator readResults(TabixReader.Iterator iterator, long startNanos) {
+        // the index is only searched and the blocks read when the iterator is advanced, so this needs to happen before
+        // the reader is returned to the pool
+        List<String> lines = new ArrayList<>();
+        try {
+            String line;
+            while ((line = iterator.next()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read from " + source, e);
+        } finally {
+            queryCount.increment();
+            queryTimeNanos.add(System.nanoTime() - startNanos);
+        }
+        Iterator<String> results = lines.iterator();
+        return () -> results.hasNext() ? results.next() : null;
+    }
+
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    public long getQueryTimeNanos() {
+        return queryTimeNanos.sum();
+    }
+
+    /**
+     * @return the mean time in microseconds taken to query and read the results, or 0 if there have been no queries
+     */
+    public double getMeanQueryLatencyMicros() {
+        long count = queryCount.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queryTimeNanos.sum()) / (double) count;
+    }
+
+    /**
+     * @return the number of readers currently open
+     */
+    public int getReaderCount() {
+        return openReaders.size();
+    }
+
+    public int getMaxReaders() {
+        return maxReaders;
+    }
+
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Logs the number of queries of the data source, the total time spent in them and their mean latency.
+     */
+    public void logQueryStats() {
+        logger.info("{} - {} queries in {} ms, mean latency {} us using {} of {} readers", source, getQueryCount(), TimeUnit.NANOSECONDS.toMillis(getQueryTimeNanos()), String.format("%.1f", getMeanQueryLatencyMicros()), getReaderCount(), maxReaders);
+    }
+
+    @Override
+    public void close() throws IOException {
+        logQueryStats();
+        TabixDataSource reader;
+        while ((reader = openReaders.poll()) != null) {
+            reader.close();
+        }
+        idleReaders.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "PooledTabixDataSource{" +
+                "source='" + source + '\'' +
+                ", readers=" + getReaderCount() +
+                ", maxReaders=" + maxReaders +
+                ", queries=" + getQueryCount() +
+                ", meanQueryLatencyMicros=" + String.format("%.1f", getMeanQueryLatencyMicros()) +
+                '}';
+    }
+}
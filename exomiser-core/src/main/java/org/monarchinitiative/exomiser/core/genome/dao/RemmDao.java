@@ -72,7 +72,7 @@ private PathogenicityData processResults(Variant variant) {
         return getRemmData(chromosome, start, end);
     }
 
-    private int calculateEndPosition(Variant variant) {
+    static int calculateEndPosition(Variant variant) {
         int pos = variant.start();
 
         //we're doing this here in order not to have to count all this each time we need the value
@@ -102,7 +102,16 @@ private static boolean isInsertion(int refLength, int altLength) {
         return refLength < altLength;
     }
 
-    private synchronized PathogenicityData getRemmData(String chromosome, int start, int end) {
+    private PathogenicityData getRemmData(String chromosome, int start, int end) {
+        if (remmTabixDataSource.supportsConcurrentQueries()) {
+            return queryRemmData(chromosome, start, end);
+        }
+        synchronized (remmTabixDataSource) {
+            return queryRemmData(chromosome, start, end);
+        }
+    }
+
+    private PathogenicityData queryRemmData(String chromosome, int start, int end) {
         try {
             float score = Float.NaN;
             String line;
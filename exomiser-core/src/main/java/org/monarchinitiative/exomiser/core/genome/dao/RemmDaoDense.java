@@ -0,0 +1,65 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.RemmScore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DenseScoreStore} implementation of the REMM {@link PathogenicityDao}, with one score per position. As with the
+ * {@link RemmDao} the score for a variant is the maximum score of the positions it affects. Lookups only read the
+ * mapped array, so unlike the tabix-based {@link RemmDao} the results are not cached.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class RemmDaoDense implements PathogenicityDao {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemmDaoDense.class);
+
+    private final DenseScoreStore remmScores;
+
+    public RemmDaoDense(DenseScoreStore remmScores) {
+        if (remmScores.getScoresPerPosition() != 1) {
+            throw new IllegalArgumentException("REMM scores must have one score per position, not " + remmScores.getScoresPerPosition());
+        }
+        this.remmScores = remmScores;
+    }
+
+    @Override
+    public PathogenicityData getPathogenicityData(Variant variant) {
+        logger.debug("Getting REMM data for {}", variant);
+        // REMM has not been trained on missense variants so skip these
+        if (variant.getVariantEffect() == VariantEffect.MISSENSE_VARIANT) {
+            return PathogenicityData.empty();
+        }
+        int end = RemmDao.calculateEndPosition(variant);
+        float score = remmScores.getMaxScore(variant.contigId(), variant.start(), end, 0);
+        if (Float.isNaN(score)) {
+            return PathogenicityData.empty();
+        }
+        return PathogenicityData.of(RemmScore.of(score));
+    }
+}
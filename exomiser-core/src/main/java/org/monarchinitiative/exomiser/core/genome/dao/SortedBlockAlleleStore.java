@@ -0,0 +1,307 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Immutable, memory-mapped store of {@link AlleleProperties}, written by the {@link SortedBlockAlleleStoreWriter}. This
+ * is an alternative to the MVStore variants database for read-only use. Lookups are a binary search of an in-memory
+ * fence index, followed by a binary search of a single block of the mapped keys, so the data is held in the OS page
+ * cache rather than the Java heap and can be shared by several JVMs on the same host.
+ * <p>
+ * The file is laid out as:
+ * <pre>
+ * header     magic, version, keys per block, max value record length, number of chromosomes, reserved (6 x int),
+ *            source checksum (long)
+ * directory  per chromosome: chr, reserved, first key index, number of keys (int, int, long, long)
+ * keys       per allele, sorted by chromosome then packed key: packed key, value offset (long, long)
+ * fences     per chromosome, the packed key of the first allele in each block of keys (long)
+ * values     per allele: ref length, ref, alt length, alt, properties length, properties (int, bytes, int, bytes, int, bytes)
+ * </pre>
+ * The packed key is the position in the upper 32 bits and a hash of the ref and alt alleles in the lower 32 bits, so it
+ * has a fixed width and alleles which share a position and hash are disambiguated using the alleles in the value record.
+ * The source checksum is the {@link DataFileChecksum} of the variants database the store was written from, so that a
+ * store can be checked against the database of the same release.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class SortedBlockAlleleStore {
+
+    static final int MAGIC = 0x45584153; // EXAS
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 6 * Integer.BYTES + Long.BYTES;
+    static final int DIRECTORY_ENTRY_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES;
+    static final int KEY_BYTES = 2 * Long.BYTES;
+
+    private final ChromosomeIndex[] chromosomeIndices;
+    private final MappedRegion keys;
+    private final MappedRegion values;
+    private final long numKeys;
+    private final long sourceChecksum;
+
+    private SortedBlockAlleleStore(ChromosomeIndex[] chromosomeIndices, MappedRegion keys, MappedRegion values, long numKeys, long sourceChecksum) {
+        this.chromosomeIndices = chromosomeIndices;
+        this.keys = keys;
+        this.values = values;
+        this.numKeys = numKeys;
+        this.sourceChecksum = sourceChecksum;
+    }
+
+    /**
+     * Memory-maps a store written by the {@link SortedBlockAlleleStoreWriter}. Only the fence index is read onto the heap.
+     *
+     * @throws IllegalStateException if the file is not a valid store
+     * @throws UncheckedIOException  if the file cannot be read
+     */
+    public static SortedBlockAlleleStore open(Path path) {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (fileChannel.size() < HEADER_BYTES) {
+                throw new IllegalStateException(path + " is not a sorted-block allele store");
+            }
+            ByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalStateException(path + " is not a sorted-block allele store");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported sorted-block allele store version " + version + " in " + path);
+            }
+            int keysPerBlock = header.getInt();
+            int maxRecordLength = header.getInt();
+            int numChromosomes = header.getInt();
+            header.getInt();
+            long sourceChecksum = header.getLong();
+            if (fileChannel.size() < HEADER_BYTES + (long) numChromosomes * DIRECTORY_ENTRY_BYTES) {
+                throw new IllegalStateException("Sorted-block allele store " + path + " is truncated");
+            }
+
+            ByteBuffer directory = fileChannel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) numChromosomes * DIRECTORY_ENTRY_BYTES);
+            int[] chrs = new int[numChromosomes];
+            long[] firstKeys = new long[numChromosomes];
+            long[] chrNumKeys = new long[numChromosomes];
+            long totalKeys = 0;
+            long totalFences = 0;
+            int maxChr = 0;
+            for (int i = 0; i < numChromosomes; i++) {
+                chrs[i] = directory.getInt();
+                directory.getInt();
+                firstKeys[i] = directory.getLong();
+                chrNumKeys[i] = directory.getLong();
+                totalKeys += chrNumKeys[i];
+                totalFences += numBlocks(chrNumKeys[i], keysPerBlock);
+                maxChr = Math.max(maxChr, chrs[i]);
+            }
+
+            long keysStart = HEADER_BYTES + (long) numChromosomes * DIRECTORY_ENTRY_BYTES;
+            long fencesStart = keysStart + totalKeys * KEY_BYTES;
+            long valuesStart = fencesStart + totalFences * Long.BYTES;
+            if (fileChannel.size() < valuesStart) {
+                throw new IllegalStateException("Sorted-block allele store " + path + " is truncated");
+            }
+
+            ChromosomeIndex[] chromosomeIndices = new ChromosomeIndex[maxChr + 1];
+            MappedRegion fences = new MappedRegion(fileChannel, fencesStart, totalFences * Long.BYTES, 0);
+            long fenceOffset = 0;
+            for (int i = 0; i < numChromosomes; i++) {
+                long[] chrFences = new long[(int) numBlocks(chrNumKeys[i], keysPerBlock)];
+                for (int f = 0; f < chrFences.length; f++) {
+                    chrFences[f] = fences.getLong(fenceOffset);
+                    fenceOffset += Long.BYTES;
+                }
+                chromosomeIndices[chrs[i]] = new ChromosomeIndex(firstKeys[i], chrNumKeys[i], keysPerBlock, chrFences);
+            }
+            MappedRegion keys = new MappedRegion(fileChannel, keysStart, totalKeys * KEY_BYTES, 0);
+            MappedRegion values = new MappedRegion(fileChannel, valuesStart, fileChannel.size() - valuesStart, maxRecordLength);
+            return new SortedBlockAlleleStore(chromosomeIndices, keys, values, totalKeys, sourceChecksum);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open sorted-block allele store " + path, e);
+        }
+    }
+
+    static long numBlocks(long numKeys, int keysPerBlock) {
+        return (numKeys + keysPerBlock - 1) / keysPerBlock;
+    }
+
+    static long packKey(int position, String ref, String alt) {
+        return ((long) position << 32) | (alleleHash(ref, alt) & 0xFFFFFFFFL);
+    }
+
+    static int alleleHash(String ref, String alt) {
+        long hash = ref.length();
+        for (int i = 0; i < ref.length(); i++) {
+            hash = hash * 31 + ref.charAt(i);
+        }
+        hash = hash * 31 + alt.length();
+        for (int i = 0; i < alt.length(); i++) {
+            hash = hash * 31 + alt.charAt(i);
+        }
+        // MurmurHash3 64-bit finaliser
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    public long size() {
+        return numKeys;
+    }
+
+    /**
+     * @return the {@link DataFileChecksum} of the variants database this store was written from
+     */
+    public long getSourceChecksum() {
+        return sourceChecksum;
+    }
+
+    /**
+     * @return the {@link AlleleProperties} for the key, or the default instance if the allele is not in the store
+     */
+    public AlleleProperties get(AlleleKey alleleKey) {
+        int chr = alleleKey.getChr();
+        if (chr < 0 || chr >= chromosomeIndices.length || chromosomeIndices[chr] == null) {
+            return AlleleProperties.getDefaultInstance();
+        }
+        ChromosomeIndex chromosomeIndex = chromosomeIndices[chr];
+        String ref = alleleKey.getRef();
+        String alt = alleleKey.getAlt();
+        long packedKey = packKey(alleleKey.getPosition(), ref, alt);
+
+        long end = chromosomeIndex.firstKey + chromosomeIndex.numKeys;
+        for (long i = lowerBound(chromosomeIndex, packedKey); i < end && getPackedKey(i) == packedKey; i++) {
+            long valueOffset = keys.getLong(i * KEY_BYTES + Long.BYTES);
+            AlleleProperties alleleProperties = readValueIfAllelesMatch(valueOffset, ref, alt);
+            if (alleleProperties != null) {
+                return alleleProperties;
+            }
+        }
+        return AlleleProperties.getDefaultInstance();
+    }
+
+    private long getPackedKey(long keyIndex) {
+        return keys.getLong(keyIndex * KEY_BYTES);
+    }
+
+    /**
+     * @return the index of the first key greater than or equal to the packed key
+     */
+    private long lowerBound(ChromosomeIndex chromosomeIndex, long packedKey) {
+        // the last block starting with a key strictly less than the packed key, as equal keys may start in this block
+        int block = Arrays.binarySearch(chromosomeIndex.fences, packedKey);
+        if (block < 0) {
+            block = -block - 2;
+        } else {
+            // found a block starting with the key, there could be equal keys at the end of the previous blocks
+            while (block > 0 && chromosomeIndex.fences[block - 1] == packedKey) {
+                block--;
+            }
+            block--;
+        }
+        if (block < 0) {
+            return chromosomeIndex.firstKey;
+        }
+        long low = chromosomeIndex.firstKey + (long) block * chromosomeIndex.keysPerBlock;
+        long high = Math.min(low + chromosomeIndex.keysPerBlock, chromosomeIndex.firstKey + chromosomeIndex.numKeys);
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (getPackedKey(mid) < packedKey) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private AlleleProperties readValueIfAllelesMatch(long valueOffset, String ref, String alt) {
+        ByteBuffer segment = values.segmentOf(valueOffset);
+        int position = values.positionOf(valueOffset);
+        int refLength = segment.getInt(position);
+        position += Integer.BYTES;
+        if (!matches(segment, position, refLength, ref)) {
+            return null;
+        }
+        position += refLength;
+        int altLength = segment.getInt(position);
+        position += Integer.BYTES;
+        if (!matches(segment, position, altLength, alt)) {
+            return null;
+        }
+        position += altLength;
+        int propertiesLength = segment.getInt(position);
+        position += Integer.BYTES;
+        ByteBuffer properties = segment.duplicate();
+        properties.limit(position + propertiesLength).position(position);
+        try {
+            return AlleleProperties.parseFrom(properties);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Unable to read allele properties at offset " + valueOffset, e);
+        }
+    }
+
+    private static boolean matches(ByteBuffer segment, int position, int length, String allele) {
+        if (length != allele.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (segment.get(position + i) != (byte) allele.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "SortedBlockAlleleStore{" +
+                "numKeys=" + numKeys +
+                ", sourceChecksum=" + Long.toHexString(sourceChecksum) +
+                '}';
+    }
+
+    private static class ChromosomeIndex {
+
+        private final long firstKey;
+        private final long numKeys;
+        private final int keysPerBlock;
+        private final long[] fences;
+
+        private ChromosomeIndex(long firstKey, long numKeys, int keysPerBlock, long[] fences) {
+            this.firstKey = firstKey;
+            this.numKeys = numKeys;
+            this.keysPerBlock = keysPerBlock;
+            this.fences = fences;
+        }
+    }
+}
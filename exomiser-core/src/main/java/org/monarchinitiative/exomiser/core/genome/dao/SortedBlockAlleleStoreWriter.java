@@ -0,0 +1,215 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.monarchinitiative.exomiser.core.genome.dao.SortedBlockAlleleStore.*;
+
+/**
+ * Writes a {@link SortedBlockAlleleStore}. The alleles must be written in ascending chromosome and position order, as
+ * they are when read from the MVStore variants database. The keys and values are streamed to temporary files next to
+ * the output and combined into the store when the writer is closed.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class SortedBlockAlleleStoreWriter implements Closeable {
+
+    public static final int DEFAULT_KEYS_PER_BLOCK = 128;
+
+    private final Path outputPath;
+    private final long sourceChecksum;
+    private final int keysPerBlock;
+
+    private final Path keysPath;
+    private final Path valuesPath;
+    private final DataOutputStream keysOut;
+    private final DataOutputStream valuesOut;
+
+    private final List<ChromosomeEntry> chromosomeEntries = new ArrayList<>();
+    private long[] fences = new long[1024];
+    private int numFences = 0;
+
+    // alleles at the current position, which are sorted by packed key before being written
+    private final List<long[]> pendingKeys = new ArrayList<>();
+    private int currentChr = -1;
+    private int currentPosition = -1;
+
+    private long numKeys = 0;
+    private long valuesLength = 0;
+    private int maxRecordLength = 0;
+
+    /**
+     * @param outputPath     the store file
+     * @param sourceChecksum the {@link DataFileChecksum} of the variants database the alleles are read from. This must
+     *                       be calculated once the database has been compacted, as compaction rewrites the file.
+     */
+    public SortedBlockAlleleStoreWriter(Path outputPath, long sourceChecksum) {
+        this(outputPath, sourceChecksum, DEFAULT_KEYS_PER_BLOCK);
+    }
+
+    SortedBlockAlleleStoreWriter(Path outputPath, long sourceChecksum, int keysPerBlock) {
+        if (keysPerBlock < 1) {
+            throw new IllegalArgumentException("keysPerBlock must be greater than 0");
+        }
+        this.outputPath = outputPath;
+        this.sourceChecksum = sourceChecksum;
+        this.keysPerBlock = keysPerBlock;
+        this.keysPath = outputPath.resolveSibling(outputPath.getFileName() + ".keys.tmp");
+        this.valuesPath = outputPath.resolveSibling(outputPath.getFileName() + ".values.tmp");
+        try {
+            this.keysOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(keysPath), 1 << 16));
+            this.valuesOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(valuesPath), 1 << 16));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create sorted-block allele store " + outputPath, e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the allele is not after the previous allele in chromosome and position order
+     */
+    public void write(AlleleKey alleleKey, AlleleProperties alleleProperties) {
+        int chr = alleleKey.getChr();
+        int position = alleleKey.getPosition();
+        if (chr < currentChr || (chr == currentChr && position < currentPosition)) {
+            throw new IllegalArgumentException("Alleles must be written in chromosome and position order. " + alleleKey + " is before " + currentChr + "-" + currentPosition);
+        }
+        try {
+            if (chr != currentChr || position != currentPosition) {
+                flushPendingKeys();
+            }
+            if (chr != currentChr) {
+                chromosomeEntries.add(new ChromosomeEntry(chr, numKeys));
+                currentChr = chr;
+            }
+            currentPosition = position;
+            pendingKeys.add(new long[]{packKey(position, alleleKey.getRef(), alleleKey.getAlt()), valuesLength});
+            writeValue(alleleKey, alleleProperties);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write to sorted-block allele store " + outputPath, e);
+        }
+    }
+
+    private void writeValue(AlleleKey alleleKey, AlleleProperties alleleProperties) throws IOException {
+        byte[] ref = alleleKey.getRef().getBytes(StandardCharsets.US_ASCII);
+        byte[] alt = alleleKey.getAlt().getBytes(StandardCharsets.US_ASCII);
+        byte[] properties = alleleProperties.toByteArray();
+        valuesOut.writeInt(ref.length);
+        valuesOut.write(ref);
+        valuesOut.writeInt(alt.length);
+        valuesOut.write(alt);
+        valuesOut.writeInt(properties.length);
+        valuesOut.write(properties);
+        int recordLength = 3 * Integer.BYTES + ref.length + alt.length + properties.length;
+        valuesLength += recordLength;
+        maxRecordLength = Math.max(maxRecordLength, recordLength);
+    }
+
+    private void flushPendingKeys() throws IOException {
+        if (pendingKeys.isEmpty()) {
+            return;
+        }
+        pendingKeys.sort((a, b) -> Long.compare(a[0], b[0]));
+        ChromosomeEntry chromosomeEntry = chromosomeEntries.get(chromosomeEntries.size() - 1);
+        for (long[] pendingKey : pendingKeys) {
+            if (chromosomeEntry.numKeys % keysPerBlock == 0) {
+                addFence(pendingKey[0]);
+            }
+            keysOut.writeLong(pendingKey[0]);
+            keysOut.writeLong(pendingKey[1]);
+            chromosomeEntry.numKeys++;
+            numKeys++;
+        }
+        pendingKeys.clear();
+    }
+
+    private void addFence(long packedKey) {
+        if (numFences == fences.length) {
+            fences = Arrays.copyOf(fences, fences.length * 2);
+        }
+        fences[numFences++] = packedKey;
+    }
+
+    public long getNumKeys() {
+        return numKeys + pendingKeys.size();
+    }
+
+    /**
+     * Writes the store to the output path and removes the temporary files.
+     */
+    @Override
+    public void close() {
+        try {
+            flushPendingKeys();
+            keysOut.close();
+            valuesOut.close();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(outputPath), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(keysPerBlock);
+                out.writeInt(maxRecordLength);
+                out.writeInt(chromosomeEntries.size());
+                out.writeInt(0);
+                out.writeLong(sourceChecksum);
+                for (ChromosomeEntry chromosomeEntry : chromosomeEntries) {
+                    out.writeInt(chromosomeEntry.chr);
+                    out.writeInt(0);
+                    out.writeLong(chromosomeEntry.firstKey);
+                    out.writeLong(chromosomeEntry.numKeys);
+                }
+                out.flush();
+                Files.copy(keysPath, out);
+                for (int i = 0; i < numFences; i++) {
+                    out.writeLong(fences[i]);
+                }
+                out.flush();
+                Files.copy(valuesPath, out);
+            }
+            Files.delete(keysPath);
+            Files.delete(valuesPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write sorted-block allele store " + outputPath, e);
+        }
+    }
+
+
+    private static class ChromosomeEntry {
+
+        private final int chr;
+        private final long firstKey;
+        private long numKeys = 0;
+
+        private ChromosomeEntry(int chr, long firstKey) {
+            this.chr = chr;
+            this.firstKey = firstKey;
+        }
+    }
+}
@@ -76,6 +76,22 @@ public static double jaccard(GenomicRegion x, GenomicRegion y) {
         return intersection / (x.length() + y.length() - intersection);
     }
 
+    /**
+     * Primitive equivalent of {@link #jaccard(GenomicRegion, GenomicRegion)} for two regions on the same contig and
+     * strand, given in fully-closed (one-based) coordinates.
+     *
+     * @param xStart start of the first region
+     * @param xEnd   end of the first region
+     * @param yStart start of the second region
+     * @param yEnd   end of the second region
+     * @return Jaccard coefficient of x and y
+     * @since 13.2.0
+     */
+    public static double jaccard(int xStart, int xEnd, int yStart, int yEnd) {
+        double intersection = Math.max(0, Math.min(xEnd, yEnd) - Math.max(xStart, yStart) + 1);
+        return intersection / ((xEnd - xStart + 1) + (yEnd - yStart + 1) - intersection);
+    }
+
     public static double reciprocalOverlap(GenomicRegion x, GenomicRegion y) {
         if (!x.overlapsWith(y)) {
             return 0;
@@ -104,12 +104,12 @@ private FrequencyData mapToFrequencyData(List<SvResult> topMatches) {
     }
 
     private Frequency toFrequency(SvResult svResult) {
-        FrequencySource frequencySource = frequencySource(svResult);
+        FrequencySource frequencySource = frequencySource(svResult.source);
         return Frequency.of(frequencySource, svResult.af);
     }
 
-    private FrequencySource frequencySource(SvResult first) {
-        switch (first.source) {
+    static FrequencySource frequencySource(String source) {
+        switch (source) {
             case "GNOMAD-SV":
                 return FrequencySource.GNOMAD_SV;
             case "DBVAR":
@@ -224,7 +224,7 @@ private List<SvResult> processSvResults(ResultSet rs, Variant variant) throws SQ
         return results;
     }
 
-    private static int checkChangeLength(VariantType variantType, int start, int end, int changeLength) {
+    static int checkChangeLength(VariantType variantType, int start, int end, int changeLength) {
         if (variantType == VariantType.CNV) {
             return changeLength;
         }
@@ -0,0 +1,225 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.monarchinitiative.exomiser.core.model.SvMetaType;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.Strand;
+import org.monarchinitiative.svart.VariantType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In-memory equivalent of the {@link SvFrequencyDao}. Rather than querying the SV_FREQ table for every structural
+ * variant, the whole table is loaded into an {@link SvIntervalIndex} the first time it is required and each query
+ * becomes a binary search for the {@link SvDaoBoundaryCalculator} window followed by a scan over primitive arrays.
+ * Results are identical to those of the {@link SvFrequencyDao}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class SvFrequencyDaoInMemory implements FrequencyDao {
+
+    private static final Logger logger = LoggerFactory.getLogger(SvFrequencyDaoInMemory.class);
+
+    private static final SvMetaType[] META_TYPES = SvMetaType.values();
+
+    private final DataSource svDataSource;
+    private final double minSimilarity = 0.80;
+
+    private volatile SvFrequencies svFrequencies;
+
+    public SvFrequencyDaoInMemory(DataSource svDataSource) {
+        this.svDataSource = svDataSource;
+    }
+
+    @Override
+    public FrequencyData getFrequencyData(Variant variant) {
+        SvFrequencies frequencies = svFrequencies();
+
+        SvDaoBoundaryCalculator svDaoBoundaryCalculator = new SvDaoBoundaryCalculator(variant, minSimilarity);
+        int startMin = svDaoBoundaryCalculator.startMin();
+        int startMax = svDaoBoundaryCalculator.startMax();
+        int endMin = svDaoBoundaryCalculator.endMin();
+        int endMax = svDaoBoundaryCalculator.endMax();
+
+        int variantStart = variant.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.FULLY_CLOSED);
+        int variantEnd = variant.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.FULLY_CLOSED);
+        int variantChangeLength = variant.changeLength();
+        boolean isInsertion = variant.variantType().baseType() == VariantType.INS;
+        SvMetaType variantMetaType = SvMetaType.toMetaType(variant.variantType());
+
+        int topRow = -1;
+        double topScore = 0;
+        for (SvMetaType svMetaType : META_TYPES) {
+            if (!SvMetaType.isEquivalent(variantMetaType, svMetaType)) {
+                continue;
+            }
+            SvIntervalIndex.Intervals intervals = frequencies.index.intervals(variant.contigId(), svMetaType);
+            if (intervals == null) {
+                continue;
+            }
+            for (int i = intervals.firstIndexStartingAtOrAfter(startMin); i < intervals.size() && intervals.start(i) <= startMax; i++) {
+                int end = intervals.end(i);
+                if (end < endMin || end > endMax) {
+                    continue;
+                }
+                if (isInsertion && !isSimilarInsertion(variantChangeLength, intervals.changeLength(i))) {
+                    continue;
+                }
+                int row = intervals.row(i);
+                // geometric mean of num alleles and similarity - try and get the best represented and most similar allele
+                double score = Math.sqrt(frequencies.alleleNumbers[row] * SvDaoUtil.jaccard(variantStart, variantEnd, intervals.start(i), end));
+                int comparison = topRow == -1 ? 1 : Double.compare(score, topScore);
+                if (comparison > 0 || (comparison == 0 && row < topRow)) {
+                    topRow = row;
+                    topScore = score;
+                }
+            }
+        }
+        return topRow == -1 ? FrequencyData.empty() : toFrequencyData(frequencies, topRow);
+    }
+
+    private static boolean isSimilarInsertion(int variantChangeLength, int changeLength) {
+        if (changeLength >= 20) {
+            return SvDaoUtil.jaccard(variantChangeLength, changeLength) >= 0.75;
+        }
+        // both too short to apply similarity cutoff
+        return variantChangeLength < 20;
+    }
+
+    private static FrequencyData toFrequencyData(SvFrequencies frequencies, int row) {
+        String id = frequencies.ids[row];
+        int an = frequencies.alleleNumbers[row];
+        int ac = frequencies.alleleCounts[row];
+        float af = ac == 0 ? 0 : (float) ac / (float) an * 100f;
+        if (an < 10 || af == 0) {
+            // Don't report poorly defined frequencies
+            return FrequencyData.of(id);
+        }
+        return FrequencyData.of(id, Frequency.of(frequencies.sources[row], af));
+    }
+
+    private SvFrequencies svFrequencies() {
+        SvFrequencies loaded = svFrequencies;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = svFrequencies;
+                if (loaded == null) {
+                    loaded = loadSvFrequencies();
+                    svFrequencies = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private SvFrequencies loadSvFrequencies() {
+        String query = "SELECT CHROMOSOME, START, \"end\", CHANGE_LENGTH, VARIANT_TYPE, DBVAR_ID, SOURCE, ALLELE_COUNT, ALLELE_NUMBER\n" +
+                "FROM SV_FREQ\n" +
+                "WHERE ALLELE_COUNT != 0\n" +
+                "ORDER BY CHROMOSOME, START, \"end\";";
+        logger.info("Loading SV frequencies into memory...");
+        long startTime = System.currentTimeMillis();
+        SvIntervalIndex.Builder indexBuilder = SvIntervalIndex.builder();
+        List<String> ids = new ArrayList<>();
+        List<FrequencySource> sources = new ArrayList<>();
+        int[] alleleCounts = new int[1024];
+        int[] alleleNumbers = new int[1024];
+        int skipped = 0;
+        try (Connection connection = svDataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(query);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int chr = rs.getInt("CHROMOSOME");
+                int start = rs.getInt("START");
+                int end = rs.getInt("end");
+                int changeLength = rs.getInt("CHANGE_LENGTH");
+                String svType = rs.getString("VARIANT_TYPE");
+                String id = rs.getString("DBVAR_ID");
+                String source = rs.getString("SOURCE");
+                int ac = rs.getInt("ALLELE_COUNT");
+                int an = rs.getInt("ALLELE_NUMBER");
+
+                VariantType variantType = parseVariantType(svType);
+                if (variantType == null) {
+                    skipped++;
+                    continue;
+                }
+                int row = indexBuilder.add(chr, start, end, SvFrequencyDao.checkChangeLength(variantType, start, end, changeLength), variantType);
+                ids.add(id == null || ".".equals(id) ? "" : id);
+                sources.add(source == null ? FrequencySource.UNKNOWN : SvFrequencyDao.frequencySource(source));
+                if (row == alleleCounts.length) {
+                    alleleCounts = Arrays.copyOf(alleleCounts, row * 2);
+                    alleleNumbers = Arrays.copyOf(alleleNumbers, row * 2);
+                }
+                alleleCounts[row] = ac;
+                alleleNumbers[row] = an;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to load SV frequencies", e);
+        }
+        SvIntervalIndex index = indexBuilder.build();
+        logger.info("Loaded {} SV frequencies in {} ms (skipped {} with an unrecognised variant type)", index.size(), System.currentTimeMillis() - startTime, skipped);
+        return new SvFrequencies(index, ids.toArray(String[]::new), sources.toArray(FrequencySource[]::new), Arrays.copyOf(alleleCounts, index.size()), Arrays.copyOf(alleleNumbers, index.size()));
+    }
+
+    @Nullable
+    static VariantType parseVariantType(String svType) {
+        try {
+            return VariantType.valueOf(svType);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.debug("Unrecognised variant type {}", svType);
+            return null;
+        }
+    }
+
+    private static class SvFrequencies {
+
+        private final SvIntervalIndex index;
+        private final String[] ids;
+        private final FrequencySource[] sources;
+        private final int[] alleleCounts;
+        private final int[] alleleNumbers;
+
+        private SvFrequencies(SvIntervalIndex index, String[] ids, FrequencySource[] sources, int[] alleleCounts, int[] alleleNumbers) {
+            this.index = index;
+            this.ids = ids;
+            this.sources = sources;
+            this.alleleCounts = alleleCounts;
+            this.alleleNumbers = alleleNumbers;
+        }
+    }
+}
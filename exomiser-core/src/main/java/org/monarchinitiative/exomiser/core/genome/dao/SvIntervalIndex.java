@@ -0,0 +1,229 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.monarchinitiative.exomiser.core.model.SvMetaType;
+import org.monarchinitiative.svart.VariantType;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Immutable in-memory index of structural variant intervals partitioned by chromosome and {@link SvMetaType}. Each
+ * partition is held as parallel primitive arrays sorted by start position so that the candidate intervals for a query
+ * window can be found with a binary search and scored without allocating any objects.
+ * <p>
+ * Intervals are identified by their row, i.e. the order in which they were added to the {@link Builder}. The row is
+ * used by the DAOs to look up the data associated with an interval and to break ties between equally scored intervals
+ * in the same order as the equivalent SQL query, which returns rows in (chromosome, start, end) index order.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+final class SvIntervalIndex {
+
+    private static final SvMetaType[] META_TYPES = SvMetaType.values();
+
+    // indexed by chromosome, then by SvMetaType ordinal. Partitions with no intervals are null.
+    private final Intervals[][] intervals;
+    private final int size;
+
+    private SvIntervalIndex(Intervals[][] intervals, int size) {
+        this.intervals = intervals;
+        this.size = size;
+    }
+
+    /**
+     * @return the total number of intervals in the index
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the intervals of the given {@link SvMetaType} on the chromosome, or null if there are none
+     */
+    @Nullable
+    Intervals intervals(int chr, SvMetaType svMetaType) {
+        if (chr < 0 || chr >= intervals.length) {
+            return null;
+        }
+        return intervals[chr][svMetaType.ordinal()];
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Intervals of a single {@link SvMetaType} on a chromosome, sorted by start then row.
+     */
+    static final class Intervals {
+
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] changeLengths;
+        private final VariantType[] variantTypes;
+        private final int[] rows;
+
+        private Intervals(int[] starts, int[] ends, int[] changeLengths, VariantType[] variantTypes, int[] rows) {
+            this.starts = starts;
+            this.ends = ends;
+            this.changeLengths = changeLengths;
+            this.variantTypes = variantTypes;
+            this.rows = rows;
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        /**
+         * @return the index of the first interval with a start greater than or equal to the given position, or
+         * {@link #size()} if there are none
+         */
+        int firstIndexStartingAtOrAfter(int position) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < position) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int start(int index) {
+            return starts[index];
+        }
+
+        int end(int index) {
+            return ends[index];
+        }
+
+        int changeLength(int index) {
+            return changeLengths[index];
+        }
+
+        VariantType variantType(int index) {
+            return variantTypes[index];
+        }
+
+        int row(int index) {
+            return rows[index];
+        }
+    }
+
+    static final class Builder {
+
+        private int size = 0;
+        private int maxChr = 0;
+        private int[] chrs = new int[1024];
+        private int[] starts = new int[1024];
+        private int[] ends = new int[1024];
+        private int[] changeLengths = new int[1024];
+        private VariantType[] variantTypes = new VariantType[1024];
+
+        private Builder() {
+        }
+
+        /**
+         * Adds an interval to the index. Coordinates are fully-closed (one-based).
+         *
+         * @return the row of the interval
+         */
+        int add(int chr, int start, int end, int changeLength, VariantType variantType) {
+            if (chr < 0) {
+                throw new IllegalArgumentException("Chromosome must be positive, but was " + chr);
+            }
+            if (size == chrs.length) {
+                int newLength = size * 2;
+                chrs = Arrays.copyOf(chrs, newLength);
+                starts = Arrays.copyOf(starts, newLength);
+                ends = Arrays.copyOf(ends, newLength);
+                changeLengths = Arrays.copyOf(changeLengths, newLength);
+                variantTypes = Arrays.copyOf(variantTypes, newLength);
+            }
+            chrs[size] = chr;
+            starts[size] = start;
+            ends[size] = end;
+            changeLengths[size] = changeLength;
+            variantTypes[size] = variantType;
+            maxChr = Math.max(maxChr, chr);
+            return size++;
+        }
+
+        SvIntervalIndex build() {
+            int numMetaTypes = META_TYPES.length;
+            // count the rows in each partition, then fill each with (start, row) keys which sort in start then row order
+            int[][] counts = new int[maxChr + 1][numMetaTypes];
+            for (int row = 0; row < size; row++) {
+                counts[chrs[row]][SvMetaType.toMetaType(variantTypes[row]).ordinal()]++;
+            }
+            long[][][] keys = new long[maxChr + 1][numMetaTypes][];
+            for (int chr = 0; chr <= maxChr; chr++) {
+                for (int metaType = 0; metaType < numMetaTypes; metaType++) {
+                    keys[chr][metaType] = new long[counts[chr][metaType]];
+                    counts[chr][metaType] = 0;
+                }
+            }
+            for (int row = 0; row < size; row++) {
+                int chr = chrs[row];
+                int metaType = SvMetaType.toMetaType(variantTypes[row]).ordinal();
+                keys[chr][metaType][counts[chr][metaType]++] = ((long) starts[row] << 32) | row;
+            }
+
+            Intervals[][] intervals = new Intervals[maxChr + 1][numMetaTypes];
+            for (int chr = 0; chr <= maxChr; chr++) {
+                for (int metaType = 0; metaType < numMetaTypes; metaType++) {
+                    long[] partitionKeys = keys[chr][metaType];
+                    if (partitionKeys.length != 0) {
+                        intervals[chr][metaType] = buildIntervals(partitionKeys);
+                    }
+                    keys[chr][metaType] = null;
+                }
+            }
+            return new SvIntervalIndex(intervals, size);
+        }
+
+        private Intervals buildIntervals(long[] partitionKeys) {
+            Arrays.sort(partitionKeys);
+            int length = partitionKeys.length;
+            int[] partitionStarts = new int[length];
+            int[] partitionEnds = new int[length];
+            int[] partitionChangeLengths = new int[length];
+            VariantType[] partitionVariantTypes = new VariantType[length];
+            int[] partitionRows = new int[length];
+            for (int i = 0; i < length; i++) {
+                int row = (int) partitionKeys[i];
+                partitionStarts[i] = starts[row];
+                partitionEnds[i] = ends[row];
+                partitionChangeLengths[i] = changeLengths[row];
+                partitionVariantTypes[i] = variantTypes[row];
+                partitionRows[i] = row;
+            }
+            return new Intervals(partitionStarts, partitionEnds, partitionChangeLengths, partitionVariantTypes, partitionRows);
+        }
+    }
+}
@@ -103,7 +103,7 @@ private PathogenicityScore toPathScore(SvResult svResult) {
         return PathogenicityScore.of(PathogenicitySource.CLINVAR, score);
     }
 
-    private float mapClinSigToScore(ClinVarData.ClinSig primaryInterpretation) {
+    static float mapClinSigToScore(ClinVarData.ClinSig primaryInterpretation) {
         switch (primaryInterpretation) {
             case PATHOGENIC:
                 return 1.0f;
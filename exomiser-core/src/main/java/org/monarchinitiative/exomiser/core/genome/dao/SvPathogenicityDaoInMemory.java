@@ -0,0 +1,197 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.monarchinitiative.exomiser.core.model.SvMetaType;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.ClinVarData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.Strand;
+import org.monarchinitiative.svart.VariantType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In-memory equivalent of the {@link SvPathogenicityDao}. The SV_PATH table is loaded into an {@link SvIntervalIndex}
+ * the first time it is required so that each query becomes a binary search for the {@link SvDaoBoundaryCalculator}
+ * window followed by a scan over primitive arrays. Results are identical to those of the {@link SvPathogenicityDao}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class SvPathogenicityDaoInMemory implements PathogenicityDao {
+
+    private static final Logger logger = LoggerFactory.getLogger(SvPathogenicityDaoInMemory.class);
+
+    private static final SvMetaType[] META_TYPES = SvMetaType.values();
+
+    private final DataSource svDataSource;
+    private final double minSimilarity = 0.80;
+
+    private volatile SvPathogenicities svPathogenicities;
+
+    public SvPathogenicityDaoInMemory(DataSource svDataSource) {
+        this.svDataSource = svDataSource;
+    }
+
+    @Override
+    public PathogenicityData getPathogenicityData(Variant variant) {
+        SvPathogenicities pathogenicities = svPathogenicities();
+
+        SvDaoBoundaryCalculator svDaoBoundaryCalculator = new SvDaoBoundaryCalculator(variant, minSimilarity);
+        int startMin = svDaoBoundaryCalculator.startMin();
+        int startMax = svDaoBoundaryCalculator.startMax();
+        int endMin = svDaoBoundaryCalculator.endMin();
+        int endMax = svDaoBoundaryCalculator.endMax();
+
+        int variantStart = variant.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.FULLY_CLOSED);
+        int variantEnd = variant.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.FULLY_CLOSED);
+        SvMetaType variantMetaType = SvMetaType.toMetaType(variant.variantType());
+
+        // rows of the best matching intervals - there are usually no more than a handful of equally good matches
+        int[] topRows = new int[4];
+        int numTopRows = 0;
+        double topJaccard = 0;
+        for (SvMetaType svMetaType : META_TYPES) {
+            if (!SvMetaType.isEquivalent(variantMetaType, svMetaType)) {
+                continue;
+            }
+            SvIntervalIndex.Intervals intervals = pathogenicities.index.intervals(variant.contigId(), svMetaType);
+            if (intervals == null) {
+                continue;
+            }
+            for (int i = intervals.firstIndexStartingAtOrAfter(startMin); i < intervals.size() && intervals.start(i) <= startMax; i++) {
+                int end = intervals.end(i);
+                if (end < endMin || end > endMax) {
+                    continue;
+                }
+                double jaccard = SvDaoUtil.jaccard(variantStart, variantEnd, intervals.start(i), end);
+                int comparison = numTopRows == 0 ? 1 : Double.compare(jaccard, topJaccard);
+                if (comparison > 0) {
+                    topJaccard = jaccard;
+                    numTopRows = 0;
+                }
+                if (comparison >= 0) {
+                    if (numTopRows == topRows.length) {
+                        topRows = Arrays.copyOf(topRows, numTopRows * 2);
+                    }
+                    topRows[numTopRows++] = intervals.row(i);
+                }
+            }
+        }
+        if (numTopRows == 0) {
+            return PathogenicityData.empty();
+        }
+        // return the matches in the same order as the SQL query
+        Arrays.sort(topRows, 0, numTopRows);
+        return toPathogenicityData(pathogenicities, topRows, numTopRows);
+    }
+
+    private static PathogenicityData toPathogenicityData(SvPathogenicities pathogenicities, int[] topRows, int numTopRows) {
+        ClinVarData clinVarData = pathogenicities.clinVarData[topRows[0]];
+        List<PathogenicityScore> pathogenicityScores = new ArrayList<>(numTopRows);
+        for (int i = 0; i < numTopRows; i++) {
+            ClinVarData.ClinSig primaryInterpretation = pathogenicities.clinVarData[topRows[i]].getPrimaryInterpretation();
+            pathogenicityScores.add(PathogenicityScore.of(PathogenicitySource.CLINVAR, SvPathogenicityDao.mapClinSigToScore(primaryInterpretation)));
+        }
+        return PathogenicityData.of(clinVarData, pathogenicityScores);
+    }
+
+    private SvPathogenicities svPathogenicities() {
+        SvPathogenicities loaded = svPathogenicities;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = svPathogenicities;
+                if (loaded == null) {
+                    loaded = loadSvPathogenicities();
+                    svPathogenicities = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private SvPathogenicities loadSvPathogenicities() {
+        String query = "SELECT CHROMOSOME, START, \"end\", CHANGE_LENGTH, VARIANT_TYPE, ALLELE_ID, CLIN_SIG, CLIN_REV_STAT\n" +
+                "FROM SV_PATH\n" +
+                "WHERE CLIN_SIG != 'UNKNOWN'\n" +
+                "ORDER BY CHROMOSOME, START, \"end\";";
+        logger.info("Loading SV pathogenicities into memory...");
+        long startTime = System.currentTimeMillis();
+        SvIntervalIndex.Builder indexBuilder = SvIntervalIndex.builder();
+        List<ClinVarData> clinVarData = new ArrayList<>();
+        int skipped = 0;
+        try (Connection connection = svDataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(query);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int chr = rs.getInt("CHROMOSOME");
+                int start = rs.getInt("START");
+                int end = rs.getInt("end");
+                int changeLength = rs.getInt("CHANGE_LENGTH");
+                String svType = rs.getString("VARIANT_TYPE");
+                String alleleId = rs.getString("ALLELE_ID");
+                String clinSig = rs.getString("CLIN_SIG");
+                String clinRevStat = rs.getString("CLIN_REV_STAT");
+
+                VariantType variantType = SvFrequencyDaoInMemory.parseVariantType(svType);
+                if (variantType == null) {
+                    skipped++;
+                    continue;
+                }
+                indexBuilder.add(chr, start, end, changeLength, variantType);
+                clinVarData.add(ClinVarData.builder()
+                        .alleleId(alleleId)
+                        .primaryInterpretation(ClinVarData.ClinSig.valueOf(clinSig))
+                        .reviewStatus(clinRevStat)
+                        .build());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to load SV pathogenicities", e);
+        }
+        SvIntervalIndex index = indexBuilder.build();
+        logger.info("Loaded {} SV pathogenicities in {} ms (skipped {} with an unrecognised variant type)", index.size(), System.currentTimeMillis() - startTime, skipped);
+        return new SvPathogenicities(index, clinVarData.toArray(ClinVarData[]::new));
+    }
+
+    private static class SvPathogenicities {
+
+        private final SvIntervalIndex index;
+        private final ClinVarData[] clinVarData;
+
+        private SvPathogenicities(SvIntervalIndex index, ClinVarData[] clinVarData) {
+            this.index = index;
+            this.clinVarData = clinVarData;
+        }
+    }
+}
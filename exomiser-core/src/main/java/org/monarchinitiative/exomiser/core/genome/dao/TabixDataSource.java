@@ -39,4 +39,13 @@ public interface TabixDataSource extends Closeable {
 
     String getSource();
 
+    /**
+     * @return true if the data source can be queried from several threads at once without external synchronisation.
+     * Callers must otherwise lock on the data source while querying and reading the results.
+     * @since 13.2.0
+     */
+    default boolean supportsConcurrentQueries() {
+        return false;
+    }
+
 }
\ No newline at end of file
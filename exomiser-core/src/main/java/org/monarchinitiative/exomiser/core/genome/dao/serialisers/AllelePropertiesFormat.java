@@ -0,0 +1,54 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao.serialisers;
+
+import org.h2.mvstore.type.DataType;
+
+/**
+ * The on-disk format of the {@link org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties} values in
+ * the 'alleles' map of the variants {@link org.h2.mvstore.MVStore}. The format of a store is recorded in the store
+ * itself and detected when the map is opened by {@link MvStoreUtil#openAlleleMVMap(org.h2.mvstore.MVStore)}. Stores
+ * without a recorded format are assumed to be {@link #PROTOBUF}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public enum AllelePropertiesFormat {
+
+    /**
+     * Original format - the protobuf encoded {@code AlleleProperties} message.
+     */
+    PROTOBUF(AllelePropertiesDataType.INSTANCE),
+    /**
+     * Property presence bit-mask and packed float values.
+     */
+    COMPACT(CompactAllelePropertiesDataType.INSTANCE);
+
+    private final DataType dataType;
+
+    AllelePropertiesFormat(DataType dataType) {
+        this.dataType = dataType;
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao.serialisers;
+
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The encoded bytes of a single {@link AllelePropertiesFormat#COMPACT} value, as read from the store by the
+ * {@link CompactAllelePropertiesDataType#LAZY_INSTANCE}. The bytes are only decoded into an {@link AlleleProperties}
+ * message when {@link #toAlleleProperties()} is called.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public final class CompactAlleleProperties {
+
+    // approximate overhead of the object and array headers
+    private static final int MEMORY_OVERHEAD = 32;
+
+    private final byte[] encoded;
+
+    CompactAlleleProperties(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
+    byte[] getEncoded() {
+        return encoded;
+    }
+
+    int getMemory() {
+        return encoded.length + MEMORY_OVERHEAD;
+    }
+
+    public AlleleProperties toAlleleProperties() {
+        return CompactAllelePropertiesDataType.decode(ByteBuffer.wrap(encoded));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompactAlleleProperties that = (CompactAlleleProperties) o;
+        return Arrays.equals(encoded, that.encoded);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(encoded);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactAlleleProperties{" +
+                "encoded=" + encoded.length + " bytes" +
+                '}';
+    }
+}
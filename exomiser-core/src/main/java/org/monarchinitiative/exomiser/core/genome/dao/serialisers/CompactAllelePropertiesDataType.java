@@ -0,0 +1,293 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao.serialisers;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.h2.mvstore.DataUtils;
+import org.h2.mvstore.WriteBuffer;
+import org.h2.mvstore.type.DataType;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.ClinVar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact {@link DataType} for (de)serialising {@link AlleleProperties} objects into and out of the
+ * {@link org.h2.mvstore.MVStore}. Rather than storing the protobuf encoded message with the property name strings
+ * repeated for every allele, the known properties are stored as a presence bit-mask followed by the packed values in
+ * bit order.
+ * <p>
+ * The {@link #LAZY_INSTANCE} does not decode the values when a page is read from the store, instead returning the
+ * encoded bytes of each value as a {@link CompactAlleleProperties} which is only decoded when requested. This avoids
+ * building an {@link AlleleProperties} message for every value on a page when only one of them is looked-up.
+ * <p>
+ * The layout of each value is:
+ * <pre>
+ * flags            byte
+ * rsId             varLong (numeric rs id) | varInt length + UTF-8 bytes (other ids), if present
+ * property mask    varLong, bit n set if {@code PROPERTY_KEYS[n]} is present
+ * property values  float for each set bit, in ascending bit order
+ * other properties varInt count, then varInt length + UTF-8 key bytes and float value for each, if present
+ * clinVar          varInt length + protobuf bytes, if present
+ * </pre>
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @see AllelePropertiesFormat
+ * @since 13.2.0
+ */
+public class CompactAllelePropertiesDataType implements DataType {
+
+    public static final CompactAllelePropertiesDataType INSTANCE = new CompactAllelePropertiesDataType(false);
+    public static final CompactAllelePropertiesDataType LAZY_INSTANCE = new CompactAllelePropertiesDataType(true);
+
+    // Append-only dictionary of the AlleleProperties keys written by the exomiser-data-genome module. The index of each
+    // key is its bit in the stored property mask, so existing entries must never be re-ordered or removed.
+    static final List<String> PROPERTY_KEYS = List.of(
+            "KG", "TOPMED", "UK10K",
+            "ESP_EA", "ESP_AA", "ESP_ALL",
+            "EXAC_AFR", "EXAC_AMR", "EXAC_EAS", "EXAC_FIN", "EXAC_NFE", "EXAC_OTH", "EXAC_SAS",
+            "GNOMAD_E_AFR", "GNOMAD_E_AMR", "GNOMAD_E_ASJ", "GNOMAD_E_EAS", "GNOMAD_E_FIN", "GNOMAD_E_NFE", "GNOMAD_E_OTH", "GNOMAD_E_SAS",
+            "GNOMAD_G_AFR", "GNOMAD_G_AMR", "GNOMAD_G_ASJ", "GNOMAD_G_EAS", "GNOMAD_G_FIN", "GNOMAD_G_NFE", "GNOMAD_G_OTH", "GNOMAD_G_SAS",
+            "SIFT", "POLYPHEN", "MUT_TASTER", "CADD", "REMM",
+            "REVEL", "MCAP", "MPC", "MVP", "PRIMATE_AI"
+    );
+
+    private static final String[] KEYS = PROPERTY_KEYS.toArray(String[]::new);
+    private static final Map<String, Integer> KEY_INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            KEY_INDEX.put(KEYS[i], i);
+        }
+    }
+
+    private static final int HAS_RS_ID = 1;
+    private static final int NUMERIC_RS_ID = 1 << 1;
+    private static final int HAS_CLINVAR = 1 << 2;
+    private static final int HAS_OTHER_PROPERTIES = 1 << 3;
+
+    private final boolean lazy;
+
+    private CompactAllelePropertiesDataType(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    @Override
+    public int compare(Object a, Object b) {
+        return -1;
+    }
+
+    @Override
+    public int getMemory(Object obj) {
+        if (obj instanceof CompactAlleleProperties) {
+            return ((CompactAlleleProperties) obj).getMemory();
+        }
+        AlleleProperties props = (AlleleProperties) obj;
+        return props.getSerializedSize();
+    }
+
+    @Override
+    public void read(ByteBuffer buff, Object[] obj, int len, boolean key) {
+        for (int i = 0; i < len; i++) {
+            obj[i] = lazy ? readEncoded(buff) : read(buff);
+        }
+    }
+
+    @Override
+    public Object read(ByteBuffer buff) {
+        return lazy ? readEncoded(buff) : decode(buff);
+    }
+
+    /**
+     * Copies the encoded bytes of the value at the current position of the buffer, without decoding them.
+     */
+    private static CompactAlleleProperties readEncoded(ByteBuffer buff) {
+        int start = buff.position();
+        skip(buff);
+        byte[] encoded = new byte[buff.position() - start];
+        ((ByteBuffer) buff.duplicate().position(start)).get(encoded);
+        return new CompactAlleleProperties(encoded);
+    }
+
+    private static void skip(ByteBuffer buff) {
+        int flags = buff.get();
+        if ((flags & HAS_RS_ID) != 0) {
+            if ((flags & NUMERIC_RS_ID) != 0) {
+                DataUtils.readVarLong(buff);
+            } else {
+                skipBytes(buff, DataUtils.readVarInt(buff));
+            }
+        }
+        long mask = DataUtils.readVarLong(buff);
+        skipBytes(buff, Long.bitCount(mask) * Float.BYTES);
+        if ((flags & HAS_OTHER_PROPERTIES) != 0) {
+            int count = DataUtils.readVarInt(buff);
+            for (int i = 0; i < count; i++) {
+                skipBytes(buff, DataUtils.readVarInt(buff) + Float.BYTES);
+            }
+        }
+        if ((flags & HAS_CLINVAR) != 0) {
+            skipBytes(buff, DataUtils.readVarInt(buff));
+        }
+    }
+
+    private static void skipBytes(ByteBuffer buff, int length) {
+        buff.position(buff.position() + length);
+    }
+
+    static AlleleProperties decode(ByteBuffer buff) {
+        int flags = buff.get();
+        AlleleProperties.Builder builder = AlleleProperties.newBuilder();
+        if ((flags & HAS_RS_ID) != 0) {
+            builder.setRsId((flags & NUMERIC_RS_ID) != 0 ? "rs" + DataUtils.readVarLong(buff) : readString(buff));
+        }
+        long mask = DataUtils.readVarLong(buff);
+        while (mask != 0) {
+            int index = Long.numberOfTrailingZeros(mask);
+            builder.putProperties(KEYS[index], buff.getFloat());
+            mask &= mask - 1;
+        }
+        if ((flags & HAS_OTHER_PROPERTIES) != 0) {
+            int count = DataUtils.readVarInt(buff);
+            for (int i = 0; i < count; i++) {
+                String name = readString(buff);
+                builder.putProperties(name, buff.getFloat());
+            }
+        }
+        if ((flags & HAS_CLINVAR) != 0) {
+            byte[] data = new byte[DataUtils.readVarInt(buff)];
+            buff.get(data);
+            try {
+                builder.setClinVar(ClinVar.parseFrom(data));
+            } catch (InvalidProtocolBufferException e) {
+                throw new InvalidAlleleProtoException(e);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void write(WriteBuffer buff, Object[] obj, int len, boolean key) {
+        for (int i = 0; i < len; i++) {
+            write(buff, obj[i]);
+        }
+    }
+
+    @Override
+    public void write(WriteBuffer buff, Object obj) {
+        if (obj instanceof CompactAlleleProperties) {
+            buff.put(((CompactAlleleProperties) obj).getEncoded());
+            return;
+        }
+        AlleleProperties props = (AlleleProperties) obj;
+        Map<String, Float> properties = props.getPropertiesMap();
+
+        long mask = 0;
+        int otherProperties = 0;
+        for (String name : properties.keySet()) {
+            Integer index = KEY_INDEX.get(name);
+            if (index == null) {
+                otherProperties++;
+            } else {
+                mask |= 1L << index;
+            }
+        }
+
+        String rsId = props.getRsId();
+        long numericRsId = parseNumericRsId(rsId);
+        int flags = 0;
+        if (!rsId.isEmpty()) {
+            flags |= HAS_RS_ID;
+        }
+        if (numericRsId >= 0) {
+            flags |= NUMERIC_RS_ID;
+        }
+        if (props.hasClinVar()) {
+            flags |= HAS_CLINVAR;
+        }
+        if (otherProperties > 0) {
+            flags |= HAS_OTHER_PROPERTIES;
+        }
+
+        buff.put((byte) flags);
+        if (numericRsId >= 0) {
+            buff.putVarLong(numericRsId);
+        } else if (!rsId.isEmpty()) {
+            writeString(buff, rsId);
+        }
+        buff.putVarLong(mask);
+        long remaining = mask;
+        while (remaining != 0) {
+            int index = Long.numberOfTrailingZeros(remaining);
+            buff.putFloat(properties.get(KEYS[index]));
+            remaining &= remaining - 1;
+        }
+        if (otherProperties > 0) {
+            buff.putVarInt(otherProperties);
+            for (Map.Entry<String, Float> entry : properties.entrySet()) {
+                if (!KEY_INDEX.containsKey(entry.getKey())) {
+                    writeString(buff, entry.getKey());
+                    buff.putFloat(entry.getValue());
+                }
+            }
+        }
+        if (props.hasClinVar()) {
+            byte[] data = props.getClinVar().toByteArray();
+            buff.putVarInt(data.length).put(data);
+        }
+    }
+
+    /**
+     * Returns the numeric part of an rsId of the form rs[1-9][0-9]* or -1 if the rsId cannot be stored as a number
+     * and recreated exactly.
+     */
+    private static long parseNumericRsId(String rsId) {
+        int length = rsId.length();
+        // 18 digits are guaranteed to fit into a long
+        if (length < 3 || length > 20 || !rsId.startsWith("rs") || rsId.charAt(2) == '0') {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 2; i < length; i++) {
+            char c = rsId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static String readString(ByteBuffer buff) {
+        byte[] bytes = new byte[DataUtils.readVarInt(buff)];
+        buff.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(WriteBuffer buff, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buff.putVarInt(bytes.length).put(bytes);
+    }
+}
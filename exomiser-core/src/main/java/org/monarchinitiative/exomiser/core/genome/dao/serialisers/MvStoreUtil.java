@@ -22,6 +22,7 @@
 
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
+import org.h2.mvstore.type.DataType;
 import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
 import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
 import org.slf4j.Logger;
@@ -39,6 +40,8 @@ public class MvStoreUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(MvStoreUtil.class);
     private static final String ALLELE_MAP_NAME = "alleles";
+    private static final String INFO_MAP_NAME = "info";
+    private static final String ALLELE_FORMAT_KEY = "alleles.format";
 
     private MvStoreUtil() {
         //static utility class - not instantiable
@@ -46,7 +49,8 @@ private MvStoreUtil() {
 
     /**
      * Opens the 'alleles' map from the {@link MVStore}. If the store does not already contain this map, a new one will
-     * be created and returned.
+     * be created and returned. The {@link AllelePropertiesFormat} of the values is detected from the store, defaulting
+     * to {@link AllelePropertiesFormat#PROTOBUF} for stores created before the format was recorded.
      *
      * @param mvStore The {@code MVStore} to be used for the 'alleles' {@link MVMap}
      * @return an instance of the {@link MVMap}. This map may be empty.
@@ -54,19 +58,98 @@ private MvStoreUtil() {
      */
     public static MVMap<AlleleKey, AlleleProperties> openAlleleMVMap(MVStore mvStore) {
         Objects.requireNonNull(mvStore);
+        AllelePropertiesFormat format = readAllelePropertiesFormat(mvStore);
         if (!mvStore.hasMap(ALLELE_MAP_NAME)) {
             logger.warn("MVStore does not contain map '{}' - creating new map instance.", ALLELE_MAP_NAME);
         }
-        MVMap<AlleleKey, AlleleProperties> map = mvStore.openMap(ALLELE_MAP_NAME, MvStoreUtil.alleleMapBuilder());
+        MVMap<AlleleKey, AlleleProperties> map = mvStore.openMap(ALLELE_MAP_NAME, MvStoreUtil.alleleMapBuilder(format));
         if (!map.isEmpty()) {
-            logger.debug("MVMap '{}' opened with {} entries", ALLELE_MAP_NAME, map.size());
+            logger.debug("MVMap '{}' opened with {} entries in {} format", ALLELE_MAP_NAME, map.size(), format);
         }
         return map;
     }
 
+    /**
+     * Opens the 'alleles' map from the {@link MVStore} for looking-up individual alleles. Unlike
+     * {@link #openAlleleMVMap(MVStore)}, values in the {@link AllelePropertiesFormat#COMPACT} format are not decoded
+     * when a page is read from the store, but are returned as a {@link CompactAlleleProperties} to be decoded by
+     * {@link #toAlleleProperties(Object)} when required. Values in the {@link AllelePropertiesFormat#PROTOBUF} format,
+     * or from a map which has already been opened in this store, are returned as {@link AlleleProperties}.
+     *
+     * @param mvStore The {@code MVStore} to be used for the 'alleles' {@link MVMap}
+     * @return an instance of the {@link MVMap}. This map may be empty.
+     * @since 13.2.0
+     */
+    public static MVMap<AlleleKey, Object> openAlleleLookupMVMap(MVStore mvStore) {
+        Objects.requireNonNull(mvStore);
+        AllelePropertiesFormat format = readAllelePropertiesFormat(mvStore);
+        DataType valueType = format == AllelePropertiesFormat.COMPACT ? CompactAllelePropertiesDataType.LAZY_INSTANCE : format.getDataType();
+        return mvStore.openMap(ALLELE_MAP_NAME, new MVMap.Builder<AlleleKey, Object>()
+                .keyType(AlleleKeyDataType.INSTANCE)
+                .valueType(valueType));
+    }
+
+    /**
+     * Returns the {@link AlleleProperties} of a value from the map returned by {@link #openAlleleLookupMVMap(MVStore)},
+     * decoding it if required.
+     *
+     * @since 13.2.0
+     */
+    public static AlleleProperties toAlleleProperties(Object value) {
+        if (value instanceof CompactAlleleProperties) {
+            return ((CompactAlleleProperties) value).toAlleleProperties();
+        }
+        return (AlleleProperties) value;
+    }
+
+    /**
+     * Opens the 'alleles' map from the {@link MVStore} using the specified {@link AllelePropertiesFormat}, recording
+     * the format in the store so that it can be detected by {@link #openAlleleMVMap(MVStore)}. This is intended for
+     * writing new stores.
+     *
+     * @param mvStore The {@code MVStore} to be used for the 'alleles' {@link MVMap}
+     * @param format  The format in which the values are to be written
+     * @return an instance of the {@link MVMap}. This map may be empty.
+     * @throws IllegalStateException if the store already contains an 'alleles' map in a different format
+     * @since 13.2.0
+     */
+    public static MVMap<AlleleKey, AlleleProperties> openAlleleMVMap(MVStore mvStore, AllelePropertiesFormat format) {
+        Objects.requireNonNull(mvStore);
+        Objects.requireNonNull(format);
+        AllelePropertiesFormat currentFormat = readAllelePropertiesFormat(mvStore);
+        if (currentFormat != format && mvStore.hasMap(ALLELE_MAP_NAME)) {
+            throw new IllegalStateException("Unable to open map '" + ALLELE_MAP_NAME + "' as " + format + " - store already contains this map in " + currentFormat + " format");
+        }
+        MVMap<String, String> infoMap = mvStore.openMap(INFO_MAP_NAME);
+        infoMap.put(ALLELE_FORMAT_KEY, format.name());
+        return mvStore.openMap(ALLELE_MAP_NAME, MvStoreUtil.alleleMapBuilder(format));
+    }
+
+    /**
+     * Returns the {@link AllelePropertiesFormat} recorded in the store, or {@link AllelePropertiesFormat#PROTOBUF} if
+     * none has been recorded.
+     *
+     * @since 13.2.0
+     */
+    public static AllelePropertiesFormat readAllelePropertiesFormat(MVStore mvStore) {
+        if (!mvStore.hasMap(INFO_MAP_NAME)) {
+            return AllelePropertiesFormat.PROTOBUF;
+        }
+        MVMap<String, String> infoMap = mvStore.openMap(INFO_MAP_NAME);
+        String format = infoMap.get(ALLELE_FORMAT_KEY);
+        return format == null ? AllelePropertiesFormat.PROTOBUF : AllelePropertiesFormat.valueOf(format);
+    }
+
     public static MVMap.Builder<AlleleKey, AlleleProperties> alleleMapBuilder() {
+        return alleleMapBuilder(AllelePropertiesFormat.PROTOBUF);
+    }
+
+    /**
+     * @since 13.2.0
+     */
+    public static MVMap.Builder<AlleleKey, AlleleProperties> alleleMapBuilder(AllelePropertiesFormat format) {
         return new MVMap.Builder<AlleleKey, AlleleProperties>()
                 .keyType(AlleleKeyDataType.INSTANCE)
-                .valueType(AllelePropertiesDataType.INSTANCE);
+                .valueType(format.getDataType());
     }
 }
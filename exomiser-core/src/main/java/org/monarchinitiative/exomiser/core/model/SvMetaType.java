@@ -25,7 +25,12 @@
 public enum SvMetaType {
     GAIN, GAIN_ME, LOSS, LOSS_ME, INVERSION, COMPLEX, CNV, NEUTRAL;
 
-    private static SvMetaType toMetaType(VariantType variantType) {
+    /**
+     * @param variantType the {@link VariantType} to classify
+     * @return the {@link SvMetaType} of the variantType
+     * @since 13.2.0
+     */
+    public static SvMetaType toMetaType(VariantType variantType) {
         switch (variantType) {
             case DEL:
             case CNV_LOSS:
@@ -65,8 +70,13 @@ private static SvMetaType toMetaType(VariantType variantType) {
     }
 
     public static boolean isEquivalent(VariantType a, VariantType b) {
-        SvMetaType aBaseType = toMetaType(a);
-        SvMetaType bBaseType = toMetaType(b);
+        return isEquivalent(toMetaType(a), toMetaType(b));
+    }
+
+    /**
+     * @since 13.2.0
+     */
+    public static boolean isEquivalent(SvMetaType aBaseType, SvMetaType bBaseType) {
         if (aBaseType == bBaseType) {
             return true;
         }
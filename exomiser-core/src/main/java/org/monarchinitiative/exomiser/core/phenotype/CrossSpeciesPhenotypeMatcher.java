@@ -20,11 +20,10 @@
 
 package org.monarchinitiative.exomiser.core.phenotype;
 
-import javax.annotation.Nullable;
-import java.util.*;
-import java.util.function.Function;
+import org.monarchinitiative.exomiser.core.phenotype.dao.PhenotypeMatchMatrix;
 
-import static java.util.stream.Collectors.*;
+import java.util.*;
+import java.util.function.IntFunction;
 
 
 /**
@@ -35,52 +34,131 @@
  */
 class CrossSpeciesPhenotypeMatcher implements PhenotypeMatcher {
 
-    private final QueryPhenotypeMatch queryPhenotypeMatch;
+    private static final int NO_MATCH = -1;
 
-    private final Set<String> matchedOrganismPhenotypeIds;
-    private final Set<String> matchedQueryPhenotypeIds;
+    private final QueryPhenotypeMatch queryPhenotypeMatch;
 
-    private final Map<String, PhenotypeMatch> mappedTerms;
+    // The query and organism phenotype ids with a match are interned to dense ints on creation. These index a
+    // column-major numOrganismPhenotypes x numQueryPhenotypes matrix of match scores, so that finding the best forward
+    // and reverse matches for a model is a loop over primitive arrays with no String concatenation, hashing or
+    // allocation. Query phenotypes are indexed in id order, organism phenotypes in id order.
+    private final int numQueryPhenotypes;
+    private final Map<String, Integer> organismPhenotypeIndices;
+    // NEGATIVE_INFINITY where there is no match between the query and organism phenotype
+    private final double[] scores;
+    // the PhenotypeMatch for a cell, which is only created for the best matches when read from a PhenotypeMatchMatrix
+    private final IntFunction<PhenotypeMatch> phenotypeMatchForCell;
+    // PhenotypeIdDictionary indices of the organism phenotypes with a match, used to reject non-matching models
+    private final PhenotypeIdDictionary phenotypeIdDictionary;
+    private final BitSet matchedOrganismPhenotypeIdIndices;
 
     /**
      * @param organism                  - The organism for which these PhenotypeMatches are associated.
      * @param queryTermPhenotypeMatches - Map of query PhenotypeTerms and their corresponding PhenotypeMatches. If there is no match then an empty Set of PhenotypeMatches is expected.
      */
     static CrossSpeciesPhenotypeMatcher of(Organism organism, Map<PhenotypeTerm, Set<PhenotypeMatch>> queryTermPhenotypeMatches) {
+        return of(new PhenotypeIdDictionary(), organism, queryTermPhenotypeMatches);
+    }
+
+    static CrossSpeciesPhenotypeMatcher of(PhenotypeIdDictionary phenotypeIdDictionary, Organism organism, Map<PhenotypeTerm, Set<PhenotypeMatch>> queryTermPhenotypeMatches) {
         QueryPhenotypeMatch queryPhenotypeMatch = new QueryPhenotypeMatch(organism, queryTermPhenotypeMatches);
-        return of(queryPhenotypeMatch);
+        return of(phenotypeIdDictionary, queryPhenotypeMatch);
     }
 
     static CrossSpeciesPhenotypeMatcher of(QueryPhenotypeMatch queryPhenotypeMatch) {
-        return new CrossSpeciesPhenotypeMatcher(queryPhenotypeMatch);
+        return of(new PhenotypeIdDictionary(), queryPhenotypeMatch);
     }
 
-    private CrossSpeciesPhenotypeMatcher(QueryPhenotypeMatch queryPhenotypeMatch) {
+    static CrossSpeciesPhenotypeMatcher of(PhenotypeIdDictionary phenotypeIdDictionary, QueryPhenotypeMatch queryPhenotypeMatch) {
+        List<MatchRow> matchRows = new ArrayList<>();
+        for (Set<PhenotypeMatch> matches : queryPhenotypeMatch.getQueryTermPhenotypeMatches().values()) {
+            matchRows.add(MatchRow.of(List.copyOf(matches)));
+        }
+        return new CrossSpeciesPhenotypeMatcher(phenotypeIdDictionary, queryPhenotypeMatch, matchRows);
+    }
+
+    /**
+     * Creates the matcher from the rows of a pre-loaded {@link PhenotypeMatchMatrix}. Only the best match for each query
+     * term and the best matches for each model are created as {@link PhenotypeMatch}, the remaining matches are read
+     * as primitives from the matrix.
+     *
+     * @param phenotypeIdDictionary - The dictionary with which to intern the organism phenotype ids.
+     * @param organism        - The organism for which these rows are associated.
+     * @param queryTermMatches - Map of query PhenotypeTerms and their corresponding matrix row, which is empty if there is no match.
+     * @since 13.2.0
+     */
+    static CrossSpeciesPhenotypeMatcher ofMatrixRows(PhenotypeIdDictionary phenotypeIdDictionary, Organism organism, Map<PhenotypeTerm, PhenotypeMatchMatrix.Row> queryTermMatches) {
+        Map<PhenotypeTerm, PhenotypeMatchMatrix.Row> rows = Map.copyOf(queryTermMatches);
+        List<PhenotypeTerm> queryTerms = List.copyOf(queryTermMatches.keySet());
+        Set<PhenotypeMatch> bestPhenotypeMatches = new LinkedHashSet<>();
+        List<MatchRow> matchRows = new ArrayList<>(queryTerms.size());
+        for (PhenotypeTerm queryTerm : queryTerms) {
+            PhenotypeMatchMatrix.Row row = rows.get(queryTerm);
+            int bestMatchIndex = row.getBestMatchIndex();
+            if (bestMatchIndex != NO_MATCH) {
+                bestPhenotypeMatches.add(row.getPhenotypeMatch(bestMatchIndex));
+            }
+            matchRows.add(MatchRow.of(row));
+        }
+        QueryPhenotypeMatch queryPhenotypeMatch = new QueryPhenotypeMatch(organism, queryTerms, bestPhenotypeMatches, () -> {
+            Map<PhenotypeTerm, Set<PhenotypeMatch>> queryTermPhenotypeMatches = new LinkedHashMap<>();
+            for (PhenotypeTerm queryTerm : queryTerms) {
+                queryTermPhenotypeMatches.put(queryTerm, rows.get(queryTerm).getPhenotypeMatches());
+            }
+            return queryTermPhenotypeMatches;
+        });
+        return new CrossSpeciesPhenotypeMatcher(phenotypeIdDictionary, queryPhenotypeMatch, matchRows);
+    }
+
+    private CrossSpeciesPhenotypeMatcher(PhenotypeIdDictionary phenotypeIdDictionary, QueryPhenotypeMatch queryPhenotypeMatch, List<MatchRow> matchRows) {
+        this.phenotypeIdDictionary = phenotypeIdDictionary;
         this.queryPhenotypeMatch = queryPhenotypeMatch;
 
-        Map<PhenotypeTerm, Set<PhenotypeMatch>> termPhenotypeMatches = queryPhenotypeMatch.getQueryTermPhenotypeMatches();
-
-        this.matchedOrganismPhenotypeIds = termPhenotypeMatches.values()
-                .stream()
-                .flatMap(set -> set.stream().map(PhenotypeMatch::getMatchPhenotypeId))
-                .collect(collectingAndThen(toCollection(TreeSet::new), Collections::unmodifiableSet));
-
-        this.matchedQueryPhenotypeIds = queryPhenotypeMatch.getBestPhenotypeMatches()
-                .stream()
-                .map(PhenotypeMatch::getQueryPhenotypeId)
-                .collect(toCollection(TreeSet::new));
-
-        //'hpId + mpId' : phenotypeMatch
-        this.mappedTerms = termPhenotypeMatches.values()
-                .stream()
-                .flatMap(Collection::stream)
-                .collect(collectingAndThen(
-                        toMap(makeKey(), Function.identity()),
-                        Collections::unmodifiableMap));
+        Set<String> matchedOrganismPhenotypeIds = new TreeSet<>();
+        Set<String> matchedQueryPhenotypeIds = new TreeSet<>();
+        for (MatchRow matchRow : matchRows) {
+            for (int i = 0; i < matchRow.size(); i++) {
+                matchedOrganismPhenotypeIds.add(matchRow.getMatchPhenotypeId(i));
+                matchedQueryPhenotypeIds.add(matchRow.getQueryPhenotypeId(i));
+            }
+        }
+
+        Map<String, Integer> queryPhenotypeIndices = indexIds(matchedQueryPhenotypeIds);
+        this.numQueryPhenotypes = queryPhenotypeIndices.size();
+        this.organismPhenotypeIndices = indexIds(matchedOrganismPhenotypeIds);
+        this.matchedOrganismPhenotypeIdIndices = new BitSet();
+        for (String organismPhenotypeId : matchedOrganismPhenotypeIds) {
+            matchedOrganismPhenotypeIdIndices.set(phenotypeIdDictionary.intern(organismPhenotypeId));
+        }
+
+        int numCells = organismPhenotypeIndices.size() * numQueryPhenotypes;
+        this.scores = new double[numCells];
+        Arrays.fill(scores, Double.NEGATIVE_INFINITY);
+        // the row and the index of the match in that row for each cell
+        MatchRow[] cellRows = new MatchRow[numCells];
+        int[] cellMatchIndices = new int[numCells];
+        for (MatchRow matchRow : matchRows) {
+            for (int i = 0; i < matchRow.size(); i++) {
+                int queryIndex = queryPhenotypeIndices.get(matchRow.getQueryPhenotypeId(i));
+                int organismIndex = organismPhenotypeIndices.get(matchRow.getMatchPhenotypeId(i));
+                int cell = organismIndex * numQueryPhenotypes + queryIndex;
+                if (cellRows[cell] != null) {
+                    throw new IllegalStateException("Duplicate phenotype match " + matchRow.getQueryPhenotypeId(i) + "-" + matchRow.getMatchPhenotypeId(i));
+                }
+                cellRows[cell] = matchRow;
+                cellMatchIndices[cell] = i;
+                scores[cell] = matchRow.getScore(i);
+            }
+        }
+        this.phenotypeMatchForCell = cell -> cellRows[cell].getPhenotypeMatch(cellMatchIndices[cell]);
     }
 
-    private Function<PhenotypeMatch, String> makeKey() {
-        return match -> KeyGenerator.forwardKey(match.getQueryPhenotypeId(), match.getMatchPhenotypeId());
+    private static Map<String, Integer> indexIds(Set<String> ids) {
+        Map<String, Integer> indices = new HashMap<>(ids.size() * 2);
+        for (String id : ids) {
+            indices.put(id, indices.size());
+        }
+        return Collections.unmodifiableMap(indices);
     }
 
     @Override
@@ -117,180 +195,228 @@ public QueryPhenotypeMatch getQueryPhenotypeMatch() {
      */
     @Override
     public PhenodigmMatchRawScore matchPhenotypeIds(List<String> modelPhenotypes) {
-        return getPhenodigmMatchRawScoreNew(modelPhenotypes);
-    }
-
-    private PhenodigmMatchRawScore getPhenodigmMatchRawScoreOriginal(List<String> modelPhenotypes) {
         // Could be HP, MP or ZP id
-        List<String> matchedModelPhenotypeIds = getMatchedModelPhenotypeIds(modelPhenotypes);
+        List<String> matchedModelPhenotypeIds = new ArrayList<>();
+        int[] modelPhenotypeIndices = new int[modelPhenotypes.size()];
+        int numModelPhenotypeIndices = getMatchedModelPhenotypeIndices(modelPhenotypes, matchedModelPhenotypeIds, modelPhenotypeIndices);
 
         // return values
         double maxModelMatchScore = 0;
         double sumModelBestMatchScores = 0;
-        final Map<PhenotypeTerm, PhenotypeMatch> bestPhenotypeMatchForTerms = new LinkedHashMap<>();
-
-        // calculate forwards hp-mp scores
-        for (String hpId : matchedQueryPhenotypeIds) {
-            double bestMatchScore = 0;
-            for (String mpId : matchedModelPhenotypeIds) {
-                String matchIds = hpId + mpId;
-                if (mappedTerms.containsKey(matchIds)) {
-                    PhenotypeMatch match = mappedTerms.get(matchIds);
-                    double matchScore = match.getScore();
-                    // identify best match
-                    bestMatchScore = Math.max(matchScore, bestMatchScore);
-                    if (matchScore > 0) {
-                        addMatchIfAbsentOrBetterThanCurrent(match, bestPhenotypeMatchForTerms);
-                    }
-                }
-            }
-            if (bestMatchScore > 0) {
-                sumModelBestMatchScores += bestMatchScore;
-                maxModelMatchScore = Math.max(bestMatchScore, maxModelMatchScore);
+        // the best cell for each query phenotype, in the order in which these were first matched. The PhenotypeMatch
+        // is only created for these cells once all the matches have been compared.
+        int[] bestCellForQueryIndex = new int[numQueryPhenotypes];
+        Arrays.fill(bestCellForQueryIndex, NO_MATCH);
+        int[] matchedQueryIndices = new int[numQueryPhenotypes];
+        int numMatchedQueryIndices = 0;
+
+        // find forward matches: query-model
+        for (int queryIndex = 0; queryIndex < numQueryPhenotypes; queryIndex++) {
+            int cell = findBestForwardMatch(queryIndex, modelPhenotypeIndices, numModelPhenotypeIndices);
+            if (cell != NO_MATCH && scores[cell] > 0) {
+                double score = scores[cell];
+                numMatchedQueryIndices = addCellIfAbsentOrBetterThanCurrent(cell, bestCellForQueryIndex, matchedQueryIndices, numMatchedQueryIndices);
+                maxModelMatchScore = Math.max(score, maxModelMatchScore);
+                sumModelBestMatchScores += score;
             }
         }
-        // calculate reciprocal mp-hp scores
-        for (String mpId : matchedModelPhenotypeIds) {
-            double bestMatchScore = 0;
-            for (String hpId : matchedQueryPhenotypeIds) {
-                String matchIds = hpId + mpId;
-                if (mappedTerms.containsKey(matchIds)) {
-                    PhenotypeMatch match = mappedTerms.get(matchIds);
-                    double matchScore = match.getScore();
-                    // identify best match
-                    bestMatchScore = Math.max(matchScore, bestMatchScore);
-                    if (matchScore > 0) {
-                        addMatchIfAbsentOrBetterThanCurrent(match, bestPhenotypeMatchForTerms);
-                    }
-                }
-            }
-            if (bestMatchScore > 0) {
-                sumModelBestMatchScores += bestMatchScore;
-                maxModelMatchScore = Math.max(bestMatchScore, maxModelMatchScore);
+        // find reverse matches: model-query
+        for (int i = 0; i < numModelPhenotypeIndices; i++) {
+            int cell = findBestReverseMatch(modelPhenotypeIndices[i]);
+            if (cell != NO_MATCH && scores[cell] > 0) {
+                double score = scores[cell];
+                numMatchedQueryIndices = addCellIfAbsentOrBetterThanCurrent(cell, bestCellForQueryIndex, matchedQueryIndices, numMatchedQueryIndices);
+                maxModelMatchScore = Math.max(score, maxModelMatchScore);
+                sumModelBestMatchScores += score;
             }
         }
 
-        return new PhenodigmMatchRawScore(maxModelMatchScore, sumModelBestMatchScores, matchedModelPhenotypeIds, List
-                .copyOf(bestPhenotypeMatchForTerms.values()));
+        PhenotypeMatch[] bestPhenotypeMatches = new PhenotypeMatch[numMatchedQueryIndices];
+        for (int i = 0; i < numMatchedQueryIndices; i++) {
+            bestPhenotypeMatches[i] = phenotypeMatchForCell.apply(bestCellForQueryIndex[matchedQueryIndices[i]]);
+        }
+        return new PhenodigmMatchRawScore(maxModelMatchScore, sumModelBestMatchScores, matchedModelPhenotypeIds, List.of(bestPhenotypeMatches));
     }
 
-    private PhenodigmMatchRawScore getPhenodigmMatchRawScoreNew(List<String> modelPhenotypes) {
-        // Could be HP, MP or ZP id
-        List<String> matchedModelPhenotypeIds = getMatchedModelPhenotypeIds(modelPhenotypes);
-
-        // return values
-        double maxModelMatchScore = 0;
-        double sumModelBestMatchScores = 0;
-        Map<PhenotypeTerm, PhenotypeMatch> bestPhenotypeMatchForTerms = new LinkedHashMap<>();
-
-        List<PhenotypeMatch> bestForwardReverseMatches = findBestForwardAndReverseMatches(matchedModelPhenotypeIds);
-        for (PhenotypeMatch match : bestForwardReverseMatches) {
-            double score = match.getScore();
-            if (score > 0) {
-                addMatchIfAbsentOrBetterThanCurrent(match, bestPhenotypeMatchForTerms);
-                maxModelMatchScore = Math.max(score, maxModelMatchScore);
-                sumModelBestMatchScores += score;
+    @Override
+    public boolean matchesAnyPhenotype(Model model) {
+        for (int phenotypeIdIndex : model.getPhenotypeIdIndices(phenotypeIdDictionary)) {
+            // BitSet.get returns false for indices beyond its length i.e. ids interned after this matcher was created
+            if (matchedOrganismPhenotypeIdIndices.get(phenotypeIdIndex)) {
+                return true;
             }
         }
-
-        return new PhenodigmMatchRawScore(maxModelMatchScore, sumModelBestMatchScores, matchedModelPhenotypeIds, List
-                .copyOf(bestPhenotypeMatchForTerms.values()));
+        return false;
     }
 
-    private List<String> getMatchedModelPhenotypeIds(List<String> modelPhenotypes) {
-        List<String> matchedModelPhenotypeIds = new ArrayList<>();
+    /**
+     * Adds the ids of the model phenotypes with a match to the matchedModelPhenotypeIds and their organism phenotype
+     * index to the modelPhenotypeIndices, in the order given.
+     *
+     * @return the number of model phenotypes with a match
+     */
+    private int getMatchedModelPhenotypeIndices(List<String> modelPhenotypes, List<String> matchedModelPhenotypeIds, int[] modelPhenotypeIndices) {
+        int numMatched = 0;
         for (String modelPhenotype : modelPhenotypes) {
-            if (matchedOrganismPhenotypeIds.contains(modelPhenotype)) {
+            Integer organismIndex = organismPhenotypeIndices.get(modelPhenotype);
+            if (organismIndex != null) {
                 matchedModelPhenotypeIds.add(modelPhenotype);
+                modelPhenotypeIndices[numMatched++] = organismIndex;
             }
         }
-        return matchedModelPhenotypeIds;
+        return numMatched;
     }
 
-    private void addMatchIfAbsentOrBetterThanCurrent(PhenotypeMatch match, Map<PhenotypeTerm, PhenotypeMatch> bestPhenotypeMatchForTerms) {
-        PhenotypeTerm matchQueryTerm = match.getQueryPhenotype();
-        PhenotypeMatch currentBestMatch = bestPhenotypeMatchForTerms.get(matchQueryTerm);
-        if (currentBestMatch == null || currentBestMatch.getScore() < match.getScore()) {
-            bestPhenotypeMatchForTerms.put(matchQueryTerm, match);
+    /**
+     * Records the cell as the best match for its query phenotype if there isn't one yet, or it has a higher score than
+     * the current best match.
+     *
+     * @return the number of query phenotypes with a best match
+     */
+    private int addCellIfAbsentOrBetterThanCurrent(int cell, int[] bestCellForQueryIndex, int[] matchedQueryIndices, int numMatchedQueryIndices) {
+        int queryIndex = cell % numQueryPhenotypes;
+        int currentBestCell = bestCellForQueryIndex[queryIndex];
+        if (currentBestCell == NO_MATCH) {
+            bestCellForQueryIndex[queryIndex] = cell;
+            matchedQueryIndices[numMatchedQueryIndices] = queryIndex;
+            return numMatchedQueryIndices + 1;
         }
+        if (scores[currentBestCell] < scores[cell]) {
+            bestCellForQueryIndex[queryIndex] = cell;
+        }
+        return numMatchedQueryIndices;
     }
 
-    List<PhenotypeMatch> findBestForwardAndReverseMatches(List<String> matchedModelPhenotypeIds) {
-        // This is about 20% faster than the original implementation, is easier for the compiler to optimise and less
-        // repetitive. Doing this with streams is about 2x slower.
-        // Based on running the Pfeiffer sample three times in succession and averaging over 5 runs, time in ms
-        // 9009 human, 37522 mouse, 3157 fish models.
-        // Original implementation: 120,115,9 | 63,79,10 | 39,61,5
-        // New implementation:       98,99,10 | 60,52,15 | 29,48,8
-        List<PhenotypeMatch> bestForwardReverseMatches = new ArrayList<>();
-        // find forward matches: query-model
-        findForwardMatches(matchedModelPhenotypeIds, bestForwardReverseMatches);
-        // find reverse matches: model-query
-        findReverseMatches(matchedModelPhenotypeIds, bestForwardReverseMatches);
-        return bestForwardReverseMatches;
-    }
+    List<PhenotypeMatch> findBestForwardAndReverseMatches(List<String> modelPhenotypes) {
+        List<String> matchedModelPhenotypeIds = new ArrayList<>();
+        int[] modelPhenotypeIndices = new int[modelPhenotypes.size()];
+        int numModelPhenotypeIndices = getMatchedModelPhenotypeIndices(modelPhenotypes, matchedModelPhenotypeIds, modelPhenotypeIndices);
 
-    private void findForwardMatches(List<String> matchedModelPhenotypeIds, List<PhenotypeMatch> bestForwardReverseMatches) {
-        for (String hp : matchedQueryPhenotypeIds) {
-            PhenotypeMatch best = getBestPhenotypeMatch(hp, matchedModelPhenotypeIds, KeyGenerator.FORWARD);
-            if (best != null) {
-                bestForwardReverseMatches.add(best);
+        List<PhenotypeMatch> bestForwardReverseMatches = new ArrayList<>();
+        for (int queryIndex = 0; queryIndex < numQueryPhenotypes; queryIndex++) {
+            int cell = findBestForwardMatch(queryIndex, modelPhenotypeIndices, numModelPhenotypeIndices);
+            if (cell != NO_MATCH) {
+                bestForwardReverseMatches.add(phenotypeMatchForCell.apply(cell));
+            }
+        }
+        for (int i = 0; i < numModelPhenotypeIndices; i++) {
+            int cell = findBestReverseMatch(modelPhenotypeIndices[i]);
+            if (cell != NO_MATCH) {
+                bestForwardReverseMatches.add(phenotypeMatchForCell.apply(cell));
             }
         }
+        return bestForwardReverseMatches;
     }
 
-    private void findReverseMatches(List<String> matchedModelPhenotypeIds, List<PhenotypeMatch> bestForwardReverseMatches) {
-        for (String mp : matchedModelPhenotypeIds) {
-            PhenotypeMatch best = getBestPhenotypeMatch(mp, matchedQueryPhenotypeIds, KeyGenerator.REVERSE);
-            if (best != null) {
-                bestForwardReverseMatches.add(best);
+    /**
+     * @return the cell of the highest scoring match between the query phenotype and the model phenotypes, or
+     * {@link #NO_MATCH}. Ties are resolved in favour of the first model phenotype.
+     */
+    private int findBestForwardMatch(int queryIndex, int[] modelPhenotypeIndices, int numModelPhenotypeIndices) {
+        int bestCell = NO_MATCH;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numModelPhenotypeIndices; i++) {
+            int cell = modelPhenotypeIndices[i] * numQueryPhenotypes + queryIndex;
+            double score = scores[cell];
+            if (score > bestScore) {
+                bestScore = score;
+                bestCell = cell;
             }
         }
+        return bestCell;
     }
 
-    @Nullable
-    private PhenotypeMatch getBestPhenotypeMatch(String hp, Iterable<String> matchedModelPhenotypeIds, KeyGenerator keyGenerator) {
-        PhenotypeMatch best = null;
-        for (String mp : matchedModelPhenotypeIds) {
-            // mapped terms are indexed with hp-model phenotype keys. The similarity is reflexive so we just need to generate the
-            // correct key depending on which way were comparing the terms. This is handled by the relevant KeyGenerator.
-            String key = keyGenerator.getKey(hp, mp);
-            PhenotypeMatch match = mappedTerms.get(key);
-            if (match != null) {
-                if (best == null || match.getScore() > best.getScore()) {
-                    best = match;
-                }
+    /**
+     * @return the cell of the highest scoring match between the model phenotype and the query phenotypes, or
+     * {@link #NO_MATCH}. Ties are resolved in favour of the first query phenotype.
+     */
+    private int findBestReverseMatch(int organismIndex) {
+        int bestCell = NO_MATCH;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        int offset = organismIndex * numQueryPhenotypes;
+        for (int cell = offset; cell < offset + numQueryPhenotypes; cell++) {
+            double score = scores[cell];
+            if (score > bestScore) {
+                bestScore = score;
+                bestCell = cell;
             }
         }
-        return best;
+        return bestCell;
     }
 
     /**
-     * Generates keys for the mappedTerms map by concatenating the input values in the order defined in the implementation.
+     * The matches for a query term, either as a list of {@link PhenotypeMatch} or as a row of a
+     * {@link PhenotypeMatchMatrix} from which these are only created on request.
      */
-    private interface KeyGenerator {
+    private interface MatchRow {
 
-        KeyGenerator FORWARD = new ForwardKeyGenerator();
-        KeyGenerator REVERSE = new ReverseKeyGenerator();
+        int size();
 
-        String getKey(String a, String b);
+        String getQueryPhenotypeId(int index);
 
-        static String forwardKey(String a, String b) {
-            return FORWARD.getKey(a, b);
-        }
-    }
+        String getMatchPhenotypeId(int index);
+
+        double getScore(int index);
+
+        PhenotypeMatch getPhenotypeMatch(int index);
+
+        static MatchRow of(List<PhenotypeMatch> phenotypeMatches) {
+            return new MatchRow() {
+                @Override
+                public int size() {
+                    return phenotypeMatches.size();
+                }
+
+                @Override
+                public String getQueryPhenotypeId(int index) {
+                    return phenotypeMatches.get(index).getQueryPhenotypeId();
+                }
+
+                @Override
+                public String getMatchPhenotypeId(int index) {
+                    return phenotypeMatches.get(index).getMatchPhenotypeId();
+                }
+
+                @Override
+                public double getScore(int index) {
+                    return phenotypeMatches.get(index).getScore();
+                }
 
-    private static class ForwardKeyGenerator implements KeyGenerator {
-        @Override
-        public String getKey(String a, String b) {
-            return a + b;
+                @Override
+                public PhenotypeMatch getPhenotypeMatch(int index) {
+                    return phenotypeMatches.get(index);
+                }
+            };
         }
-    }
 
-    private static class ReverseKeyGenerator implements KeyGenerator {
-        @Override
-        public String getKey(String a, String b) {
-            return b + a;
+        static MatchRow of(PhenotypeMatchMatrix.Row row) {
+            String queryPhenotypeId = row.getQueryTerm().getId();
+            return new MatchRow() {
+                @Override
+                public int size() {
+                    return row.size();
+                }
+
+                @Override
+                public String getQueryPhenotypeId(int index) {
+                    return queryPhenotypeId;
+                }
+
+                @Override
+                public String getMatchPhenotypeId(int index) {
+                    return row.getMatchPhenotypeId(index);
+                }
+
+                @Override
+                public double getScore(int index) {
+                    return row.getScore(index);
+                }
+
+                @Override
+                public PhenotypeMatch getPhenotypeMatch(int index) {
+                    return row.getPhenotypeMatch(index);
+                }
+            };
         }
     }
 
@@ -41,4 +41,18 @@ public interface Model {
     
     List<String> getPhenotypeIds();
 
+    /**
+     * Returns the sorted and distinct {@link PhenotypeIdDictionary} indices of the phenotype ids of this model. These are
+     * used to reject models with no phenotypes in common with a {@link PhenotypeMatcher} before they are scored. The
+     * default implementation interns the phenotype ids on every call, so implementations which are scored repeatedly
+     * should hold a {@link PhenotypeIdIndexCache}. The returned array MUST NOT be modified.
+     *
+     * @param dictionary the dictionary of the {@link PhenotypeMatcher} the model is being scored against
+     * @return the interned phenotype ids of this model
+     * @since 13.2.0
+     */
+    default int[] getPhenotypeIdIndices(PhenotypeIdDictionary dictionary) {
+        return dictionary.internAll(getPhenotypeIds());
+    }
+
 }
@@ -24,6 +24,7 @@
 import org.slf4j.LoggerFactory;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -110,6 +111,10 @@ private PhenodigmModelScorer(QueryPhenotypeMatch queryPhenotypeMatch, PhenotypeM
     }
 
     private void logOrganismPhenotypeMatches() {
+        if (!logger.isDebugEnabled()) {
+            // avoids creating all the matches for each query term when these have been read from a PhenotypeMatchMatrix
+            return;
+        }
         logger.debug("Best {} phenotype matches:", organismPhenotypeMatcher.getOrganism());
         Map<PhenotypeTerm, Set<PhenotypeMatch>> termPhenotypeMatches = organismPhenotypeMatcher.getTermPhenotypeMatches();
         for (Map.Entry<PhenotypeTerm, Set<PhenotypeMatch>> entry : termPhenotypeMatches.entrySet()) {
@@ -130,6 +135,10 @@ private void logOrganismPhenotypeMatches() {
 
     @Override
     public ModelPhenotypeMatch<T> scoreModel(T model) {
+        if (!organismPhenotypeMatcher.matchesAnyPhenotype(model)) {
+            // the vast majority of models have no phenotypes in common with the query, so skip matching their phenotypes
+            return ModelPhenotypeMatch.of(0, model, List.of());
+        }
         PhenodigmMatchRawScore rawModelScore = organismPhenotypeMatcher.matchPhenotypeIds(model.getPhenotypeIds());
         double score = calculateCombinedScore(rawModelScore);
         return ModelPhenotypeMatch.of(score, model, rawModelScore.getBestPhenotypeMatches());
@@ -0,0 +1,74 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dictionary of phenotype ids (HP, MP or ZP) to dense int indices. Each id is given the next free index the first time
+ * it is interned and keeps it for the lifetime of the dictionary so that the phenotypes of a {@link Model} can be
+ * compared against those matched by a {@link PhenotypeMatcher} without String hashing. As the indices are never re-used,
+ * any id interned after a {@link PhenotypeMatcher} was created cannot be one of its matched phenotypes. A dictionary is
+ * owned by a {@link PhenotypeMatchService} so that it is discarded along with the phenotype data it was built from.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public final class PhenotypeIdDictionary {
+
+    private final ConcurrentMap<String, Integer> indices = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    /**
+     * @param phenotypeId the id of the phenotype e.g. HP:0000001
+     * @return the index of the phenotype id, assigning a new one if the id has not been seen before.
+     */
+    public int intern(String phenotypeId) {
+        Integer index = indices.get(phenotypeId);
+        if (index != null) {
+            return index;
+        }
+        return indices.computeIfAbsent(phenotypeId, id -> nextIndex.getAndIncrement());
+    }
+
+    /**
+     * @param phenotypeIds the phenotype ids to intern
+     * @return a new array of the sorted and distinct indices of the phenotype ids.
+     */
+    public int[] internAll(List<String> phenotypeIds) {
+        int[] phenotypeIdIndices = new int[phenotypeIds.size()];
+        for (int i = 0; i < phenotypeIdIndices.length; i++) {
+            phenotypeIdIndices[i] = intern(phenotypeIds.get(i));
+        }
+        return Arrays.stream(phenotypeIdIndices).sorted().distinct().toArray();
+    }
+
+    /**
+     * @return the number of phenotype ids interned so far. All indices are less than this value.
+     */
+    public int size() {
+        return nextIndex.get();
+    }
+}
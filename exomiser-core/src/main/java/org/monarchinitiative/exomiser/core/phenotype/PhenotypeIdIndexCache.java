@@ -0,0 +1,62 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype;
+
+import java.util.List;
+
+/**
+ * Holds the {@link PhenotypeIdDictionary} indices of the phenotype ids of a {@link Model}. These are computed the first
+ * time they are requested for a dictionary and re-used until the model is scored against a different dictionary, so
+ * that a model is only interned once however many times it is scored.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public final class PhenotypeIdIndexCache {
+
+    private volatile Entry entry;
+
+    /**
+     * @param dictionary   the dictionary to intern the phenotype ids with
+     * @param phenotypeIds the phenotype ids of the model
+     * @return the sorted and distinct indices of the phenotype ids in the dictionary. The array MUST NOT be modified.
+     */
+    public int[] getIndices(PhenotypeIdDictionary dictionary, List<String> phenotypeIds) {
+        Entry current = entry;
+        if (current != null && current.dictionary == dictionary) {
+            return current.indices;
+        }
+        int[] indices = dictionary.internAll(phenotypeIds);
+        entry = new Entry(dictionary, indices);
+        return indices;
+    }
+
+    private static final class Entry {
+
+        private final PhenotypeIdDictionary dictionary;
+        private final int[] indices;
+
+        private Entry(PhenotypeIdDictionary dictionary, int[] indices) {
+            this.dictionary = dictionary;
+            this.indices = indices;
+        }
+    }
+}
@@ -20,12 +20,14 @@
 
 package org.monarchinitiative.exomiser.core.phenotype;
 
+import org.monarchinitiative.exomiser.core.phenotype.dao.PhenotypeMatchMatrix;
 import org.monarchinitiative.exomiser.core.phenotype.service.OntologyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Nullable;
 import java.util.*;
 
 import static java.util.stream.Collectors.toUnmodifiableList;
@@ -43,6 +45,8 @@ public class PhenotypeMatchService {
     Logger logger = LoggerFactory.getLogger(PhenotypeMatchService.class);
 
     private final OntologyService ontologyService;
+    // interned ids of the phenotypes of this service's ontologies, shared by all the matchers it creates
+    private final PhenotypeIdDictionary phenotypeIdDictionary = new PhenotypeIdDictionary();
 
     @Autowired
     public PhenotypeMatchService(OntologyService ontologyService) {
@@ -64,12 +68,20 @@ public PhenotypeMatcher getFishPhenotypeMatcherForTerms(List<PhenotypeTerm> hpoP
 
     private PhenotypeMatcher getOrganismPhenotypeMatcherFromTerms(List<PhenotypeTerm> queryHpoPhenotypes, Organism organism) {
         logger.debug("Fetching HUMAN-{} phenotype matches...", organism);
+        PhenotypeMatchMatrix phenotypeMatchMatrix = getSpeciesMatchMatrix(organism);
+        if (phenotypeMatchMatrix != null) {
+            Map<PhenotypeTerm, PhenotypeMatchMatrix.Row> speciesPhenotypeMatches = new LinkedHashMap<>();
+            for (PhenotypeTerm hpoTerm : queryHpoPhenotypes) {
+                speciesPhenotypeMatches.put(hpoTerm, phenotypeMatchMatrix.getRow(hpoTerm));
+            }
+            return CrossSpeciesPhenotypeMatcher.ofMatrixRows(phenotypeIdDictionary, organism, speciesPhenotypeMatches);
+        }
         Map<PhenotypeTerm, Set<PhenotypeMatch>> speciesPhenotypeMatches = new LinkedHashMap<>();
         for (PhenotypeTerm hpoTerm : queryHpoPhenotypes) {
             Set<PhenotypeMatch> termMatches = getSpeciesMatchesForHpoTerm(hpoTerm, organism);
             speciesPhenotypeMatches.put(hpoTerm, termMatches);
         }
-        return CrossSpeciesPhenotypeMatcher.of(organism, speciesPhenotypeMatches);
+        return CrossSpeciesPhenotypeMatcher.of(phenotypeIdDictionary, organism, speciesPhenotypeMatches);
     }
 
     public List<PhenotypeTerm> makePhenotypeTermsFromHpoIds(List<String> hpoIds) {
@@ -92,4 +104,18 @@ private Set<PhenotypeMatch> getSpeciesMatchesForHpoTerm(PhenotypeTerm hpoTerm, O
         }
     }
 
+    @Nullable
+    private PhenotypeMatchMatrix getSpeciesMatchMatrix(Organism species) {
+        switch (species) {
+            case HUMAN:
+                return ontologyService.getHpoMatchMatrix();
+            case MOUSE:
+                return ontologyService.getMpoMatchMatrix();
+            case FISH:
+                return ontologyService.getZpoMatchMatrix();
+            default:
+                return null;
+        }
+    }
+
 }
@@ -31,6 +31,19 @@ public interface PhenotypeMatcher {
 
     PhenodigmMatchRawScore matchPhenotypeIds(List<String> phenotypeIds);
 
+    /**
+     * Fast check for whether any of the phenotypes of a model have a match to the query phenotypes. Models for which
+     * this returns false will have no matches and a score of zero from {@link #matchPhenotypeIds(List)}. The default
+     * implementation conservatively returns true.
+     *
+     * @param model the model whose phenotypes are to be checked
+     * @return true if any of the phenotypes might match the query phenotypes, false if none do
+     * @since 13.2.0
+     */
+    default boolean matchesAnyPhenotype(Model model) {
+        return true;
+    }
+
     Organism getOrganism();
 
     List<PhenotypeTerm> getQueryTerms();
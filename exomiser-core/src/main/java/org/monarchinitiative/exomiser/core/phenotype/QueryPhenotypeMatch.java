@@ -20,11 +20,13 @@
 
 package org.monarchinitiative.exomiser.core.phenotype;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Immutable class representing the raw phenotype similarity matches between the input query phenotype terms (HPO) and
@@ -41,7 +43,7 @@
 public class QueryPhenotypeMatch {
 
     private final Organism organism;
-    private final Map<PhenotypeTerm, Set<PhenotypeMatch>> queryTermPhenotypeMatches;
+    private final Supplier<Map<PhenotypeTerm, Set<PhenotypeMatch>>> queryTermPhenotypeMatches;
 
     private final List<PhenotypeTerm> queryTerms;
     private final Set<PhenotypeMatch> bestPhenotypeMatches;
@@ -49,11 +51,25 @@ public class QueryPhenotypeMatch {
     private final double theoreticalBestAvgScore;
 
     QueryPhenotypeMatch(Organism organism, Map<PhenotypeTerm, Set<PhenotypeMatch>> queryTermPhenotypeMatches) {
+        this(organism, ImmutableMap.copyOf(queryTermPhenotypeMatches));
+    }
+
+    private QueryPhenotypeMatch(Organism organism, ImmutableMap<PhenotypeTerm, Set<PhenotypeMatch>> queryTermPhenotypeMatches) {
+        this(organism, queryTermPhenotypeMatches.keySet().asList(), makeBestPhenotypeMatches(queryTermPhenotypeMatches), () -> queryTermPhenotypeMatches);
+    }
+
+    /**
+     * Creates the match from the best match for each query term when these are already known, as is the case for
+     * pre-loaded phenotype mappings. The full set of matches for each query term is only created if requested.
+     *
+     * @since 13.2.0
+     */
+    QueryPhenotypeMatch(Organism organism, List<PhenotypeTerm> queryTerms, Set<PhenotypeMatch> bestPhenotypeMatches, Supplier<Map<PhenotypeTerm, Set<PhenotypeMatch>>> queryTermPhenotypeMatches) {
         this.organism = organism;
-        this.queryTermPhenotypeMatches = ImmutableMap.copyOf(queryTermPhenotypeMatches);
+        this.queryTermPhenotypeMatches = Suppliers.memoize(queryTermPhenotypeMatches::get);
 
-        this.queryTerms = List.copyOf(this.queryTermPhenotypeMatches.keySet());
-        this.bestPhenotypeMatches = makeBestPhenotypeMatches(this.queryTermPhenotypeMatches);
+        this.queryTerms = List.copyOf(queryTerms);
+        this.bestPhenotypeMatches = ImmutableSet.copyOf(bestPhenotypeMatches);
         this.theoreticalMaxMatchScore = bestPhenotypeMatches.stream().mapToDouble(PhenotypeMatch::getScore).max().orElse(0d);
         this.theoreticalBestAvgScore = calculateBestAverageScore(bestPhenotypeMatches, queryTerms.size());
     }
@@ -67,7 +83,7 @@ private double calculateBestAverageScore(Set<PhenotypeMatch> bestPhenotypeMatche
         return bestPhenotypeMatches.stream().mapToDouble(PhenotypeMatch::getScore).sum() / numQueryPhenotypes;
     }
 
-    private Set<PhenotypeMatch> makeBestPhenotypeMatches(Map<PhenotypeTerm, Set<PhenotypeMatch>> termPhenotypeMatches) {
+    private static Set<PhenotypeMatch> makeBestPhenotypeMatches(Map<PhenotypeTerm, Set<PhenotypeMatch>> termPhenotypeMatches) {
         return termPhenotypeMatches.values()
                 .stream()
                 .map(bestPhenotypeMatch())
@@ -78,7 +94,7 @@ private Set<PhenotypeMatch> makeBestPhenotypeMatches(Map<PhenotypeTerm, Set<Phen
     /**
      * Finds the best PhenotypeMatch for that phenotype term. This is the one with the highest score. OR returns a null
      */
-    private Function<Set<PhenotypeMatch>, PhenotypeMatch> bestPhenotypeMatch() {
+    private static Function<Set<PhenotypeMatch>, PhenotypeMatch> bestPhenotypeMatch() {
         return phenotypeMatches -> phenotypeMatches.stream().max(Comparator.comparingDouble(PhenotypeMatch::getScore))
                 .orElse(null);
     }
@@ -88,7 +104,7 @@ public Organism getOrganism() {
     }
 
     public Map<PhenotypeTerm, Set<PhenotypeMatch>> getQueryTermPhenotypeMatches() {
-        return queryTermPhenotypeMatches;
+        return queryTermPhenotypeMatches.get();
     }
 
     public List<PhenotypeTerm> getQueryTerms() {
@@ -115,12 +131,12 @@ public boolean equals(Object o) {
         return Double.compare(that.theoreticalMaxMatchScore, theoreticalMaxMatchScore) == 0 &&
                 Double.compare(that.theoreticalBestAvgScore, theoreticalBestAvgScore) == 0 &&
                 organism == that.organism &&
-                Objects.equals(queryTermPhenotypeMatches, that.queryTermPhenotypeMatches);
+                Objects.equals(getQueryTermPhenotypeMatches(), that.getQueryTermPhenotypeMatches());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(organism, queryTermPhenotypeMatches, theoreticalMaxMatchScore, theoreticalBestAvgScore);
+        return Objects.hash(organism, getQueryTermPhenotypeMatches(), theoreticalMaxMatchScore, theoreticalBestAvgScore);
     }
 
     @Override
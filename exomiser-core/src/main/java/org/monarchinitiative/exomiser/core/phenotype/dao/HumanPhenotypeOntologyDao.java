@@ -91,6 +91,28 @@ public Set<PhenotypeMatch> getPhenotypeMatchesForHpoTerm(PhenotypeTerm hpoTerm)
         return Collections.emptySet();
     }
 
+    /**
+     * Loads the entire HP-HP mapping table into memory for use in place of
+     * {@link #getPhenotypeMatchesForHpoTerm(PhenotypeTerm)}.
+     *
+     * @return a {@link PhenotypeMatchMatrix} of all the HP-HP matches, or an empty matrix if the table could not be read.
+     * @since 13.2.0
+     */
+    public PhenotypeMatchMatrix getPhenotypeMatchMatrix() {
+        String mappingQuery = "SELECT hp_id AS query_id, simj, ic, score, hp_id_hit AS hit_id, hp_hit_term AS hit_term, lcs_id, lcs_term FROM hp_hp_mappings";
+        try (
+                Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(mappingQuery);
+                ResultSet rs = ps.executeQuery()) {
+
+            return OntologyDaoResultSetProcessor.processOntologyTermMatchMatrixResultSet(rs);
+
+        } catch (SQLException e) {
+            logger.error("Unable to execute query '{}' for HP-HP match terms", mappingQuery, e);
+        }
+        return PhenotypeMatchMatrix.empty();
+    }
+
     public Map<String, PhenotypeTerm> getIdToPhenotypeTerms() {
         String query =
                 "SELECT alt.alt_id, alt.primary_id, hp.lcname AS term " +
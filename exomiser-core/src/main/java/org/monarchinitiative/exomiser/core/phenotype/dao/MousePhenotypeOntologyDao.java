@@ -89,4 +89,26 @@ public Set<PhenotypeMatch> getPhenotypeMatchesForHpoTerm(PhenotypeTerm hpoTerm)
         return Collections.emptySet();
     }
 
+    /**
+     * Loads the entire HP-MP mapping table into memory for use in place of
+     * {@link #getPhenotypeMatchesForHpoTerm(PhenotypeTerm)}.
+     *
+     * @return a {@link PhenotypeMatchMatrix} of all the HP-MP matches, or an empty matrix if the table could not be read.
+     * @since 13.2.0
+     */
+    public PhenotypeMatchMatrix getPhenotypeMatchMatrix() {
+        String mappingQuery = "SELECT hp_id AS query_id, simj, ic, score, mp_id AS hit_id, mp_term AS hit_term, lcs_id, lcs_term FROM hp_mp_mappings";
+        try (
+                Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(mappingQuery);
+                ResultSet rs = ps.executeQuery()) {
+
+            return OntologyDaoResultSetProcessor.processOntologyTermMatchMatrixResultSet(rs);
+
+        } catch (SQLException e) {
+            logger.error("Unable to execute query '{}' for HP-MP match terms", mappingQuery, e);
+        }
+        return PhenotypeMatchMatrix.empty();
+    }
+
 }
@@ -83,4 +83,21 @@ static Set<PhenotypeMatch> processOntologyTermMatchResultSet(ResultSet rs, Pheno
         return phenotypeMatches.build();
     }
 
+    static PhenotypeMatchMatrix processOntologyTermMatchMatrixResultSet(ResultSet rs) throws SQLException {
+        PhenotypeMatchMatrix.Builder phenotypeMatchMatrix = PhenotypeMatchMatrix.builder();
+        while (rs.next()) {
+            //query_id, simj, ic, score, hit_id, hit_term, lcs_id, lcs_term
+            phenotypeMatchMatrix.add(
+                    rs.getString("query_id"),
+                    rs.getString("hit_id"),
+                    rs.getString("hit_term"),
+                    rs.getString("lcs_id"),
+                    rs.getString("lcs_term"),
+                    rs.getDouble("simj"),
+                    rs.getDouble("ic"),
+                    rs.getDouble("score"));
+        }
+        return phenotypeMatchMatrix.build();
+    }
+
 }
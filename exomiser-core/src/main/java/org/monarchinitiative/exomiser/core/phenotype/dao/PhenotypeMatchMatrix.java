@@ -0,0 +1,294 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype.dao;
+
+import com.google.common.collect.ImmutableSet;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable in-memory copy of one of the HP-HP, HP-MP or HP-ZP phenotype mapping tables held in compressed sparse row
+ * (CSR) form. Query and hit terms are interned to integer indices so that the matches for an HPO term are a contiguous
+ * run of primitive arrays. These are exposed as a {@link Row} so that the best matches can be found without creating a
+ * {@link PhenotypeMatch} for every hit, which are only created for the matches requested.
+ * <p>
+ * The matches for each query term are returned in the order in which they were added to the {@link Builder}, which is
+ * the order returned by the equivalent SQL query.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public final class PhenotypeMatchMatrix {
+
+    private static final PhenotypeMatchMatrix EMPTY = new Builder().build();
+
+    // query term id -> row
+    private final Map<String, Integer> queryRows;
+    // the matches for row i are found in the range rowOffsets[i] until rowOffsets[i + 1]
+    private final int[] rowOffsets;
+    private final int[] hitTerms;
+    private final int[] lcsTerms;
+    private final double[] simJs;
+    private final double[] ics;
+    private final double[] scores;
+    // interned hit and lcs terms
+    private final PhenotypeTerm[] terms;
+
+    private PhenotypeMatchMatrix(Map<String, Integer> queryRows, int[] rowOffsets, int[] hitTerms, int[] lcsTerms, double[] simJs, double[] ics, double[] scores, PhenotypeTerm[] terms) {
+        this.queryRows = queryRows;
+        this.rowOffsets = rowOffsets;
+        this.hitTerms = hitTerms;
+        this.lcsTerms = lcsTerms;
+        this.simJs = simJs;
+        this.ics = ics;
+        this.scores = scores;
+        this.terms = terms;
+    }
+
+    public static PhenotypeMatchMatrix empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the number of query terms with at least one match
+     */
+    public int numQueryTerms() {
+        return queryRows.size();
+    }
+
+    /**
+     * @return the total number of phenotype matches
+     */
+    public int size() {
+        return hitTerms.length;
+    }
+
+    public boolean isEmpty() {
+        return hitTerms.length == 0;
+    }
+
+    /**
+     * Returns a primitive view of the matches for the given HPO term, in which no {@link PhenotypeMatch} is created until
+     * requested. The row is empty if there are no matches for the term.
+     */
+    public Row getRow(PhenotypeTerm hpoTerm) {
+        Integer row = queryRows.get(hpoTerm.getId());
+        if (row == null) {
+            return new Row(hpoTerm, 0, 0);
+        }
+        return new Row(hpoTerm, rowOffsets[row], rowOffsets[row + 1]);
+    }
+
+    /**
+     * Returns the matches for the given HPO term in the same form as
+     * {@link OntologyDao#getPhenotypeMatchesForHpoTerm(PhenotypeTerm)}, or an empty set if there are none.
+     */
+    public Set<PhenotypeMatch> getPhenotypeMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
+        return getRow(hpoTerm).getPhenotypeMatches();
+    }
+
+    /**
+     * The matches for a single query term, indexed from 0 to {@link #size()} - 1 in the order in which they were added
+     * to the {@link Builder}.
+     */
+    public final class Row {
+
+        private final PhenotypeTerm queryTerm;
+        private final int start;
+        private final int end;
+
+        private Row(PhenotypeTerm queryTerm, int start, int end) {
+            this.queryTerm = queryTerm;
+            this.start = start;
+            this.end = end;
+        }
+
+        public PhenotypeTerm getQueryTerm() {
+            return queryTerm;
+        }
+
+        public int size() {
+            return end - start;
+        }
+
+        public boolean isEmpty() {
+            return start == end;
+        }
+
+        public String getMatchPhenotypeId(int index) {
+            return terms[hitTerms[offset(index)]].getId();
+        }
+
+        public double getScore(int index) {
+            return scores[offset(index)];
+        }
+
+        /**
+         * @return the index of the first match with the highest score, or -1 if the row is empty
+         */
+        public int getBestMatchIndex() {
+            int bestIndex = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = start; i < end; i++) {
+                if (bestIndex == -1 || scores[i] > bestScore) {
+                    bestIndex = i - start;
+                    bestScore = scores[i];
+                }
+            }
+            return bestIndex;
+        }
+
+        public PhenotypeMatch getPhenotypeMatch(int index) {
+            int i = offset(index);
+            return PhenotypeMatch.builder()
+                    .query(queryTerm)
+                    .match(terms[hitTerms[i]])
+                    .lcs(terms[lcsTerms[i]])
+                    .simj(simJs[i])
+                    .ic(ics[i])
+                    .score(scores[i])
+                    .build();
+        }
+
+        public Set<PhenotypeMatch> getPhenotypeMatches() {
+            ImmutableSet.Builder<PhenotypeMatch> phenotypeMatches = ImmutableSet.builderWithExpectedSize(size());
+            for (int index = 0; index < size(); index++) {
+                phenotypeMatches.add(getPhenotypeMatch(index));
+            }
+            return phenotypeMatches.build();
+        }
+
+        private int offset(int index) {
+            return start + Objects.checkIndex(index, end - start);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PhenotypeMatchMatrix{" +
+                "queryTerms=" + queryRows.size() +
+                ", matches=" + hitTerms.length +
+                ", terms=" + terms.length +
+                '}';
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Integer> queryRows = new HashMap<>();
+        // 'id label' : term index
+        private final Map<String, Integer> termIndices = new HashMap<>();
+        private PhenotypeTerm[] terms = new PhenotypeTerm[1024];
+        private int numTerms = 0;
+
+        private int size = 0;
+        private int[] rows = new int[1024];
+        private int[] hitTerms = new int[1024];
+        private int[] lcsTerms = new int[1024];
+        private double[] simJs = new double[1024];
+        private double[] ics = new double[1024];
+        private double[] scores = new double[1024];
+
+        private Builder() {
+        }
+
+        public Builder add(String queryId, String hitId, String hitLabel, String lcsId, String lcsLabel, double simJ, double ic, double score) {
+            if (size == rows.length) {
+                int newLength = size * 2;
+                rows = Arrays.copyOf(rows, newLength);
+                hitTerms = Arrays.copyOf(hitTerms, newLength);
+                lcsTerms = Arrays.copyOf(lcsTerms, newLength);
+                simJs = Arrays.copyOf(simJs, newLength);
+                ics = Arrays.copyOf(ics, newLength);
+                scores = Arrays.copyOf(scores, newLength);
+            }
+            rows[size] = queryRow(queryId);
+            hitTerms[size] = internTerm(hitId, hitLabel);
+            lcsTerms[size] = internTerm(lcsId, lcsLabel);
+            simJs[size] = simJ;
+            ics[size] = ic;
+            scores[size] = score;
+            size++;
+            return this;
+        }
+
+        private int queryRow(String queryId) {
+            Integer row = queryRows.get(queryId);
+            if (row == null) {
+                row = queryRows.size();
+                queryRows.put(queryId, row);
+            }
+            return row;
+        }
+
+        private int internTerm(String id, String label) {
+            String key = id + ' ' + label;
+            Integer index = termIndices.get(key);
+            if (index == null) {
+                // fails fast on a null id here rather than when the match is requested
+                PhenotypeTerm term = PhenotypeTerm.of(id, label);
+                if (numTerms == terms.length) {
+                    terms = Arrays.copyOf(terms, numTerms * 2);
+                }
+                terms[numTerms] = term;
+                index = numTerms++;
+                termIndices.put(key, index);
+            }
+            return index;
+        }
+
+        public PhenotypeMatchMatrix build() {
+            int numRows = queryRows.size();
+            // stable counting sort of the matches by query row, preserving the order in which they were added
+            int[] rowOffsets = new int[numRows + 1];
+            for (int i = 0; i < size; i++) {
+                rowOffsets[rows[i] + 1]++;
+            }
+            for (int row = 0; row < numRows; row++) {
+                rowOffsets[row + 1] += rowOffsets[row];
+            }
+            int[] nextPositions = Arrays.copyOf(rowOffsets, numRows);
+            int[] sortedHitTerms = new int[size];
+            int[] sortedLcsTerms = new int[size];
+            double[] sortedSimJs = new double[size];
+            double[] sortedIcs = new double[size];
+            double[] sortedScores = new double[size];
+            for (int i = 0; i < size; i++) {
+                int position = nextPositions[rows[i]]++;
+                sortedHitTerms[position] = hitTerms[i];
+                sortedLcsTerms[position] = lcsTerms[i];
+                sortedSimJs[position] = simJs[i];
+                sortedIcs[position] = ics[i];
+                sortedScores[position] = scores[i];
+            }
+            return new PhenotypeMatchMatrix(Map.copyOf(queryRows), rowOffsets, sortedHitTerms, sortedLcsTerms, sortedSimJs, sortedIcs, sortedScores, Arrays.copyOf(terms, numTerms));
+        }
+    }
+}
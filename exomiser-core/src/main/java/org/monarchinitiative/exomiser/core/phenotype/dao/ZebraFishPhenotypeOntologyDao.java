@@ -88,4 +88,26 @@ public Set<PhenotypeMatch> getPhenotypeMatchesForHpoTerm(PhenotypeTerm hpoTerm)
         return Collections.emptySet();
     }
 
+    /**
+     * Loads the entire HP-ZP mapping table into memory for use in place of
+     * {@link #getPhenotypeMatchesForHpoTerm(PhenotypeTerm)}.
+     *
+     * @return a {@link PhenotypeMatchMatrix} of all the HP-ZP matches, or an empty matrix if the table could not be read.
+     * @since 13.2.0
+     */
+    public PhenotypeMatchMatrix getPhenotypeMatchMatrix() {
+        String mappingQuery = "SELECT hp_id AS query_id, simj, ic, score, zp_id AS hit_id, zp_term AS hit_term, lcs_id, lcs_term FROM hp_zp_mappings";
+        try (
+                Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(mappingQuery);
+                ResultSet rs = ps.executeQuery()) {
+
+            return OntologyDaoResultSetProcessor.processOntologyTermMatchMatrixResultSet(rs);
+
+        } catch (SQLException e) {
+            logger.error("Unable to execute query '{}' for HP-ZP match terms", mappingQuery, e);
+        }
+        return PhenotypeMatchMatrix.empty();
+    }
+
 }
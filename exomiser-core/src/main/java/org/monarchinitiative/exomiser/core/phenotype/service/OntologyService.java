@@ -27,7 +27,9 @@
 
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+import org.monarchinitiative.exomiser.core.phenotype.dao.PhenotypeMatchMatrix;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Set;
 
@@ -51,6 +53,33 @@ public interface OntologyService {
 
     Set<PhenotypeMatch> getZpoMatchesForHpoTerm(PhenotypeTerm hpoTerm);
 
+    /**
+     * @return the pre-loaded HP-HP mappings, or null if the matches are queried on request
+     * @since 13.2.0
+     */
+    @Nullable
+    default PhenotypeMatchMatrix getHpoMatchMatrix() {
+        return null;
+    }
+
+    /**
+     * @return the pre-loaded HP-MP mappings, or null if the matches are queried on request
+     * @since 13.2.0
+     */
+    @Nullable
+    default PhenotypeMatchMatrix getMpoMatchMatrix() {
+        return null;
+    }
+
+    /**
+     * @return the pre-loaded HP-ZP mappings, or null if the matches are queried on request
+     * @since 13.2.0
+     */
+    @Nullable
+    default PhenotypeMatchMatrix getZpoMatchMatrix() {
+        return null;
+    }
+
     PhenotypeTerm getPhenotypeTermForHpoId(String hpoId);
 
     /**
@@ -29,6 +29,8 @@
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
 import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
 import org.monarchinitiative.exomiser.core.phenotype.dao.MousePhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.OntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.PhenotypeMatchMatrix;
 import org.monarchinitiative.exomiser.core.phenotype.dao.ZebraFishPhenotypeOntologyDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +38,7 @@
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Nullable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +48,11 @@
 /**
  * Service for retrieving phenotype data from the database for use by the
  * prioritisers. This class is complemented by the PriorityService. 
+ * <p>
+ * By default the phenotype matches for each HPO term are queried from the database on request. When created with
+ * {@code preloadPhenotypeMappings} set to true the HP-HP, HP-MP and HP-ZP mapping tables are loaded into memory as
+ * {@link PhenotypeMatchMatrix} on startup and the matches are read from these instead. This requires more memory, but
+ * removes the database round-trip for every query term.
  *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
@@ -57,16 +65,54 @@ public class OntologyServiceImpl implements OntologyService {
     private final MousePhenotypeOntologyDao mpoDao;
     private final ZebraFishPhenotypeOntologyDao zpoDao;
 
+    // optional pre-loaded phenotype mappings, used in place of the DAOs when not null
+    @Nullable
+    private final PhenotypeMatchMatrix hpMatchMatrix;
+    @Nullable
+    private final PhenotypeMatchMatrix mpMatchMatrix;
+    @Nullable
+    private final PhenotypeMatchMatrix zpMatchMatrix;
+
     private final HpoIdChecker hpoIdChecker;
 
     @Autowired
     public OntologyServiceImpl(HumanPhenotypeOntologyDao hpoDao, MousePhenotypeOntologyDao mpoDao, ZebraFishPhenotypeOntologyDao zpoDao) {
+        this(hpoDao, mpoDao, zpoDao, false);
+    }
+
+    /**
+     * @param preloadPhenotypeMappings load the HP-HP, HP-MP and HP-ZP mapping tables into memory on startup
+     * @since 13.2.0
+     */
+    public OntologyServiceImpl(HumanPhenotypeOntologyDao hpoDao, MousePhenotypeOntologyDao mpoDao, ZebraFishPhenotypeOntologyDao zpoDao, boolean preloadPhenotypeMappings) {
         this.hpoDao = hpoDao;
         this.mpoDao = mpoDao;
         this.zpoDao = zpoDao;
 
         Map<String, PhenotypeTerm> hpAltIds = setUpHpoAltIds();
         this.hpoIdChecker = HpoIdChecker.of(hpAltIds);
+
+        if (preloadPhenotypeMappings) {
+            this.hpMatchMatrix = loadPhenotypeMatchMatrix("HP-HP", hpoDao.getPhenotypeMatchMatrix());
+            this.mpMatchMatrix = loadPhenotypeMatchMatrix("HP-MP", mpoDao.getPhenotypeMatchMatrix());
+            this.zpMatchMatrix = loadPhenotypeMatchMatrix("HP-ZP", zpoDao.getPhenotypeMatchMatrix());
+        } else {
+            this.hpMatchMatrix = null;
+            this.mpMatchMatrix = null;
+            this.zpMatchMatrix = null;
+        }
+    }
+
+    @Nullable
+    private PhenotypeMatchMatrix loadPhenotypeMatchMatrix(String mappings, PhenotypeMatchMatrix phenotypeMatchMatrix) {
+        // an empty matrix indicates the table couldn't be read, so continue to use the database rather than silently
+        // returning no matches at all.
+        if (phenotypeMatchMatrix.isEmpty()) {
+            logger.warn("No {} phenotype mappings loaded - these will be queried from the database", mappings);
+            return null;
+        }
+        logger.info("Pre-loaded {} {} phenotype mappings for {} HPO terms", phenotypeMatchMatrix.size(), mappings, phenotypeMatchMatrix.numQueryTerms());
+        return phenotypeMatchMatrix;
     }
 
     private Map<String, PhenotypeTerm> setUpHpoAltIds() {
@@ -105,17 +151,42 @@ public Set<PhenotypeTerm> getZpoTerms() {
 
     @Override
     public Set<PhenotypeMatch> getHpoMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
-        return hpoDao.getPhenotypeMatchesForHpoTerm(hpoTerm);
+        return getPhenotypeMatchesForHpoTerm(hpoTerm, hpMatchMatrix, hpoDao);
     }
 
     @Override
     public Set<PhenotypeMatch> getMpoMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
-        return mpoDao.getPhenotypeMatchesForHpoTerm(hpoTerm);
+        return getPhenotypeMatchesForHpoTerm(hpoTerm, mpMatchMatrix, mpoDao);
     }
 
     @Override
     public Set<PhenotypeMatch> getZpoMatchesForHpoTerm(PhenotypeTerm hpoTerm) {
-        return zpoDao.getPhenotypeMatchesForHpoTerm(hpoTerm);
+        return getPhenotypeMatchesForHpoTerm(hpoTerm, zpMatchMatrix, zpoDao);
+    }
+
+    @Nullable
+    @Override
+    public PhenotypeMatchMatrix getHpoMatchMatrix() {
+        return hpMatchMatrix;
+    }
+
+    @Nullable
+    @Override
+    public PhenotypeMatchMatrix getMpoMatchMatrix() {
+        return mpMatchMatrix;
+    }
+
+    @Nullable
+    @Override
+    public PhenotypeMatchMatrix getZpoMatchMatrix() {
+        return zpMatchMatrix;
+    }
+
+    private Set<PhenotypeMatch> getPhenotypeMatchesForHpoTerm(PhenotypeTerm hpoTerm, @Nullable PhenotypeMatchMatrix phenotypeMatchMatrix, OntologyDao ontologyDao) {
+        if (phenotypeMatchMatrix != null) {
+            return phenotypeMatchMatrix.getPhenotypeMatchesForHpoTerm(hpoTerm);
+        }
+        return ontologyDao.getPhenotypeMatchesForHpoTerm(hpoTerm);
     }
 
     /**
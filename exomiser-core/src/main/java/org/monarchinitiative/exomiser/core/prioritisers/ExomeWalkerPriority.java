@@ -20,16 +20,16 @@
 
 package org.monarchinitiative.exomiser.core.prioritisers;
 
-import org.jblas.FloatMatrix;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.function.Function;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -56,6 +56,8 @@ public class ExomeWalkerPriority implements Prioritiser<ExomeWalkerPriorityResul
 
     private static final PriorityType PRIORITY_TYPE = PriorityType.EXOMEWALKER_PRIORITY;
 
+    private static final int ROW_BLOCK_SIZE = 1024;
+
     /**
      * A list of messages that can be used to create a display in a HTML page or
      * elsewhere.
@@ -75,9 +77,9 @@ public class ExomeWalkerPriority implements Prioritiser<ExomeWalkerPriorityResul
 
     /**
      * This is the matrix of similarities between the seeed genes and all genes
-     * in the network, i.e., p<sub>infinity</sub>.
+     * in the network, i.e., p<sub>infinity</sub>. This is empty if there are no seed genes.
      */
-    private final FloatMatrix combinedProximityVector;
+    private final float[] combinedProximityVector;
 
     /**
      *
@@ -126,35 +128,45 @@ public PriorityType getPriorityType() {
 
     /**
      * Compute the distance of all genes in the Random Walk matrix to the set of
-     * seed genes given by the user.
+     * seed genes given by the user. The seed gene columns are summed in parallel
+     * over blocks of rows. Each row adds the columns in the order of the seed
+     * genes, so the sums are identical to adding each column to the vector in turn.
      *
      * @param randomWalkMatrix
      * @param seedGenes
      */
-    private FloatMatrix computeDistanceAllNodesFromStartNodes(DataMatrix randomWalkMatrix, List<Integer> seedGenes) {
-        FloatMatrix seedGeneProximityVectors = FloatMatrix.EMPTY;
-        boolean first = true;
-        for (Integer seedGeneEntrezId : seedGenes) {
-            if (!randomWalkMatrix.containsGene(seedGeneEntrezId)) {
-                /* Note that the RW matrix does not have an entry for every
-                 Entrez Gene. If the gene is not contained in the matrix, we
-                 skip it. The gene will be given a (low) default score in 
-                 Genewanderer Relevance.
-                 */
-                continue;
-            }
-            //Get the column we need, this has the distances of ALL genes to the current gene
-            FloatMatrix column = randomWalkMatrix.getColumnMatrixForGene(seedGeneEntrezId);
-
+    private float[] computeDistanceAllNodesFromStartNodes(DataMatrix randomWalkMatrix, List<Integer> seedGenes) {
+        /* Note that the RW matrix does not have an entry for every
+         Entrez Gene. If the gene is not contained in the matrix, we
+         skip it. The gene will be given a (low) default score in
+         Genewanderer Relevance.
+         */
+        //Get the columns we need, these have the distances of ALL genes to each seed gene
+        //These are read in place, so a memory-mapped matrix is never copied.
+        FloatBuffer[] columns = seedGenes.stream()
+                .filter(randomWalkMatrix::containsGene)
+                .map(randomWalkMatrix::getColumnForGene)
+                .toArray(FloatBuffer[]::new);
+        if (columns.length == 0) {
+            return new float[0];
+        }
+        int rows = columns[0].limit();
+        float[] seedGeneProximityVector = new float[rows];
+        int numBlocks = (rows + ROW_BLOCK_SIZE - 1) / ROW_BLOCK_SIZE;
+        IntStream.range(0, numBlocks).parallel().forEach(block -> {
+            int from = block * ROW_BLOCK_SIZE;
+            int to = Math.min(rows, from + ROW_BLOCK_SIZE);
             // for the first column/known gene we have to init the resulting vector
-            if (first) {
-                seedGeneProximityVectors = column;
-                first = false;
-            } else {
-                seedGeneProximityVectors = seedGeneProximityVectors.add(column);
+            // absolute bulk get, so the shared buffer's position is left untouched
+            columns[0].duplicate().position(from).get(seedGeneProximityVector, from, to - from);
+            for (int col = 1; col < columns.length; col++) {
+                FloatBuffer column = columns[col];
+                for (int row = from; row < to; row++) {
+                    seedGeneProximityVector[row] += column.get(row);
+                }
             }
-        }
-        return seedGeneProximityVectors;
+        });
+        return seedGeneProximityVector;
     }
 
     @Override
@@ -162,14 +174,11 @@ public Stream<ExomeWalkerPriorityResult> prioritise(List<String> hpoIds, List<Ge
         if (seedGenes.isEmpty()) {
             logger.error("Seed genes is empty - please specify a valid list of known genes!");
         }
-        return genes.stream().map(prioritiseGene());
-    }
-
-    private Function<Gene, ExomeWalkerPriorityResult> prioritiseGene() {
-        return gene -> {
-            double score = calculateGeneScore(gene.getEntrezGeneID());
-            return new ExomeWalkerPriorityResult(gene.getEntrezGeneID(), gene.getGeneSymbol(), score);
-        };
+        double[] scores = calculateGeneScores(genes);
+        return IntStream.range(0, genes.size()).mapToObj(i -> {
+            Gene gene = genes.get(i);
+            return new ExomeWalkerPriorityResult(gene.getEntrezGeneID(), gene.getGeneSymbol(), scores[i]);
+        });
     }
 
     /**
@@ -183,26 +192,10 @@ public void prioritizeGenes(List<String> hpoIds, List<Gene> geneList) {
         if (seedGenes.isEmpty()) {
             logger.error("Seed genes is empty - please specify a valid list of known genes!");
         }
-        double max = Double.MIN_VALUE;
-        double min = Double.MAX_VALUE;
-        for (Gene gene : geneList) {
-            ExomeWalkerPriorityResult relScore = prioritiseGene().apply(gene);
-            double score = relScore.getScore();
-            if (score > max) {
-                max = score;
-            }
-            if (score < min) {
-                min = score;
-            }
-            gene.addPriorityResult(relScore);
-        }
-    }
-
-    private double calculateGeneScore(int entrezId) {
-        if (randomWalkMatrix.containsGene(entrezId)) {
-            return computeSimStartNodesToNode(entrezId);
-        } else {
-            return 0;
+        double[] scores = calculateGeneScores(geneList);
+        for (int i = 0; i < scores.length; i++) {
+            Gene gene = geneList.get(i);
+            gene.addPriorityResult(new ExomeWalkerPriorityResult(gene.getEntrezGeneID(), gene.getGeneSymbol(), scores[i]));
         }
     }
 
@@ -215,13 +208,24 @@ public List<String> getMessages() {
     }
 
     /**
-     * This function retrieves the random walk similarity score for the gene
+     * Gathers the random walk similarity scores for the genes from the combined proximity vector in a single pass.
+     * Genes which are not in the random walk matrix score 0.
      *
-     * @param nodeToCompute Gene Id for which the RW score is to bee retrieved
+     * @param genes the genes for which the RW score is to be retrieved
+     * @return the scores in the same order as the genes
      */
-    private double computeSimStartNodesToNode(int nodeToCompute) {
-        int idx = randomWalkMatrix.getRowIndexForGene(nodeToCompute);
-        return combinedProximityVector.get(idx, 0);
+    private double[] calculateGeneScores(List<Gene> genes) {
+        double[] scores = new double[genes.size()];
+        if (combinedProximityVector.length == 0) {
+            return scores;
+        }
+        for (int i = 0; i < scores.length; i++) {
+            Integer rowIndex = randomWalkMatrix.getRowIndexForGene(genes.get(i).getEntrezGeneID());
+            if (rowIndex != null) {
+                scores[i] = combinedProximityVector[rowIndex];
+            }
+        }
+        return scores;
     }
 
     @Override
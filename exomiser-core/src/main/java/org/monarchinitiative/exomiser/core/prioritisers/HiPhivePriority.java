@@ -22,7 +22,7 @@
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.Lists;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.phenotype.*;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneMatch;
@@ -37,12 +37,11 @@
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toUnmodifiableList;
-import static java.util.stream.Collectors.toUnmodifiableSet;
 
 /**
  * Filter genes according phenotypic similarity and to the random walk proximity
@@ -57,19 +56,35 @@ public class HiPhivePriority implements Prioritiser<HiPhivePriorityResult> {
 
     private static final PriorityType PRIORITY_TYPE = PriorityType.HIPHIVE_PRIORITY;
     private static final double HIGH_QUALITY_SCORE_CUTOFF = 0.6;
+    // the number of genes whose models are scored in each task submitted to the scoring threads
+    private static final int GENE_BATCH_SIZE = 1024;
 
     private final HiPhiveOptions options;
     private final DataMatrix randomWalkMatrix;
     private final PriorityService priorityService;
+    private final Executor scoringExecutor;
 
     /**
      * @param options
      * @param randomWalkMatrix
      */
     public HiPhivePriority(HiPhiveOptions options, DataMatrix randomWalkMatrix, PriorityService priorityService) {
+        this(options, randomWalkMatrix, priorityService, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param options
+     * @param randomWalkMatrix
+     * @param priorityService
+     * @param scoringExecutor  the executor on which the models are scored. This should be shared between all instances
+     *                         so that the number of scoring threads is bounded however many analyses run concurrently.
+     * @since 13.2.0
+     */
+    public HiPhivePriority(HiPhiveOptions options, DataMatrix randomWalkMatrix, PriorityService priorityService, Executor scoringExecutor) {
         this.options = options;
         this.randomWalkMatrix = randomWalkMatrix;
         this.priorityService = priorityService;
+        this.scoringExecutor = Objects.requireNonNull(scoringExecutor);
     }
 
     @Override
@@ -89,10 +104,10 @@ public Stream<HiPhivePriorityResult> prioritise(List<String> hpoIds, List<Gene>
         }
         List<PhenotypeTerm> hpoPhenotypeTerms = priorityService.makePhenotypeTermsFromHpoIds(hpoIds);
 
-        ListMultimap<Integer, GeneModelPhenotypeMatch> allScoredModelsByGene = makeGeneModelsForOrganisms(hpoPhenotypeTerms, options
-                .getOrganismsToRun(), genes);
+        ScoredGeneModels scoredGeneModels = makeGeneModelsForOrganisms(hpoPhenotypeTerms, options.getOrganismsToRun(), genes);
+        ListMultimap<Integer, GeneModelPhenotypeMatch> allScoredModelsByGene = scoredGeneModels.allScoredModelsByGene;
 
-        HiPhiveProteinInteractionScorer ppiScorer = makeHiPhiveProteinInteractionScorer(allScoredModelsByGene, options.runPpi());
+        HiPhiveProteinInteractionScorer ppiScorer = makeHiPhiveProteinInteractionScorer(scoredGeneModels, options.runPpi());
 
         logger.debug("Prioritising genes...");
         return genes.stream().map(makeHiPhivePriorityResult(hpoPhenotypeTerms, allScoredModelsByGene, ppiScorer));
@@ -103,7 +118,8 @@ private Function<Gene, HiPhivePriorityResult> makeHiPhivePriorityResult(List<Phe
             Integer entrezGeneId = gene.getEntrezGeneID();
             String geneSymbol = gene.getGeneSymbol();
 
-            List<GeneModelPhenotypeMatch> geneModelPhenotypeMatches = allScoredModelsByGene.get(entrezGeneId);
+            // most genes have no models, so don't create an empty view of the multimap for these
+            List<GeneModelPhenotypeMatch> geneModelPhenotypeMatches = allScoredModelsByGene.containsKey(entrezGeneId) ? allScoredModelsByGene.get(entrezGeneId) : List.of();
 
             double phenoScore = getMaxGenePhenoScore(geneModelPhenotypeMatches);
 
@@ -131,24 +147,26 @@ private boolean matchesCandidateGeneSymbol(String geneSymbol) {
         return options.getCandidateGeneSymbol().equals(geneSymbol) || geneSymbol.startsWith(options.getCandidateGeneSymbol() + ",");
     }
 
-    private HiPhiveProteinInteractionScorer makeHiPhiveProteinInteractionScorer(ListMultimap<Integer, GeneModelPhenotypeMatch> allScoredModelsByGene, boolean runPpi) {
+    private HiPhiveProteinInteractionScorer makeHiPhiveProteinInteractionScorer(ScoredGeneModels scoredGeneModels, boolean runPpi) {
         if (runPpi) {
             logger.debug("Creating PPI scorer ");
+            // the best model of each organism for each gene was found as the models were scored, so these only need
+            // to be collected in gene then organism order.
             ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = ArrayListMultimap.create();
-            Multimaps.asMap(allScoredModelsByGene).forEach((integer, geneModelPhenotypeMatches) -> {
+            for (Integer entrezGeneId : scoredGeneModels.allScoredModelsByGene.keySet()) {
                 for (Organism organism : options.getOrganismsToRun()) {
-                    geneModelPhenotypeMatches.stream()
-                            .filter(geneModelPhenotypeMatch -> geneModelPhenotypeMatch.getOrganism() == organism)
-                            .max(Comparator.comparing(GeneModelPhenotypeMatch::getScore))
-                            .ifPresent(geneModelPhenotypeMatch -> bestGeneModels.put(integer, geneModelPhenotypeMatch));
+                    GeneModelPhenotypeMatch bestModel = scoredGeneModels.bestModelsByOrganism.getOrDefault(organism, Map.of()).get(entrezGeneId);
+                    if (bestModel != null) {
+                        bestGeneModels.put(entrezGeneId, bestModel);
+                    }
                 }
-            });
+            }
             return new HiPhiveProteinInteractionScorer(randomWalkMatrix, bestGeneModels, HIGH_QUALITY_SCORE_CUTOFF);
         }
         return HiPhiveProteinInteractionScorer.empty();
     }
 
-    private ListMultimap<Integer, GeneModelPhenotypeMatch> makeGeneModelsForOrganisms(List<PhenotypeTerm> hpoPhenotypeTerms, Set<Organism> organismsToCompare, List<Gene> genes) {
+    private ScoredGeneModels makeGeneModelsForOrganisms(List<PhenotypeTerm> hpoPhenotypeTerms, Set<Organism> organismsToCompare, List<Gene> genes) {
 
         //CAUTION!! this must always run in order that the best score is set - HUMAN runs first as we are comparing HP to other phenotype ontology terms.
         PhenotypeMatcher referenceOrganismPhenotypeMatcher = priorityService.getPhenotypeMatcherForOrganism(hpoPhenotypeTerms, Organism.HUMAN);
@@ -158,24 +176,53 @@ private ListMultimap<Integer, GeneModelPhenotypeMatch> makeGeneModelsForOrganism
         }
         List<PhenotypeMatcher> phenotypeMatchers = createPhenotypeMatchers(hpoPhenotypeTerms, referenceOrganismPhenotypeMatcher, organismsToCompare);
 
-        ListMultimap<Integer, GeneModelPhenotypeMatch> scoredModelsByGene = ArrayListMultimap.create();
-        Set<Integer> wantedGeneIds = genes.stream().map(Gene::getEntrezGeneID).collect(toUnmodifiableSet());
-        for (PhenotypeMatcher organismPhenotypeMatcher : phenotypeMatchers) {
-            Set<GeneModel> modelsToScore = priorityService.getModelsForOrganism(organismPhenotypeMatcher.getOrganism())
-                    .stream()
-                    // remove known disease-gene models for purposes of benchmarking i.e to simulate novel gene discovery performance
-                    .filter(removeBenchmarkingModels())
-                    .filter(model -> wantedGeneIds.contains(model.getEntrezGeneId()))
-                    .collect(toUnmodifiableSet());
-
-            List<GeneModelPhenotypeMatch> geneModelPhenotypeMatches = scoreModels(referenceQueryPhenotypeMatch, organismPhenotypeMatcher, modelsToScore);
-            for (GeneModelPhenotypeMatch scoredModel : geneModelPhenotypeMatches) {
-                if (scoredModel.getScore() > 0) {
-                    scoredModelsByGene.put(scoredModel.getEntrezGeneId(), scoredModel);
+        List<Integer> wantedGeneIds = genes.stream().map(Gene::getEntrezGeneID).distinct().collect(toUnmodifiableList());
+        List<List<Integer>> geneIdBatches = Lists.partition(wantedGeneIds, GENE_BATCH_SIZE);
+
+        // The models of all the organisms are scored concurrently in batches of genes. The results are merged in
+        // organism then batch order, so the order of the scored models is the same regardless of the number of threads.
+        Instant timeStart = Instant.now();
+        Map<PhenotypeMatcher, List<CompletableFuture<ScoredModelBatch>>> batchesByMatcher = new LinkedHashMap<>();
+        try {
+            for (PhenotypeMatcher organismPhenotypeMatcher : phenotypeMatchers) {
+                Map<Integer, List<GeneModel>> organismModelsByGene = priorityService.getModelsForOrganismByEntrezGeneId(organismPhenotypeMatcher.getOrganism());
+                ModelScorer<GeneModel> modelScorer = PhenodigmModelScorer.forMultiCrossSpecies(referenceQueryPhenotypeMatch, organismPhenotypeMatcher);
+                List<CompletableFuture<ScoredModelBatch>> batches = new ArrayList<>(geneIdBatches.size());
+                for (List<Integer> geneIdBatch : geneIdBatches) {
+                    batches.add(CompletableFuture.supplyAsync(() -> scoreModels(modelScorer, organismModelsByGene, geneIdBatch), scoringExecutor));
+                }
+                batchesByMatcher.put(organismPhenotypeMatcher, batches);
+            }
+            ScoredGeneModels scoredGeneModels = new ScoredGeneModels();
+            for (Map.Entry<PhenotypeMatcher, List<CompletableFuture<ScoredModelBatch>>> entry : batchesByMatcher.entrySet()) {
+                Organism organism = entry.getKey().getOrganism();
+                int numScored = 0;
+                for (CompletableFuture<ScoredModelBatch> batch : entry.getValue()) {
+                    numScored += scoredGeneModels.add(organism, batch.get());
                 }
+                logger.debug("Scored {} {} models - {} ms", numScored, organism, Duration.between(timeStart, Instant.now()).toMillis());
+            }
+            return scoredGeneModels;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(batchesByMatcher);
+            throw new IllegalStateException("Interrupted while scoring models", e);
+        } catch (ExecutionException e) {
+            cancelAll(batchesByMatcher);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
             }
+            throw new IllegalStateException(cause);
         }
-        return scoredModelsByGene;
+    }
+
+    // the executor is shared, so the batches not yet started are cancelled rather than left to run for nothing
+    private static void cancelAll(Map<PhenotypeMatcher, List<CompletableFuture<ScoredModelBatch>>> batchesByMatcher) {
+        batchesByMatcher.values().forEach(batches -> batches.forEach(batch -> batch.cancel(false)));
     }
 
     private List<PhenotypeMatcher> createPhenotypeMatchers(List<PhenotypeTerm> hpoPhenotypeTerms, PhenotypeMatcher referenceOrganismPhenotypeMatcher, Set<Organism> organismsToCompare) {
@@ -192,31 +239,63 @@ private List<PhenotypeMatcher> createPhenotypeMatchers(List<PhenotypeTerm> hpoPh
         return List.copyOf(phenotypeMatchers);
     }
 
-    private Predicate<GeneModel> removeBenchmarkingModels() {
-        return geneModel -> !options.isBenchmarkingModel(geneModel);
-    }
-
     // n.b. this is *almost* identical to PhivePriority.scoreModels() the only difference is in HiPhive we're comparing the input terms
     // against all possible models (disease, mouse, fish), whereas in Phive we're only comparing against mouse.
     // For HiPhive the referenceQueryPhenotypeMatch is going to be an HPO self-hit for every term in the query set so the
     // scoreModelPhenotypeMatch uses hpoIds.size() as the numMatchedQueryPhenotypes.
-    private List<GeneModelPhenotypeMatch> scoreModels(QueryPhenotypeMatch referenceQueryPhenotypeMatch, PhenotypeMatcher organismPhenotypeMatcher, Collection<GeneModel> models) {
-        Organism organism = organismPhenotypeMatcher.getOrganism();
+    private ScoredModelBatch scoreModels(ModelScorer<GeneModel> modelScorer, Map<Integer, List<GeneModel>> modelsByGene, List<Integer> entrezGeneIds) {
+        ScoredModelBatch scoredModelBatch = new ScoredModelBatch();
+        for (Integer entrezGeneId : entrezGeneIds) {
+            GeneModelPhenotypeMatch bestGeneModel = null;
+            for (GeneModel model : modelsByGene.getOrDefault(entrezGeneId, List.of())) {
+                // remove known disease-gene models for purposes of benchmarking i.e to simulate novel gene discovery performance
+                if (options.isBenchmarkingModel(model)) {
+                    continue;
+                }
+                scoredModelBatch.numScored++;
+                // TODO why have a GeneModelPhenotypeMatch? It's simply a ModelPhenotypeMatch<GeneModel>
+                GeneModelPhenotypeMatch scoredModel = new GeneModelPhenotypeMatch(modelScorer.scoreModel(model));
+                if (scoredModel.getScore() > 0) {
+                    scoredModelBatch.scoredModels.add(scoredModel);
+                    if (bestGeneModel == null || scoredModel.getScore() > bestGeneModel.getScore()) {
+                        bestGeneModel = scoredModel;
+                    }
+                }
+            }
+            if (bestGeneModel != null) {
+                scoredModelBatch.bestGeneModels.add(bestGeneModel);
+            }
+        }
+        return scoredModelBatch;
+    }
 
-        ModelScorer<GeneModel> modelScorer = PhenodigmModelScorer.forMultiCrossSpecies(referenceQueryPhenotypeMatch, organismPhenotypeMatcher);
+    /**
+     * The scored models of one organism for a batch of genes along with the best scoring model of each of those genes.
+     */
+    private static class ScoredModelBatch {
+        private final List<GeneModelPhenotypeMatch> scoredModels = new ArrayList<>();
+        private final List<GeneModelPhenotypeMatch> bestGeneModels = new ArrayList<>();
+        private int numScored = 0;
+    }
 
-        logger.debug("Scoring {} models", organism);
-        Instant timeStart = Instant.now();
-        //running this in parallel here can cut the overall time for this method in half or better - ~650ms -> ~350ms on Pfeiffer test set.
-        List<GeneModelPhenotypeMatch> geneModelPhenotypeMatches = models.parallelStream()
-                .map(modelScorer::scoreModel)
-                // TODO why have a GeneModelPhenotypeMatch? It's simply a ModelPhenotypeMatch<GeneModel>
-                .map(GeneModelPhenotypeMatch::new)
-                .collect(toUnmodifiableList());
+    /**
+     * All the models with a score greater than zero grouped by gene, along with the best model of each organism for
+     * each gene required by the {@link HiPhiveProteinInteractionScorer}.
+     */
+    private static class ScoredGeneModels {
+        private final ListMultimap<Integer, GeneModelPhenotypeMatch> allScoredModelsByGene = ArrayListMultimap.create();
+        private final Map<Organism, Map<Integer, GeneModelPhenotypeMatch>> bestModelsByOrganism = new EnumMap<>(Organism.class);
 
-        Duration duration = Duration.between(timeStart, Instant.now());
-        logger.debug("Scored {} {} models - {} ms", models.size(), organism, duration.toMillis());
-        return geneModelPhenotypeMatches;
+        private int add(Organism organism, ScoredModelBatch scoredModelBatch) {
+            for (GeneModelPhenotypeMatch scoredModel : scoredModelBatch.scoredModels) {
+                allScoredModelsByGene.put(scoredModel.getEntrezGeneId(), scoredModel);
+            }
+            Map<Integer, GeneModelPhenotypeMatch> bestModels = bestModelsByOrganism.computeIfAbsent(organism, key -> new HashMap<>());
+            for (GeneModelPhenotypeMatch bestGeneModel : scoredModelBatch.bestGeneModels) {
+                bestModels.put(bestGeneModel.getEntrezGeneId(), bestGeneModel);
+            }
+            return scoredModelBatch.numScored;
+        }
     }
 
     @Override
@@ -21,7 +21,6 @@
 package org.monarchinitiative.exomiser.core.prioritisers;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.google.common.collect.Maps;
 import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
 import org.monarchinitiative.exomiser.core.phenotype.ModelPhenotypeMatch;
 import org.monarchinitiative.exomiser.core.phenotype.Organism;
@@ -48,14 +47,19 @@ public class HiPhivePriorityResult extends AbstractPriorityResult {
     private final boolean candidateGeneMatch;
 
     private final List<PhenotypeTerm> queryPhenotypeTerms;
-    private final Map<Organism, GeneModelPhenotypeMatch> phenotypeEvidence;
-
+    // Only the HUMAN disease models, sorted by score, and the best MOUSE and FISH models of the gene are retained as the
+    // other ortholog models are never reported. The matches compatible with a mode of inheritance are selected from
+    // the disease models when requested rather than being held for every mode.
     private final List<GeneModelPhenotypeMatch> diseaseMatches;
-    private final Map<ModeOfInheritance, List<ModelPhenotypeMatch<Disease>>> diseaseMatchesByMoi;
+    @Nullable
+    private final GeneModelPhenotypeMatch bestHumanMatch;
+    @Nullable
+    private final GeneModelPhenotypeMatch bestMouseMatch;
+    @Nullable
+    private final GeneModelPhenotypeMatch bestFishMatch;
 
     private final List<GeneModelPhenotypeMatch> ppiEvidence;
 
-
     /**
      * @param score The similarity score assigned by the random walk.
      */
@@ -63,14 +67,10 @@ public HiPhivePriorityResult(int geneId, String geneSymbol, double score, List<P
         super(PriorityType.HIPHIVE_PRIORITY, geneId, geneSymbol, score);
         this.queryPhenotypeTerms = Objects.requireNonNullElse(queryPhenotypeTerms, List.of());
         Objects.requireNonNull(phenotypeEvidence);
-        this.phenotypeEvidence = getTopScoringModels(phenotypeEvidence);
-        this.diseaseMatches = getDiseaseMatches(phenotypeEvidence);
-//        interface ModelMatch<T extends Model> extends Comparable<ModelPhenotypeMatch<?>>
-//        final class ModelPhenotypeMatch<T extends Model> implements ModelMatch<Model>
-//        abstract class GeneModelPhenotypeMatch<T extends GeneModel> implements ModelMatch<T>
-//        class OrthologModelPhenotypeMatch extends GeneModelPhenotypeMatch<GeneModel>
-//        class DiseaseModelPhenotypeMatch extends GeneModelPhenotypeMatch<Disease>
-        this.diseaseMatchesByMoi = mapDiseaseModelsByMoi(this.diseaseMatches);
+        this.diseaseMatches = getDiseaseMatchesSortedByScore(phenotypeEvidence);
+        this.bestHumanMatch = getBestMatch(diseaseMatches, Organism.HUMAN);
+        this.bestMouseMatch = getBestMatch(phenotypeEvidence, Organism.MOUSE);
+        this.bestFishMatch = getBestMatch(phenotypeEvidence, Organism.FISH);
 
         this.ppiEvidence = ppiEvidence;
         this.ppiScore = ppiScore;
@@ -78,72 +78,22 @@ public HiPhivePriorityResult(int geneId, String geneSymbol, double score, List<P
         this.candidateGeneMatch = candidateGeneMatch;
     }
 
-    private Map<Organism, GeneModelPhenotypeMatch> getTopScoringModels(List<GeneModelPhenotypeMatch> phenotypeEvidence) {
-        Map<Organism, GeneModelPhenotypeMatch> topScoringModels = new EnumMap<>(Organism.class);
-        for (Organism organism : Organism.values()) {
-            topScoringModels.compute(organism, (k, v) -> getBestMatchForOrganism(phenotypeEvidence, organism));
-        }
-        return Collections.unmodifiableMap(topScoringModels);
-    }
-
-    private List<GeneModelPhenotypeMatch> getDiseaseMatches(List<GeneModelPhenotypeMatch> phenotypeEvidence) {
+    private static List<GeneModelPhenotypeMatch> getDiseaseMatchesSortedByScore(List<GeneModelPhenotypeMatch> phenotypeEvidence) {
         List<GeneModelPhenotypeMatch> toSort = new ArrayList<>();
         for (GeneModelPhenotypeMatch geneModelPhenotypeMatch : phenotypeEvidence) {
             if (geneModelPhenotypeMatch.getOrganism() == Organism.HUMAN) {
                 toSort.add(geneModelPhenotypeMatch);
             }
         }
+        if (toSort.isEmpty()) {
+            return List.of();
+        }
         toSort.sort(Comparator.comparing(GeneModelPhenotypeMatch::getScore).reversed());
         return List.copyOf(toSort);
     }
 
-    private Map<ModeOfInheritance, List<ModelPhenotypeMatch<Disease>>> mapDiseaseModelsByMoi(List<GeneModelPhenotypeMatch> diseaseMatches) {
-        Map<ModeOfInheritance, List<ModelPhenotypeMatch<Disease>>> diseaseModelsMoi = new EnumMap<>(ModeOfInheritance.class);
-        for (GeneModelPhenotypeMatch diseasePhenotypeMatch : diseaseMatches) {
-            GeneDiseaseModel geneDiseaseModel = (GeneDiseaseModel) diseasePhenotypeMatch.getModel();
-            Disease disease = geneDiseaseModel.getDisease();
-            // permissive - will add any disease with unknown or compatible MOI
-//            InheritanceMode inheritanceMode = disease.getInheritanceMode();
-//            for (ModeOfInheritance moi : ModeOfInheritance.values()) {
-//                if (inheritanceMode.isCompatibleWith(moi) || inheritanceMode == InheritanceMode.UNKNOWN) {
-//                    if (diseaseModelsMoi.containsKey(moi)) {
-//                        diseaseModelsMoi.get(moi).add(toModelPhenotypeMatch(diseasePhenotypeMatch));
-//                    } else {
-//                        ArrayList<ModelPhenotypeMatch<Disease>> matches = new ArrayList<>();
-//                        matches.add(toModelPhenotypeMatch(diseasePhenotypeMatch));
-//                        diseaseModelsMoi.put(moi, matches);
-//                    }
-//                }
-//            }
-            // strict - will only add disease with known and compatible MOI
-            Set<ModeOfInheritance> modesOfInheritance = copyWithAnyMoi(disease.getInheritanceMode().toModeOfInheritance());
-            ModelPhenotypeMatch<Disease> diseaseModelPhenotypeMatch = toModelPhenotypeMatch(diseasePhenotypeMatch);
-            for (ModeOfInheritance moi : modesOfInheritance) {
-                if (diseaseModelsMoi.containsKey(moi)) {
-                    diseaseModelsMoi.get(moi).add(diseaseModelPhenotypeMatch);
-                } else {
-                    List<ModelPhenotypeMatch<Disease>> matches = new ArrayList<>();
-                    matches.add(diseaseModelPhenotypeMatch);
-                    diseaseModelsMoi.put(moi, matches);
-                }
-            }
-        }
-        return Maps.immutableEnumMap(diseaseModelsMoi);
-    }
-
-    private Set<ModeOfInheritance> copyWithAnyMoi(Set<ModeOfInheritance> modesOfInheritance) {
-        Set<ModeOfInheritance> withAny = EnumSet.of(ModeOfInheritance.ANY);
-        withAny.addAll(modesOfInheritance);
-        return withAny;
-    }
-
-    private ModelPhenotypeMatch<Disease> toModelPhenotypeMatch(GeneModelPhenotypeMatch diseasePhenotypeMatch) {
-        GeneDiseaseModel geneDiseaseModel = (GeneDiseaseModel) diseasePhenotypeMatch.getModel();
-        return ModelPhenotypeMatch.of(diseasePhenotypeMatch.getScore(), geneDiseaseModel.getDisease(), diseasePhenotypeMatch.getBestModelPhenotypeMatches());
-    }
-
     @Nullable
-    private GeneModelPhenotypeMatch getBestMatchForOrganism(List<GeneModelPhenotypeMatch> phenotypeEvidence, Organism organism) {
+    private static GeneModelPhenotypeMatch getBestMatch(List<GeneModelPhenotypeMatch> phenotypeEvidence, Organism organism) {
         double bestScore = 0;
         GeneModelPhenotypeMatch bestMatch = null;
         for (GeneModelPhenotypeMatch geneModelPhenotypeMatch : phenotypeEvidence) {
@@ -158,6 +108,20 @@ private GeneModelPhenotypeMatch getBestMatchForOrganism(List<GeneModelPhenotypeM
         return bestMatch;
     }
 
+    @Nullable
+    private GeneModelPhenotypeMatch getBestMatchForOrganism(Organism organism) {
+        switch (organism) {
+            case HUMAN:
+                return bestHumanMatch;
+            case MOUSE:
+                return bestMouseMatch;
+            case FISH:
+                return bestFishMatch;
+            default:
+                return null;
+        }
+    }
+
     @Override
     public String getGeneSymbol() {
         return geneSymbol;
@@ -172,16 +136,46 @@ public List<PhenotypeTerm> getQueryPhenotypeTerms() {
         return queryPhenotypeTerms;
     }
 
+    /**
+     * @return the best scoring model of each {@link Organism} for the gene, in {@link Organism} order.
+     */
     public List<GeneModelPhenotypeMatch> getPhenotypeEvidence() {
-        return List.copyOf(phenotypeEvidence.values());
+        List<GeneModelPhenotypeMatch> bestMatches = new ArrayList<>(Organism.values().length);
+        for (Organism organism : Organism.values()) {
+            GeneModelPhenotypeMatch bestMatch = getBestMatchForOrganism(organism);
+            if (bestMatch != null) {
+                bestMatches.add(bestMatch);
+            }
+        }
+        return List.copyOf(bestMatches);
     }
 
     public List<GeneModelPhenotypeMatch> getDiseaseMatches() {
         return diseaseMatches;
     }
 
+    /**
+     * Returns the disease models with a known mode of inheritance compatible with the argument, sorted by score. All
+     * the disease models are compatible with {@link ModeOfInheritance#ANY}. The list is created on each call, or is
+     * empty without allocating anything when there are no compatible diseases.
+     *
+     * @param modeOfInheritance the mode of inheritance the diseases must be compatible with
+     * @return the compatible disease models, sorted by score
+     */
     public List<ModelPhenotypeMatch<Disease>> getCompatibleDiseaseMatches(ModeOfInheritance modeOfInheritance) {
-        return diseaseMatchesByMoi.getOrDefault(modeOfInheritance, List.of());
+        List<ModelPhenotypeMatch<Disease>> compatibleDiseaseMatches = null;
+        for (GeneModelPhenotypeMatch diseasePhenotypeMatch : diseaseMatches) {
+            GeneDiseaseModel geneDiseaseModel = (GeneDiseaseModel) diseasePhenotypeMatch.getModel();
+            Disease disease = geneDiseaseModel.getDisease();
+            // strict - will only add disease with known and compatible MOI
+            if (disease.getInheritanceMode().isCompatibleWith(modeOfInheritance)) {
+                if (compatibleDiseaseMatches == null) {
+                    compatibleDiseaseMatches = new ArrayList<>();
+                }
+                compatibleDiseaseMatches.add(ModelPhenotypeMatch.of(diseasePhenotypeMatch.getScore(), disease, diseasePhenotypeMatch.getBestModelPhenotypeMatches()));
+            }
+        }
+        return compatibleDiseaseMatches == null ? List.of() : List.copyOf(compatibleDiseaseMatches);
     }
 
     public List<GeneModelPhenotypeMatch> getPpiEvidence() {
@@ -201,7 +195,7 @@ public double getFishScore() {
     }
 
     private double getScoreForOrganism(Organism organism) {
-        GeneModelPhenotypeMatch geneModelPhenotypeMatch = phenotypeEvidence.get(organism);
+        GeneModelPhenotypeMatch geneModelPhenotypeMatch = getBestMatchForOrganism(organism);
         return geneModelPhenotypeMatch == null ? 0d : geneModelPhenotypeMatch.getScore();
     }
 
@@ -222,7 +216,7 @@ public String getPhenotypeEvidenceText() {
         StringBuilder mouseBuilder = new StringBuilder();
         StringBuilder fishBuilder = new StringBuilder();
 
-        for (GeneModelPhenotypeMatch geneModelPhenotypeMatch : phenotypeEvidence.values()) {
+        for (GeneModelPhenotypeMatch geneModelPhenotypeMatch : getPhenotypeEvidence()) {
             Map<PhenotypeTerm, PhenotypeMatch> bestMatchesForModel = getPhenotypeTermPhenotypeMatchMap(geneModelPhenotypeMatch);
             switch (geneModelPhenotypeMatch.getOrganism()) {
                 case HUMAN:
@@ -288,7 +282,7 @@ private Map<PhenotypeTerm, PhenotypeMatch> getPhenotypeTermPhenotypeMatchMap(Gen
     public String getHTMLCode() {
         StringBuilder stringBuilder = new StringBuilder();
 
-        for (GeneModelPhenotypeMatch geneModelPhenotypeMatch : phenotypeEvidence.values()) {
+        for (GeneModelPhenotypeMatch geneModelPhenotypeMatch : getPhenotypeEvidence()) {
             switch (geneModelPhenotypeMatch.getOrganism()) {
                 case HUMAN:
                     GeneDiseaseModel geneDiseaseModel = (GeneDiseaseModel) geneModelPhenotypeMatch.getModel();
@@ -382,12 +376,12 @@ public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         if (!super.equals(o)) return false;
         HiPhivePriorityResult that = (HiPhivePriorityResult) o;
-        return Double.compare(that.ppiScore, ppiScore) == 0 && candidateGeneMatch == that.candidateGeneMatch && queryPhenotypeTerms.equals(that.queryPhenotypeTerms) && phenotypeEvidence.equals(that.phenotypeEvidence);
+        return Double.compare(that.ppiScore, ppiScore) == 0 && candidateGeneMatch == that.candidateGeneMatch && queryPhenotypeTerms.equals(that.queryPhenotypeTerms) && getPhenotypeEvidence().equals(that.getPhenotypeEvidence());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), ppiScore, candidateGeneMatch, queryPhenotypeTerms, phenotypeEvidence);
+        return Objects.hash(super.hashCode(), ppiScore, candidateGeneMatch, queryPhenotypeTerms, getPhenotypeEvidence());
     }
 
     @Override
@@ -402,7 +396,7 @@ public String toString() {
                 ", ppiScore=" + ppiScore +
                 ", candidateGeneMatch=" + candidateGeneMatch +
                 ", queryPhenotypeTerms=" + queryPhenotypeTerms +
-                ", phenotypeEvidence=" + phenotypeEvidence.values() +
+                ", phenotypeEvidence=" + getPhenotypeEvidence() +
                 ", ppiEvidence=" + ppiEvidence +
                 '}';
     }
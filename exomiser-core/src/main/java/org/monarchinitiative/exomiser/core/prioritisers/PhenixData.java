@@ -0,0 +1,318 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers;
+
+import hpo.HPOutils;
+import ontologizer.go.*;
+import org.monarchinitiative.exomiser.core.prioritisers.util.HpoAnnotationSnapshot;
+import org.monarchinitiative.exomiser.core.prioritisers.util.ScoreDistributionContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import similarity.SimilarityUtilities;
+import similarity.concepts.ResnikSimilarity;
+import sonumina.math.graph.SlimDirectedGraphView;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * The PhenIX ontology, gene annotations, information content and score distributions read from the PhenIX data
+ * directory. Nothing is read until it is first required, after which it is held for the lifetime of this object so
+ * that a single instance can be shared by all the {@link PhenixPriority} created by a long-running service. All the
+ * data is read-only once loaded, so this is safe to use from multiple threads.
+ * <p>
+ * The phenixData directory must contain the files "hp.obo", "ALL_SOURCES_ALL_FREQUENCIES_genes_to_phenotype.txt"
+ * as well as the score distribution files "out/*.out", all of which can be downloaded from the HPO hudson server.
+ * Where the directory is writable, the gene annotations and information content are written to a
+ * {@link HpoAnnotationSnapshot} the first time these are calculated and read from there on subsequent runs.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+final class PhenixData {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhenixData.class);
+
+    private final String phenixDataDirectory;
+    private final ScoreDistributionContainer scoreDistributions;
+    private final ScoreDistributionContainer symmetricScoreDistributions;
+
+    private volatile HpoData hpoData;
+
+    PhenixData(String phenixDataDirectory) {
+        this.phenixDataDirectory = phenixDataDirectory.endsWith(File.separator) ? phenixDataDirectory : phenixDataDirectory + File.separator;
+        this.scoreDistributions = new ScoreDistributionContainer(this.phenixDataDirectory, false);
+        this.symmetricScoreDistributions = new ScoreDistributionContainer(this.phenixDataDirectory, true);
+    }
+
+    Ontology getHpo() {
+        return getHpoData().hpo;
+    }
+
+    /**
+     * @return the most specific HPO terms annotated to each entrez gene id
+     */
+    Map<String, ArrayList<Term>> getGeneAnnotations() {
+        return getHpoData().geneId2annotations;
+    }
+
+    ResnikSimilarity getResnikSimilarity() {
+        return getHpoData().resnikSimilarity;
+    }
+
+    ScoreDistributionContainer getScoreDistributions(boolean symmetric) {
+        return symmetric ? symmetricScoreDistributions : scoreDistributions;
+    }
+
+    private HpoData getHpoData() {
+        HpoData data = hpoData;
+        if (data == null) {
+            synchronized (this) {
+                data = hpoData;
+                if (data == null) {
+                    data = loadHpoData();
+                    hpoData = data;
+                }
+            }
+        }
+        return data;
+    }
+
+    private HpoData loadHpoData() {
+        Instant start = Instant.now();
+        String hpoOboFile = phenixDataDirectory + "hp.obo";
+        String hpoAnnotationFile = phenixDataDirectory + "ALL_SOURCES_ALL_FREQUENCIES_genes_to_phenotype.txt";
+        // the ontology graph is always required by the ResnikSimilarity, so this cannot be read from the snapshot
+        Ontology hpo = parseOntology(hpoOboFile);
+        Path snapshotFile = Paths.get(phenixDataDirectory, HpoAnnotationSnapshot.FILE_NAME);
+        List<Path> sourceFiles = List.of(Paths.get(hpoOboFile), Paths.get(hpoAnnotationFile));
+
+        Map<String, ArrayList<Term>> geneId2annotations = null;
+        Map<Term, Double> term2ic = null;
+        Optional<HpoAnnotationSnapshot> snapshot = HpoAnnotationSnapshot.read(snapshotFile, sourceFiles);
+        if (snapshot.isPresent()) {
+            geneId2annotations = resolveAnnotations(hpo, snapshot.get().getTermIdsByGeneId());
+            term2ic = resolveTermIC(hpo, snapshot.get().getInformationContentByTermId());
+            if (geneId2annotations == null || term2ic == null) {
+                logger.info("Ignoring HPO annotation snapshot {} with terms not found in {}", snapshotFile, hpoOboFile);
+            }
+        }
+        if (geneId2annotations == null || term2ic == null) {
+            //The HPO as SlimDirectedGraph (fast access to ancestors etc.)
+            SlimDirectedGraphView<Term> hpoSlim = hpo.getSlimGraphView();
+            geneId2annotations = parseAnnotations(hpoAnnotationFile, hpo, hpoSlim);
+            term2ic = calculateTermIC(hpo, hpoSlim, geneId2annotations);
+            if (toSnapshot(geneId2annotations, term2ic).write(snapshotFile, sourceFiles)) {
+                logger.debug("Wrote HPO annotations for {} genes to snapshot {}", geneId2annotations.size(), snapshotFile);
+            }
+        }
+        ResnikSimilarity resnik = new ResnikSimilarity(hpo, (HashMap<Term, Double>) term2ic);
+        logger.info("Loaded PhenIX data from {} in {} ms", phenixDataDirectory, Duration.between(start, Instant.now()).toMillis());
+        return new HpoData(hpo, geneId2annotations, resnik);
+    }
+
+    private static HpoAnnotationSnapshot toSnapshot(Map<String, ArrayList<Term>> geneId2annotations, Map<Term, Double> term2ic) {
+        Map<String, List<String>> termIdsByGeneId = new HashMap<>();
+        for (Map.Entry<String, ArrayList<Term>> entry : geneId2annotations.entrySet()) {
+            termIdsByGeneId.put(entry.getKey(), entry.getValue().stream().map(Term::getIDAsString).collect(Collectors.toList()));
+        }
+        Map<String, Double> informationContentByTermId = new HashMap<>();
+        for (Map.Entry<Term, Double> entry : term2ic.entrySet()) {
+            informationContentByTermId.put(entry.getKey().getIDAsString(), entry.getValue());
+        }
+        return new HpoAnnotationSnapshot(informationContentByTermId, termIdsByGeneId);
+    }
+
+    /**
+     * @return the annotations resolved to the terms of the ontology, or null if any of the terms could not be found.
+     */
+    @Nullable
+    private static Map<String, ArrayList<Term>> resolveAnnotations(Ontology hpo, Map<String, List<String>> termIdsByGeneId) {
+        Map<String, ArrayList<Term>> geneAnnotations = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : termIdsByGeneId.entrySet()) {
+            ArrayList<Term> terms = new ArrayList<>(entry.getValue().size());
+            for (String termId : entry.getValue()) {
+                Term term = hpo.getTerm(termId);
+                if (term == null) {
+                    return null;
+                }
+                terms.add(term);
+            }
+            geneAnnotations.put(entry.getKey(), terms);
+        }
+        return geneAnnotations;
+    }
+
+    /**
+     * @return the information content of every term in the ontology, or null if any of the terms could not be found.
+     */
+    @Nullable
+    private static Map<Term, Double> resolveTermIC(Ontology hpo, Map<String, Double> informationContentByTermId) {
+        Map<Term, Double> term2informationContent = new HashMap<>();
+        for (Map.Entry<String, Double> entry : informationContentByTermId.entrySet()) {
+            Term term = hpo.getTerm(entry.getKey());
+            if (term == null) {
+                return null;
+            }
+            term2informationContent.put(term, entry.getValue());
+        }
+        for (Term term : hpo) {
+            if (!term2informationContent.containsKey(term)) {
+                return null;
+            }
+        }
+        return term2informationContent;
+    }
+
+    /**
+     * Parses the human-phenotype-ontology.obo file (or equivalently, the hp.obo
+     * file from our Hudosn server).
+     *
+     * @param hpoOboFile path to the hp.obo file.
+     */
+    private Ontology parseOntology(String hpoOboFile) {
+        OBOParser oboParser = new OBOParser(hpoOboFile, OBOParser.PARSE_XREFS);
+
+        try {
+            String parseInfo = oboParser.doParse();
+            logger.info(parseInfo);
+        } catch (IOException | OBOParserException e) {
+            logger.error("Error parsing HPO OBO file", e);
+        }
+
+        TermContainer termContainer = new TermContainer(oboParser.getTermMap(), oboParser.getFormatVersion(), oboParser.getDate());
+        Ontology hpoOntology = new Ontology(termContainer);
+        hpoOntology.setRelevantSubontology(termContainer.get(HPOutils.organAbnormalityRootId).getName());
+        return hpoOntology;
+    }
+
+    /**
+     * Parse the HPO phenotype annotation file (e.g., phenotype_annotation.tab).
+     * The point of this is to get the links between diseases and HPO phenotype
+     * terms. The hpoAnnotationFile is The
+     * ALL_SOURCES_ALL_FREQUENCIES_genes_to_phenotype.txt-file
+     *
+     * @param hpoAnnotationFile path to the file
+     */
+    private Map<String, ArrayList<Term>> parseAnnotations(String hpoAnnotationFile, Ontology hpo, SlimDirectedGraphView<Term> hpoSlim) {
+        Map<String, ArrayList<Term>> geneAnnotations = new HashMap<>();
+        logger.info("Parsing Annotations file {}", hpoAnnotationFile);
+
+        try (BufferedReader bufferedReader = Files.newBufferedReader(Paths.get(hpoAnnotationFile))) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] split = line.split("\t");
+                String entrez = split[0];
+                Term term = null;
+                try {
+                /* split[4] is the HPO term field of an annotation line. */
+                    term = hpo.getTermIncludingAlternatives(split[3]);
+                } catch (IllegalArgumentException e) {
+                    logger.error("Unable to get term for line \n{}\n", line);
+                    logger.error("The offending field was '{}'", split[3]);
+                    for (int k = 0; k < split.length; ++k) {
+                        logger.error("{} '{}'", k, split[k]);
+                    }
+                    logger.error("", e);
+                }
+                if (term != null) {
+                    geneAnnotations.computeIfAbsent(entrez, annotations -> new ArrayList<>()).add(term);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error parsing annotation file {}", hpoAnnotationFile, e);
+        }
+
+        // cleanup annotations
+        for (Map.Entry<String, ArrayList<Term>> entry : geneAnnotations.entrySet()) {
+            String entrezId = entry.getKey();
+            ArrayList<Term> uniqueTerms = entry.getValue().stream().distinct().collect(Collectors.toCollection(ArrayList::new));
+            ArrayList<Term> mostSpecificTerms = HPOutils.cleanUpAssociation(uniqueTerms, hpoSlim, hpo.getRootTerm());
+            geneAnnotations.put(entrezId, mostSpecificTerms);
+        }
+        logger.info("Made HPO annotations for {} genes", geneAnnotations.size());
+        return geneAnnotations;
+    }
+
+    private Map<Term, Double> calculateTermIC(Ontology ontology, SlimDirectedGraphView<Term> hpoSlim, Map<String, ArrayList<Term>> geneId2annotations) {
+
+        // prepare IC computation
+        // here we store which objects have been annotated with this term
+        final Map<Term, Set<String>> annotationTerm2geneIds = new HashMap<>();
+        for (Map.Entry<String, ArrayList<Term>> entry : geneId2annotations.entrySet()) {
+            String entrezId = entry.getKey();
+            List<Term> annotations = entry.getValue();
+            for (Term annot : annotations) {
+                List<Term> termAndAncestors = hpoSlim.getAncestors(annot);
+                for (Term term : termAndAncestors) {
+                    annotationTerm2geneIds.computeIfAbsent(term, objectsAnnotatedByTerm -> new HashSet<>()).add(entrezId);
+                }
+            }
+        }
+
+        Map<Term, Integer> termFrequencies = annotationTerm2geneIds.entrySet().stream()
+                .collect(toMap(Map.Entry::getKey, entry -> entry.getValue().size()));
+
+        Term root = ontology.getRootTerm();
+        int maxFreq = termFrequencies.get(root);
+        double ICzeroCountTerms = -1 * (Math.log(1 / (double) maxFreq));
+
+        Map<Term, Double> term2informationContent = SimilarityUtilities.caculateInformationContent(maxFreq, (HashMap<Term, Integer>) termFrequencies);
+        int frequencyZeroCounter = 0;
+        for (Term t : ontology) {
+            if (!termFrequencies.containsKey(t)) {
+                ++frequencyZeroCounter;
+                term2informationContent.put(t, ICzeroCountTerms);
+            }
+        }
+
+        logger.info("WARNING: Frequency of {} terms was zero!! Set IC of these to : {}", frequencyZeroCounter, ICzeroCountTerms);
+        return term2informationContent;
+    }
+
+    private static final class HpoData {
+
+        private final Ontology hpo;
+        private final Map<String, ArrayList<Term>> geneId2annotations;
+        private final ResnikSimilarity resnikSimilarity;
+
+        private HpoData(Ontology hpo, Map<String, ArrayList<Term>> geneId2annotations, ResnikSimilarity resnikSimilarity) {
+            this.hpo = hpo;
+            this.geneId2annotations = geneId2annotations;
+            this.resnikSimilarity = resnikSimilarity;
+        }
+    }
+}
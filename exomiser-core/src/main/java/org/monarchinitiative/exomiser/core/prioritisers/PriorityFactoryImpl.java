@@ -30,10 +30,13 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Factory class for handling creation of FilterType objects.
@@ -48,12 +51,26 @@ public class PriorityFactoryImpl implements PriorityFactory {
     private final PriorityService priorityService;
     private final DataMatrix randomWalkMatrix;
     private final Path phenixDataDirectory;
+    // shared by all the HiPhivePriority so the number of model scoring threads is bounded
+    private final Executor hiPhiveScoringExecutor;
+    // shared by all the PhenixPriority so the PhenIX data is only loaded once
+    private PhenixData phenixData;
 
-    @Autowired
     public PriorityFactoryImpl(PriorityService priorityService, DataMatrix randomWalkMatrix, Path phenixDataDirectory) {
+        this(priorityService, randomWalkMatrix, phenixDataDirectory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param hiPhiveScoringExecutor the executor shared by all the {@link HiPhivePriority} created by this factory to
+     *                               score the models.
+     * @since 13.2.0
+     */
+    @Autowired
+    public PriorityFactoryImpl(PriorityService priorityService, DataMatrix randomWalkMatrix, Path phenixDataDirectory, @Qualifier("hiPhiveScoringExecutor") Executor hiPhiveScoringExecutor) {
         this.priorityService = priorityService;
         this.randomWalkMatrix = randomWalkMatrix;
         this.phenixDataDirectory = phenixDataDirectory;
+        this.hiPhiveScoringExecutor = hiPhiveScoringExecutor;
     }
 
     @Override
@@ -64,7 +81,14 @@ public OmimPriority makeOmimPrioritiser() {
     @Override
     public PhenixPriority makePhenixPrioritiser() {
         boolean symmetric = false;
-        return new PhenixPriority(phenixDataDirectory.toString(), symmetric);
+        return new PhenixPriority(getPhenixData(), symmetric);
+    }
+
+    private synchronized PhenixData getPhenixData() {
+        if (phenixData == null) {
+            phenixData = new PhenixData(phenixDataDirectory.toString());
+        }
+        return phenixData;
     }
 
     @Override
@@ -79,7 +103,7 @@ public ExomeWalkerPriority makeExomeWalkerPrioritiser(List<Integer> entrezSeedGe
 
     @Override
     public HiPhivePriority makeHiPhivePrioritiser(HiPhiveOptions hiPhiveOptions) {
-        return new HiPhivePriority(hiPhiveOptions, randomWalkMatrix, priorityService);
+        return new HiPhivePriority(hiPhiveOptions, randomWalkMatrix, priorityService, hiPhiveScoringExecutor);
     }
 
 }
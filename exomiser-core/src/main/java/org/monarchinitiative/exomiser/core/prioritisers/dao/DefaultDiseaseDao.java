@@ -38,6 +38,7 @@
 import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -71,25 +72,39 @@ private Set<String> parseHpoIds(ResultSet rs) throws SQLException {
         return Set.of();
     }
 
+    private static final String GENE_DISEASE_QUERY = "SELECT" +
+            " gene_id AS entrez_id" +
+            ", symbol AS human_gene_symbol" +
+            ", d.disease_id AS disease_id" +
+            ", d.diseasename AS disease_name" +
+            ", d.type AS disease_type" +
+            ", d.inheritance AS inheritance_code" +
+            ", hp_id AS pheno_ids " +
+            "FROM entrez2sym e, disease_hp dhp, disease d " +
+            "WHERE dhp.disease_id = d.disease_id " +
+            "AND e.entrezid = d.gene_id " +
+            "AND d.type in ('D', 'C', 'S', '?')";
+
     @Cacheable(value = "diseases")
     @Override
     public List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId) {
-        String query = "SELECT" +
-                " gene_id AS entrez_id" +
-                ", symbol AS human_gene_symbol" +
-                ", d.disease_id AS disease_id" +
-                ", d.diseasename AS disease_name" +
-                ", d.type AS disease_type" +
-                ", d.inheritance AS inheritance_code" +
-                ", hp_id AS pheno_ids " +
-                "FROM entrez2sym e, disease_hp dhp, disease d " +
-                "WHERE dhp.disease_id = d.disease_id " +
-                "AND e.entrezid = d.gene_id " +
-                "AND d.type in ('D', 'C', 'S', '?')" +
-                "AND d.gene_id = ?";
+        String query = GENE_DISEASE_QUERY + " AND d.gene_id = ?";
         return jdbcTemplate.query(query, diseaseRowMapper, geneId);
     }
 
+    /**
+     * Loads the diseases associated with the genes in a single scan of the disease tables, rather than one query per
+     * gene.
+     */
+    @Override
+    public List<Disease> getDiseaseDataAssociatedWithGenes(Collection<Integer> geneIds) {
+        Set<Integer> requiredGeneIds = Set.copyOf(geneIds);
+        List<Disease> diseases = jdbcTemplate.query(GENE_DISEASE_QUERY, diseaseRowMapper);
+        diseases.removeIf(disease -> !requiredGeneIds.contains(disease.getAssociatedGeneId()));
+        logger.debug("Loaded {} gene-disease associations for {} genes", diseases.size(), requiredGeneIds.size());
+        return diseases;
+    }
+
     private final RowMapper<Disease> diseaseRowMapper = (ResultSet rs, int rowNum) -> {
         List<String> phenotypes = List.of(rs.getString("pheno_ids").split(","));
         return Disease.builder()
@@ -27,8 +27,7 @@
 
 import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
 
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
  * 
@@ -39,4 +38,21 @@ public interface DiseaseDao {
     Set<String> getHpoIdsForDiseaseId(String diseaseId);
 
     List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId);
+
+    /**
+     * Returns the diseases associated with the genes, as would be returned by
+     * {@link #getDiseaseDataAssociatedWithGeneId(int)} for each gene. The default implementation does exactly that, so
+     * implementations able to load these in a single query should override it.
+     *
+     * @param geneIds the entrez gene ids
+     * @return the diseases associated with the genes
+     * @since 13.2.0
+     */
+    default List<Disease> getDiseaseDataAssociatedWithGenes(Collection<Integer> geneIds) {
+        List<Disease> diseases = new ArrayList<>();
+        for (int geneId : new LinkedHashSet<>(geneIds)) {
+            diseases.addAll(getDiseaseDataAssociatedWithGeneId(geneId));
+        }
+        return diseases;
+    }
 }
@@ -21,6 +21,8 @@
 package org.monarchinitiative.exomiser.core.prioritisers.model;
 
 import org.monarchinitiative.exomiser.core.phenotype.Model;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeIdDictionary;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeIdIndexCache;
 
 import java.util.List;
 import java.util.Objects;
@@ -74,6 +76,7 @@ public String getCode() {
     private final InheritanceMode inheritanceMode;
 
     private final List<String> phenotypeIds;
+    private final PhenotypeIdIndexCache phenotypeIdIndexCache = new PhenotypeIdIndexCache();
 
     private Disease(Builder builder) {
         this.diseaseId = builder.diseaseId;
@@ -119,6 +122,11 @@ public List<String> getPhenotypeIds() {
         return phenotypeIds;
     }
 
+    @Override
+    public int[] getPhenotypeIdIndices(PhenotypeIdDictionary dictionary) {
+        return phenotypeIdIndexCache.getIndices(dictionary, phenotypeIds);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
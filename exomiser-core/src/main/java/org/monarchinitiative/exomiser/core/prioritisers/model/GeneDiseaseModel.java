@@ -26,6 +26,8 @@
 package org.monarchinitiative.exomiser.core.prioritisers.model;
 
 import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeIdDictionary;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeIdIndexCache;
 
 import java.util.List;
 import java.util.Objects;
@@ -47,6 +49,7 @@ public class GeneDiseaseModel implements GeneModel {
     private final String diseaseTerm;
 
     private final List<String> phenotypeIds;
+    private final PhenotypeIdIndexCache phenotypeIdIndexCache = new PhenotypeIdIndexCache();
 
     public GeneDiseaseModel(String modelId, Organism organism, Disease disease) {
         this.modelId = modelId;
@@ -114,6 +117,11 @@ public List<String> getPhenotypeIds() {
         return phenotypeIds;
     }
 
+    @Override
+    public int[] getPhenotypeIdIndices(PhenotypeIdDictionary dictionary) {
+        return phenotypeIdIndexCache.getIndices(dictionary, phenotypeIds);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -23,6 +23,7 @@
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.monarchinitiative.exomiser.core.phenotype.ModelPhenotypeMatch;
 import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeIdDictionary;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
 
 import java.util.List;
@@ -71,6 +72,11 @@ public List<String> getPhenotypeIds() {
         return model.getPhenotypeIds();
     }
 
+    @Override
+    public int[] getPhenotypeIdIndices(PhenotypeIdDictionary dictionary) {
+        return model.getPhenotypeIdIndices(dictionary);
+    }
+
     @JsonIgnore
     @Override
     public Organism getOrganism() {
@@ -26,6 +26,8 @@
 package org.monarchinitiative.exomiser.core.prioritisers.model;
 
 import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeIdDictionary;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeIdIndexCache;
 
 import java.util.List;
 import java.util.Objects;
@@ -60,6 +62,7 @@ public class GeneOrthologModel implements GeneModel {
     private final String modelGeneSymbol;
     
     private final List<String> phenotypeIds;
+    private final PhenotypeIdIndexCache phenotypeIdIndexCache = new PhenotypeIdIndexCache();
     
     public GeneOrthologModel(String modelId, Organism organism, int entrezGeneId, String humanGeneSymbol, String modelGeneId, String modelGeneSymbol, List<String> phenotypeIds) {
         this.modelId = modelId;
@@ -107,6 +110,11 @@ public List<String> getPhenotypeIds() {
         return phenotypeIds;
     }
 
+    @Override
+    public int[] getPhenotypeIdIndices(PhenotypeIdDictionary dictionary) {
+        return phenotypeIdIndexCache.getIndices(dictionary, phenotypeIds);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,99 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.service;
+
+import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
+
+import java.util.*;
+
+/**
+ * Immutable index of the {@link Disease} associated with each gene, keyed by the entrez gene id. The gene ids are held
+ * in a sorted int array so that a lookup is a binary search with no boxing of the key.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public final class GeneDiseaseIndex {
+
+    private static final GeneDiseaseIndex EMPTY = new GeneDiseaseIndex(new int[0], List.of());
+
+    private final int[] geneIds;
+    private final List<List<Disease>> diseases;
+
+    private GeneDiseaseIndex(int[] geneIds, List<List<Disease>> diseases) {
+        this.geneIds = geneIds;
+        this.diseases = diseases;
+    }
+
+    /**
+     * Creates an index of the diseases by their associated gene id. The diseases for each gene are returned in the
+     * order they were supplied.
+     *
+     * @param diseases the diseases to index
+     * @return an index of the diseases by associated gene id
+     */
+    public static GeneDiseaseIndex of(Collection<Disease> diseases) {
+        if (diseases.isEmpty()) {
+            return EMPTY;
+        }
+        SortedMap<Integer, List<Disease>> diseasesByGeneId = new TreeMap<>();
+        for (Disease disease : diseases) {
+            diseasesByGeneId.computeIfAbsent(disease.getAssociatedGeneId(), id -> new ArrayList<>()).add(disease);
+        }
+        int[] geneIds = new int[diseasesByGeneId.size()];
+        List<List<Disease>> geneDiseases = new ArrayList<>(diseasesByGeneId.size());
+        int i = 0;
+        for (Map.Entry<Integer, List<Disease>> entry : diseasesByGeneId.entrySet()) {
+            geneIds[i++] = entry.getKey();
+            geneDiseases.add(List.copyOf(entry.getValue()));
+        }
+        return new GeneDiseaseIndex(geneIds, List.copyOf(geneDiseases));
+    }
+
+    /**
+     * @param geneId the entrez gene id
+     * @return an unmodifiable list of the diseases associated with the gene, or an empty list if there are none.
+     */
+    public List<Disease> getDiseasesForGeneId(int geneId) {
+        int index = Arrays.binarySearch(geneIds, geneId);
+        return index < 0 ? List.of() : diseases.get(index);
+    }
+
+    public int numGenes() {
+        return geneIds.length;
+    }
+
+    public int numDiseases() {
+        int count = 0;
+        for (List<Disease> geneDiseases : diseases) {
+            count += geneDiseases.size();
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "GeneDiseaseIndex{" +
+                "numGenes=" + numGenes() +
+                ", numDiseases=" + numDiseases() +
+                '}';
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.service;
+
+import org.monarchinitiative.exomiser.core.genome.dao.DataFileChecksum;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.prioritisers.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads and writes a compact binary snapshot of the human disease, mouse and fish models loaded by the
+ * {@link ModelServiceImpl} so that these can be loaded without querying the phenotype database.
+ * <p>
+ * The file is laid out in little-endian byte order as:
+ * <pre>
+ * header   magic, version, source checksum, number of strings (int, int, long, int)
+ * sections the offset and number of models of the HUMAN, MOUSE and FISH sections (long, int x 3)
+ * strings  each distinct string as its UTF-8 length and bytes (int, byte x length)
+ * HUMAN    model id, entrez id, gene symbol, disease id, disease name, disease type, inheritance mode,
+ *          number of phenotypes, phenotype ids (int x 8 + number of phenotypes)
+ * MOUSE    model id, entrez id, human gene symbol, model gene id, model gene symbol, number of phenotypes,
+ * FISH     phenotype ids (int x 6 + number of phenotypes)
+ * </pre>
+ * All strings, including the phenotype ids, are stored once in the string table and referenced by their index in it,
+ * or -1 for a null value. The source checksum identifies the phenotype database the snapshot was built from, so a
+ * snapshot from a different database is ignored rather than silently returning the wrong models.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class GeneModelSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneModelSnapshot.class);
+
+    /**
+     * Suggested file extension for a model snapshot file.
+     */
+    public static final String FILE_EXTENSION = ".models";
+
+    static final int MAGIC = 0x4558474D; // EXGM
+    static final int VERSION = 1;
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int NULL_STRING = -1;
+    private static final Organism[] SECTIONS = {Organism.HUMAN, Organism.MOUSE, Organism.FISH};
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES + SECTIONS.length * (Long.BYTES + Integer.BYTES);
+
+    private GeneModelSnapshot() {
+    }
+
+    /**
+     * Writes the models to a snapshot file. The snapshot is written to a uniquely named temporary file in the same
+     * directory which is then moved into place, so that neither concurrent readers nor other processes writing the same
+     * snapshot ever see a partial file. The data directory may well be read-only, so failing to write the snapshot is
+     * not an error - the models will simply be loaded from the database again next time.
+     *
+     * @param snapshotFile   the snapshot file to write
+     * @param sourceChecksum the {@link DataFileChecksum} of the database from which the models were loaded
+     * @param models         the models of each organism. Human models must be {@link GeneDiseaseModel} with a
+     *                       {@link Disease}, mouse and fish models must be {@link GeneOrthologModel}.
+     * @return true if the snapshot was written, otherwise false.
+     */
+    public static boolean write(Path snapshotFile, long sourceChecksum, Map<Organism, List<GeneModel>> models) {
+        StringTable strings = new StringTable();
+        int[][] sections = new int[SECTIONS.length][];
+        for (int i = 0; i < SECTIONS.length; i++) {
+            List<GeneModel> organismModels = models.getOrDefault(SECTIONS[i], List.of());
+            sections[i] = SECTIONS[i] == Organism.HUMAN ? encodeDiseaseModels(organismModels, strings) : encodeOrthologModels(organismModels, strings);
+        }
+        byte[][] encodedStrings = strings.encode();
+
+        long offset = HEADER_BYTES;
+        for (byte[] encodedString : encodedStrings) {
+            offset += Integer.BYTES + encodedString.length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(BYTE_ORDER);
+        header.putInt(MAGIC).putInt(VERSION).putLong(sourceChecksum).putInt(encodedStrings.length);
+        for (int i = 0; i < SECTIONS.length; i++) {
+            header.putLong(offset).putInt(models.getOrDefault(SECTIONS[i], List.of()).size());
+            offset += (long) sections[i].length * Integer.BYTES;
+        }
+
+        Path directory = snapshotFile.toAbsolutePath().getParent();
+        if (!Files.isWritable(directory)) {
+            logger.debug("Not writing model snapshot {} - {} is not writable", snapshotFile, directory);
+            return false;
+        }
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+            try (FileChannel fileChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(fileChannel, header.flip());
+                for (byte[] encodedString : encodedStrings) {
+                    ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + encodedString.length).order(BYTE_ORDER);
+                    writeFully(fileChannel, buffer.putInt(encodedString.length).put(encodedString).flip());
+                }
+                for (int[] section : sections) {
+                    ByteBuffer buffer = ByteBuffer.allocate(section.length * Integer.BYTES).order(BYTE_ORDER);
+                    buffer.asIntBuffer().put(section);
+                    writeFully(fileChannel, buffer);
+                }
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            logger.debug("Unable to write model snapshot {} - {}", snapshotFile, e.toString());
+            deleteQuietly(tempFile);
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(@Nullable Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Unable to delete {}", file, e);
+        }
+    }
+
+    private static void writeFully(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+    }
+
+    private static int[] encodeDiseaseModels(List<GeneModel> models, StringTable strings) {
+        IntArrayBuilder section = new IntArrayBuilder();
+        for (GeneModel model : models) {
+            if (!(model instanceof GeneDiseaseModel) || ((GeneDiseaseModel) model).getDisease() == null) {
+                throw new IllegalArgumentException("Human model " + model.getId() + " must be a GeneDiseaseModel with a Disease");
+            }
+            Disease disease = ((GeneDiseaseModel) model).getDisease();
+            section.add(strings.indexOf(model.getId()));
+            section.add(disease.getAssociatedGeneId());
+            section.add(strings.indexOf(disease.getAssociatedGeneSymbol()));
+            section.add(strings.indexOf(disease.getDiseaseId()));
+            section.add(strings.indexOf(disease.getDiseaseName()));
+            section.add(strings.indexOf(disease.getDiseaseType().name()));
+            section.add(strings.indexOf(disease.getInheritanceMode().name()));
+            addPhenotypeIds(section, disease.getPhenotypeIds(), strings);
+        }
+        return section.toArray();
+    }
+
+    private static int[] encodeOrthologModels(List<GeneModel> models, StringTable strings) {
+        IntArrayBuilder section = new IntArrayBuilder();
+        for (GeneModel model : models) {
+            if (!(model instanceof GeneOrthologModel)) {
+                throw new IllegalArgumentException(model.getOrganism() + " model " + model.getId() + " must be a GeneOrthologModel");
+            }
+            GeneOrthologModel orthologModel = (GeneOrthologModel) model;
+            section.add(strings.indexOf(orthologModel.getId()));
+            section.add(orthologModel.getEntrezGeneId());
+            section.add(strings.indexOf(orthologModel.getHumanGeneSymbol()));
+            section.add(strings.indexOf(orthologModel.getModelGeneId()));
+            section.add(strings.indexOf(orthologModel.getModelGeneSymbol()));
+            addPhenotypeIds(section, orthologModel.getPhenotypeIds(), strings);
+        }
+        return section.toArray();
+    }
+
+    private static void addPhenotypeIds(IntArrayBuilder section, List<String> phenotypeIds, StringTable strings) {
+        section.add(phenotypeIds.size());
+        for (String phenotypeId : phenotypeIds) {
+            section.add(strings.indexOf(phenotypeId));
+        }
+    }
+
+    /**
+     * Reads the models from a snapshot file, provided it was written from a database with the expected checksum. The
+     * file is memory-mapped and the models of each organism decoded in parallel.
+     *
+     * @param snapshotFile           the snapshot file to read
+     * @param expectedSourceChecksum the {@link DataFileChecksum} of the current database
+     * @return the models of each organism, or an empty {@code Optional} if the snapshot is missing, unreadable or was
+     * written from a different database.
+     */
+    public static Optional<Map<Organism, List<GeneModel>>> read(Path snapshotFile, long expectedSourceChecksum) {
+        if (!Files.isRegularFile(snapshotFile)) {
+            logger.debug("No model snapshot found at {}", snapshotFile);
+            return Optional.empty();
+        }
+        try (FileChannel fileChannel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size()).order(BYTE_ORDER);
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            if (magic != MAGIC || version != VERSION) {
+                logger.info("Ignoring model snapshot {} with unsupported format {} version {}", snapshotFile, Integer.toHexString(magic), version);
+                return Optional.empty();
+            }
+            long sourceChecksum = buffer.getLong();
+            if (sourceChecksum != expectedSourceChecksum) {
+                logger.info("Ignoring stale model snapshot {} - this was built from a different phenotype database", snapshotFile);
+                return Optional.empty();
+            }
+            int numStrings = buffer.getInt();
+            long[] sectionOffsets = new long[SECTIONS.length];
+            int[] sectionSizes = new int[SECTIONS.length];
+            for (int i = 0; i < SECTIONS.length; i++) {
+                sectionOffsets[i] = buffer.getLong();
+                sectionSizes[i] = buffer.getInt();
+            }
+            String[] strings = decodeStrings(buffer, numStrings);
+
+            List<CompletableFuture<List<GeneModel>>> sections = new ArrayList<>(SECTIONS.length);
+            for (int i = 0; i < SECTIONS.length; i++) {
+                Organism organism = SECTIONS[i];
+                ByteBuffer section = buffer.duplicate().order(BYTE_ORDER).position(Math.toIntExact(sectionOffsets[i]));
+                int numModels = sectionSizes[i];
+                sections.add(CompletableFuture.supplyAsync(() -> decodeModels(organism, section, numModels, strings)));
+            }
+            Map<Organism, List<GeneModel>> models = new EnumMap<>(Organism.class);
+            for (int i = 0; i < SECTIONS.length; i++) {
+                models.put(SECTIONS[i], sections.get(i).join());
+            }
+            return Optional.of(Collections.unmodifiableMap(models));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to read model snapshot {}", snapshotFile, e);
+            return Optional.empty();
+        }
+    }
+
+    private static String[] decodeStrings(ByteBuffer buffer, int numStrings) {
+        String[] strings = new String[numStrings];
+        for (int i = 0; i < numStrings; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static List<GeneModel> decodeModels(Organism organism, ByteBuffer section, int numModels, String[] strings) {
+        List<GeneModel> models = new ArrayList<>(numModels);
+        for (int i = 0; i < numModels; i++) {
+            models.add(organism == Organism.HUMAN ? decodeDiseaseModel(section, strings) : decodeOrthologModel(organism, section, strings));
+        }
+        return List.copyOf(models);
+    }
+
+    private static GeneModel decodeDiseaseModel(ByteBuffer section, String[] strings) {
+        String modelId = string(section, strings);
+        Disease disease = Disease.builder()
+                .associatedGeneId(section.getInt())
+                .associatedGeneSymbol(string(section, strings))
+                .diseaseId(string(section, strings))
+                .diseaseName(string(section, strings))
+                .diseaseType(Disease.DiseaseType.valueOf(string(section, strings)))
+                .inheritanceMode(InheritanceMode.valueOf(string(section, strings)))
+                .phenotypeIds(phenotypeIds(section, strings))
+                .build();
+        return new GeneDiseaseModel(modelId, Organism.HUMAN, disease);
+    }
+
+    private static GeneModel decodeOrthologModel(Organism organism, ByteBuffer section, String[] strings) {
+        String modelId = string(section, strings);
+        int entrezGeneId = section.getInt();
+        String humanGeneSymbol = string(section, strings);
+        String modelGeneId = string(section, strings);
+        String modelGeneSymbol = string(section, strings);
+        List<String> phenotypeIds = phenotypeIds(section, strings);
+        return new GeneOrthologModel(modelId, organism, entrezGeneId, humanGeneSymbol, modelGeneId, modelGeneSymbol, phenotypeIds);
+    }
+
+    @Nullable
+    private static String string(ByteBuffer section, String[] strings) {
+        int index = section.getInt();
+        return index == NULL_STRING ? null : strings[index];
+    }
+
+    private static List<String> phenotypeIds(ByteBuffer section, String[] strings) {
+        String[] phenotypeIds = new String[section.getInt()];
+        for (int i = 0; i < phenotypeIds.length; i++) {
+            phenotypeIds[i] = string(section, strings);
+        }
+        return List.of(phenotypeIds);
+    }
+
+    /**
+     * Assigns each distinct string an index in order of first use.
+     */
+    private static class StringTable {
+
+        private final Map<String, Integer> indices = new LinkedHashMap<>();
+
+        private int indexOf(@Nullable String string) {
+            if (string == null) {
+                return NULL_STRING;
+            }
+            return indices.computeIfAbsent(string, key -> indices.size());
+        }
+
+        private byte[][] encode() {
+            byte[][] encoded = new byte[indices.size()][];
+            indices.forEach((string, index) -> encoded[index] = string.getBytes(StandardCharsets.UTF_8));
+            return encoded;
+        }
+    }
+
+    private static class IntArrayBuilder {
+
+        private int[] values = new int[1024];
+        private int size = 0;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
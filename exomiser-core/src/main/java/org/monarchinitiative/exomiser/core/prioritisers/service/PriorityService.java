@@ -38,8 +38,9 @@
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Service class which offers a single interface to other services required by
@@ -56,6 +57,11 @@ public class PriorityService {
     private final PhenotypeMatchService phenotypeMatchService;
     private final DiseaseDao diseaseDao;
 
+    // Holds at most one index per Organism for the lifetime of the service. The indexed lists share their GeneModel
+    // instances with the models loaded by getModelsForOrganism, so this costs only the map and list overhead.
+    private final ConcurrentMap<Organism, Map<Integer, List<GeneModel>>> modelsByEntrezGeneId = new ConcurrentHashMap<>();
+    private volatile GeneDiseaseIndex geneDiseaseIndex;
+
     @Autowired
     public PriorityService(ModelService modelService, PhenotypeMatchService phenotypeMatchService, DiseaseDao diseaseDao) {
         this.modelService = modelService;
@@ -102,8 +108,73 @@ public List<GeneModel> getModelsForOrganism(Organism species) {
         }
     }
 
+    /**
+     * Returns the models for the organism indexed by the entrez gene id of the human gene they are associated with. The
+     * index is built the first time it is requested for an organism and re-used for all subsequent requests so that
+     * selecting the models for a set of genes is a direct lookup rather than a scan over all the models. There is one
+     * index for each {@link Organism}, so at most three are held. These are retained for the life of this service
+     * regardless of the eviction policy of the {@code models} cache, so the models of each organism are loaded once.
+     *
+     * @param species the organism for which the models are required
+     * @return an unmodifiable map of entrez gene id to the models associated with that gene
+     * @since 13.2.0
+     */
+    public Map<Integer, List<GeneModel>> getModelsForOrganismByEntrezGeneId(Organism species) {
+        Map<Integer, List<GeneModel>> modelsByGene = modelsByEntrezGeneId.get(species);
+        if (modelsByGene != null) {
+            return modelsByGene;
+        }
+        // The models are loaded outside the map so that the slow, blocking, load doesn't hold any of its locks. Should
+        // the index be built concurrently for the same organism only the first one is retained.
+        Map<Integer, List<GeneModel>> indexedModels = indexModelsByEntrezGeneId(species, getModelsForOrganism(species));
+        Map<Integer, List<GeneModel>> existing = modelsByEntrezGeneId.putIfAbsent(species, indexedModels);
+        return existing == null ? indexedModels : existing;
+    }
+
+    private Map<Integer, List<GeneModel>> indexModelsByEntrezGeneId(Organism species, List<GeneModel> models) {
+        Map<Integer, List<GeneModel>> modelsByGene = new HashMap<>();
+        for (GeneModel model : models) {
+            modelsByGene.computeIfAbsent(model.getEntrezGeneId(), id -> new ArrayList<>()).add(model);
+        }
+        modelsByGene.replaceAll((entrezGeneId, geneModels) -> List.copyOf(geneModels));
+        logger.debug("Indexed {} {} models for {} genes", models.size(), species, modelsByGene.size());
+        return Collections.unmodifiableMap(modelsByGene);
+    }
+
+    /**
+     * Returns the diseases associated with the gene. The diseases of all the genes with a human disease model are loaded
+     * from the {@link DiseaseDao} in bulk the first time this is called and held in a {@link GeneDiseaseIndex} for all
+     * subsequent calls, rather than querying the database separately for every gene.
+     *
+     * @param geneId the entrez gene id
+     * @return an unmodifiable list of the diseases associated with the gene
+     */
     public List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId) {
-        return diseaseDao.getDiseaseDataAssociatedWithGeneId(geneId);
+        return getGeneDiseaseIndex().getDiseasesForGeneId(geneId);
+    }
+
+    /**
+     * @return the index of all the gene-disease associations, loading these on the first call.
+     * @since 13.2.0
+     */
+    public GeneDiseaseIndex getGeneDiseaseIndex() {
+        GeneDiseaseIndex index = geneDiseaseIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = geneDiseaseIndex;
+                if (index == null) {
+                    // the human disease models are built from the same disease tables, so include every gene with a disease
+                    Set<Integer> diseaseGeneIds = new HashSet<>();
+                    for (GeneModel model : getModelsForOrganism(Organism.HUMAN)) {
+                        diseaseGeneIds.add(model.getEntrezGeneId());
+                    }
+                    index = GeneDiseaseIndex.of(diseaseDao.getDiseaseDataAssociatedWithGenes(diseaseGeneIds));
+                    logger.debug("Indexed {} diseases for {} genes", index.numDiseases(), index.numGenes());
+                    geneDiseaseIndex = index;
+                }
+            }
+        }
+        return index;
     }
 
 }
@@ -0,0 +1,112 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.service;
+
+import org.monarchinitiative.exomiser.core.genome.dao.DataFileChecksum;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link ModelService} which loads all the models on creation from a {@link GeneModelSnapshot}, falling back to the
+ * delegate {@link ModelService} should the snapshot be missing or have been built from a different phenotype database.
+ * In the latter case the models loaded from the delegate are written to a new snapshot for use on the next start-up.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class SnapshotModelService implements ModelService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotModelService.class);
+
+    private final List<GeneModel> humanGeneDiseaseModels;
+    private final List<GeneModel> mouseGeneOrthologModels;
+    private final List<GeneModel> fishGeneOrthologModels;
+
+    /**
+     * @param delegate       the {@link ModelService} from which to load the models if the snapshot can't be used
+     * @param snapshotFile   the snapshot file to read, or write if this is missing or stale
+     * @param sourceChecksum the {@link DataFileChecksum} of the phenotype database used by the delegate
+     */
+    public SnapshotModelService(ModelService delegate, Path snapshotFile, long sourceChecksum) {
+        Instant start = Instant.now();
+        Optional<Map<Organism, List<GeneModel>>> snapshotModels = GeneModelSnapshot.read(snapshotFile, sourceChecksum);
+        Map<Organism, List<GeneModel>> models;
+        if (snapshotModels.isPresent()) {
+            models = snapshotModels.get();
+            logger.info("Loaded models from snapshot {} in {} ms", snapshotFile, Duration.between(start, Instant.now()).toMillis());
+        } else {
+            models = loadModels(delegate);
+            logger.info("Loaded models from database in {} ms", Duration.between(start, Instant.now()).toMillis());
+            writeSnapshot(snapshotFile, sourceChecksum, models);
+        }
+        this.humanGeneDiseaseModels = models.get(Organism.HUMAN);
+        this.mouseGeneOrthologModels = models.get(Organism.MOUSE);
+        this.fishGeneOrthologModels = models.get(Organism.FISH);
+        logger.info("Using {} HUMAN, {} MOUSE and {} FISH models", humanGeneDiseaseModels.size(), mouseGeneOrthologModels.size(), fishGeneOrthologModels.size());
+    }
+
+    private static Map<Organism, List<GeneModel>> loadModels(ModelService delegate) {
+        Map<Organism, List<GeneModel>> models = new EnumMap<>(Organism.class);
+        models.put(Organism.HUMAN, delegate.getHumanGeneDiseaseModels());
+        models.put(Organism.MOUSE, delegate.getMouseGeneOrthologModels());
+        models.put(Organism.FISH, delegate.getFishGeneOrthologModels());
+        return models;
+    }
+
+    private static void writeSnapshot(Path snapshotFile, long sourceChecksum, Map<Organism, List<GeneModel>> models) {
+        // the delegate returns an empty list should a query fail, so don't preserve this in a snapshot
+        if (models.values().stream().anyMatch(List::isEmpty)) {
+            logger.warn("Not writing model snapshot {} as no models were found for at least one organism", snapshotFile);
+            return;
+        }
+        if (GeneModelSnapshot.write(snapshotFile, sourceChecksum, models)) {
+            logger.info("Written model snapshot {}", snapshotFile);
+        } else {
+            // the data directory could well be read-only, in which case the models will be loaded from the database
+            logger.debug("Model snapshot {} not written - models will be loaded from the database", snapshotFile);
+        }
+    }
+
+    @Override
+    public List<GeneModel> getHumanGeneDiseaseModels() {
+        return humanGeneDiseaseModels;
+    }
+
+    @Override
+    public List<GeneModel> getMouseGeneOrthologModels() {
+        return mouseGeneOrthologModels;
+    }
+
+    @Override
+    public List<GeneModel> getFishGeneOrthologModels() {
+        return fishGeneOrthologModels;
+    }
+}
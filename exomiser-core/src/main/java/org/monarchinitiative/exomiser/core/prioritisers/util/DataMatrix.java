@@ -22,6 +22,7 @@
 
 import org.jblas.FloatMatrix;
 
+import java.nio.FloatBuffer;
 import java.util.Map;
 
 /**
@@ -89,4 +90,21 @@ static DataMatrix empty() {
      */
     FloatMatrix getColumnMatrixForGene(int entrezGeneId);
 
+    /**
+     * Finds the column for the argument gene identifier as a read-only {@link FloatBuffer} positioned at the first row
+     * and limited to the number of rows. Implementations holding their columns contiguously, such as
+     * {@link MappedDataMatrix}, return a view of the data without copying it.
+     *
+     * @param entrezGeneId the entrez gene identifier of the gene
+     * @return a read-only {@link FloatBuffer} of the column for this gene identifier or {@code null} if not present.
+     * @since 13.2.0
+     */
+    default FloatBuffer getColumnForGene(int entrezGeneId) {
+        FloatMatrix column = getColumnMatrixForGene(entrezGeneId);
+        if (column == null) {
+            return null;
+        }
+        return FloatBuffer.wrap(column.data, 0, column.length).asReadOnlyBuffer();
+    }
+
 }
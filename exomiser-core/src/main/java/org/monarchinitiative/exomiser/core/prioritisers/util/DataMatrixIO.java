@@ -27,7 +27,10 @@
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.zip.GZIPInputStream;
@@ -100,6 +103,219 @@ public static DataMatrix loadOffHeapDataMatrix(Path ppiMapPath) {
         return OffHeapDataMatrix.load(ppiMapPath);
     }
 
+    /**
+     * Loads a read-only {@link MappedDataMatrix} from a file written by {@link #writeMappedDataMatrix(DataMatrix, Path)}.
+     * The file is memory-mapped so this takes no start-up time and the data is shared between all the processes on the
+     * machine using the same file.
+     *
+     * @param mappedMatrixPath the {@code Path} to the mapped matrix file.
+     * @return a memory-mapped instance of the {@code DataMatrix}
+     * @since 13.2.0
+     */
+    public static DataMatrix loadMappedDataMatrix(Path mappedMatrixPath) {
+        logger.debug("Loading memory-mapped PPI data matrix from {}...", mappedMatrixPath);
+        return MappedDataMatrix.open(mappedMatrixPath);
+    }
+
+    /**
+     * Converts an existing {@link MVStore} random walk matrix, as read by {@link #loadOffHeapDataMatrix(Path)}, into
+     * the {@link MappedDataMatrix} format. The columns are read from the map one at a time, so this does not require
+     * the whole matrix to be loaded into memory.
+     *
+     * @param ppiMapPath the {@code Path} to the {@link MVStore} containing the {@code DataMatrix} data.
+     * @param outputPath the writable {@code Path} of the desired output file.
+     * @since 13.2.0
+     */
+    public static void convertMapToMappedDataMatrix(Path ppiMapPath, Path outputPath) {
+        OffHeapDataMatrix offHeapDataMatrix = OffHeapDataMatrix.load(ppiMapPath);
+        try {
+            writeMappedDataMatrix(offHeapDataMatrix, outputPath);
+        } finally {
+            offHeapDataMatrix.close();
+        }
+    }
+
+    /**
+     * Writes the {@code DataMatrix} in the {@link MappedDataMatrix} format. The matrix must be square and its row
+     * indices must run from 0 to the number of rows - 1.
+     *
+     * @param dataMatrix the {@code DataMatrix} to write
+     * @param outputPath the writable {@code Path} of the desired output file.
+     * @since 13.2.0
+     */
+    public static void writeMappedDataMatrix(DataMatrix dataMatrix, Path outputPath) {
+        int numRows = dataMatrix.numRows();
+        if (dataMatrix.numColumns() != numRows) {
+            throw new IllegalArgumentException("DataMatrix must be square, but was " + numRows + " * " + dataMatrix.numColumns());
+        }
+        int[] rowEntrezIds = rowEntrezIds(dataMatrix.getEntrezIdToRowIndex(), numRows);
+        logger.info("Writing {} * {} memory-mapped PPI data matrix to {}", numRows, numRows, outputPath);
+        try (FileChannel fileChannel = FileChannel.open(outputPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(MappedDataMatrix.HEADER_BYTES + numRows * Integer.BYTES).order(MappedDataMatrix.BYTE_ORDER);
+            header.putInt(MappedDataMatrix.MAGIC);
+            header.putInt(MappedDataMatrix.VERSION);
+            header.putInt(numRows);
+            header.putInt(0);
+            for (int entrezId : rowEntrezIds) {
+                header.putInt(entrezId);
+            }
+            writeFully(fileChannel, header.flip());
+
+            ByteBuffer columnBuffer = ByteBuffer.allocate(numRows * Float.BYTES).order(MappedDataMatrix.BYTE_ORDER);
+            for (int row = 0; row < numRows; row++) {
+                logLineNumberIfMultipleOf(row, 500);
+                FloatMatrix column = dataMatrix.getColumnMatrixForGene(rowEntrezIds[row]);
+                if (column == null || column.length != numRows) {
+                    throw new IllegalArgumentException("Column for entrez gene id " + rowEntrezIds[row] + " must have " + numRows + " values");
+                }
+                columnBuffer.clear();
+                columnBuffer.asFloatBuffer().put(column.data, 0, numRows);
+                writeFully(fileChannel, columnBuffer);
+            }
+        } catch (IOException e) {
+            throw new DataMatrixIoException("Unable to write mapped data matrix to " + outputPath, e);
+        }
+    }
+
+    /**
+     * Converts an existing {@link MVStore} random walk matrix, as read by {@link #loadOffHeapDataMatrix(Path)}, into
+     * a half-precision {@link QuantisedDataMatrix} file. The quantised matrix is built in memory so this requires half
+     * the memory of the full-precision matrix.
+     *
+     * @param ppiMapPath the {@code Path} to the {@link MVStore} containing the {@code DataMatrix} data.
+     * @param outputPath the writable {@code Path} of the desired output file.
+     * @return the {@code QuantisedDataMatrix} which was written
+     * @since 13.2.0
+     */
+    public static QuantisedDataMatrix convertMapToQuantisedDataMatrix(Path ppiMapPath, Path outputPath) {
+        OffHeapDataMatrix offHeapDataMatrix = OffHeapDataMatrix.load(ppiMapPath);
+        try {
+            QuantisedDataMatrix quantisedDataMatrix = QuantisedDataMatrix.of(offHeapDataMatrix);
+            writeQuantisedDataMatrix(quantisedDataMatrix, outputPath);
+            return quantisedDataMatrix;
+        } finally {
+            offHeapDataMatrix.close();
+        }
+    }
+
+    /**
+     * Writes the {@link QuantisedDataMatrix} to the output file so that it can be loaded using
+     * {@link #loadQuantisedDataMatrix(Path)}.
+     *
+     * @param quantisedDataMatrix the {@code QuantisedDataMatrix} to write
+     * @param outputPath          the writable {@code Path} of the desired output file.
+     * @since 13.2.0
+     */
+    public static void writeQuantisedDataMatrix(QuantisedDataMatrix quantisedDataMatrix, Path outputPath) {
+        int numRows = quantisedDataMatrix.numRows();
+        int[] rowEntrezIds = rowEntrezIds(quantisedDataMatrix.getEntrezIdToRowIndex(), numRows);
+        logger.info("Writing {} * {} quantised PPI data matrix to {}", numRows, numRows, outputPath);
+        try (FileChannel fileChannel = FileChannel.open(outputPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(QuantisedDataMatrix.HEADER_BYTES + numRows * (Integer.BYTES + Float.BYTES))
+                    .order(MappedDataMatrix.BYTE_ORDER);
+            header.putInt(QuantisedDataMatrix.MAGIC);
+            header.putInt(QuantisedDataMatrix.VERSION);
+            header.putInt(numRows);
+            header.putInt(0);
+            for (int entrezId : rowEntrezIds) {
+                header.putInt(entrezId);
+            }
+            for (int column = 0; column < numRows; column++) {
+                header.putFloat(quantisedDataMatrix.getColumnScale(column));
+            }
+            writeFully(fileChannel, header.flip());
+
+            ByteBuffer columnBuffer = ByteBuffer.allocate(numRows * QuantisedDataMatrix.BYTES_PER_CELL).order(MappedDataMatrix.BYTE_ORDER);
+            for (int column = 0; column < numRows; column++) {
+                columnBuffer.clear();
+                columnBuffer.asShortBuffer().put(quantisedDataMatrix.getHalfColumn(column));
+                writeFully(fileChannel, columnBuffer);
+            }
+        } catch (IOException e) {
+            throw new DataMatrixIoException("Unable to write quantised data matrix to " + outputPath, e);
+        }
+    }
+
+    /**
+     * Loads a {@link QuantisedDataMatrix} written by {@link #writeQuantisedDataMatrix(QuantisedDataMatrix, Path)} into
+     * memory. This requires half the memory required by
+     * {@link #loadInMemoryDataMatrix(Path)}, at the cost of a small loss of precision.
+     *
+     * @param quantisedMatrixPath the {@code Path} to the quantised matrix file.
+     * @return an in-memory, quantised instance of the {@code DataMatrix}
+     * @since 13.2.0
+     */
+    public static QuantisedDataMatrix loadQuantisedDataMatrix(Path quantisedMatrixPath) {
+        logger.debug("Loading quantised PPI data matrix from {}...", quantisedMatrixPath);
+        try (FileChannel fileChannel = FileChannel.open(quantisedMatrixPath, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(fileChannel, QuantisedDataMatrix.HEADER_BYTES, quantisedMatrixPath);
+            if (header.getInt() != QuantisedDataMatrix.MAGIC) {
+                throw new IllegalStateException(quantisedMatrixPath + " is not a quantised data matrix");
+            }
+            int version = header.getInt();
+            if (version != QuantisedDataMatrix.VERSION) {
+                throw new IllegalStateException("Unsupported quantised data matrix version " + version + " in " + quantisedMatrixPath);
+            }
+            int numRows = header.getInt();
+            long expectedSize = QuantisedDataMatrix.HEADER_BYTES + (long) numRows * (Integer.BYTES + Float.BYTES) + (long) numRows * numRows * QuantisedDataMatrix.BYTES_PER_CELL;
+            if (numRows < 0 || fileChannel.size() != expectedSize) {
+                throw new IllegalStateException("Quantised data matrix " + quantisedMatrixPath + " is truncated or has an invalid size");
+            }
+
+            ByteBuffer index = readFully(fileChannel, numRows * (Integer.BYTES + Float.BYTES), quantisedMatrixPath);
+            Map<Integer, Integer> entrezIdToRowIndex = new HashMap<>(numRows * 2);
+            for (int row = 0; row < numRows; row++) {
+                if (entrezIdToRowIndex.put(index.getInt(), row) != null) {
+                    throw new IllegalStateException("Quantised data matrix " + quantisedMatrixPath + " contains duplicate entrez gene ids");
+                }
+            }
+            float[] columnScales = new float[numRows];
+            index.asFloatBuffer().get(columnScales);
+
+            int columnBytes = numRows * QuantisedDataMatrix.BYTES_PER_CELL;
+            short[][] halfColumns = new short[numRows][numRows];
+            for (short[] halfColumn : halfColumns) {
+                readFully(fileChannel, columnBytes, quantisedMatrixPath).asShortBuffer().get(halfColumn);
+            }
+            return QuantisedDataMatrix.ofHalfColumns(entrezIdToRowIndex, halfColumns, columnScales);
+        } catch (IOException e) {
+            throw new DataMatrixIoException("Unable to read quantised data matrix " + quantisedMatrixPath, e);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel fileChannel, int numBytes, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(numBytes).order(MappedDataMatrix.BYTE_ORDER);
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer) < 0) {
+                throw new IllegalStateException("Unexpected end of file " + path);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int[] rowEntrezIds(Map<Integer, Integer> entrezIdToRowIndex, int numRows) {
+        if (entrezIdToRowIndex.size() != numRows) {
+            throw new IllegalArgumentException("DataMatrix index must have " + numRows + " entries, but has " + entrezIdToRowIndex.size());
+        }
+        int[] rowEntrezIds = new int[numRows];
+        boolean[] seen = new boolean[numRows];
+        for (Map.Entry<Integer, Integer> entry : entrezIdToRowIndex.entrySet()) {
+            int row = entry.getValue();
+            if (row < 0 || row >= numRows || seen[row]) {
+                throw new IllegalArgumentException("DataMatrix row indices must be unique and between 0 and " + (numRows - 1) + ", but found " + row);
+            }
+            seen[row] = true;
+            rowEntrezIds[row] = entry.getKey();
+        }
+        return rowEntrezIds;
+    }
+
+    private static void writeFully(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+    }
+
     /**
      * Loads an in memory {@code DataMatrix} from the input {@code Path} argument. This is inferior to using one the off-heap
      * map-backed method as it takes a few seconds to load and requires ~1GB more RAM however it has zero IO once loaded.
@@ -22,13 +22,14 @@
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
-import org.jblas.FloatMatrix;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneMatch;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModelPhenotypeMatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.FloatBuffer;
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  *
@@ -43,8 +44,15 @@ public class HiPhiveProteinInteractionScorer {
     private final DataMatrix dataMatrix;
     private final ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels;
 
+    private static final int NO_MATCH = -1;
+    // number of rows scanned by each parallel task when finding the best column of each row
+    private static final int ROW_BLOCK_SIZE = 1024;
+
     private final List<GeneColumnIndex> weightedHighQualityMatrixIndex;
-    private final FloatMatrix weightedHighQualityMatrix;
+    // the weighted high-quality matrix is only used to find the column with the best score in each row, so only the
+    // index of the column and its score are kept for each row of the original DataMatrix
+    private final int[] bestColumnIndexByRow;
+    private final float[] bestScoreByRow;
 
     public static HiPhiveProteinInteractionScorer empty() {
         return EMPTY;
@@ -55,7 +63,8 @@ private HiPhiveProteinInteractionScorer() {
         this.bestGeneModels = ArrayListMultimap.create();
 
         this.weightedHighQualityMatrixIndex = Collections.emptyList();
-        this.weightedHighQualityMatrix = FloatMatrix.EMPTY;
+        this.bestColumnIndexByRow = new int[0];
+        this.bestScoreByRow = new float[0];
     }
 
     public HiPhiveProteinInteractionScorer(DataMatrix dataMatrix, ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels, double highQualityPhenoScoreCutOff) {
@@ -63,7 +72,9 @@ public HiPhiveProteinInteractionScorer(DataMatrix dataMatrix, ListMultimap<Integ
         this.bestGeneModels = bestGeneModels;
 
         this.weightedHighQualityMatrixIndex = makeWeightedHighQualityMatrixIndex(highQualityPhenoScoreCutOff, dataMatrix, bestGeneModels.values());
-        this.weightedHighQualityMatrix = makeWeightedHighQualityProteinInteractionMatrix(dataMatrix, weightedHighQualityMatrixIndex);
+        this.bestColumnIndexByRow = new int[weightedHighQualityMatrixIndex.isEmpty() ? 0 : dataMatrix.numRows()];
+        this.bestScoreByRow = new float[bestColumnIndexByRow.length];
+        findMostPhenotypicallySimilarGeneForEachRow(dataMatrix, weightedHighQualityMatrixIndex);
     }
 
     private List<GeneColumnIndex> makeWeightedHighQualityMatrixIndex(double highQualityPhenoScoreCutOff, DataMatrix dataMatrix, Collection<GeneModelPhenotypeMatch> values) {
@@ -98,21 +109,49 @@ private Map<Integer, Double> getHighestGeneIdPhenoScoresInDataMatrix(double high
         return Collections.unmodifiableMap(highestGeneIdPhenoScores);
     }
 
-    private FloatMatrix makeWeightedHighQualityProteinInteractionMatrix(DataMatrix dataMatrix, List<GeneColumnIndex> highQualityPhenotypeMappings) {
+    private void findMostPhenotypicallySimilarGeneForEachRow(DataMatrix dataMatrix, List<GeneColumnIndex> highQualityPhenotypeMappings) {
+        if (highQualityPhenotypeMappings.isEmpty()) {
+            return;
+        }
         logger.debug("Making weighted-score Protein-Protein interaction sub-matrix from high quality phenotypic gene matches...");
         logger.debug("Original data matrix ({} rows * {} columns)", dataMatrix.numRows(), dataMatrix.numColumns());
         int rows = dataMatrix.numRows();
         int cols = highQualityPhenotypeMappings.size();
-        FloatMatrix highQualityPpiMatrix = FloatMatrix.zeros(rows, cols);
+        //The original DataMatrix is a symmetrical matrix this new one is asymmetrical with the original rows but only high-quality columns.
+        // The columns are read in place and weighted as they are scanned, so a memory-mapped matrix is never copied.
+        FloatBuffer[] columns = new FloatBuffer[cols];
+        float[] weights = new float[cols];
+        int[] selfHitRows = new int[cols];
         for (GeneColumnIndex geneColumnIndex : highQualityPhenotypeMappings) {
-            //The original DataMatrix is a symmetrical matrix this new one is asymmetrical with the original rows but only high-quality columns.
-            FloatMatrix column = dataMatrix.getColumnMatrixForGene(geneColumnIndex.geneId);
-            FloatMatrix weightedColumn = column.mul((float) geneColumnIndex.phenoScore);
-            highQualityPpiMatrix.putColumn(geneColumnIndex.columnIndex, weightedColumn);
+            columns[geneColumnIndex.columnIndex] = dataMatrix.getColumnForGene(geneColumnIndex.geneId);
+            weights[geneColumnIndex.columnIndex] = (float) geneColumnIndex.phenoScore;
+            selfHitRows[geneColumnIndex.columnIndex] = dataMatrix.getRowIndexForGene(geneColumnIndex.geneId);
         }
-        logger.debug("Made high quality interaction matrix ({} rows * {} columns)", highQualityPpiMatrix.getRows(), highQualityPpiMatrix
-                .getColumns());
-        return highQualityPpiMatrix;
+        logger.debug("Made high quality interaction matrix ({} rows * {} columns)", rows, cols);
+        // Each block of rows is scanned column by column, so the reads are sequential through the memory of each
+        // column. The columns are scanned in order and only a strictly greater score replaces the best, so ties go to
+        // the first column as they would when scanning along each row.
+        int numBlocks = (rows + ROW_BLOCK_SIZE - 1) / ROW_BLOCK_SIZE;
+        IntStream.range(0, numBlocks).parallel().forEach(block -> {
+            int from = block * ROW_BLOCK_SIZE;
+            int to = Math.min(rows, from + ROW_BLOCK_SIZE);
+            Arrays.fill(bestColumnIndexByRow, from, to, NO_MATCH);
+            // a cell must score more than 0 to be a match
+            Arrays.fill(bestScoreByRow, from, to, 0f);
+            for (int col = 0; col < cols; col++) {
+                FloatBuffer column = columns[col];
+                float weight = weights[col];
+                //avoid self-hits now are testing genes with direct pheno-evidence as well
+                int selfHitRow = selfHitRows[col];
+                for (int row = from; row < to; row++) {
+                    float cellScore = column.get(row) * weight;
+                    if (cellScore > bestScoreByRow[row] && row != selfHitRow) {
+                        bestScoreByRow[row] = cellScore;
+                        bestColumnIndexByRow[row] = col;
+                    }
+                }
+            }
+        });
     }
 
     public GeneMatch getClosestPhenoMatchInNetwork(Integer entrezGeneId) {
@@ -120,18 +159,19 @@ public GeneMatch getClosestPhenoMatchInNetwork(Integer entrezGeneId) {
             return GeneMatch.NO_HIT;
         }
         int rowIndex = dataMatrix.getRowIndexForGene(entrezGeneId);
-        GeneColumnIndex topHighQualityGene = getGeneColumnIndexOfMostPhenotypicallySimilarGene(rowIndex, entrezGeneId);
+        int bestColumnIndex = bestColumnIndexByRow[rowIndex];
         /* Changed method to return -1 if no hit as otherwise could not distinguish between
         no hit or hit to 1st entry in column (entrezGene 50640). When querying with 50640 this
         resulted in a self-hit being returned with a PPI score of 0.5+0.7=1.2 and also lots of
         low-scoring (0.5) PPI hits to 50640 for other genes with no PPI match
          */
-        if (topHighQualityGene == null) {
+        if (bestColumnIndex == NO_MATCH) {
             return GeneMatch.NO_HIT;
         }
+        GeneColumnIndex topHighQualityGene = weightedHighQualityMatrixIndex.get(bestColumnIndex);
 
         // optimal adjustment based on benchmarking to allow walker scores to compete with low phenotype scores
-        double walkerScore = 0.5 + weightedHighQualityMatrix.get(rowIndex, topHighQualityGene.columnIndex);
+        double walkerScore = 0.5 + bestScoreByRow[rowIndex];
 
         Integer closestGeneId = topHighQualityGene.geneId;
         List<GeneModelPhenotypeMatch> models = bestGeneModels.get(closestGeneId);
@@ -144,22 +184,6 @@ public GeneMatch getClosestPhenoMatchInNetwork(Integer entrezGeneId) {
                 .build();
     }
 
-    private GeneColumnIndex getGeneColumnIndexOfMostPhenotypicallySimilarGene(int rowIndex, Integer entrezGeneId) {
-        GeneColumnIndex bestGeneColumnIndex = null;
-        double bestScore = 0;
-        for (GeneColumnIndex geneColumnIndex : weightedHighQualityMatrixIndex) {
-            //avoid self-hits now are testing genes with direct pheno-evidence as well
-            if (!geneColumnIndex.geneId.equals(entrezGeneId)) {
-                double cellScore = weightedHighQualityMatrix.get(rowIndex, geneColumnIndex.columnIndex);
-                if (cellScore > bestScore) {
-                    bestScore = cellScore;
-                    bestGeneColumnIndex = geneColumnIndex;
-                }
-            }
-        }
-        return bestGeneColumnIndex;
-    }
-
     /**
      * Mapping between an entrez gene id, its phenotype score and a column in the high-quality matrix
      */
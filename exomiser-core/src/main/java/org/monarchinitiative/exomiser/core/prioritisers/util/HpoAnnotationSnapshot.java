@@ -0,0 +1,189 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Binary snapshot of the PhenIX gene annotations and the information content of each HPO term, calculated from the
+ * {@code hp.obo} and {@code ALL_SOURCES_ALL_FREQUENCIES_genes_to_phenotype.txt} files. Terms are stored by their
+ * identifier, e.g. {@code HP:0000118}, so that they can be resolved against the ontology parsed from the {@code hp.obo}
+ * without re-parsing the annotations and re-calculating the information content.
+ * <p>
+ * The file starts with the format magic number and version followed by the size and last-modified time of each of the
+ * source files. A snapshot is ignored should either source file have changed since this was written.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public final class HpoAnnotationSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(HpoAnnotationSnapshot.class);
+
+    public static final String FILE_NAME = "hpo_annotations.snapshot";
+
+    private static final int MAGIC = 0x45585041;
+    private static final int VERSION = 1;
+
+    private final Map<String, Double> informationContentByTermId;
+    private final Map<String, List<String>> termIdsByGeneId;
+
+    public HpoAnnotationSnapshot(Map<String, Double> informationContentByTermId, Map<String, List<String>> termIdsByGeneId) {
+        this.informationContentByTermId = informationContentByTermId;
+        this.termIdsByGeneId = termIdsByGeneId;
+    }
+
+    /**
+     * @return the information content of each HPO term by term identifier
+     */
+    public Map<String, Double> getInformationContentByTermId() {
+        return informationContentByTermId;
+    }
+
+    /**
+     * @return the identifiers of the most specific HPO terms annotated to each entrez gene identifier
+     */
+    public Map<String, List<String>> getTermIdsByGeneId() {
+        return termIdsByGeneId;
+    }
+
+    /**
+     * Writes this snapshot to a uniquely named temporary file in the same directory as the snapshot file which is then
+     * moved into place, so that a concurrent reader never sees a partial file. The data directory may well be
+     * read-only, so failing to write the snapshot is not an error.
+     *
+     * @param snapshotFile the snapshot file to write
+     * @param sourceFiles  the files from which the annotations and information content were calculated
+     * @return true if the snapshot was written, otherwise false.
+     */
+    public boolean write(Path snapshotFile, List<Path> sourceFiles) {
+        Path directory = snapshotFile.toAbsolutePath().getParent();
+        if (!Files.isWritable(directory)) {
+            logger.debug("Not writing HPO annotation snapshot {} - {} is not writable", snapshotFile, directory);
+            return false;
+        }
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sourceFiles.size());
+                for (Path sourceFile : sourceFiles) {
+                    out.writeLong(Files.size(sourceFile));
+                    out.writeLong(Files.getLastModifiedTime(sourceFile).toMillis());
+                }
+                out.writeInt(informationContentByTermId.size());
+                for (Map.Entry<String, Double> entry : informationContentByTermId.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeDouble(entry.getValue());
+                }
+                out.writeInt(termIdsByGeneId.size());
+                for (Map.Entry<String, List<String>> entry : termIdsByGeneId.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (String termId : entry.getValue()) {
+                        out.writeUTF(termId);
+                    }
+                }
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            logger.debug("Unable to write HPO annotation snapshot {} - {}", snapshotFile, e.toString());
+            deleteQuietly(tempFile);
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Unable to delete {}", file, e);
+        }
+    }
+
+    /**
+     * Reads the snapshot, provided none of the source files have changed since the snapshot was written.
+     *
+     * @param snapshotFile the snapshot file to read
+     * @param sourceFiles  the files from which the snapshot was written, in the same order
+     * @return the snapshot, or an empty {@code Optional} if the snapshot is missing, unreadable or stale.
+     */
+    public static Optional<HpoAnnotationSnapshot> read(Path snapshotFile, List<Path> sourceFiles) {
+        if (!Files.isRegularFile(snapshotFile)) {
+            logger.debug("No HPO annotation snapshot found at {}", snapshotFile);
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            int magic = in.readInt();
+            int version = in.readInt();
+            if (magic != MAGIC || version != VERSION) {
+                logger.info("Ignoring HPO annotation snapshot {} with unsupported format {} version {}", snapshotFile, Integer.toHexString(magic), version);
+                return Optional.empty();
+            }
+            int numSourceFiles = in.readInt();
+            if (numSourceFiles != sourceFiles.size()) {
+                logger.info("Ignoring HPO annotation snapshot {} written from {} source files", snapshotFile, numSourceFiles);
+                return Optional.empty();
+            }
+            for (Path sourceFile : sourceFiles) {
+                long sourceSize = in.readLong();
+                long sourceLastModified = in.readLong();
+                if (sourceSize != Files.size(sourceFile) || sourceLastModified != Files.getLastModifiedTime(sourceFile).toMillis()) {
+                    logger.info("Ignoring stale HPO annotation snapshot {} - {} has changed", snapshotFile, sourceFile);
+                    return Optional.empty();
+                }
+            }
+            int numTerms = in.readInt();
+            Map<String, Double> informationContentByTermId = new HashMap<>();
+            for (int i = 0; i < numTerms; i++) {
+                informationContentByTermId.put(in.readUTF(), in.readDouble());
+            }
+            int numGenes = in.readInt();
+            Map<String, List<String>> termIdsByGeneId = new HashMap<>();
+            for (int i = 0; i < numGenes; i++) {
+                String geneId = in.readUTF();
+                int numAnnotations = in.readInt();
+                List<String> termIds = new ArrayList<>();
+                for (int j = 0; j < numAnnotations; j++) {
+                    termIds.add(in.readUTF());
+                }
+                termIdsByGeneId.put(geneId, termIds);
+            }
+            return Optional.of(new HpoAnnotationSnapshot(informationContentByTermId, termIdsByGeneId));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to read HPO annotation snapshot {} - {}", snapshotFile, e.toString());
+            return Optional.empty();
+        }
+    }
+}
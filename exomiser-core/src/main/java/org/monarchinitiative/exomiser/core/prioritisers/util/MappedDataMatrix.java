@@ -0,0 +1,237 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import com.google.common.collect.ImmutableMap;
+import org.jblas.FloatMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Read-only, memory-mapped {@code DataMatrix} implementation. The matrix is stored in a file written by
+ * {@link DataMatrixIO#writeMappedDataMatrix(DataMatrix, Path)} which is mapped directly into memory, so opening the
+ * matrix takes the same time regardless of its size and several JVMs on the same machine will share the one copy held
+ * in the OS page cache.
+ * <p>
+ * The file is laid out in little-endian byte order as:
+ * <pre>
+ * header  magic, version, number of rows, reserved (int, int, int, int)
+ * index   the entrez gene id of each row in row order (int x number of rows)
+ * data    the columns in row index order, each column being the values of every row (float x rows x rows)
+ * </pre>
+ * Columns are returned by {@link #getColumnForGene(int)} as read-only views of the mapped file without copying the
+ * values.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class MappedDataMatrix implements DataMatrix {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedDataMatrix.class);
+
+    /**
+     * Suggested file extension for a memory-mapped matrix file.
+     */
+    public static final String FILE_EXTENSION = ".rwm";
+
+    static final int MAGIC = 0x4558524D; // EXRM
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 * Integer.BYTES;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    // a single MappedByteBuffer is limited to Integer.MAX_VALUE bytes, so larger matrices are mapped as several regions
+    // each containing a whole number of columns
+    private static final long MAX_REGION_BYTES = Integer.MAX_VALUE;
+
+    private final int numRows;
+    private final Map<Integer, Integer> entrezIdToRowIndex;
+    private final int columnsPerRegion;
+    private final FloatBuffer[] regions;
+
+    private FloatMatrix floatMatrix = null;
+
+    private MappedDataMatrix(int numRows, Map<Integer, Integer> entrezIdToRowIndex, int columnsPerRegion, FloatBuffer[] regions) {
+        this.numRows = numRows;
+        this.entrezIdToRowIndex = entrezIdToRowIndex;
+        this.columnsPerRegion = columnsPerRegion;
+        this.regions = regions;
+    }
+
+    /**
+     * Memory-maps a matrix file written by {@link DataMatrixIO#writeMappedDataMatrix(DataMatrix, Path)}.
+     *
+     * @throws IllegalStateException if the file is not a valid matrix file
+     * @throws UncheckedIOException  if the file cannot be read
+     */
+    public static MappedDataMatrix open(Path path) {
+        return open(path, MAX_REGION_BYTES);
+    }
+
+    static MappedDataMatrix open(Path path, long maxRegionBytes) {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (fileChannel.size() < HEADER_BYTES) {
+                throw new IllegalStateException(path + " is not a mapped data matrix");
+            }
+            ByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(BYTE_ORDER);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalStateException(path + " is not a mapped data matrix");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported mapped data matrix version " + version + " in " + path);
+            }
+            int numRows = header.getInt();
+            long columnBytes = (long) numRows * Float.BYTES;
+            long dataStart = HEADER_BYTES + columnBytes;
+            if (numRows < 0 || fileChannel.size() != dataStart + columnBytes * numRows) {
+                throw new IllegalStateException("Mapped data matrix " + path + " is truncated or has an invalid size");
+            }
+            Map<Integer, Integer> entrezIdToRowIndex = readIndex(fileChannel, numRows, path);
+
+            int columnsPerRegion = (int) Math.max(1, Math.min(numRows, maxRegionBytes / Math.max(1, columnBytes)));
+            int numRegions = numRows == 0 ? 0 : (numRows + columnsPerRegion - 1) / columnsPerRegion;
+            FloatBuffer[] regions = new FloatBuffer[numRegions];
+            for (int i = 0; i < numRegions; i++) {
+                long firstColumn = (long) i * columnsPerRegion;
+                long regionColumns = Math.min(columnsPerRegion, numRows - firstColumn);
+                regions[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, dataStart + firstColumn * columnBytes, regionColumns * columnBytes)
+                        .order(BYTE_ORDER)
+                        .asFloatBuffer();
+            }
+            logger.debug("Mapped {} * {} data matrix from {} in {} regions", numRows, numRows, path, numRegions);
+            return new MappedDataMatrix(numRows, entrezIdToRowIndex, columnsPerRegion, regions);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open mapped data matrix " + path, e);
+        }
+    }
+
+    private static Map<Integer, Integer> readIndex(FileChannel fileChannel, int numRows, Path path) throws IOException {
+        IntBuffer index = fileChannel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) numRows * Integer.BYTES)
+                .order(BYTE_ORDER)
+                .asIntBuffer();
+        ImmutableMap.Builder<Integer, Integer> builder = ImmutableMap.builderWithExpectedSize(numRows);
+        for (int row = 0; row < numRows; row++) {
+            builder.put(index.get(row), row);
+        }
+        try {
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Mapped data matrix " + path + " contains duplicate entrez gene ids", e);
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> getEntrezIdToRowIndex() {
+        return entrezIdToRowIndex;
+    }
+
+    /**
+     * Copies the entire matrix onto the heap. This is an expensive operation for a large matrix and is not required
+     * for scoring, which only needs the columns for individual genes.
+     */
+    @Override
+    public synchronized FloatMatrix getMatrix() {
+        if (floatMatrix == null) {
+            logger.debug("Copying {} * {} mapped data matrix onto the heap", numRows, numRows);
+            FloatMatrix matrix = new FloatMatrix(numRows, numRows);
+            // FloatMatrix is stored in column-major order, the same as the file
+            for (int column = 0; column < numRows; column++) {
+                getColumn(column).get(matrix.data, column * numRows, numRows);
+            }
+            floatMatrix = matrix;
+        }
+        return floatMatrix;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numColumns() {
+        return numRows;
+    }
+
+    @Override
+    public boolean containsGene(Integer entrezGeneId) {
+        return entrezIdToRowIndex.containsKey(entrezGeneId);
+    }
+
+    @Override
+    public Integer getRowIndexForGene(int entrezGeneId) {
+        return entrezIdToRowIndex.get(entrezGeneId);
+    }
+
+    @Override
+    public FloatMatrix getColumnMatrixForGene(int entrezGeneId) {
+        FloatBuffer column = getColumnForGene(entrezGeneId);
+        if (column == null) {
+            return null;
+        }
+        float[] values = new float[numRows];
+        column.get(values);
+        return new FloatMatrix(values);
+    }
+
+    /**
+     * Returns a read-only view of the column for the argument gene identifier, backed directly by the mapped file. The
+     * returned buffer is positioned at the first row and its limit is the number of rows. Each call returns a new view
+     * so these are safe to use from multiple threads.
+     *
+     * @param entrezGeneId the entrez gene identifier of the gene
+     * @return a read-only {@link FloatBuffer} of the column for this gene identifier or {@code null} if not present.
+     */
+    @Override
+    public FloatBuffer getColumnForGene(int entrezGeneId) {
+        Integer columnIndex = entrezIdToRowIndex.get(entrezGeneId);
+        if (columnIndex == null) {
+            return null;
+        }
+        return getColumn(columnIndex);
+    }
+
+    private FloatBuffer getColumn(int columnIndex) {
+        FloatBuffer region = regions[columnIndex / columnsPerRegion].duplicate();
+        int start = (columnIndex % columnsPerRegion) * numRows;
+        region.position(start);
+        region.limit(start + numRows);
+        return region.slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedDataMatrix{" +
+                "numRows=" + numRows +
+                ", numRegions=" + regions.length +
+                '}';
+    }
+}
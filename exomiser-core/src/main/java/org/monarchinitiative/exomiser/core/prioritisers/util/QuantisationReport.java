@@ -0,0 +1,235 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Summary of the accuracy of a reduced-precision {@code DataMatrix}, such as a {@link QuantisedDataMatrix}, compared
+ * to the full-precision matrix on a set of benchmark genes. For each benchmark gene the columns of both matrices are
+ * compared cell by cell and by the ranking of the other genes in the column, excluding the gene itself, as is done by
+ * the walker scores.
+ * <p>
+ * The rankings are compared by:
+ * <ul>
+ *     <li>top hit agreement - the proportion of columns where the highest-scoring gene is the same in both
+ *     matrices</li>
+ *     <li>top hit score loss - the mean reduction in the full-precision score of the highest-scoring gene chosen by
+ *     the reduced-precision matrix, relative to the full-precision maximum. This is zero when the two matrices
+ *     choose different genes with the same score.</li>
+ *     <li>top-k overlap - the mean proportion of the k highest-scoring genes shared by both matrices</li>
+ * </ul>
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class QuantisationReport {
+
+    public static final int DEFAULT_TOP_K = 10;
+
+    private final int numColumns;
+    private final int topK;
+    private final double maxAbsoluteError;
+    private final double meanAbsoluteError;
+    private final double maxNormalisedError;
+    private final double topHitAgreement;
+    private final double meanTopHitScoreLoss;
+    private final double meanTopKOverlap;
+
+    private QuantisationReport(int numColumns, int topK, double maxAbsoluteError, double meanAbsoluteError, double maxNormalisedError, double topHitAgreement, double meanTopHitScoreLoss, double meanTopKOverlap) {
+        this.numColumns = numColumns;
+        this.topK = topK;
+        this.maxAbsoluteError = maxAbsoluteError;
+        this.meanAbsoluteError = meanAbsoluteError;
+        this.maxNormalisedError = maxNormalisedError;
+        this.topHitAgreement = topHitAgreement;
+        this.meanTopHitScoreLoss = meanTopHitScoreLoss;
+        this.meanTopKOverlap = meanTopKOverlap;
+    }
+
+    /**
+     * Compares all the columns of the two matrices.
+     */
+    public static QuantisationReport compare(DataMatrix reference, DataMatrix quantised) {
+        return compare(reference, quantised, reference.getEntrezIdToRowIndex().keySet(), DEFAULT_TOP_K);
+    }
+
+    /**
+     * Compares the columns of the benchmark genes in the two matrices. Benchmark genes not present in the reference
+     * matrix are ignored.
+     *
+     * @param reference        the full-precision matrix
+     * @param quantised        the reduced-precision matrix, which must have the same index as the reference
+     * @param benchmarkGeneIds the entrez gene ids of the columns to compare
+     * @param topK             the number of highest-scoring genes in each column to compare
+     */
+    public static QuantisationReport compare(DataMatrix reference, DataMatrix quantised, Collection<Integer> benchmarkGeneIds, int topK) {
+        Objects.requireNonNull(reference);
+        Objects.requireNonNull(quantised);
+        Objects.requireNonNull(benchmarkGeneIds);
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be greater than 0, but was " + topK);
+        }
+        if (!reference.getEntrezIdToRowIndex().equals(quantised.getEntrezIdToRowIndex())) {
+            throw new IllegalArgumentException("The reference and quantised matrices must have the same index");
+        }
+        List<Integer> geneIds = new ArrayList<>();
+        for (Integer geneId : benchmarkGeneIds) {
+            if (reference.containsGene(geneId)) {
+                geneIds.add(geneId);
+            }
+        }
+
+        double maxAbsoluteError = 0;
+        double sumAbsoluteError = 0;
+        long numCells = 0;
+        double maxNormalisedError = 0;
+        int numTopHitsAgreeing = 0;
+        double sumTopHitScoreLoss = 0;
+        double sumTopKOverlap = 0;
+        for (Integer geneId : geneIds) {
+            int self = reference.getRowIndexForGene(geneId);
+            float[] expected = reference.getColumnMatrixForGene(geneId).toArray();
+            float[] actual = quantised.getColumnMatrixForGene(geneId).toArray();
+
+            float columnMax = 0;
+            for (float value : expected) {
+                columnMax = Math.max(columnMax, Math.abs(value));
+            }
+            for (int i = 0; i < expected.length; i++) {
+                double error = Math.abs((double) expected[i] - actual[i]);
+                maxAbsoluteError = Math.max(maxAbsoluteError, error);
+                sumAbsoluteError += error;
+                if (columnMax > 0) {
+                    maxNormalisedError = Math.max(maxNormalisedError, error / columnMax);
+                }
+            }
+            numCells += expected.length;
+
+            int[] expectedTop = topRows(expected, topK, self);
+            int[] actualTop = topRows(actual, topK, self);
+            if (expectedTop.length == 0) {
+                numTopHitsAgreeing++;
+                sumTopKOverlap += 1;
+                continue;
+            }
+            if (expectedTop[0] == actualTop[0]) {
+                numTopHitsAgreeing++;
+            }
+            float expectedBest = expected[expectedTop[0]];
+            if (expectedBest > 0) {
+                sumTopHitScoreLoss += (expectedBest - expected[actualTop[0]]) / expectedBest;
+            }
+            sumTopKOverlap += (double) overlap(expectedTop, actualTop) / expectedTop.length;
+        }
+        int numColumns = geneIds.size();
+        return new QuantisationReport(numColumns, topK,
+                maxAbsoluteError,
+                numCells == 0 ? 0 : sumAbsoluteError / numCells,
+                maxNormalisedError,
+                numColumns == 0 ? 1 : (double) numTopHitsAgreeing / numColumns,
+                numColumns == 0 ? 0 : sumTopHitScoreLoss / numColumns,
+                numColumns == 0 ? 1 : sumTopKOverlap / numColumns);
+    }
+
+    /**
+     * Returns the indices of the k largest values, excluding the excluded index, in descending order of value with ties
+     * going to the lowest index.
+     */
+    static int[] topRows(float[] values, int k, int excludedIndex) {
+        int size = Math.min(k, values.length - (excludedIndex >= 0 && excludedIndex < values.length ? 1 : 0));
+        int[] top = new int[Math.max(0, size)];
+        int count = 0;
+        for (int i = 0; i < values.length && top.length > 0; i++) {
+            if (i == excludedIndex) {
+                continue;
+            }
+            float value = values[i];
+            if (count == top.length && value <= values[top[count - 1]]) {
+                continue;
+            }
+            int position = count == top.length ? count - 1 : count++;
+            while (position > 0 && value > values[top[position - 1]]) {
+                top[position] = top[position - 1];
+                position--;
+            }
+            top[position] = i;
+        }
+        return top;
+    }
+
+    private static int overlap(int[] first, int[] second) {
+        int overlap = 0;
+        for (int a : first) {
+            for (int b : second) {
+                if (a == b) {
+                    overlap++;
+                    break;
+                }
+            }
+        }
+        return overlap;
+    }
+
+    public int getNumColumns() {
+        return numColumns;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public double getMaxAbsoluteError() {
+        return maxAbsoluteError;
+    }
+
+    public double getMeanAbsoluteError() {
+        return meanAbsoluteError;
+    }
+
+    /**
+     * @return the maximum absolute error of a cell divided by the maximum of its column
+     */
+    public double getMaxNormalisedError() {
+        return maxNormalisedError;
+    }
+
+    public double getTopHitAgreement() {
+        return topHitAgreement;
+    }
+
+    public double getMeanTopHitScoreLoss() {
+        return meanTopHitScoreLoss;
+    }
+
+    public double getMeanTopKOverlap() {
+        return meanTopKOverlap;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QuantisationReport{columns=%d, maxAbsoluteError=%.3g, meanAbsoluteError=%.3g, maxNormalisedError=%.3g, topHitAgreement=%.4f, meanTopHitScoreLoss=%.3g, meanTop%dOverlap=%.4f}",
+                numColumns, maxAbsoluteError, meanAbsoluteError, maxNormalisedError, topHitAgreement, meanTopHitScoreLoss, topK, meanTopKOverlap);
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import com.google.common.collect.ImmutableMap;
+import org.jblas.FloatMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * On-heap {@code DataMatrix} implementation storing the cells with reduced precision in order to reduce the memory
+ * required by the random walk matrix. Each column is quantised independently using its own scale factors, so the
+ * relative precision of a column does not depend on the magnitude of the values in the other columns.
+ * <p>
+ * Each cell is stored as a 16-bit IEEE 754 half-precision float of the value divided by the column maximum. This has a
+ * relative error of at most 2<sup>-11</sup> for values down to ~6e-5 of the column maximum, and halves the memory
+ * required compared to 32-bit floats. The accuracy of the rankings for a particular matrix can be checked with
+ * {@link QuantisationReport}.
+ * <p>
+ * Quantised matrices are written and read by {@link DataMatrixIO} in little-endian byte order as:
+ * <pre>
+ * header   magic, version, number of rows, reserved (int, int, int, int)
+ * index    the entrez gene id of each row in row order (int x number of rows)
+ * scales   the maximum of each column (float x number of rows)
+ * cells    the columns in row index order (short x rows x rows)
+ * </pre>
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class QuantisedDataMatrix implements DataMatrix {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuantisedDataMatrix.class);
+
+    /**
+     * Suggested file extension for a quantised matrix file.
+     */
+    public static final String FILE_EXTENSION = ".rwq";
+
+    static final int MAGIC = 0x45585251; // EXRQ
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 4 * Integer.BYTES;
+    static final int BYTES_PER_CELL = Short.BYTES;
+
+    // lookup table of all the 65536 possible half-precision values
+    private static final float[] HALF_TO_FLOAT = new float[1 << 16];
+
+    static {
+        for (int i = 0; i < HALF_TO_FLOAT.length; i++) {
+            HALF_TO_FLOAT[i] = decodeHalf(i);
+        }
+    }
+
+    private final Map<Integer, Integer> entrezIdToRowIndex;
+    private final int numRows;
+    private final short[][] halfColumns;
+    // the maximum value of each column, which the cells are relative to
+    private final float[] columnScales;
+
+    private QuantisedDataMatrix(Map<Integer, Integer> entrezIdToRowIndex, short[][] halfColumns, float[] columnScales) {
+        this.entrezIdToRowIndex = ImmutableMap.copyOf(entrezIdToRowIndex);
+        this.numRows = this.entrezIdToRowIndex.size();
+        if (halfColumns.length != numRows || columnScales.length != numRows) {
+            throw new IllegalArgumentException("Number of columns must be the same as the number of rows");
+        }
+        this.halfColumns = halfColumns;
+        this.columnScales = columnScales;
+    }
+
+    static QuantisedDataMatrix ofHalfColumns(Map<Integer, Integer> entrezIdToRowIndex, short[][] halfColumns, float[] columnScales) {
+        return new QuantisedDataMatrix(entrezIdToRowIndex, halfColumns, columnScales);
+    }
+
+    /**
+     * Quantises the argument {@code DataMatrix} to half-precision. The columns are read one at a time, so the original
+     * matrix does not need to be held in memory.
+     *
+     * @param dataMatrix the square {@code DataMatrix} to quantise
+     * @return a new {@code QuantisedDataMatrix}
+     */
+    public static QuantisedDataMatrix of(DataMatrix dataMatrix) {
+        Objects.requireNonNull(dataMatrix);
+        int numRows = dataMatrix.numRows();
+        if (dataMatrix.numColumns() != numRows) {
+            throw new IllegalArgumentException("DataMatrix must be square, but was " + numRows + " * " + dataMatrix.numColumns());
+        }
+        logger.debug("Quantising {} * {} data matrix to half-precision", numRows, numRows);
+        short[][] halfColumns = new short[numRows][];
+        boolean[] seen = new boolean[numRows];
+        float[] columnScales = new float[numRows];
+        for (Map.Entry<Integer, Integer> entry : dataMatrix.getEntrezIdToRowIndex().entrySet()) {
+            int columnIndex = entry.getValue();
+            if (columnIndex < 0 || columnIndex >= numRows || seen[columnIndex]) {
+                throw new IllegalArgumentException("DataMatrix row indices must be unique and between 0 and " + (numRows - 1) + ", but found " + columnIndex);
+            }
+            seen[columnIndex] = true;
+            float[] values = dataMatrix.getColumnMatrixForGene(entry.getKey()).toArray();
+            halfColumns[columnIndex] = quantiseHalf(values, columnScales, columnIndex);
+        }
+        return new QuantisedDataMatrix(dataMatrix.getEntrezIdToRowIndex(), halfColumns, columnScales);
+    }
+
+    private static short[] quantiseHalf(float[] values, float[] columnScales, int columnIndex) {
+        float max = 0;
+        for (float value : values) {
+            checkValue(value);
+            max = Math.max(max, value);
+        }
+        float scale = max == 0 ? 1f : max;
+        short[] cells = new short[values.length];
+        for (int i = 0; i < values.length; i++) {
+            cells[i] = encodeHalf(values[i] / scale);
+        }
+        columnScales[columnIndex] = scale;
+        return cells;
+    }
+
+    private static void checkValue(float value) {
+        if (!(value >= 0) || Float.isInfinite(value)) {
+            throw new IllegalArgumentException("Quantised matrix values must be finite and non-negative, but found " + value);
+        }
+    }
+
+    /**
+     * Converts a float to the bits of the nearest IEEE 754 half-precision float, rounding ties to even. Values too
+     * large to be represented are converted to infinity.
+     */
+    static short encodeHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int abs = bits & 0x7FFFFFFF;
+        if (abs >= 0x7F800000) {
+            // infinity or NaN
+            return (short) (sign | (abs > 0x7F800000 ? 0x7E00 : 0x7C00));
+        }
+        if (abs >= 0x477FF000) {
+            // >= 65520 rounds to infinity
+            return (short) (sign | 0x7C00);
+        }
+        if (abs < 0x38800000) {
+            // < 2^-14 is a subnormal half, with a value of mantissa * 2^-24. A result of 0x400 is the smallest normal.
+            int mantissa = (int) Math.rint(Float.intBitsToFloat(abs) * 0x1p24);
+            return (short) (sign | mantissa);
+        }
+        int exponent = (abs >>> 23) - 127 + 15;
+        int mantissa = abs & 0x7FFFFF;
+        int half = (exponent << 10) | (mantissa >>> 13);
+        int remainder = mantissa & 0x1FFF;
+        if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) == 1)) {
+            // a carry out of the mantissa correctly increments the exponent
+            half++;
+        }
+        return (short) (sign | half);
+    }
+
+    static float decodeHalf(int halfBits) {
+        int sign = (halfBits & 0x8000) == 0 ? 1 : -1;
+        int exponent = (halfBits >>> 10) & 0x1F;
+        int mantissa = halfBits & 0x3FF;
+        if (exponent == 0) {
+            return sign * Math.scalb((float) mantissa, -24);
+        }
+        if (exponent == 0x1F) {
+            return mantissa == 0 ? sign * Float.POSITIVE_INFINITY : Float.NaN;
+        }
+        return sign * Math.scalb(1f + mantissa / 1024f, exponent - 15);
+    }
+
+    /**
+     * @return the approximate number of bytes used to store the cells of the matrix.
+     */
+    public long cellBytes() {
+        return (long) numRows * numRows * BYTES_PER_CELL;
+    }
+
+    /**
+     * Returns the decoded value of a single cell.
+     *
+     * @param rowIndex    the row index of the cell
+     * @param columnIndex the column index of the cell
+     * @return the value of the cell
+     */
+    public float get(int rowIndex, int columnIndex) {
+        return HALF_TO_FLOAT[halfColumns[columnIndex][rowIndex] & 0xFFFF] * columnScales[columnIndex];
+    }
+
+    private float[] decodeColumn(int columnIndex) {
+        float[] values = new float[numRows];
+        float scale = columnScales[columnIndex];
+        short[] cells = halfColumns[columnIndex];
+        for (int i = 0; i < numRows; i++) {
+            values[i] = HALF_TO_FLOAT[cells[i] & 0xFFFF] * scale;
+        }
+        return values;
+    }
+
+    short[] getHalfColumn(int columnIndex) {
+        return halfColumns[columnIndex];
+    }
+
+    float getColumnScale(int columnIndex) {
+        return columnScales[columnIndex];
+    }
+
+    @Override
+    public Map<Integer, Integer> getEntrezIdToRowIndex() {
+        return entrezIdToRowIndex;
+    }
+
+    /**
+     * Decodes the entire matrix into a new full-precision {@code FloatMatrix}. This will use as much memory as the
+     * un-quantised matrix and is not required for scoring.
+     */
+    @Override
+    public FloatMatrix getMatrix() {
+        FloatMatrix matrix = new FloatMatrix(numRows, numRows);
+        for (int column = 0; column < numRows; column++) {
+            System.arraycopy(decodeColumn(column), 0, matrix.data, column * numRows, numRows);
+        }
+        return matrix;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numColumns() {
+        return numRows;
+    }
+
+    @Override
+    public boolean containsGene(Integer entrezGeneId) {
+        return entrezIdToRowIndex.containsKey(entrezGeneId);
+    }
+
+    @Override
+    public Integer getRowIndexForGene(int entrezGeneId) {
+        return entrezIdToRowIndex.get(entrezGeneId);
+    }
+
+    @Override
+    public FloatMatrix getColumnMatrixForGene(int entrezGeneId) {
+        Integer columnIndex = entrezIdToRowIndex.get(entrezGeneId);
+        if (columnIndex == null) {
+            return null;
+        }
+        return new FloatMatrix(decodeColumn(columnIndex));
+    }
+
+    @Override
+    public String toString() {
+        return "QuantisedDataMatrix{" +
+                "numRows=" + numRows +
+                '}';
+    }
+}
@@ -29,10 +29,40 @@ public class ScoreDistribution {
 
     private double[] scores;
     private double[] pvalues;
+    // true when the scores are in ascending order so the p-value can be found using a binary search
+    private boolean sortedScores;
     private double numberRandomizations;
     private int numberQueryTerms;
     private int mimNumber;
 
+    public ScoreDistribution() {
+    }
+
+    /**
+     * @param scores               the scores of the distribution, in ascending order
+     * @param pvalues              the p-value for each of the scores
+     * @param numberRandomizations the number of randomisations used to create the distribution
+     * @since 13.2.0
+     */
+    public ScoreDistribution(double[] scores, double[] pvalues, double numberRandomizations) {
+        if (scores.length != pvalues.length) {
+            throw new IllegalArgumentException("scores and pvalues must be the same length");
+        }
+        this.scores = scores;
+        this.pvalues = pvalues;
+        this.sortedScores = isAscending(scores);
+        this.numberRandomizations = numberRandomizations;
+    }
+
+    private static boolean isAscending(double[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public int getNumberQueryTerms() {
         return numberQueryTerms;
     }
@@ -51,6 +81,7 @@ public void setDistribution(List<Double> scoresAL, List<Double> pvaluesAL, doubl
             this.scores[i] = scoresAL.get(i);
             this.pvalues[i] = pvaluesAL.get(i);
         }
+        this.sortedScores = isAscending(this.scores);
 
         this.numberRandomizations = numRandomizations;
 
@@ -64,6 +95,12 @@ public double getPvalue(double score, double roundFactor) {
         if (scores[scores.length - 1] < rounded)
             return (double) 1 / numberRandomizations;
 
+        // a NaN score is never matched, so falls through to the default p-value of 1
+        if (sortedScores && !Double.isNaN(rounded)) {
+            int index = indexOfFirstScoreNotLessThan(rounded);
+            return index < scores.length ? pvalues[index] : 1;
+        }
+
         /* init with 1 */
         double pvalue = 1;
 
@@ -79,6 +116,36 @@ public double getPvalue(double score, double roundFactor) {
         return pvalue;
     }
 
+    /**
+     * Binary search for the lowest index of the ascending scores which is not less than the score. This finds the same
+     * index as scanning the scores from the start for the first which is not less than the score.
+     */
+    private int indexOfFirstScoreNotLessThan(double score) {
+        int low = 0;
+        int high = scores.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (scores[mid] < score) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    double[] getScores() {
+        return scores;
+    }
+
+    double[] getPvalues() {
+        return pvalues;
+    }
+
+    double getNumberRandomizations() {
+        return numberRandomizations;
+    }
+
     private static double round(double d, double fact) {
         return Math.rint(d * fact) / fact;
     }
@@ -24,152 +24,176 @@
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 /**
+ * Container for the PhenIX score distributions. The distributions for each number of query terms are read from the
+ * {@code out/*.out} file the first time they are requested. Once parsed, these are written to a memory-mapped
+ * {@link ScoreDistributionSnapshot} next to the source file, which is used in place of the source file from then on.
+ * <p>
+ * This class is thread-safe.
+ *
  * @author Sebastian Köhler <dr.sebastian.koehler@gmail.com>
  *
  */
 public class ScoreDistributionContainer {
 
-	private final Logger logger = LoggerFactory.getLogger(ScoreDistributionContainer.class);
+    private final Logger logger = LoggerFactory.getLogger(ScoreDistributionContainer.class);
+
+    private boolean verboseParsing = false;
+    private final String distributionsFolder;
+    private final boolean symmetric;
+    private final int numQueryTerms;
+    private static final int MAX_NUMBER_QUERY_TERMS = 20;
+    private final ConcurrentMap<String, Function<String, ScoreDistribution>> key2scoreDistribution = new ConcurrentHashMap<>();
 
-	private boolean verboseParsing = false;
-	private final String distributionsFolder;
-	private final boolean symmetric;
-	private final int numQueryTerms;
-	private static final int MAX_NUMBER_QUERY_TERMS = 20;
-	private final Map<String, Map<String, ScoreDistribution>> key2scoreDistribution;
+    public ScoreDistributionContainer(String distributionsFolder, boolean symmetric, int numQueryTerms) {
+        this.distributionsFolder = distributionsFolder;
+        this.symmetric = symmetric;
+        this.numQueryTerms = limitNumQueryTerms(numQueryTerms);
+        getDistributions(this.numQueryTerms);
+    }
 
-	public ScoreDistributionContainer(String distributionsFolder, boolean symmetric, int numQueryTerms) {
-		this.distributionsFolder = distributionsFolder;
-		this.symmetric = symmetric;
-		this.numQueryTerms = limitNumQueryTerms(numQueryTerms);
-		this.key2scoreDistribution = new HashMap<>();
-		parseDistributions(this.numQueryTerms);
-	}
+    /**
+     * Creates a container which loads the distributions for each number of query terms on the first call to
+     * {@link #getDistribution(String, int)} for that number.
+     *
+     * @param distributionsFolder the PhenIX data directory containing the {@code out} directory of score distributions
+     * @param symmetric           whether to use the symmetric score distributions
+     * @since 13.2.0
+     */
+    public ScoreDistributionContainer(String distributionsFolder, boolean symmetric) {
+        this.distributionsFolder = distributionsFolder;
+        this.symmetric = symmetric;
+        this.numQueryTerms = MAX_NUMBER_QUERY_TERMS;
+    }
 
-	public void useVerboseParsing() {
+    public void useVerboseParsing() {
         this.verboseParsing = true;
     }
 
-    private int limitNumQueryTerms(int numQueryTerms) {
+    private static int limitNumQueryTerms(int numQueryTerms) {
         //numQueryTerms is used as a look-up to a file with a filename prefixed with a number from 1-20
         //the constant MAX_NUMBER_QUERY_TERMS is used to make sure the file will be found
         return Math.min(numQueryTerms, MAX_NUMBER_QUERY_TERMS);
     }
 
     private static String getKey(boolean symmetric, int numberQueryTerms) {
-		return symmetric ? numberQueryTerms + "_symmetric" : Integer.toString(numberQueryTerms);
-	}
-
-	public ScoreDistribution getDistribution(String entrezGeneId) {
-		while (true) {
-			String key = getKey(symmetric, numQueryTerms);
-			Map<String, ScoreDistribution> mim2scoredist = key2scoreDistribution.get(key);
-			ScoreDistribution scoreDist = null;
-			if (mim2scoredist != null) {
-                scoreDist = mim2scoredist.get(entrezGeneId);
+        return symmetric ? numberQueryTerms + "_symmetric" : Integer.toString(numberQueryTerms);
+    }
+
+    public ScoreDistribution getDistribution(String entrezGeneId) {
+        return getDistribution(entrezGeneId, numQueryTerms);
+    }
+
+    /**
+     * Returns the score distribution of the gene for the number of query terms. Should there be no distribution for
+     * the gene with this number of terms, the distributions for successively fewer terms are tried.
+     *
+     * @param entrezGeneId  the entrez gene identifier
+     * @param numQueryTerms the number of HPO query terms
+     * @return the score distribution for the gene, or null if none could be found.
+     * @since 13.2.0
+     */
+    public ScoreDistribution getDistribution(String entrezGeneId, int numQueryTerms) {
+        for (int numTerms = limitNumQueryTerms(numQueryTerms); numTerms >= 1; numTerms--) {
+            ScoreDistribution scoreDist = getDistributions(numTerms).apply(entrezGeneId);
+            if (scoreDist != null) {
+                return scoreDist;
             }
-			if (mim2scoredist == null || scoreDist == null) {
-                logger.error("Could not find scoreDistribution for entrezid {} numQueryTerms: {} symmetric: {} using key: {}" , entrezGeneId, numQueryTerms, symmetric, key);
-				if (numQueryTerms > 1) {
-					int oneFewer = numQueryTerms - 1;
-                    logger.error("Trying to find distribution for {} terms", oneFewer);
-					if (!didParseDistributions(oneFewer)) {
-                        logger.error("Trying to parse {} term distribution", oneFewer);
-						parseDistributions(oneFewer);
-					}
-				}
-				else {
-					logger.error("NO WAY! Could not even find scoreDistribution for entrezid {} numQueryTerms: {} symmetric: {} using key: {} - returning null", entrezGeneId, numQueryTerms, symmetric, key);
-					return null;
-				}
-			}
-			else {
-				return scoreDist;
-			}
-		}
-	}
-
-	private boolean didParseDistributions(int numQueryTerms) {
-		return key2scoreDistribution.containsKey(getKey(symmetric, numQueryTerms));
-	}
-
-	/**
-	 * 
-	 * 
-	 * @param numQueryTerms
-	 */
-	private synchronized void parseDistributions(int numQueryTerms) {
-
-		String key = getKey(symmetric, numQueryTerms);
-		String file = distributionsFolder + "out/" + key + ".out";
-
-		if (verboseParsing)
-			logger.info("Reading distributions from file: {}", file);
-		try (BufferedReader in = new BufferedReader(new FileReader(file))){
+            logger.debug("Could not find scoreDistribution for entrezid {} numQueryTerms: {} symmetric: {} using key: {}", entrezGeneId, numTerms, symmetric, getKey(symmetric, numTerms));
+        }
+        logger.debug("Could not find any scoreDistribution for entrezid {} numQueryTerms: {} symmetric: {} - returning null", entrezGeneId, numQueryTerms, symmetric);
+        return null;
+    }
+
+    private Function<String, ScoreDistribution> getDistributions(int numQueryTerms) {
+        return key2scoreDistribution.computeIfAbsent(getKey(symmetric, numQueryTerms), this::loadDistributions);
+    }
+
+    private Function<String, ScoreDistribution> loadDistributions(String key) {
+        Path file = Paths.get(distributionsFolder, "out", key + ".out");
+        Path snapshotFile = ScoreDistributionSnapshot.snapshotFileFor(file);
+        Optional<ScoreDistributionSnapshot> snapshot = ScoreDistributionSnapshot.read(snapshotFile, file);
+        if (snapshot.isPresent()) {
+            logger.debug("Using {} distributions from snapshot {}", snapshot.get().size(), snapshotFile);
+            return snapshot.get()::getDistribution;
+        }
+        Map<String, ScoreDistribution> distributions = parseDistributions(file);
+        if (!distributions.isEmpty() && ScoreDistributionSnapshot.write(snapshotFile, file, distributions)) {
+            logger.debug("Wrote {} distributions to snapshot {}", distributions.size(), snapshotFile);
+        }
+        return distributions::get;
+    }
+
+    private Map<String, ScoreDistribution> parseDistributions(Path file) {
+        Map<String, ScoreDistribution> distributions = new HashMap<>();
+        if (verboseParsing)
+            logger.info("Reading distributions from file: {}", file);
+        try (BufferedReader in = Files.newBufferedReader(file)) {
             ScoreDistribution actualDistribution = null;
-			String actualDiseaseId = null;
-			double numberRandomizations = -1;
-			List<Double> scores = new ArrayList<>();
-			List<Double> pvalues = new ArrayList<>();
+            String actualDiseaseId = null;
+            double numberRandomizations = -1;
+            List<Double> scores = new ArrayList<>();
+            List<Double> pvalues = new ArrayList<>();
             String line;
-			while ((line = in.readLine()) != null) {
-
-				if (line.startsWith(">")) {
-
-					line = line.replaceAll(">", "");
-
-					if (actualDistribution != null) {
-						actualDistribution.setDistribution(scores, pvalues, numberRandomizations);
-						addDistribution(actualDiseaseId, actualDistribution);
-						scores = new ArrayList<>();
-						pvalues = new ArrayList<>();
-					}
-
-					actualDistribution = new ScoreDistribution();
-
-					String[] split = line.split("_");
-					actualDiseaseId = split[0];
-					numberRandomizations = Double.parseDouble(split[1]);
-				}
-				else {
-					int indexFirstMinus = line.indexOf('-');
-					Double score;
-					try {
-						score = Double.parseDouble(line.substring(0, indexFirstMinus));
-					} catch (NumberFormatException e) {
-						indexFirstMinus = line.indexOf('-', indexFirstMinus + 1);
-						score = Double.parseDouble(line.substring(0, indexFirstMinus));
-					}
-					Double pValue = Double.parseDouble(line.substring(indexFirstMinus + 1));
-					scores.add(score);
-					pvalues.add(pValue);
-				}
-			}// end while
-			if (verboseParsing) {
+            while ((line = in.readLine()) != null) {
+
+                if (line.startsWith(">")) {
+
+                    line = line.replaceAll(">", "");
+
+                    if (actualDistribution != null) {
+                        actualDistribution.setDistribution(scores, pvalues, numberRandomizations);
+                        distributions.put(actualDiseaseId, actualDistribution);
+                        scores = new ArrayList<>();
+                        pvalues = new ArrayList<>();
+                    }
+
+                    actualDistribution = new ScoreDistribution();
+
+                    String[] split = line.split("_");
+                    actualDiseaseId = split[0];
+                    numberRandomizations = Double.parseDouble(split[1]);
+                }
+                else {
+                    int indexFirstMinus = line.indexOf('-');
+                    Double score;
+                    try {
+                        score = Double.parseDouble(line.substring(0, indexFirstMinus));
+                    } catch (NumberFormatException e) {
+                        indexFirstMinus = line.indexOf('-', indexFirstMinus + 1);
+                        score = Double.parseDouble(line.substring(0, indexFirstMinus));
+                    }
+                    Double pValue = Double.parseDouble(line.substring(indexFirstMinus + 1));
+                    scores.add(score);
+                    pvalues.add(pValue);
+                }
+            }// end while
+            if (verboseParsing) {
                 logger.info("done while loop.... add last");
             }
             if (actualDistribution != null) {
                 actualDistribution.setDistribution(scores, pvalues, numberRandomizations);
-                addDistribution(actualDiseaseId, actualDistribution);
+                distributions.put(actualDiseaseId, actualDistribution);
             }
-		} catch (IOException e) {
-			logger.error("Unable access file {} to create PhenIX score distributions", file,  e);
-		}
-		if (verboseParsing)
-			logger.info("done parsing");
-	}
-
-    private synchronized void addDistribution(String diseaseId, ScoreDistribution actualDistribution) {
-        String key = getKey(symmetric, numQueryTerms);
-        key2scoreDistribution.computeIfAbsent(key, mim2scoreDist -> new HashMap<>()).put(diseaseId, actualDistribution);
+        } catch (IOException e) {
+            logger.error("Unable access file {} to create PhenIX score distributions", file,  e);
+        }
+        if (verboseParsing)
+            logger.info("done parsing");
+        return distributions;
     }
 
 }
@@ -0,0 +1,250 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Memory-mapped binary snapshot of the PhenIX {@link ScoreDistribution} parsed from one of the {@code out/*.out} score
+ * distribution files. Only the index of gene identifiers is read when the snapshot is opened, each distribution is
+ * decoded from the mapped file when it is requested.
+ * <p>
+ * The file is little-endian and starts with a header of the format magic number, format version and the size and
+ * last-modified time of the source file. A snapshot is ignored should the source file have changed since this was
+ * written. The header is followed by an index of each gene identifier and the offset of its distribution, stored as
+ * the number of randomisations, number of scores and then the scores followed by the p-values.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public final class ScoreDistributionSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreDistributionSnapshot.class);
+
+    public static final String FILE_EXTENSION = ".dist";
+
+    private static final int MAGIC = 0x45585344;
+    private static final int VERSION = 1;
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES * 2;
+
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> offsetsById;
+
+    private ScoreDistributionSnapshot(ByteBuffer buffer, Map<String, Integer> offsetsById) {
+        this.buffer = buffer;
+        this.offsetsById = offsetsById;
+    }
+
+    /**
+     * @param id the entrez gene identifier
+     * @return the score distribution for the gene, or null if there is none.
+     */
+    @Nullable
+    public ScoreDistribution getDistribution(String id) {
+        Integer offset = offsetsById.get(id);
+        if (offset == null) {
+            return null;
+        }
+        // absolute reads do not change the state of the buffer, so this is safe to call from multiple threads
+        double numberRandomizations = buffer.getDouble(offset);
+        int numScores = buffer.getInt(offset + Double.BYTES);
+        int scoresOffset = offset + Double.BYTES + Integer.BYTES;
+        int pvaluesOffset = scoresOffset + numScores * Double.BYTES;
+        double[] scores = new double[numScores];
+        double[] pvalues = new double[numScores];
+        for (int i = 0; i < numScores; i++) {
+            scores[i] = buffer.getDouble(scoresOffset + i * Double.BYTES);
+            pvalues[i] = buffer.getDouble(pvaluesOffset + i * Double.BYTES);
+        }
+        return new ScoreDistribution(scores, pvalues, numberRandomizations);
+    }
+
+    public int size() {
+        return offsetsById.size();
+    }
+
+    /**
+     * Returns the snapshot file for the score distribution file.
+     *
+     * @param sourceFile the {@code .out} score distribution file
+     * @return the path of the snapshot of the source file
+     */
+    public static Path snapshotFileFor(Path sourceFile) {
+        String fileName = sourceFile.getFileName().toString();
+        String baseName = fileName.endsWith(".out") ? fileName.substring(0, fileName.length() - ".out".length()) : fileName;
+        return sourceFile.resolveSibling(baseName + FILE_EXTENSION);
+    }
+
+    /**
+     * Writes the distributions parsed from the source file to a snapshot. The snapshot is written to a uniquely named
+     * temporary file in the same directory which is then moved into place, so that neither concurrent readers nor
+     * other processes writing the same snapshot ever see a partial file. The data directory may well be read-only, so
+     * failing to write the snapshot is not an error - the distributions will simply be parsed again next time.
+     *
+     * @param snapshotFile  the snapshot file to write
+     * @param sourceFile    the {@code .out} score distribution file from which the distributions were parsed
+     * @param distributions the score distributions by entrez gene identifier
+     * @return true if the snapshot was written, otherwise false.
+     */
+    public static boolean write(Path snapshotFile, Path sourceFile, Map<String, ScoreDistribution> distributions) {
+        List<byte[]> encodedIds = new ArrayList<>(distributions.size());
+        List<ScoreDistribution> orderedDistributions = new ArrayList<>(distributions.size());
+        long indexBytes = 0;
+        for (Map.Entry<String, ScoreDistribution> entry : distributions.entrySet()) {
+            byte[] encodedId = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            encodedIds.add(encodedId);
+            orderedDistributions.add(entry.getValue());
+            indexBytes += Integer.BYTES + encodedId.length + Integer.BYTES;
+        }
+        long offset = HEADER_BYTES + indexBytes;
+        int[] offsets = new int[orderedDistributions.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            if (offset > Integer.MAX_VALUE) {
+                logger.debug("Not writing score distribution snapshot {} - too many distributions", snapshotFile);
+                return false;
+            }
+            offsets[i] = (int) offset;
+            offset += Double.BYTES + Integer.BYTES + 2L * orderedDistributions.get(i).getScores().length * Double.BYTES;
+        }
+
+        Path directory = snapshotFile.toAbsolutePath().getParent();
+        if (!Files.isWritable(directory)) {
+            logger.debug("Not writing score distribution snapshot {} - {} is not writable", snapshotFile, directory);
+            return false;
+        }
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(BYTE_ORDER);
+            header.putInt(MAGIC).putInt(VERSION).putLong(Files.size(sourceFile)).putLong(Files.getLastModifiedTime(sourceFile).toMillis()).putInt(offsets.length);
+            try (FileChannel fileChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(fileChannel, header.flip());
+                for (int i = 0; i < offsets.length; i++) {
+                    byte[] encodedId = encodedIds.get(i);
+                    ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + encodedId.length + Integer.BYTES).order(BYTE_ORDER);
+                    writeFully(fileChannel, entry.putInt(encodedId.length).put(encodedId).putInt(offsets[i]).flip());
+                }
+                for (ScoreDistribution distribution : orderedDistributions) {
+                    double[] scores = distribution.getScores();
+                    double[] pvalues = distribution.getPvalues();
+                    ByteBuffer record = ByteBuffer.allocate(Double.BYTES + Integer.BYTES + 2 * scores.length * Double.BYTES).order(BYTE_ORDER);
+                    record.putDouble(distribution.getNumberRandomizations()).putInt(scores.length);
+                    for (double score : scores) {
+                        record.putDouble(score);
+                    }
+                    for (double pvalue : pvalues) {
+                        record.putDouble(pvalue);
+                    }
+                    writeFully(fileChannel, record.flip());
+                }
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            logger.debug("Unable to write score distribution snapshot {} - {}", snapshotFile, e.toString());
+            deleteQuietly(tempFile);
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(@Nullable Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Unable to delete {}", file, e);
+        }
+    }
+
+    private static void writeFully(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+    }
+
+    private static void checkRecordBounds(ByteBuffer buffer, int offset) {
+        if (offset < 0 || offset + Double.BYTES + Integer.BYTES > buffer.limit()) {
+            throw new IllegalStateException("Invalid distribution offset " + offset);
+        }
+        int numScores = buffer.getInt(offset + Double.BYTES);
+        if (numScores < 0 || offset + Double.BYTES + Integer.BYTES + 2L * numScores * Double.BYTES > buffer.limit()) {
+            throw new IllegalStateException("Invalid distribution size " + numScores + " at offset " + offset);
+        }
+    }
+
+    /**
+     * Opens a snapshot of the source file, provided the source file has not changed since the snapshot was written.
+     *
+     * @param snapshotFile the snapshot file to read
+     * @param sourceFile   the {@code .out} score distribution file from which the snapshot was written
+     * @return the snapshot, or an empty {@code Optional} if the snapshot is missing, unreadable or stale.
+     */
+    public static Optional<ScoreDistributionSnapshot> read(Path snapshotFile, Path sourceFile) {
+        if (!Files.isRegularFile(snapshotFile)) {
+            logger.debug("No score distribution snapshot found at {}", snapshotFile);
+            return Optional.empty();
+        }
+        try (FileChannel fileChannel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size()).order(BYTE_ORDER);
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            if (magic != MAGIC || version != VERSION) {
+                logger.info("Ignoring score distribution snapshot {} with unsupported format {} version {}", snapshotFile, Integer.toHexString(magic), version);
+                return Optional.empty();
+            }
+            long sourceSize = buffer.getLong();
+            long sourceLastModified = buffer.getLong();
+            if (Files.isRegularFile(sourceFile) && (sourceSize != Files.size(sourceFile) || sourceLastModified != Files.getLastModifiedTime(sourceFile).toMillis())) {
+                logger.info("Ignoring stale score distribution snapshot {} - {} has changed", snapshotFile, sourceFile);
+                return Optional.empty();
+            }
+            int numDistributions = buffer.getInt();
+            Map<String, Integer> offsetsById = new HashMap<>();
+            for (int i = 0; i < numDistributions; i++) {
+                byte[] encodedId = new byte[buffer.getInt()];
+                buffer.get(encodedId);
+                int offset = buffer.getInt();
+                checkRecordBounds(buffer, offset);
+                offsetsById.put(new String(encodedId, StandardCharsets.UTF_8), offset);
+            }
+            return Optional.of(new ScoreDistributionSnapshot(buffer, offsetsById));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to read score distribution snapshot {}", snapshotFile, e);
+            return Optional.empty();
+        }
+    }
+}
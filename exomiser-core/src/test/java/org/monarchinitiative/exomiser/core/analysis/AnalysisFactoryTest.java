@@ -72,4 +72,9 @@ public void testCanMakeAnalysisBuilder() {
     public void testCanMakeAnalysisParser() {
         assertThat(instance.getAnalysisParser(), instanceOf(AnalysisParser.class));
     }
+
+    @Test
+    public void testThrowsExceptionWithNonPositivePvalueBootstrapPopulation() {
+        assertThrows(IllegalArgumentException.class, () -> new AnalysisFactory(genomeAnalysisServiceProvider, priorityFactory, ontologyService, 1, 0));
+    }
 }
@@ -25,20 +25,36 @@
  */
 package org.monarchinitiative.exomiser.core.analysis;
 
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.monarchinitiative.exomiser.core.analysis.sample.Sample;
+import org.monarchinitiative.exomiser.core.filters.IntervalFilter;
+import org.monarchinitiative.exomiser.core.filters.QualityFilter;
+import org.monarchinitiative.exomiser.core.filters.VariantFilter;
 import org.monarchinitiative.exomiser.core.genome.GenomeAnalysisService;
 import org.monarchinitiative.exomiser.core.genome.TestFactory;
 import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.GeneticInterval;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.prioritisers.MockPrioritiser;
+import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
+import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 import static java.util.stream.Collectors.toMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Contains common methods required by the AnalysisRunnerTest classes.
@@ -67,6 +83,11 @@ public abstract class AnalysisRunnerTestBase {
             .hpoIds(hpoIds)
             .build();
 
+    /**
+     * @return a new instance of the {@link AnalysisRunner} under test using the given number of variant processing threads
+     */
+    abstract AbstractAnalysisRunner newAnalysisRunner(int variantProcessingThreads);
+
     Analysis makeAnalysis(AnalysisStep... analysisSteps) {
         return Analysis.builder()
                 .steps(List.of(analysisSteps))
@@ -86,4 +107,68 @@ void printResults(AnalysisResults analysisResults) {
         }
     }
 
+    @Test
+    void runAnalysisWithMultipleVariantProcessingThreadsProducesIdenticalResults() {
+        VariantFilter intervalFilter = new IntervalFilter(new GeneticInterval(1, 145508800, 145508800));
+        VariantFilter qualityFilter = new QualityFilter(120);
+        Map<String, Double> hiPhiveGeneScores = Map.of("GNRHR2", 0.75, "RBM8A", 0.65);
+        Prioritiser<?> mockHiPhivePrioritiser = new MockPrioritiser(PriorityType.HIPHIVE_PRIORITY, hiPhiveGeneScores);
+
+        Analysis analysis = makeAnalysis(intervalFilter, qualityFilter, mockHiPhivePrioritiser);
+
+        AnalysisResults sequentialResults = newAnalysisRunner(1).run(vcfandPhenotypesSample, analysis);
+        AnalysisResults parallelResults = newAnalysisRunner(4).run(vcfandPhenotypesSample, analysis);
+
+        assertThat(parallelResults.getVariantEvaluations(), equalTo(sequentialResults.getVariantEvaluations()));
+        assertThat(parallelResults.getGenes(), equalTo(sequentialResults.getGenes()));
+        for (int i = 0; i < sequentialResults.getVariantEvaluations().size(); i++) {
+            VariantEvaluation expected = sequentialResults.getVariantEvaluations().get(i);
+            VariantEvaluation actual = parallelResults.getVariantEvaluations().get(i);
+            assertThat(actual.getPassedFilterTypes(), equalTo(expected.getPassedFilterTypes()));
+            assertThat(actual.getFailedFilterTypes(), equalTo(expected.getFailedFilterTypes()));
+        }
+    }
+
+    /**
+     * Writes a VCF of consecutive SNVs across RBM8A and GNRHR2, every seventh of which has a low quality, spanning
+     * several of the batches processed by the parallel pipeline.
+     */
+    private static Path writeMultiBatchVcf(Path vcfPath, int numRecords) throws IOException {
+        String[] bases = {"A", "C", "G", "T"};
+        StringBuilder vcf = new StringBuilder("##fileformat=VCFv4.1\n")
+                .append("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tmanuel\n");
+        for (int i = 0; i < numRecords; i++) {
+            String ref = bases[i % 4];
+            String alt = bases[(i + 1) % 4];
+            int quality = i % 7 == 0 ? 50 : 200;
+            vcf.append("1\t").append(145507600 + i * 5).append("\t.\t").append(ref).append('\t').append(alt)
+                    .append('\t').append(quality).append("\tPASS\t.\tGT:DP\t0/1:30\n");
+        }
+        return Files.write(vcfPath, vcf.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void runAnalysisWithMultipleVariantProcessingThreadsPreservesOrderAcrossBatches(@TempDir Path tempDir) throws IOException {
+        Sample multiBatchSample = Sample.builder()
+                .vcfPath(writeMultiBatchVcf(tempDir.resolve("multiBatch.vcf"), 1600))
+                .hpoIds(hpoIds)
+                .build();
+        Map<String, Double> hiPhiveGeneScores = Map.of("GNRHR2", 0.75, "RBM8A", 0.65);
+        Analysis analysis = makeAnalysis(new QualityFilter(120), new MockPrioritiser(PriorityType.HIPHIVE_PRIORITY, hiPhiveGeneScores));
+
+        AnalysisResults sequentialResults = newAnalysisRunner(1).run(multiBatchSample, analysis);
+        AnalysisResults parallelResults = newAnalysisRunner(4).run(multiBatchSample, analysis);
+
+        List<VariantEvaluation> expected = sequentialResults.getVariantEvaluations();
+        // more variants than fit in two of the pipeline's batches of 500 records
+        assertThat(expected.size(), greaterThan(1000));
+        assertThat(parallelResults.getVariantEvaluations(), equalTo(expected));
+        assertThat(parallelResults.getGenes(), equalTo(sequentialResults.getGenes()));
+    }
+
+    @Test
+    void throwsExceptionWithZeroVariantProcessingThreads() {
+        assertThrows(IllegalArgumentException.class, () -> newAnalysisRunner(0));
+    }
+
 }
@@ -0,0 +1,98 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.analysis.util.CombinedScorePvalueCalculator;
+import org.monarchinitiative.exomiser.core.genome.GenomeAssembly;
+import org.monarchinitiative.exomiser.core.prioritisers.MockPrioritiser;
+import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
+import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class CombinedScorePvalueCalculatorCacheTest {
+
+    private final Prioritiser<?> prioritiser = new MockPrioritiser(PriorityType.HIPHIVE_PRIORITY, Map.of("GENE1", 0.9));
+    private final AtomicInteger numCreated = new AtomicInteger();
+    private final Supplier<CombinedScorePvalueCalculator> countingSupplier = () -> {
+        numCreated.incrementAndGet();
+        return CombinedScorePvalueCalculator.withRandomScores(0, 10, 10);
+    };
+
+    @Test
+    void throwsExceptionWithNonPositivePopulation() {
+        assertThrows(IllegalArgumentException.class, () -> new CombinedScorePvalueCalculatorCache(0));
+    }
+
+    @Test
+    void getBootstrapPopulation() {
+        assertThat(new CombinedScorePvalueCalculatorCache(1000).getBootstrapPopulation(), equalTo(1000));
+    }
+
+    @Test
+    void returnsCachedCalculatorForSameHpoIdsInAnyOrder() {
+        var instance = new CombinedScorePvalueCalculatorCache(1000);
+        var first = instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000001", "HP:0000002"), countingSupplier);
+        var second = instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000002", "HP:0000001", "HP:0000002"), countingSupplier);
+        assertThat(second, sameInstance(first));
+        assertThat(numCreated.get(), equalTo(1));
+        assertThat(instance.size(), equalTo(1));
+    }
+
+    @Test
+    void createsNewCalculatorForDifferentKeys() {
+        var instance = new CombinedScorePvalueCalculatorCache(1000);
+        var hg19 = instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000001"), countingSupplier);
+        var hg38 = instance.getOrCreate(GenomeAssembly.HG38, prioritiser, List.of("HP:0000001"), countingSupplier);
+        var otherHpo = instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000002"), countingSupplier);
+        Prioritiser<?> otherPrioritiser = new MockPrioritiser(PriorityType.PHIVE_PRIORITY, Map.of("GENE1", 0.5));
+        var otherPrioritised = instance.getOrCreate(GenomeAssembly.HG19, otherPrioritiser, List.of("HP:0000001"), countingSupplier);
+        assertThat(numCreated.get(), equalTo(4));
+        assertThat(List.of(hg38, otherHpo, otherPrioritised), everyItem(not(sameInstance(hg19))));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        var instance = new CombinedScorePvalueCalculatorCache(1000, 2);
+        var first = instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000001"), countingSupplier);
+        instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000002"), countingSupplier);
+        // touch the first so that the second is the eldest
+        instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000001"), countingSupplier);
+        instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000003"), countingSupplier);
+        assertThat(instance.size(), equalTo(2));
+        assertThat(numCreated.get(), equalTo(3));
+
+        assertThat(instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000001"), countingSupplier), sameInstance(first));
+        instance.getOrCreate(GenomeAssembly.HG19, prioritiser, List.of("HP:0000002"), countingSupplier);
+        assertThat(numCreated.get(), equalTo(4));
+    }
+}
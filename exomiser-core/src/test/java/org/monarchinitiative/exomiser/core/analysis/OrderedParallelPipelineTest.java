@@ -0,0 +1,120 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2022 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderedParallelPipelineTest {
+
+    @Test
+    void throwsExceptionWithZeroWorkers() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderedParallelPipeline(0));
+    }
+
+    @Test
+    void throwsExceptionWithZeroBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderedParallelPipeline(2, 0));
+    }
+
+    @Test
+    void emptySource() {
+        OrderedParallelPipeline instance = new OrderedParallelPipeline(4);
+        List<Integer> result = instance.process(Stream.<Integer>empty(), List::of);
+        assertThat(result, equalTo(List.of()));
+    }
+
+    @Test
+    void preservesSourceOrder() {
+        List<Integer> input = IntStream.range(0, 100_000).boxed().collect(Collectors.toList());
+        // each input produces 0-2 outputs with uneven amounts of work to shuffle the completion order of the batches
+        List<String> expected = input.stream()
+                .flatMap(i -> expand(i).stream())
+                .collect(Collectors.toList());
+
+        OrderedParallelPipeline instance = new OrderedParallelPipeline(8, 7);
+        List<String> actual = instance.process(input.stream(), OrderedParallelPipelineTest::expand);
+        assertThat(actual, equalTo(expected));
+    }
+
+    @Test
+    void processBatchesPreservesSourceOrder() {
+        List<Integer> input = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        OrderedParallelPipeline instance = new OrderedParallelPipeline(4, 7);
+        List<Integer> actual = instance.processBatches(input.stream(), batch -> {
+            batchSizes.add(batch.size());
+            return batch;
+        });
+        assertThat(actual, equalTo(input));
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum(), equalTo(input.size()));
+        assertThat(batchSizes.stream().allMatch(size -> size <= 7), is(true));
+    }
+
+    private static List<String> expand(int i) {
+        if (i % 3 == 0) {
+            return List.of();
+        }
+        if (i % 1000 == 1) {
+            // simulate an expensive lookup
+            Thread.onSpinWait();
+            return List.of(i + "a", i + "b");
+        }
+        return List.of(String.valueOf(i));
+    }
+
+    @Test
+    void rethrowsWorkerException() {
+        OrderedParallelPipeline instance = new OrderedParallelPipeline(4, 10);
+        Stream<Integer> source = IntStream.range(0, 100_000).boxed();
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> instance.process(source, i -> {
+            if (i == 5000) {
+                throw new IllegalStateException("Boom! " + i);
+            }
+            return List.of(i);
+        }));
+        assertThat(exception.getMessage(), equalTo("Boom! 5000"));
+    }
+
+    @Test
+    void rethrowsSourceException() {
+        OrderedParallelPipeline instance = new OrderedParallelPipeline(4, 10);
+        Stream<Integer> source = IntStream.range(0, 1000).boxed().peek(i -> {
+            if (i == 500) {
+                throw new IllegalStateException("Unable to read " + i);
+            }
+        });
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> instance.process(source, List::of));
+        assertThat(exception.getMessage(), equalTo("Unable to read 500"));
+    }
+}
@@ -30,20 +30,23 @@
 import org.monarchinitiative.exomiser.core.analysis.util.TestPedigrees;
 import org.monarchinitiative.exomiser.core.filters.*;
 import org.monarchinitiative.exomiser.core.genome.TestFactory;
+import org.monarchinitiative.exomiser.core.genome.TestVariantDataService;
 import org.monarchinitiative.exomiser.core.genome.TestVcfReader;
+import org.monarchinitiative.exomiser.core.genome.VariantDataService;
 import org.monarchinitiative.exomiser.core.genome.VariantFactory;
 import org.monarchinitiative.exomiser.core.genome.VcfReader;
 import org.monarchinitiative.exomiser.core.model.*;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
 import org.monarchinitiative.exomiser.core.prioritisers.MockPrioritiser;
 import org.monarchinitiative.exomiser.core.prioritisers.NoneTypePrioritiser;
 import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
 
 import java.nio.file.Paths;
-import java.util.EnumSet;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.*;
@@ -57,6 +60,52 @@ public class PassOnlyAnalysisRunnerTest extends AnalysisRunnerTestBase {
 
     private final PassOnlyAnalysisRunner instance = new PassOnlyAnalysisRunner(genomeAnalysisService);
 
+    @Override
+    AbstractAnalysisRunner newAnalysisRunner(int variantProcessingThreads) {
+        return new PassOnlyAnalysisRunner(genomeAnalysisService, variantProcessingThreads);
+    }
+
+    @Test
+    void runAnalysisLooksUpFrequencyAndPathogenicityDataOncePerVariant() {
+        List<Variant> lookups = Collections.synchronizedList(new ArrayList<>());
+        VariantDataService stub = TestVariantDataService.stub();
+        VariantDataService countingVariantDataService = new VariantDataService() {
+            @Override
+            public boolean variantIsWhiteListed(Variant variant) {
+                return stub.variantIsWhiteListed(variant);
+            }
+
+            @Override
+            public FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySource> frequencySources) {
+                throw new AssertionError("Unexpected frequency lookup");
+            }
+
+            @Override
+            public PathogenicityData getVariantPathogenicityData(Variant variant, Set<PathogenicitySource> pathogenicitySources) {
+                throw new AssertionError("Unexpected pathogenicity lookup");
+            }
+
+            @Override
+            public VariantData getVariantData(Variant variant, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+                lookups.add(variant);
+                return VariantData.of(FrequencyData.empty(), PathogenicityData.empty());
+            }
+        };
+        PassOnlyAnalysisRunner runner = new PassOnlyAnalysisRunner(TestFactory.buildDefaultHg19GenomeAnalysisService(countingVariantDataService));
+        Analysis analysis = Analysis.builder()
+                .frequencySources(FrequencySource.ALL_EXAC_SOURCES)
+                .pathogenicitySources(EnumSet.of(PathogenicitySource.POLYPHEN))
+                .addStep(new FrequencyFilter(0.1f))
+                .addStep(new KnownVariantFilter())
+                .addStep(new PathogenicityFilter(false))
+                .build();
+
+        runner.run(vcfOnlySample, analysis);
+
+        assertThat(lookups.isEmpty(), is(false));
+        assertThat(Set.copyOf(lookups).size(), equalTo(lookups.size()));
+    }
+
     @Test
     public void testRunAnalysisNoFiltersNoPrioritisersThrowsException() {
         Sample sample = vcfOnlySample;
@@ -33,7 +33,9 @@
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
 
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -46,6 +48,11 @@ public class SimpleAnalysisRunnerTest extends AnalysisRunnerTestBase {
 
     private final SimpleAnalysisRunner instance = new SimpleAnalysisRunner(genomeAnalysisService);
 
+    @Override
+    AbstractAnalysisRunner newAnalysisRunner(int variantProcessingThreads) {
+        return new SimpleAnalysisRunner(genomeAnalysisService, variantProcessingThreads);
+    }
+
     @Test
     public void runEmptyAnalysisThrowsException() {
         Sample sample = Sample.builder().build();
@@ -349,4 +356,27 @@ public void runAnalysisVariantFilterPrioritiserPriorityScoreFilterVariantFilter(
         assertThat(rbm8Variant2.passedFilter(FilterType.INHERITANCE_FILTER), is(true));
     }
 
+    @Test
+    void runAnalysisOnlyRunsMainPrioritiserOnce() {
+        VariantFilter intervalFilter = new IntervalFilter(new GeneticInterval(1, 145508800, 145508800));
+        VariantFilter qualityFilter = new QualityFilter(120);
+        Map<String, Double> hiPhiveGeneScores = Map.of("GNRHR2", 0.75, "RBM8A", 0.65);
+        AtomicInteger prioritiserRuns = new AtomicInteger();
+        Prioritiser<?> countingPrioritiser = new MockPrioritiser(PriorityType.HIPHIVE_PRIORITY, hiPhiveGeneScores) {
+            @Override
+            public void prioritizeGenes(List<String> hpoIds, List<Gene> genes) {
+                prioritiserRuns.incrementAndGet();
+                super.prioritizeGenes(hpoIds, genes);
+            }
+        };
+
+        Sample sample = vcfandPhenotypesSample;
+        Analysis analysis = makeAnalysis(intervalFilter, qualityFilter, countingPrioritiser);
+
+        AnalysisResults analysisResults = instance.run(sample, analysis);
+
+        assertThat(prioritiserRuns.get(), equalTo(1));
+        Map<String, Gene> results = makeResults(analysisResults.getGenes());
+        assertThat(results.get("RBM8A").getPriorityScore(), equalTo(0.65));
+    }
 }
@@ -12,10 +12,12 @@
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
 
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class CombinedScorePvalueCalculatorTest {
 
@@ -51,10 +53,116 @@ public void testStaticConstructor() {
         assertThat(instance.calculatePvalueFromCombinedScore(0.89), greaterThan(0.0));
     }
 
+    @Test
+    public void testFromPrioritisedGenes() {
+        Prioritiser<?> prioritiser = new HiPhivePriority(HiPhiveOptions.defaults(), DataMatrix.empty(), TestPriorityServiceFactory.testPriorityService());
+        List<String> phenotypicFeatures = TestPriorityServiceFactory.pfeifferSyndromePhenotypes().stream().map(PhenotypeTerm::getId).collect(Collectors.toList());
+        List<Gene> genes = TestFactory.buildGenes();
+        prioritiser.prioritizeGenes(phenotypicFeatures, genes);
+        var instance = CombinedScorePvalueCalculator.fromPrioritisedGenes(prioritiser.getPriorityType(), genes);
+        assertThat(instance.calculatePvalueFromCombinedScore(0.89), greaterThan(0.0));
+        assertThat(instance.calculatePvalueFromCombinedScore(0.0), equalTo(1.0));
+    }
+
+    @Test
+    public void testFromPrioritisedGenesWithoutPriorityResults() {
+        List<Gene> genes = TestFactory.buildGenes();
+        // none of the genes have been prioritised so all the phenotype scores are zero, leaving only the variant scores
+        var instance = CombinedScorePvalueCalculator.fromPrioritisedGenes(PriorityType.HIPHIVE_PRIORITY, genes);
+        assertThat(instance.calculatePvalueFromCombinedScore(1.0), closeTo(0.0, 0.001));
+        assertThat(instance.calculatePvalueFromCombinedScore(0.0), equalTo(1.0));
+    }
+
     @Test
     void testZeroValueCombinedScoreHasPvalueOfOne() {
         var instance = CombinedScorePvalueCalculator.withRandomScores(10_000, 25_000, 200);
         assertThat(instance.calculatePvalueFromCombinedScore(0), closeTo(instance.calculatePvalueFromCombinedScore(0.0), 0.001));
         assertThat(instance.calculatePvalueFromCombinedScore(1d), closeTo(instance.calculatePvalueFromCombinedScore(1.0), 0.001));
     }
-}
\ No newline at end of file
+
+    private static double[] randomPhenoScores(long seed, int numScores) {
+        return new SplittableRandom(seed).doubles(numScores).toArray();
+    }
+
+    /**
+     * Reference implementation of the original linear scan over the unsorted population.
+     */
+    private static double linearScanPvalue(double[] population, double combinedScore) {
+        if (combinedScore == 0 || population.length == 0) {
+            return 1d;
+        }
+        int numHigherScores = 1;
+        for (double randomCombined : population) {
+            if (randomCombined >= combinedScore) {
+                ++numHigherScores;
+            }
+        }
+        return (double) numHigherScores / population.length;
+    }
+
+    @Test
+    void testBootstrapPopulationIsSortedAndOfSpecifiedSize() {
+        var instance = CombinedScorePvalueCalculator.fromPhenoScores(PriorityType.HIPHIVE_PRIORITY, randomPhenoScores(42, 1_000), 20_000, 42);
+        double[] population = instance.bootstrappedScores();
+        assertThat(population.length, equalTo(20_000));
+        for (int i = 1; i < population.length; i++) {
+            assertThat(population[i - 1] <= population[i], is(true));
+        }
+    }
+
+    @Test
+    void testEmptyPhenoScoresHasPvalueOfOne() {
+        var instance = CombinedScorePvalueCalculator.fromPhenoScores(PriorityType.HIPHIVE_PRIORITY, new double[0], 1_000, 42);
+        assertThat(instance.bootstrappedScores().length, equalTo(0));
+        assertThat(instance.calculatePvalueFromCombinedScore(0.5), equalTo(1.0));
+    }
+
+    @Test
+    void testBootstrapPopulationMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> CombinedScorePvalueCalculator.fromPrioritisedGenes(PriorityType.HIPHIVE_PRIORITY, TestFactory.buildGenes(), 0));
+    }
+
+    @Test
+    void testSameSeedProducesIdenticalPvalues() {
+        double[] phenoScores = randomPhenoScores(1234, 5_000);
+        var first = CombinedScorePvalueCalculator.fromPhenoScores(PriorityType.HIPHIVE_PRIORITY, phenoScores, 50_000, 5678);
+        var second = CombinedScorePvalueCalculator.fromPhenoScores(PriorityType.HIPHIVE_PRIORITY, phenoScores, 50_000, 5678);
+        for (double score = 0; score <= 1.0; score += 0.001) {
+            assertThat(first.calculatePvalueFromCombinedScore(score), equalTo(second.calculatePvalueFromCombinedScore(score)));
+        }
+    }
+
+    @Test
+    void testBinarySearchPvalueIsIdenticalToLinearScan() {
+        var instance = CombinedScorePvalueCalculator.fromPhenoScores(PriorityType.HIPHIVE_PRIORITY, randomPhenoScores(1234, 5_000), 50_000, 5678);
+        double[] population = instance.bootstrappedScores();
+        // the linear scan is order-independent, so re-shuffle the population to mimic the original unsorted array
+        double[] unsorted = population.clone();
+        SplittableRandom random = new SplittableRandom(99);
+        for (int i = unsorted.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double tmp = unsorted[i];
+            unsorted[i] = unsorted[j];
+            unsorted[j] = tmp;
+        }
+        for (double score = -0.5; score <= 1.5; score += 0.0005) {
+            assertThat(instance.calculatePvalueFromCombinedScore(score), equalTo(linearScanPvalue(unsorted, score)));
+        }
+        // scores taken directly from the population test the handling of exact matches and duplicates
+        for (int i = 0; i < population.length; i += 997) {
+            double score = population[i];
+            assertThat(instance.calculatePvalueFromCombinedScore(score), equalTo(linearScanPvalue(unsorted, score)));
+        }
+        assertThat(instance.calculatePvalueFromCombinedScore(population[0]), equalTo(linearScanPvalue(unsorted, population[0])));
+        assertThat(instance.calculatePvalueFromCombinedScore(population[population.length - 1]), equalTo(linearScanPvalue(unsorted, population[population.length - 1])));
+    }
+
+    @Test
+    void testDuplicatePopulationScores() {
+        // a single phenotype score of 0 gives many combined scores which are identical
+        var instance = CombinedScorePvalueCalculator.fromPhenoScores(PriorityType.HIPHIVE_PRIORITY, new double[]{0.0, 0.0}, 10_000, 1);
+        double[] population = instance.bootstrappedScores();
+        double median = population[population.length / 2];
+        assertThat(instance.calculatePvalueFromCombinedScore(median), equalTo(linearScanPvalue(population, median)));
+    }
+}
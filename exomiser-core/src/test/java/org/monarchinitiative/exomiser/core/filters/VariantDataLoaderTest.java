@@ -0,0 +1,163 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.filters;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.genome.TestFactory;
+import org.monarchinitiative.exomiser.core.genome.TestVariantDataService;
+import org.monarchinitiative.exomiser.core.genome.VariantDataService;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.VariantData;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.*;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class VariantDataLoaderTest {
+
+    private static final FrequencyData FREQUENCY_DATA = FrequencyData.of("rs12345", Frequency.of(FrequencySource.TOPMED, 0.02f));
+    private static final PathogenicityData PATHOGENICITY_DATA = PathogenicityData.of(PolyPhenScore.of(1f), SiftScore.of(0f));
+
+    private static final Set<FrequencySource> FREQUENCY_SOURCES = EnumSet.of(FrequencySource.TOPMED);
+    private static final Set<PathogenicitySource> PATHOGENICITY_SOURCES = EnumSet.of(PathogenicitySource.POLYPHEN, PathogenicitySource.SIFT);
+
+    /**
+     * Counts the number of combined lookups made to the decorated service.
+     */
+    private static class CountingVariantDataService implements VariantDataService {
+
+        private final VariantDataService variantDataService;
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        CountingVariantDataService(VariantDataService variantDataService) {
+            this.variantDataService = variantDataService;
+        }
+
+        @Override
+        public boolean variantIsWhiteListed(Variant variant) {
+            return variantDataService.variantIsWhiteListed(variant);
+        }
+
+        @Override
+        public FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySource> frequencySources) {
+            throw new AssertionError("Unexpected frequency lookup");
+        }
+
+        @Override
+        public PathogenicityData getVariantPathogenicityData(Variant variant, Set<PathogenicitySource> pathogenicitySources) {
+            throw new AssertionError("Unexpected pathogenicity lookup");
+        }
+
+        @Override
+        public VariantData getVariantData(Variant variant, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+            lookups.incrementAndGet();
+            FrequencyData frequencyData = variantDataService.getVariantFrequencyData(variant, frequencySources);
+            PathogenicityData pathogenicityData = variantDataService.getVariantPathogenicityData(variant, pathogenicitySources);
+            return VariantData.of(frequencyData, pathogenicityData);
+        }
+
+        int getLookups() {
+            return lookups.get();
+        }
+    }
+
+    private VariantEvaluation variant() {
+        return TestFactory.variantBuilder(1, 12345, "A", "T").build();
+    }
+
+    @Test
+    void loadsFrequencyAndPathogenicityDataInSingleLookup() {
+        VariantEvaluation variant = variant();
+        CountingVariantDataService variantDataService = new CountingVariantDataService(TestVariantDataService.builder()
+                .put(variant, FREQUENCY_DATA)
+                .put(variant, PATHOGENICITY_DATA)
+                .build());
+        VariantDataLoader instance = new VariantDataLoader(variantDataService, FREQUENCY_SOURCES, PATHOGENICITY_SOURCES);
+
+        instance.loadVariantData(variant);
+
+        assertThat(variantDataService.getLookups(), equalTo(1));
+        assertThat(variant.getFrequencyData(), equalTo(FREQUENCY_DATA));
+        assertThat(variant.getPathogenicityData(), equalTo(PATHOGENICITY_DATA));
+    }
+
+    @Test
+    void providerLoadsVariantDataBeforeRunningFilter() {
+        VariantEvaluation variant = variant();
+        CountingVariantDataService variantDataService = new CountingVariantDataService(TestVariantDataService.builder()
+                .put(variant, FREQUENCY_DATA)
+                .put(variant, PATHOGENICITY_DATA)
+                .build());
+        VariantDataLoader instance = new VariantDataLoader(variantDataService, FREQUENCY_SOURCES, PATHOGENICITY_SOURCES);
+        FrequencyFilter frequencyFilter = new FrequencyFilter(1f);
+        VariantDataProvider frequencyFilterProvider = new VariantDataProvider(instance, frequencyFilter);
+
+        FilterResult filterResult = frequencyFilterProvider.runFilter(variant);
+
+        assertThat(variantDataService.getLookups(), equalTo(1));
+        assertThat(filterResult.passed(), is(true));
+        assertThat(variant.getPathogenicityData(), equalTo(PATHOGENICITY_DATA));
+        assertThat(frequencyFilterProvider.getDecoratedFilter(), equalTo(frequencyFilter));
+    }
+
+    @Test
+    void doesNotReplaceExistingData() {
+        FrequencyData existingFrequencyData = FrequencyData.of("rs54321", Frequency.of(FrequencySource.LOCAL, 1f));
+        VariantEvaluation variant = TestFactory.variantBuilder(1, 12345, "A", "T").frequencyData(existingFrequencyData).build();
+        CountingVariantDataService variantDataService = new CountingVariantDataService(TestVariantDataService.builder()
+                .put(variant, FREQUENCY_DATA)
+                .put(variant, PATHOGENICITY_DATA)
+                .build());
+        VariantDataLoader instance = new VariantDataLoader(variantDataService, FREQUENCY_SOURCES, PATHOGENICITY_SOURCES);
+
+        instance.loadVariantData(variant);
+
+        assertThat(variantDataService.getLookups(), equalTo(1));
+        assertThat(variant.getFrequencyData(), equalTo(existingFrequencyData));
+        assertThat(variant.getPathogenicityData(), equalTo(PATHOGENICITY_DATA));
+    }
+
+    @Test
+    void noLookupWhenVariantAlreadyHasAllData() {
+        VariantEvaluation variant = TestFactory.variantBuilder(1, 12345, "A", "T")
+                .frequencyData(FREQUENCY_DATA)
+                .pathogenicityData(PATHOGENICITY_DATA)
+                .build();
+        CountingVariantDataService variantDataService = new CountingVariantDataService(TestVariantDataService.stub());
+        VariantDataLoader instance = new VariantDataLoader(variantDataService, FREQUENCY_SOURCES, PATHOGENICITY_SOURCES);
+
+        instance.loadVariantData(variant);
+
+        assertThat(variantDataService.getLookups(), equalTo(0));
+    }
+}
@@ -120,7 +120,11 @@ public static GenomeDataService buildDefaultGenomeDataService() {
     }
 
     public static GenomeAnalysisService buildDefaultHg19GenomeAnalysisService() {
-        return new GenomeAnalysisServiceImpl(DEFAULT_GENOME_ASSEMBLY, buildDefaultGenomeDataService(), TestVariantDataService.stub(), DEFAULT_VARIANT_ANNOTATOR);
+        return buildDefaultHg19GenomeAnalysisService(TestVariantDataService.stub());
+    }
+
+    public static GenomeAnalysisService buildDefaultHg19GenomeAnalysisService(VariantDataService variantDataService) {
+        return new GenomeAnalysisServiceImpl(DEFAULT_GENOME_ASSEMBLY, buildDefaultGenomeDataService(), variantDataService, DEFAULT_VARIANT_ANNOTATOR);
     }
 
     public static GenomeAnalysisService buildStubGenomeAnalysisService(GenomeAssembly genomeAssembly) {
@@ -75,6 +75,32 @@ public void testSampleGenotypes(String sampleNames, String sampleGenotypes) {
         assertThat(actual, equalTo(expected));
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            "Adam Eve Cain, ./. 0/1 1/1, Adam",
+            "Adam Eve Cain, ./. 0/1 1/1, Eve",
+            "Adam Eve Cain, ./. 0/1 1/1, Cain",
+            "Adam Eve Cain Abel, 0|1 0/1 1/2 0/0, Adam",
+            "Adam Eve Cain Abel, 0|1 0/1 1/2 0/0, Cain",
+            "Adam Eve Cain Abel, 0|1 0/1 1/2 0/0, Abel",
+    })
+    void testSingleSampleGenotypeMatchesSampleGenotypes(String sampleNames, String sampleGenotypes, String sampleName) {
+        TestVcfReader vcfReader = TestVcfReader.forSamples(sampleNames.split(" "));
+        VariantContext variantContext = vcfReader.readVariantContext("1 12345 . A T,C . PASS . GT " + sampleGenotypes);
+        for (int altAlleleId = 0; altAlleleId < 2; altAlleleId++) {
+            SampleGenotypes expected = VariantContextSampleGenotypeConverter.createAlleleSampleGenotypes(variantContext, altAlleleId);
+            SampleGenotype actual = VariantContextSampleGenotypeConverter.createAlleleSampleGenotype(variantContext, altAlleleId, sampleName);
+            assertThat(actual, equalTo(expected.getSampleGenotype(sampleName)));
+        }
+    }
+
+    @Test
+    void testSingleSampleGenotypeUnknownSampleIsEmpty() {
+        TestVcfReader vcfReader = TestVcfReader.forSamples("Adam");
+        VariantContext variantContext = vcfReader.readVariantContext("1 12345 . A T . PASS . GT 0/1");
+        assertThat(VariantContextSampleGenotypeConverter.createAlleleSampleGenotype(variantContext, 0, "Eve"), equalTo(SampleGenotype.empty()));
+    }
+
     @Test
     public void testSingleSampleHetNonRef() {
         TestVcfReader vcfReader = TestVcfReader.forSamples("Adam");
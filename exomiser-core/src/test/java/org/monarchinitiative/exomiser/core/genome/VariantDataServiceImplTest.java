@@ -33,14 +33,21 @@
 import org.monarchinitiative.exomiser.core.genome.dao.*;
 import org.monarchinitiative.exomiser.core.model.AlleleProtoAdaptor;
 import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.VariantData;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.*;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto;
 
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -279,4 +286,149 @@ void whiteListedVariant() {
         assertThat(instance.variantIsWhiteListed(whiteListVariant), is(true));
         assertThat(instance.variantIsWhiteListed(nonWhiteListVariant), is(false));
     }
+
+    @Test
+    void variantDataWithAllelePropertiesDaoMatchesSeparateLookupsForAllVariantTypes() {
+        VariantEvaluation missense = TestFactory.variantBuilder(1, 12345, "A", "T").variantEffect(VariantEffect.MISSENSE_VARIANT).build();
+        VariantEvaluation synonymous = TestFactory.variantBuilder(1, 12346, "C", "T").variantEffect(VariantEffect.SYNONYMOUS_VARIANT).build();
+        VariantEvaluation regulatory = TestFactory.variantBuilder(2, 200, "G", "A").variantEffect(REGULATORY_REGION).build();
+        VariantEvaluation missing = TestFactory.variantBuilder(1, 12, "G", "A").variantEffect(VariantEffect.MISSENSE_VARIANT).build();
+        VariantEvaluation structural = TestFactory.variantBuilder(1, 20000, 30000, "A", "<DEL>", -10000).variantEffect(VariantEffect.EXON_LOSS_VARIANT).build();
+
+        AlleleProto.AlleleProperties properties = AlleleProto.AlleleProperties.newBuilder()
+                .setRsId("rs12345")
+                .putProperties("KG", 0.04f)
+                .putProperties("POLYPHEN", 1f)
+                .putProperties("SIFT", 0f)
+                .build();
+        AllelePropertiesDaoMvStore allelePropertiesDao = new AllelePropertiesDaoMvStore(MvAlleleStoreTestUtil.newMvStoreWithData(Map.of(
+                AlleleProtoAdaptor.toAlleleKey(missense), properties,
+                AlleleProtoAdaptor.toAlleleKey(synonymous), properties,
+                AlleleProtoAdaptor.toAlleleKey(regulatory), properties
+        )));
+
+        List<VariantEvaluation> variants = List.of(regulatory, missense, structural, missing, synonymous);
+        for (VariantEvaluation variantEvaluation : variants) {
+            Mockito.when(localFrequencyDao.getFrequencyData(variantEvaluation)).thenReturn(FrequencyData.of(Frequency.of(LOCAL, 2f)));
+            Mockito.when(mockCaddDao.getPathogenicityData(variantEvaluation)).thenReturn(CADD_DATA);
+            Mockito.when(mockRemmDao.getPathogenicityData(variantEvaluation)).thenReturn(PathogenicityData.of(RemmScore.of(0.5f)));
+        }
+        Mockito.when(svFrequencyDao.getFrequencyData(structural)).thenReturn(FrequencyData.of(Frequency.of(GNOMAD_SV, 1f)));
+        Mockito.when(svPathogenicityDao.getPathogenicityData(structural)).thenReturn(PathogenicityData.of(PATH_CLINVAR_DATA));
+
+        VariantDataServiceImpl combinedInstance = VariantDataServiceImpl.builder()
+                .allelePropertiesDao(allelePropertiesDao)
+                .localFrequencyDao(localFrequencyDao)
+                .caddDao(mockCaddDao)
+                .remmDao(mockRemmDao)
+                .svFrequencyDao(svFrequencyDao)
+                .svPathogenicityDao(svPathogenicityDao)
+                .build();
+
+        Set<FrequencySource> frequencySources = EnumSet.of(THOUSAND_GENOMES, LOCAL, GNOMAD_SV);
+        List<Set<PathogenicitySource>> pathogenicitySourceSets = List.of(
+                EnumSet.noneOf(PathogenicitySource.class),
+                EnumSet.of(PathogenicitySource.POLYPHEN),
+                EnumSet.of(PathogenicitySource.POLYPHEN, PathogenicitySource.SIFT, PathogenicitySource.CADD, PathogenicitySource.REMM)
+        );
+        for (Set<PathogenicitySource> pathogenicitySources : pathogenicitySourceSets) {
+            for (VariantEvaluation variantEvaluation : variants) {
+                VariantData expected = VariantData.of(
+                        combinedInstance.getVariantFrequencyData(variantEvaluation, frequencySources),
+                        combinedInstance.getVariantPathogenicityData(variantEvaluation, pathogenicitySources)
+                );
+                assertThat(combinedInstance.getVariantData(variantEvaluation, frequencySources, pathogenicitySources), equalTo(expected));
+            }
+        }
+    }
+
+    @Test
+    void variantDataWithoutAllelePropertiesDaoMatchesSeparateLookups() {
+        Set<FrequencySource> frequencySources = EnumSet.allOf(FrequencySource.class);
+        Set<PathogenicitySource> pathogenicitySources = EnumSet.of(PathogenicitySource.POLYPHEN, PathogenicitySource.CADD);
+
+        VariantData expected = VariantData.of(instance.getVariantFrequencyData(variant, frequencySources), instance.getVariantPathogenicityData(variant, pathogenicitySources));
+        assertThat(instance.getVariantData(variant, frequencySources, pathogenicitySources), equalTo(expected));
+    }
+
+    @Test
+    void variantDataWithAllelePropertiesDaoReadsStoreOnce() {
+        AlleleProto.AlleleProperties properties = AlleleProto.AlleleProperties.newBuilder()
+                .setRsId("rs12345")
+                .putProperties("KG", 0.04f)
+                .putProperties("POLYPHEN", 1f)
+                .putProperties("CADD", 12f)
+                .build();
+        AllelePropertiesDao allelePropertiesDao = Mockito.mock(AllelePropertiesDao.class);
+        Mockito.when(allelePropertiesDao.getAlleleProperties(variant)).thenReturn(properties);
+        Mockito.when(localFrequencyDao.getFrequencyData(variant)).thenReturn(FrequencyData.of(Frequency.of(LOCAL, 2f)));
+
+        VariantDataServiceImpl combinedInstance = VariantDataServiceImpl.builder()
+                .allelePropertiesDao(allelePropertiesDao)
+                .localFrequencyDao(localFrequencyDao)
+                .caddDao(mockCaddDao)
+                .remmDao(mockRemmDao)
+                .build();
+
+        Set<FrequencySource> frequencySources = EnumSet.of(THOUSAND_GENOMES, LOCAL);
+        Set<PathogenicitySource> pathogenicitySources = EnumSet.of(PathogenicitySource.POLYPHEN, PathogenicitySource.MVP);
+        VariantData result = combinedInstance.getVariantData(variant, frequencySources, pathogenicitySources);
+
+        Mockito.verify(allelePropertiesDao, Mockito.times(1)).getAlleleProperties(variant);
+
+        FrequencyData expectedFrequencyData = FrequencyData.of("rs12345", Frequency.of(THOUSAND_GENOMES, 0.04f), Frequency.of(LOCAL, 2f));
+        PathogenicityData expectedPathogenicityData = PathogenicityData.of(PolyPhenScore.of(1f));
+        assertThat(result, equalTo(VariantData.of(expectedFrequencyData, expectedPathogenicityData)));
+        assertThat(result, equalTo(VariantData.of(combinedInstance.getVariantFrequencyData(variant, frequencySources), combinedInstance
+                .getVariantPathogenicityData(variant, pathogenicitySources))));
+    }
+
+    @Test
+    void variantDataWithTabixSourceUsesSeparateLookups() {
+        AlleleProto.AlleleProperties properties = AlleleProto.AlleleProperties.newBuilder()
+                .setRsId("rs12345")
+                .putProperties("KG", 0.04f)
+                .putProperties("POLYPHEN", 1f)
+                .putProperties("CADD", 12f)
+                .build();
+        AllelePropertiesDao allelePropertiesDao = Mockito.mock(AllelePropertiesDao.class);
+        Mockito.when(allelePropertiesDao.getAlleleProperties(variant)).thenReturn(properties);
+
+        VariantDataServiceImpl combinedInstance = VariantDataServiceImpl.builder()
+                .allelePropertiesDao(allelePropertiesDao)
+                .caddDao(mockCaddDao)
+                .remmDao(mockRemmDao)
+                .build();
+
+        Set<FrequencySource> frequencySources = EnumSet.of(THOUSAND_GENOMES);
+        Set<PathogenicitySource> pathogenicitySources = EnumSet.of(PathogenicitySource.POLYPHEN, PathogenicitySource.CADD);
+        VariantData result = combinedInstance.getVariantData(variant, frequencySources, pathogenicitySources);
+
+        Mockito.verify(mockCaddDao, Mockito.times(1)).getPathogenicityData(variant);
+        FrequencyData expectedFrequencyData = FrequencyData.of("rs12345", Frequency.of(THOUSAND_GENOMES, 0.04f));
+        // the CADD score from the variant store takes precedence over the one from the tabix file
+        PathogenicityData expectedPathogenicityData = PathogenicityData.of(PolyPhenScore.of(1f), CaddScore.of(12f));
+        assertThat(result, equalTo(VariantData.of(expectedFrequencyData, expectedPathogenicityData)));
+    }
+
+    @Test
+    public void tabixSourcesAreQueriedUsingTheIoExecutor() {
+        AtomicInteger executedTasks = new AtomicInteger();
+        Executor countingExecutor = task -> {
+            executedTasks.incrementAndGet();
+            task.run();
+        };
+        VariantDataServiceImpl ioInstance = VariantDataServiceImpl.builder()
+                .defaultFrequencyDao(defaultFrequencyDao)
+                .defaultPathogenicityDao(defaultPathogenicityDao)
+                .caddDao(mockCaddDao)
+                .remmDao(mockRemmDao)
+                .ioExecutor(countingExecutor)
+                .build();
+
+        PathogenicityData result = ioInstance.getVariantPathogenicityData(variant, EnumSet.of(PathogenicitySource.CADD, PathogenicitySource.POLYPHEN));
+        assertThat(result, equalTo(PathogenicityData.of(PATH_CLINVAR_DATA, PolyPhenScore.of(1f), CaddScore.of(15f))));
+        // the default data and the CADD lookups
+        assertThat(executedTasks.get(), equalTo(2));
+    }
 }
@@ -68,6 +68,11 @@ private VariantFactoryImpl newInstance(VcfReader vcfReader) {
         return new VariantFactoryImpl(variantAnnotator, vcfReader);
     }
 
+    private VariantFactoryImpl newInstance(VcfReader vcfReader, VcfAllelePredicate allelePredicate) {
+        VariantAnnotator variantAnnotator = TestFactory.buildDefaultVariantAnnotator();
+        return new VariantFactoryImpl(variantAnnotator, vcfReader, allelePredicate);
+    }
+
     private Consumer<VariantEvaluation> printVariant() {
         return variant -> {
             GenotypesContext genotypes = variant.getVariantContext().getGenotypes();
@@ -503,4 +508,58 @@ void testRetainsCopyNumberVariantWithoutGenotype() {
         assertThat(variantEvaluation.getSampleGenotype("Sample2"), equalTo(SampleGenotype.homAlt()));
     }
 
+    @Test
+    void testAllelePredicateRemovesAllelesNotObservedInSample() {
+        VcfReader vcfReader = TestVcfReader.builder().samples(sample, sample1)
+                .vcfLines(
+                        "1\t120612040\t.\tT\tTCCGCCG,TCCTCCGCCG\t258.62\tPASS\t.\tGT\t0/1\t0/2",
+                        "1 112992009 . T A 100 PASS . GT 0/0 1|0"
+                )
+                .build();
+        List<VariantEvaluation> variants = newInstance(vcfReader, VcfAllelePredicate.sampleHasAltAllele(sample)).createVariantEvaluations()
+                .collect(toList());
+        assertThat(variants.size(), equalTo(1));
+        assertThat(variants.get(0).alt(), equalTo("TCCGCCG"));
+    }
+
+    @Test
+    void testAllelePredicateProducesIdenticalVariantEvaluations() {
+        VcfReader vcfReader = TestVcfReader.builder().samples(sample, sample1)
+                .vcfLines(
+                        "1\t120612040\t.\tT\tTCCGCCG,TCCTCCGCCG\t258.62\tPASS\t.\tGT\t0/1\t0/2",
+                        "1 112992009 . T A 100 PASS . GT 0/0 1|0",
+                        "1 112992009 Canvas:COMPLEX T <CNV> 100 PASS END=112993000 CN 3 0",
+                        "1 145510184 . T A 5 LowQual . GT 1/1 0/0"
+                )
+                .build();
+        List<VariantEvaluation> expected = newInstance(vcfReader).createVariantEvaluations()
+                .filter(variantEvaluation -> variantEvaluation.getSampleGenotype(sample).getCalls().contains(AlleleCall.ALT))
+                .collect(toList());
+        List<VariantEvaluation> actual = newInstance(vcfReader, VcfAllelePredicate.sampleHasAltAllele(sample)).createVariantEvaluations()
+                .collect(toList());
+        assertThat(actual.size(), equalTo(3));
+        assertThat(actual, equalTo(expected));
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getSampleGenotypes(), equalTo(expected.get(i).getSampleGenotypes()));
+            assertThat(actual.get(i).getGeneSymbol(), equalTo(expected.get(i).getGeneSymbol()));
+            assertThat(actual.get(i).getTranscriptAnnotations(), equalTo(expected.get(i).getTranscriptAnnotations()));
+        }
+    }
+
+    @Test
+    void testAllelePredicateQualityAndPassFilter() {
+        VcfReader vcfReader = TestVcfReader.builder().samples(sample)
+                .vcfLines(
+                        "1 112992009 . T A 100 PASS . GT 0/1",
+                        "1 112992010 . T A 5 PASS . GT 0/1",
+                        "1 112992011 . T A 100 LowQual . GT 0/1",
+                        "1 112992012 . T A 100 . . GT 0/1"
+                )
+                .build();
+        VcfAllelePredicate allelePredicate = VcfAllelePredicate.minimumQuality(20.0).and(VcfAllelePredicate.passedFilters());
+        List<Integer> starts = newInstance(vcfReader, allelePredicate).createVariantEvaluations()
+                .map(VariantEvaluation::start)
+                .collect(toList());
+        assertThat(starts, equalTo(List.of(112992009, 112992012)));
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class AllelePresenceFilterTest {
+
+    private static final long SOURCE_CHECKSUM = 0x1234_5678_9ABCL;
+
+    private static AlleleKey alleleKey(int chr, int position, String ref, String alt) {
+        return AlleleKey.newBuilder().setChr(chr).setPosition(position).setRef(ref).setAlt(alt).build();
+    }
+
+    private static AllelePresenceFilter.Builder builderWithKeys(int numKeys) {
+        AllelePresenceFilter.Builder builder = AllelePresenceFilter.builder(numKeys, 0.01);
+        for (int i = 0; i < numKeys; i++) {
+            builder.put(alleleKey(1 + i % 25, 10_000 + i * 3, "A", "T"));
+        }
+        return builder;
+    }
+
+    @Test
+    void throwsExceptionWithIllegalFalsePositiveProbability() {
+        assertThrows(IllegalArgumentException.class, () -> AllelePresenceFilter.builder(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> AllelePresenceFilter.builder(100, 1));
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        AllelePresenceFilter instance = AllelePresenceFilter.builder(100, 0.01).build();
+        assertThat(instance.getNumKeys(), equalTo(0L));
+        assertThat(instance.mightContain(alleleKey(1, 12345, "A", "T")), is(false));
+    }
+
+    @Test
+    void containsAddedKeys() {
+        AllelePresenceFilter instance = AllelePresenceFilter.builder(10, 0.01)
+                .put(alleleKey(1, 12345, "A", "T"))
+                .put(alleleKey(1, 12345, "A", "TT"))
+                .put(alleleKey(23, 12345, "ACGT", "A"))
+                .build();
+        assertThat(instance.getNumKeys(), equalTo(3L));
+        assertThat(instance.mightContain(alleleKey(1, 12345, "A", "T")), is(true));
+        assertThat(instance.mightContain(alleleKey(1, 12345, "A", "TT")), is(true));
+        assertThat(instance.mightContain(alleleKey(23, 12345, "ACGT", "A")), is(true));
+    }
+
+    @Test
+    void distinguishesRefAndAltBoundary() {
+        AllelePresenceFilter instance = AllelePresenceFilter.builder(1, 0.0001)
+                .put(alleleKey(1, 12345, "AC", "T"))
+                .build();
+        assertThat(instance.mightContain(alleleKey(1, 12345, "AC", "T")), is(true));
+        assertThat(instance.mightContain(alleleKey(1, 12345, "A", "CT")), is(false));
+    }
+
+    @Test
+    void noFalseNegativesAndFalsePositiveRateIsCloseToTarget() {
+        int numKeys = 50_000;
+        AllelePresenceFilter instance = builderWithKeys(numKeys).build();
+        for (int i = 0; i < numKeys; i++) {
+            assertThat(instance.mightContain(alleleKey(1 + i % 25, 10_000 + i * 3, "A", "T")), is(true));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < numKeys; i++) {
+            if (instance.mightContain(alleleKey(1 + i % 25, 10_000 + i * 3, "A", "G"))) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / numKeys, lessThan(0.02));
+    }
+
+    @Test
+    void writeAndMap(@TempDir Path tempDir) {
+        int numKeys = 10_000;
+        AllelePresenceFilter.Builder builder = builderWithKeys(numKeys);
+        AllelePresenceFilter expected = builder.build();
+        Path filterPath = tempDir.resolve("test_variants.bloom");
+        builder.writeTo(filterPath, SOURCE_CHECKSUM);
+
+        AllelePresenceFilter instance = AllelePresenceFilter.map(filterPath, SOURCE_CHECKSUM).orElseThrow();
+        assertThat(instance.getSourceChecksum(), equalTo(SOURCE_CHECKSUM));
+        assertThat(instance.getNumKeys(), equalTo(expected.getNumKeys()));
+        assertThat(instance.getNumBits(), equalTo(expected.getNumBits()));
+        assertThat(instance.getNumHashFunctions(), equalTo(expected.getNumHashFunctions()));
+        for (int i = 0; i < numKeys * 2; i++) {
+            AlleleKey alleleKey = alleleKey(1 + i % 25, 10_000 + i * 3, "A", i % 2 == 0 ? "T" : "C");
+            assertThat(instance.mightContain(alleleKey), equalTo(expected.mightContain(alleleKey)));
+        }
+    }
+
+    @Test
+    void mapThrowsExceptionForNonFilterFile(@TempDir Path tempDir) throws IOException {
+        Path path = tempDir.resolve("not_a_filter.bloom");
+        Files.write(path, new byte[64]);
+        assertThrows(IllegalStateException.class, () -> AllelePresenceFilter.map(path, SOURCE_CHECKSUM));
+    }
+
+    @Test
+    void mapThrowsExceptionForTruncatedFile(@TempDir Path tempDir) throws IOException {
+        Path path = tempDir.resolve("test_variants.bloom");
+        builderWithKeys(100).writeTo(path, SOURCE_CHECKSUM);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IllegalStateException.class, () -> AllelePresenceFilter.map(path, SOURCE_CHECKSUM));
+    }
+
+    @Test
+    void mapIgnoresFilterBuiltFromDifferentDatabase(@TempDir Path tempDir) {
+        Path path = tempDir.resolve("test_variants.bloom");
+        builderWithKeys(100).writeTo(path, SOURCE_CHECKSUM);
+        assertThat(AllelePresenceFilter.map(path, SOURCE_CHECKSUM + 1), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void mapIgnoresFilterWithOlderFormatVersion(@TempDir Path tempDir) throws IOException {
+        Path path = tempDir.resolve("test_variants.bloom");
+        builderWithKeys(100).writeTo(path, SOURCE_CHECKSUM);
+        byte[] bytes = Files.readAllBytes(path);
+        // version 1 had no source checksum
+        bytes[7] = 1;
+        Files.write(path, bytes);
+        assertThat(AllelePresenceFilter.map(path, SOURCE_CHECKSUM), equalTo(Optional.empty()));
+    }
+}
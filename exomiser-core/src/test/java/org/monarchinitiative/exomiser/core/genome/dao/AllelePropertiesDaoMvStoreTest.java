@@ -0,0 +1,139 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.genome.TestFactory;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.AllelePropertiesFormat;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.MvStoreUtil;
+import org.monarchinitiative.exomiser.core.model.AlleleProtoAdaptor;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class AllelePropertiesDaoMvStoreTest {
+
+    private static Variant buildVariant(int chr, int pos, String ref, String alt) {
+        return TestFactory.variantBuilder(chr, pos, ref, alt).build();
+    }
+
+    private static AllelePropertiesDaoMvStore newInstanceWithVariants(List<Variant> variants) {
+        Map<AlleleKey, AlleleProperties> data = new HashMap<>();
+        for (Variant variant : variants) {
+            data.put(AlleleProtoAdaptor.toAlleleKey(variant), AlleleProperties.newBuilder()
+                    .setRsId("rs" + variant.contigId() + variant.start() + variant.ref() + variant.alt())
+                    .putProperties("KG", variant.start() % 100 / 100f)
+                    .build());
+        }
+        MVStore mvStore = MvAlleleStoreTestUtil.newMvStoreWithData(data);
+        return new AllelePropertiesDaoMvStore(mvStore);
+    }
+
+    private static List<AlleleProperties> pointLookups(AllelePropertiesDao instance, List<Variant> variants) {
+        List<AlleleProperties> results = new ArrayList<>();
+        for (Variant variant : variants) {
+            results.add(instance.getAlleleProperties(variant));
+        }
+        return results;
+    }
+
+    @Test
+    void presenceFilterSkipsAbsentAllelesAndCountsLookups() {
+        Variant present = buildVariant(1, 12345, "A", "T");
+        Variant falsePositive = buildVariant(1, 12346, "A", "T");
+        Variant absent = buildVariant(2, 12345, "A", "T");
+        Map<AlleleKey, AlleleProperties> data = Map.of(AlleleProtoAdaptor.toAlleleKey(present), AlleleProperties.newBuilder()
+                .setRsId("rs12345")
+                .build());
+        // the filter claims the falsePositive is present, although it isn't in the store
+        AllelePresenceFilter presenceFilter = AllelePresenceFilter.builder(10, 0.0001)
+                .put(AlleleProtoAdaptor.toAlleleKey(present))
+                .put(AlleleProtoAdaptor.toAlleleKey(falsePositive))
+                .build();
+        AllelePropertiesDaoMvStore instance = new AllelePropertiesDaoMvStore(MvAlleleStoreTestUtil.newMvStoreWithData(data), presenceFilter);
+
+        assertThat(instance.getAlleleProperties(present).getRsId(), equalTo("rs12345"));
+        assertThat(instance.getAlleleProperties(falsePositive), equalTo(AlleleProperties.getDefaultInstance()));
+        assertThat(instance.getAlleleProperties(absent), equalTo(AlleleProperties.getDefaultInstance()));
+        assertThat(instance.getPresenceFilterHits(), equalTo(1L));
+        assertThat(instance.getPresenceFilterFalsePositives(), equalTo(1L));
+        assertThat(instance.getPresenceFilterMisses(), equalTo(1L));
+    }
+
+    @Test
+    void presenceFilterDoesNotChangeResults() {
+        List<Variant> stored = new ArrayList<>();
+        List<Variant> queried = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Variant variant = buildVariant(1 + i % 3, 1000 + i * 7, "A", "T");
+            if (i % 2 == 0) {
+                stored.add(variant);
+            }
+            queried.add(variant);
+        }
+        AllelePropertiesDaoMvStore unfiltered = newInstanceWithVariants(stored);
+        AllelePresenceFilter.Builder filterBuilder = AllelePresenceFilter.builder(stored.size(), 0.01);
+        stored.forEach(variant -> filterBuilder.put(AlleleProtoAdaptor.toAlleleKey(variant)));
+        Map<AlleleKey, AlleleProperties> data = new HashMap<>();
+        for (Variant variant : stored) {
+            data.put(AlleleProtoAdaptor.toAlleleKey(variant), unfiltered.getAlleleProperties(variant));
+        }
+        AllelePropertiesDaoMvStore filtered = new AllelePropertiesDaoMvStore(MvAlleleStoreTestUtil.newMvStoreWithData(data), filterBuilder.build());
+
+        assertThat(pointLookups(filtered, queried), equalTo(pointLookups(unfiltered, queried)));
+        assertThat(filtered.getPresenceFilterHits(), equalTo((long) stored.size()));
+        assertThat(filtered.getPresenceFilterMisses() + filtered.getPresenceFilterFalsePositives(), equalTo((long) (queried.size() - stored.size())));
+    }
+
+    @Test
+    void readsCompactFormatStore(@TempDir Path tempDir) {
+        List<Variant> stored = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            stored.add(buildVariant(1 + i % 3, 1000 + i * 7, "A", "T"));
+        }
+        Variant absent = buildVariant(4, 12345, "A", "T");
+        AllelePropertiesDaoMvStore protobufInstance = newInstanceWithVariants(stored);
+
+        String fileName = tempDir.resolve("compact.mv.db").toString();
+        MVStore mvStore = new MVStore.Builder().fileName(fileName).open();
+        MVMap<AlleleKey, AlleleProperties> compactMap = MvStoreUtil.openAlleleMVMap(mvStore, AllelePropertiesFormat.COMPACT);
+        stored.forEach(variant -> compactMap.put(AlleleProtoAdaptor.toAlleleKey(variant), protobufInstance.getAlleleProperties(variant)));
+        mvStore.close();
+
+        MVStore compactStore = new MVStore.Builder().fileName(fileName).readOnly().open();
+        AllelePropertiesDaoMvStore compactInstance = new AllelePropertiesDaoMvStore(compactStore);
+        assertThat(pointLookups(compactInstance, stored), equalTo(pointLookups(protobufInstance, stored)));
+        assertThat(compactInstance.getAlleleProperties(absent), equalTo(AlleleProperties.getDefaultInstance()));
+        compactStore.close();
+    }
+}
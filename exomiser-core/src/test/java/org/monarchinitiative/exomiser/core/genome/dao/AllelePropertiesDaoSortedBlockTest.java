@@ -0,0 +1,79 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.genome.GenomeAssembly;
+import org.monarchinitiative.exomiser.core.genome.TestFactory;
+import org.monarchinitiative.exomiser.core.model.AlleleProtoAdaptor;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class AllelePropertiesDaoSortedBlockTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Variant variant(int chr, int pos, String ref, String alt) {
+        return TestFactory.variantBuilder(chr, pos, ref, alt).build();
+    }
+
+    private AllelePropertiesDaoSortedBlock newInstance(Variant... variants) {
+        Path storePath = tempDir.resolve("hg19_variants.alleles");
+        try (SortedBlockAlleleStoreWriter writer = new SortedBlockAlleleStoreWriter(storePath, 0)) {
+            for (Variant variant : variants) {
+                writer.write(AlleleProtoAdaptor.toAlleleKey(variant), AlleleProperties.newBuilder().setRsId("rs" + variant.start()).build());
+            }
+        }
+        return new AllelePropertiesDaoSortedBlock(SortedBlockAlleleStore.open(storePath));
+    }
+
+    @Test
+    void getAllelePropertiesForVariant() {
+        Variant present = variant(1, 12345, "A", "T");
+        AllelePropertiesDaoSortedBlock instance = newInstance(variant(1, 12300, "A", "C"), present, variant(2, 12345, "A", "T"));
+        assertThat(instance.getAlleleProperties(present), equalTo(AlleleProperties.newBuilder().setRsId("rs12345").build()));
+    }
+
+    @Test
+    void getAllelePropertiesForAlleleKey() {
+        AllelePropertiesDaoSortedBlock instance = newInstance(variant(1, 12345, "A", "T"));
+        AlleleKey alleleKey = AlleleKey.newBuilder().setChr(1).setPosition(12345).setRef("A").setAlt("T").build();
+        assertThat(instance.getAlleleProperties(alleleKey, GenomeAssembly.HG19), equalTo(AlleleProperties.newBuilder().setRsId("rs12345").build()));
+    }
+
+    @Test
+    void getAllelePropertiesForMissingVariant() {
+        AllelePropertiesDaoSortedBlock instance = newInstance(variant(1, 12345, "A", "T"));
+        assertThat(instance.getAlleleProperties(variant(1, 12345, "A", "G")), equalTo(AlleleProperties.getDefaultInstance()));
+    }
+}
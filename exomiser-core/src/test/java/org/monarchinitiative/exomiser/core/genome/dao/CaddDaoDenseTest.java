@@ -0,0 +1,113 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.monarchinitiative.exomiser.core.genome.TestFactory;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.CaddScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class CaddDaoDenseTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PathogenicityDao inDelDao;
+    private CaddDaoDense instance;
+
+    @BeforeEach
+    void setUp() {
+        Path storePath = tempDir.resolve("cadd_snv.scores");
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath, 0L, 3, 100f)) {
+            // ref A: alts C, G, T
+            writer.write(1, 2, CaddDaoDense.snvScoreIndex("A", "C"), 1.5f);
+            writer.write(1, 2, CaddDaoDense.snvScoreIndex("A", "G"), 2.5f);
+            writer.write(1, 2, CaddDaoDense.snvScoreIndex("A", "T"), 3.45f);
+            // ref T: alts A, C, G
+            writer.write(1, 5, CaddDaoDense.snvScoreIndex("T", "G"), 23.4f);
+        }
+        inDelDao = Mockito.mock(PathogenicityDao.class);
+        instance = new CaddDaoDense(DenseScoreStore.open(storePath), inDelDao);
+    }
+
+    private static VariantEvaluation variant(int chr, int pos, String ref, String alt) {
+        return TestFactory.variantBuilder(chr, pos, ref, alt).build();
+    }
+
+    @Test
+    void snvScoreIndex() {
+        assertThat(CaddDaoDense.snvScoreIndex("A", "C"), equalTo(0));
+        assertThat(CaddDaoDense.snvScoreIndex("A", "G"), equalTo(1));
+        assertThat(CaddDaoDense.snvScoreIndex("A", "T"), equalTo(2));
+        assertThat(CaddDaoDense.snvScoreIndex("C", "A"), equalTo(0));
+        assertThat(CaddDaoDense.snvScoreIndex("C", "G"), equalTo(1));
+        assertThat(CaddDaoDense.snvScoreIndex("C", "T"), equalTo(2));
+        assertThat(CaddDaoDense.snvScoreIndex("T", "A"), equalTo(0));
+        assertThat(CaddDaoDense.snvScoreIndex("T", "G"), equalTo(2));
+        assertThat(CaddDaoDense.snvScoreIndex("A", "A"), equalTo(-1));
+        assertThat(CaddDaoDense.snvScoreIndex("A", "N"), equalTo(-1));
+        assertThat(CaddDaoDense.snvScoreIndex("A", "AT"), equalTo(-1));
+    }
+
+    @Test
+    void throwsExceptionWithWrongNumberOfScoresPerPosition() {
+        Path storePath = tempDir.resolve("remm.scores");
+        new DenseScoreStoreWriter(storePath, 0L, 1, 100f).close();
+        DenseScoreStore remmScores = DenseScoreStore.open(storePath);
+        assertThrows(IllegalArgumentException.class, () -> new CaddDaoDense(remmScores, inDelDao));
+    }
+
+    @Test
+    void snvScores() {
+        assertThat(instance.getPathogenicityData(variant(1, 2, "A", "C")), equalTo(PathogenicityData.of(CaddScore.of(1.5f))));
+        assertThat(instance.getPathogenicityData(variant(1, 2, "A", "G")), equalTo(PathogenicityData.of(CaddScore.of(2.5f))));
+        assertThat(instance.getPathogenicityData(variant(1, 2, "A", "T")), equalTo(PathogenicityData.of(CaddScore.of(3.45f))));
+        assertThat(instance.getPathogenicityData(variant(1, 5, "T", "G")), equalTo(PathogenicityData.of(CaddScore.of(23.4f))));
+    }
+
+    @Test
+    void snvNoData() {
+        assertThat(instance.getPathogenicityData(variant(1, 5, "T", "A")), equalTo(PathogenicityData.empty()));
+        assertThat(instance.getPathogenicityData(variant(1, 3, "A", "T")), equalTo(PathogenicityData.empty()));
+        assertThat(instance.getPathogenicityData(variant(2, 2, "A", "T")), equalTo(PathogenicityData.empty()));
+    }
+
+    @Test
+    void inDelsAreDelegated() {
+        VariantEvaluation insertion = variant(1, 2, "A", "AT");
+        PathogenicityData inDelData = PathogenicityData.of(CaddScore.of(12f));
+        Mockito.when(inDelDao.getPathogenicityData(insertion)).thenReturn(inDelData);
+        assertThat(instance.getPathogenicityData(insertion), equalTo(inDelData));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class DataFileChecksumTest {
+
+    @Test
+    void checksumIsRepeatable(@TempDir Path tempDir) throws IOException {
+        Path dataFile = tempDir.resolve("test_variants.mv.db");
+        Files.write(dataFile, new byte[]{1, 2, 3, 4});
+        assertThat(DataFileChecksum.of(dataFile), equalTo(DataFileChecksum.of(dataFile)));
+    }
+
+    @Test
+    void checksumChangesWithContent(@TempDir Path tempDir) throws IOException {
+        Path dataFile = tempDir.resolve("test_variants.mv.db");
+        Files.write(dataFile, new byte[]{1, 2, 3, 4});
+        long checksum = DataFileChecksum.of(dataFile);
+
+        Files.write(dataFile, new byte[]{1, 2, 3, 5});
+        assertThat(DataFileChecksum.of(dataFile), not(equalTo(checksum)));
+    }
+
+    @Test
+    void checksumChangesWithSize(@TempDir Path tempDir) throws IOException {
+        Path dataFile = tempDir.resolve("test_variants.mv.db");
+        Files.write(dataFile, new byte[200_000]);
+        long checksum = DataFileChecksum.of(dataFile);
+
+        Files.write(dataFile, new byte[200_001]);
+        assertThat(DataFileChecksum.of(dataFile), not(equalTo(checksum)));
+    }
+
+    @Test
+    void throwsExceptionForMissingFile(@TempDir Path tempDir) {
+        assertThrows(UncheckedIOException.class, () -> DataFileChecksum.of(tempDir.resolve("missing.mv.db")));
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class DenseScoreStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path storePath() {
+        return tempDir.resolve("test.scores");
+    }
+
+    @Test
+    void writerThrowsExceptionWithIllegalArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DenseScoreStoreWriter(storePath(), 0L, 0, 100f));
+        assertThrows(IllegalArgumentException.class, () -> new DenseScoreStoreWriter(storePath(), 0L, 1, 0f));
+    }
+
+    @Test
+    void emptyStore() {
+        new DenseScoreStoreWriter(storePath(), 0L, 1, 100f).close();
+        DenseScoreStore instance = DenseScoreStore.open(storePath());
+        assertThat(instance.getScoresPerPosition(), equalTo(1));
+        assertThat(instance.getScore(1, 12345, 0), is(Float.NaN));
+    }
+
+    @Test
+    void singleScorePerPosition() {
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath(), 0L, 1, 100f)) {
+            writer.write(1, 100, 0, 0.5f);
+            writer.write(1, 101, 0, 1.25f);
+            // gap at 102
+            writer.write(1, 103, 0, 0f);
+            writer.write(2, 50, 0, 99.99f);
+            assertThat(writer.getNumScores(), equalTo(4L));
+        }
+        DenseScoreStore instance = DenseScoreStore.open(storePath());
+        assertThat(instance.getScore(1, 100, 0), equalTo(0.5f));
+        assertThat(instance.getScore(1, 101, 0), equalTo(1.25f));
+        assertThat(instance.getScore(1, 102, 0), is(Float.NaN));
+        assertThat(instance.getScore(1, 103, 0), equalTo(0f));
+        assertThat(instance.getScore(2, 50, 0), equalTo(99.99f));
+        // outside the written positions
+        assertThat(instance.getScore(1, 99, 0), is(Float.NaN));
+        assertThat(instance.getScore(1, 104, 0), is(Float.NaN));
+        assertThat(instance.getScore(2, 49, 0), is(Float.NaN));
+        assertThat(instance.getScore(2, Integer.MAX_VALUE, 0), is(Float.NaN));
+        // chromosomes and indices not in the store
+        assertThat(instance.getScore(3, 100, 0), is(Float.NaN));
+        assertThat(instance.getScore(-1, 100, 0), is(Float.NaN));
+        assertThat(instance.getScore(1, 100, 1), is(Float.NaN));
+    }
+
+    @Test
+    void severalScoresPerPosition() {
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath(), 0L, 3, 100f)) {
+            writer.write(1, 100, 0, 1f);
+            writer.write(1, 100, 1, 2f);
+            writer.write(1, 100, 2, 3f);
+            writer.write(1, 101, 2, 6f);
+            writer.write(1, 200, 1, 8f);
+        }
+        DenseScoreStore instance = DenseScoreStore.open(storePath());
+        assertThat(instance.getScore(1, 100, 0), equalTo(1f));
+        assertThat(instance.getScore(1, 100, 1), equalTo(2f));
+        assertThat(instance.getScore(1, 100, 2), equalTo(3f));
+        assertThat(instance.getScore(1, 101, 0), is(Float.NaN));
+        assertThat(instance.getScore(1, 101, 1), is(Float.NaN));
+        assertThat(instance.getScore(1, 101, 2), equalTo(6f));
+        assertThat(instance.getScore(1, 150, 1), is(Float.NaN));
+        assertThat(instance.getScore(1, 200, 1), equalTo(8f));
+    }
+
+    @Test
+    void chromosomesCanBeWrittenInAnyOrder() {
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath(), 0L, 1, 100f)) {
+            writer.write(10, 100, 0, 1f);
+            writer.write(2, 100, 0, 2f);
+            writer.write(25, 100, 0, 3f);
+        }
+        DenseScoreStore instance = DenseScoreStore.open(storePath());
+        assertThat(instance.getScore(10, 100, 0), equalTo(1f));
+        assertThat(instance.getScore(2, 100, 0), equalTo(2f));
+        assertThat(instance.getScore(25, 100, 0), equalTo(3f));
+    }
+
+    @Test
+    void maxScoreOverRange() {
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath(), 0L, 1, 100f)) {
+            writer.write(1, 100, 0, 0.5f);
+            writer.write(1, 101, 0, 0.75f);
+            writer.write(1, 103, 0, 0.25f);
+        }
+        DenseScoreStore instance = DenseScoreStore.open(storePath());
+        assertThat(instance.getMaxScore(1, 100, 100, 0), equalTo(0.5f));
+        assertThat(instance.getMaxScore(1, 100, 103, 0), equalTo(0.75f));
+        assertThat(instance.getMaxScore(1, 102, 104, 0), equalTo(0.25f));
+        assertThat(instance.getMaxScore(1, 104, 110, 0), is(Float.NaN));
+        assertThat(instance.getMaxScore(2, 100, 103, 0), is(Float.NaN));
+    }
+
+    @Test
+    void scoresAreQuantisedToTheScale() {
+        float scale = 655f;
+        float[] scores = {0f, 0.001f, 3.456f, 23.4f, 48.999f, 99f};
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath(), 0L, 1, scale)) {
+            for (int i = 0; i < scores.length; i++) {
+                writer.write(1, i + 1, 0, scores[i]);
+            }
+            // larger than the maximum quantised value
+            writer.write(1, 100, 0, 1000f);
+        }
+        DenseScoreStore instance = DenseScoreStore.open(storePath());
+        for (int i = 0; i < scores.length; i++) {
+            assertThat((double) instance.getScore(1, i + 1, 0), closeTo(scores[i], 0.5 / scale));
+        }
+        assertThat((double) instance.getScore(1, 100, 0), closeTo(65534 / scale, 0.0001));
+    }
+
+    @Test
+    void writerThrowsExceptionWhenPositionsAreOutOfOrder() {
+        DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath(), 0L, 1, 100f);
+        writer.write(1, 100, 0, 1f);
+        assertThrows(IllegalArgumentException.class, () -> writer.write(1, 99, 0, 1f));
+        writer.write(2, 100, 0, 1f);
+        // chromosome 1 has already been written
+        assertThrows(IllegalArgumentException.class, () -> writer.write(1, 200, 0, 1f));
+        assertThrows(IllegalArgumentException.class, () -> writer.write(2, 200, 1, 1f));
+        assertThrows(IllegalArgumentException.class, () -> writer.write(2, 200, 0, Float.NaN));
+        writer.close();
+    }
+
+    @Test
+    void writerRemovesTemporaryFiles() throws IOException {
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath(), 0L, 1, 100f)) {
+            writer.write(1, 100, 0, 1f);
+        }
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.map(path -> path.getFileName().toString()).collect(Collectors.toList()), equalTo(List.of("test.scores")));
+        }
+    }
+
+    @Test
+    void storesSourceChecksum() {
+        new DenseScoreStoreWriter(storePath(), 1234567890123L, 1, 100f).close();
+        DenseScoreStore instance = DenseScoreStore.open(storePath());
+        assertThat(instance.getSourceChecksum(), equalTo(1234567890123L));
+    }
+
+    @Test
+    void throwsExceptionWhenStoreIsAnOlderVersion() throws IOException {
+        new DenseScoreStoreWriter(storePath(), 0L, 1, 100f).close();
+        byte[] bytes = Files.readAllBytes(storePath());
+        ByteBuffer.wrap(bytes).putInt(Integer.BYTES, 1);
+        Path oldVersion = Files.write(tempDir.resolve("old_version.scores"), bytes);
+        assertThrows(IllegalStateException.class, () -> DenseScoreStore.open(oldVersion));
+    }
+
+    @Test
+    void throwsExceptionWhenFileIsNotAStore() throws IOException {
+        Path path = Files.write(tempDir.resolve("not_a_store.scores"), new byte[64]);
+        assertThrows(IllegalStateException.class, () -> DenseScoreStore.open(path));
+    }
+
+    @Test
+    void throwsExceptionWhenFileIsTruncated() throws IOException {
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath(), 0L, 1, 100f)) {
+            writer.write(1, 100, 0, 1f);
+            writer.write(1, 1000, 0, 1f);
+        }
+        byte[] bytes = Files.readAllBytes(storePath());
+        Path truncated = Files.write(tempDir.resolve("truncated.scores"), Arrays.copyOf(bytes, bytes.length - 10));
+        assertThrows(IllegalStateException.class, () -> DenseScoreStore.open(truncated));
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import htsjdk.tribble.readers.TabixReader;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class PooledTabixDataSourceTest {
+
+    /**
+     * Single-threaded reader which fails if used by more than one thread at a time.
+     */
+    private static class ExclusiveReader implements TabixDataSource {
+
+        private static final AtomicInteger READER_IDS = new AtomicInteger();
+
+        private final int id = READER_IDS.incrementAndGet();
+        private final AtomicBoolean inUse = new AtomicBoolean(false);
+        private boolean closed = false;
+
+        @Override
+        public TabixReader.Iterator query(String query) {
+            return query("1", 1, 1);
+        }
+
+        @Override
+        public TabixReader.Iterator query(String chromosome, int start, int end) {
+            if (!inUse.compareAndSet(false, true)) {
+                throw new IllegalStateException("Reader " + id + " used concurrently");
+            }
+            List<String> lines = List.of(chromosome + "\t" + start + "\tA\tT\t" + id, chromosome + "\t" + start + "\tA\tG\t" + id);
+            // the reader is only released once the results have been read
+            return new TabixReader.Iterator() {
+                private int index = 0;
+
+                @Override
+                public String next() {
+                    if (index < lines.size()) {
+                        return lines.get(index++);
+                    }
+                    inUse.set(false);
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public String getSource() {
+            return "test.tsv.gz";
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private final List<ExclusiveReader> openedReaders = new CopyOnWriteArrayList<>();
+
+    private PooledTabixDataSource newInstance(int maxReaders) {
+        return new PooledTabixDataSource("test.tsv.gz", () -> {
+            ExclusiveReader reader = new ExclusiveReader();
+            openedReaders.add(reader);
+            return reader;
+        }, maxReaders);
+    }
+
+    private static List<String> readAll(TabixReader.Iterator iterator) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = iterator.next()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    void supportsConcurrentQueries() {
+        PooledTabixDataSource instance = newInstance(2);
+        assertThat(instance.supportsConcurrentQueries(), is(true));
+        assertThat(new TabixReaderAdaptor(Mockito.mock(TabixReader.class)).supportsConcurrentQueries(), is(false));
+    }
+
+    @Test
+    void throwsExceptionWithNoReaders() {
+        assertThrows(IllegalArgumentException.class, () -> newInstance(0));
+    }
+
+    @Test
+    void opensReaderOnConstruction() {
+        PooledTabixDataSource instance = newInstance(2);
+        assertThat(instance.getSource(), equalTo("test.tsv.gz"));
+        assertThat(instance.getReaderCount(), equalTo(1));
+        assertThat(instance.getMaxReaders(), equalTo(2));
+        assertThat(openedReaders.size(), equalTo(1));
+    }
+
+    @Test
+    void reusesIdleReader() throws IOException {
+        PooledTabixDataSource instance = newInstance(4);
+        assertThat(instance.query("1", 12345, 12345).next(), startsWith("1\t12345\tA\tT"));
+        assertThat(instance.query("2", 12345, 12345).next(), startsWith("2\t12345\tA\tT"));
+        assertThat(instance.getReaderCount(), equalTo(1));
+    }
+
+    @Test
+    void resultsCanBeReadAfterReaderIsReturned() throws IOException {
+        PooledTabixDataSource instance = newInstance(1);
+        TabixReader.Iterator first = instance.query("1", 12345, 12345);
+        TabixReader.Iterator second = instance.query("2", 23456, 23456);
+        assertThat(readAll(second).size(), equalTo(2));
+        assertThat(readAll(first), equalTo(List.of("1\t12345\tA\tT\t" + openedReaders.get(0).id, "1\t12345\tA\tG\t" + openedReaders.get(0).id)));
+    }
+
+    @Test
+    void opensNoMoreThanMaxReaders() throws Exception {
+        int maxReaders = 2;
+        PooledTabixDataSource instance = newInstance(maxReaders);
+        int numThreads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        CyclicBarrier barrier = new CyclicBarrier(numThreads);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            futures.add(executorService.submit(() -> {
+                barrier.await();
+                int numLines = 0;
+                for (int pos = 1; pos <= 100; pos++) {
+                    numLines += readAll(instance.query("1", pos, pos)).size();
+                }
+                return numLines;
+            }));
+        }
+        for (Future<Integer> future : futures) {
+            // a reader used concurrently would have thrown an exception
+            assertThat(future.get(), equalTo(200));
+        }
+        executorService.shutdown();
+        assertThat(instance.getReaderCount(), lessThanOrEqualTo(maxReaders));
+        assertThat(openedReaders.size(), lessThanOrEqualTo(maxReaders));
+        assertThat(instance.getQueryCount(), equalTo(numThreads * 100L));
+    }
+
+    @Test
+    void recordsQueryLatency() throws IOException {
+        PooledTabixDataSource instance = newInstance(1);
+        assertThat(instance.getQueryCount(), equalTo(0L));
+        assertThat(instance.getMeanQueryLatencyMicros(), equalTo(0.0));
+
+        readAll(instance.query("1", 12345, 12345));
+        assertThat(instance.getQueryCount(), equalTo(1L));
+        assertThat(instance.getQueryTimeNanos(), greaterThan(0L));
+    }
+
+    @Test
+    void closeClosesAllReaders() throws Exception {
+        PooledTabixDataSource instance = newInstance(2);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executorService.submit(() -> readAll(instance.query("1", 1, 1))));
+        }
+        for (Future<List<String>> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        instance.close();
+        assertThat(instance.getReaderCount(), equalTo(0));
+        for (ExclusiveReader reader : openedReaders) {
+            assertThat(reader.closed, is(true));
+        }
+    }
+
+    @Test
+    void ofThrowsExceptionForMissingFile() {
+        assertThrows(UncheckedIOException.class, () -> PooledTabixDataSource.of(Path.of("wibble.tsv.gz"), 2));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.genome.TestFactory;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.RemmScore;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class RemmDaoDenseTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RemmDaoDense instance;
+
+    @BeforeEach
+    void setUp() {
+        Path storePath = tempDir.resolve("remm.scores");
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(storePath, 0L, 1, 1000f)) {
+            writer.write(1, 1, 0, 0.5f);
+            writer.write(1, 2, 0, 0.75f);
+            writer.write(1, 3, 0, 0.25f);
+        }
+        instance = new RemmDaoDense(DenseScoreStore.open(storePath));
+    }
+
+    private static VariantEvaluation variant(int chr, int pos, String ref, String alt) {
+        return TestFactory.variantBuilder(chr, pos, ref, alt)
+                .variantEffect(VariantEffect.REGULATORY_REGION_VARIANT)
+                .build();
+    }
+
+    @Test
+    void throwsExceptionWithWrongNumberOfScoresPerPosition() {
+        Path storePath = tempDir.resolve("cadd.scores");
+        new DenseScoreStoreWriter(storePath, 0L, 3, 1000f).close();
+        DenseScoreStore caddScores = DenseScoreStore.open(storePath);
+        assertThrows(IllegalArgumentException.class, () -> new RemmDaoDense(caddScores));
+    }
+
+    @Test
+    void missenseVariantHasNoData() {
+        VariantEvaluation missenseVariant = TestFactory.variantBuilder(1, 1, "A", "T")
+                .variantEffect(VariantEffect.MISSENSE_VARIANT)
+                .build();
+        assertThat(instance.getPathogenicityData(missenseVariant), equalTo(PathogenicityData.empty()));
+    }
+
+    @Test
+    void singleNucleotideVariation() {
+        assertThat(instance.getPathogenicityData(variant(1, 1, "A", "T")), equalTo(PathogenicityData.of(RemmScore.of(0.5f))));
+    }
+
+    @Test
+    void singleNucleotideVariationNoData() {
+        assertThat(instance.getPathogenicityData(variant(1, 4, "A", "T")), equalTo(PathogenicityData.empty()));
+        assertThat(instance.getPathogenicityData(variant(2, 1, "A", "T")), equalTo(PathogenicityData.empty()));
+    }
+
+    @Test
+    void insertionUsesMaxScoreOfPositionsEitherSide() {
+        assertThat(instance.getPathogenicityData(variant(1, 1, "A", "AT")), equalTo(PathogenicityData.of(RemmScore.of(0.75f))));
+    }
+
+    @Test
+    void deletionUsesMaxScoreOfDeletedPositions() {
+        assertThat(instance.getPathogenicityData(variant(1, 1, "AGT", "A")), equalTo(PathogenicityData.of(RemmScore.of(0.75f))));
+        assertThat(instance.getPathogenicityData(variant(1, 3, "GT", "G")), equalTo(PathogenicityData.of(RemmScore.of(0.25f))));
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.AlleleKeyDataType;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class SortedBlockAlleleStoreTest {
+
+    private static final String[] BASES = {"A", "C", "G", "T"};
+    private static final long SOURCE_CHECKSUM = 0x1234_5678_9ABCL;
+
+    @TempDir
+    Path tempDir;
+
+    private static AlleleKey alleleKey(int chr, int position, String ref, String alt) {
+        return AlleleKey.newBuilder().setChr(chr).setPosition(position).setRef(ref).setAlt(alt).build();
+    }
+
+    private static AlleleProperties alleleProperties(AlleleKey alleleKey) {
+        return AlleleProperties.newBuilder()
+                .setRsId("rs" + alleleKey.getChr() + alleleKey.getPosition() + alleleKey.getRef() + alleleKey.getAlt())
+                .putProperties("KG", alleleKey.getPosition() % 100 / 100f)
+                .build();
+    }
+
+    private SortedBlockAlleleStore writeStore(Collection<AlleleKey> alleleKeys, int keysPerBlock) {
+        List<AlleleKey> sortedKeys = new ArrayList<>(alleleKeys);
+        sortedKeys.sort(AlleleKeyDataType.INSTANCE::compare);
+        Path storePath = tempDir.resolve("test.alleles");
+        try (SortedBlockAlleleStoreWriter writer = new SortedBlockAlleleStoreWriter(storePath, SOURCE_CHECKSUM, keysPerBlock)) {
+            for (AlleleKey alleleKey : sortedKeys) {
+                writer.write(alleleKey, alleleProperties(alleleKey));
+            }
+            assertThat(writer.getNumKeys(), equalTo((long) sortedKeys.size()));
+        }
+        return SortedBlockAlleleStore.open(storePath);
+    }
+
+    private static List<AlleleKey> alleleKeys(int numKeys) {
+        List<AlleleKey> alleleKeys = new ArrayList<>(numKeys);
+        for (int i = 0; i < numKeys; i++) {
+            int chr = 1 + i % 25;
+            int position = 10_000 + i / 25 * 7;
+            alleleKeys.add(alleleKey(chr, position, BASES[i % 4], BASES[(i + 1) % 4]));
+            if (i % 3 == 0) {
+                alleleKeys.add(alleleKey(chr, position, BASES[i % 4], BASES[(i + 2) % 4] + "TT"));
+            }
+        }
+        return alleleKeys;
+    }
+
+    @Test
+    void emptyStore() {
+        SortedBlockAlleleStore instance = writeStore(List.of(), 4);
+        assertThat(instance.size(), equalTo(0L));
+        assertThat(instance.get(alleleKey(1, 12345, "A", "T")), equalTo(AlleleProperties.getDefaultInstance()));
+    }
+
+    @Test
+    void returnsAllWrittenAlleles() {
+        List<AlleleKey> alleleKeys = alleleKeys(10_000);
+        SortedBlockAlleleStore instance = writeStore(alleleKeys, 16);
+        assertThat(instance.size(), equalTo((long) alleleKeys.size()));
+        for (AlleleKey alleleKey : alleleKeys) {
+            assertThat(instance.get(alleleKey), equalTo(alleleProperties(alleleKey)));
+        }
+    }
+
+    @Test
+    void returnsDefaultInstanceForMissingAlleles() {
+        SortedBlockAlleleStore instance = writeStore(alleleKeys(1000), 16);
+        // wrong alt
+        assertThat(instance.get(alleleKey(1, 10_000, "A", "G")), equalTo(AlleleProperties.getDefaultInstance()));
+        // ref and alt swapped
+        assertThat(instance.get(alleleKey(1, 10_000, "C", "A")), equalTo(AlleleProperties.getDefaultInstance()));
+        // between positions, before the first and after the last
+        assertThat(instance.get(alleleKey(1, 10_001, "A", "C")), equalTo(AlleleProperties.getDefaultInstance()));
+        assertThat(instance.get(alleleKey(1, 1, "A", "C")), equalTo(AlleleProperties.getDefaultInstance()));
+        assertThat(instance.get(alleleKey(1, Integer.MAX_VALUE, "A", "C")), equalTo(AlleleProperties.getDefaultInstance()));
+        // chromosomes which are not in the store
+        assertThat(instance.get(alleleKey(0, 10_000, "A", "C")), equalTo(AlleleProperties.getDefaultInstance()));
+        assertThat(instance.get(alleleKey(26, 10_000, "A", "C")), equalTo(AlleleProperties.getDefaultInstance()));
+        assertThat(instance.get(alleleKey(-1, 10_000, "A", "C")), equalTo(AlleleProperties.getDefaultInstance()));
+    }
+
+    @Test
+    void manyAllelesAtOnePositionSpanningSeveralBlocks() {
+        List<AlleleKey> alleleKeys = new ArrayList<>();
+        alleleKeys.add(alleleKey(1, 99, "A", "T"));
+        for (int i = 0; i < 64; i++) {
+            alleleKeys.add(alleleKey(1, 100, "A", "A" + BASES[i % 4] + BASES[i / 4 % 4] + BASES[i / 16]));
+        }
+        alleleKeys.add(alleleKey(1, 101, "A", "T"));
+        SortedBlockAlleleStore instance = writeStore(alleleKeys, 3);
+        for (AlleleKey alleleKey : alleleKeys) {
+            assertThat(instance.get(alleleKey), equalTo(alleleProperties(alleleKey)));
+        }
+        assertThat(instance.get(alleleKey(1, 100, "A", "TTTT")), equalTo(AlleleProperties.getDefaultInstance()));
+    }
+
+    @Test
+    void disambiguatesAllelesWithTheSameHash() {
+        // find two alleles with a hash collision - the hash is deterministic so this is a fixed number of iterations
+        Map<Integer, String> altsByHash = new HashMap<>();
+        String collidingAlt = null;
+        String otherAlt = null;
+        Random random = new Random(42);
+        while (collidingAlt == null) {
+            StringBuilder alt = new StringBuilder("A");
+            for (int i = 0; i < 12; i++) {
+                alt.append(BASES[random.nextInt(4)]);
+            }
+            String previous = altsByHash.putIfAbsent(SortedBlockAlleleStore.alleleHash("A", alt.toString()), alt.toString());
+            if (previous != null && !previous.equals(alt.toString())) {
+                collidingAlt = alt.toString();
+                otherAlt = previous;
+            }
+        }
+        AlleleKey first = alleleKey(1, 100, "A", collidingAlt);
+        AlleleKey second = alleleKey(1, 100, "A", otherAlt);
+        assertThat(SortedBlockAlleleStore.packKey(100, "A", collidingAlt), equalTo(SortedBlockAlleleStore.packKey(100, "A", otherAlt)));
+
+        List<AlleleKey> alleleKeys = List.of(alleleKey(1, 100, "A", "C"), alleleKey(1, 100, "A", "G"), first, second, alleleKey(1, 100, "A", "T"));
+        // a block size of 1 forces the keys with equal hashes into separate blocks
+        SortedBlockAlleleStore instance = writeStore(alleleKeys, 1);
+        for (AlleleKey alleleKey : alleleKeys) {
+            assertThat(instance.get(alleleKey), equalTo(alleleProperties(alleleKey)));
+        }
+    }
+
+    @Test
+    void storeRecordsSourceChecksum() {
+        SortedBlockAlleleStore instance = writeStore(alleleKeys(10), 8);
+        assertThat(instance.getSourceChecksum(), equalTo(SOURCE_CHECKSUM));
+    }
+
+    @Test
+    void throwsExceptionWhenStoreHasOlderFormatVersion() throws IOException {
+        writeStore(alleleKeys(10), 8);
+        Path storePath = tempDir.resolve("test.alleles");
+        byte[] bytes = Files.readAllBytes(storePath);
+        // version 1 had no source checksum
+        bytes[7] = 1;
+        Path oldVersion = Files.write(tempDir.resolve("old_version.alleles"), bytes);
+        assertThrows(IllegalStateException.class, () -> SortedBlockAlleleStore.open(oldVersion));
+    }
+
+    @Test
+    void writerThrowsExceptionWhenAllelesAreOutOfOrder() {
+        Path storePath = tempDir.resolve("unsorted.alleles");
+        SortedBlockAlleleStoreWriter writer = new SortedBlockAlleleStoreWriter(storePath, SOURCE_CHECKSUM);
+        writer.write(alleleKey(2, 100, "A", "T"), AlleleProperties.getDefaultInstance());
+        assertThrows(IllegalArgumentException.class, () -> writer.write(alleleKey(2, 99, "A", "T"), AlleleProperties.getDefaultInstance()));
+        assertThrows(IllegalArgumentException.class, () -> writer.write(alleleKey(1, 200, "A", "T"), AlleleProperties.getDefaultInstance()));
+        writer.close();
+    }
+
+    @Test
+    void writerRemovesTemporaryFiles() throws IOException {
+        writeStore(alleleKeys(100), 8);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.map(path -> path.getFileName().toString()).collect(Collectors.toList()), equalTo(List.of("test.alleles")));
+        }
+    }
+
+    @Test
+    void throwsExceptionWhenFileIsNotAStore() throws IOException {
+        Path path = Files.write(tempDir.resolve("not_a_store.alleles"), new byte[64]);
+        assertThrows(IllegalStateException.class, () -> SortedBlockAlleleStore.open(path));
+    }
+
+    @Test
+    void throwsExceptionWhenFileIsTruncated() throws IOException {
+        writeStore(alleleKeys(100), 8);
+        Path storePath = tempDir.resolve("test.alleles");
+        byte[] bytes = Files.readAllBytes(storePath);
+        Path truncated = Files.write(tempDir.resolve("truncated.alleles"), Arrays.copyOf(bytes, 200));
+        assertThrows(IllegalStateException.class, () -> SortedBlockAlleleStore.open(truncated));
+    }
+}
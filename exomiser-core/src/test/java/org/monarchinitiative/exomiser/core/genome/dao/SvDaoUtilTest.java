@@ -112,6 +112,26 @@ void testJaccardCoefficient(int startX, int endX, int startY, int endY, float ex
         assertThat(SvDaoUtil.jaccard(x, y), closeTo(expect, 0.01));
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            "  1, 100,     1, 100",
+            "  1, 100,    10,  10",
+            " 10, 100,    50, 100",
+            "  1, 100,    51, 150",
+            " 10, 100,     1, 110",
+            "  1, 100,   200, 500",
+            "  1, 100,   101, 200",
+            "100, 100,   100, 100",
+            "2133, 4007,   1508, 4007",
+            "234613, 24006577,   1, 31930565",
+    })
+    void testPrimitiveJaccardCoefficientMatchesGenomicRegion(int startX, int endX, int startY, int endY) {
+        GenomicRegion x = buildRegion(1, startX, endX);
+        GenomicRegion y = buildRegion(1, startY, endY);
+        assertThat(SvDaoUtil.jaccard(startX, endX, startY, endY), equalTo(SvDaoUtil.jaccard(x, y)));
+        assertThat(SvDaoUtil.jaccard(startY, endY, startX, endX), equalTo(SvDaoUtil.jaccard(y, x)));
+    }
+
     @ParameterizedTest
     @CsvSource({
             " 1, 100,     1, 100,   1.0",
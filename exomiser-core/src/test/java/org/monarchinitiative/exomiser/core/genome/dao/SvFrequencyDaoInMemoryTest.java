@@ -0,0 +1,126 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.monarchinitiative.exomiser.core.genome.TestFactory;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.prioritisers.config.TestDataSourceConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, SvFrequencyDao.class, SvFrequencyDaoInMemory.class})
+@Sql(scripts = {"file:src/test/resources/sql/create_sv_freq.sql", "file:src/test/resources/sql/svFrequencyDaoTestData.sql"})
+class SvFrequencyDaoInMemoryTest {
+
+    @Autowired
+    private SvFrequencyDao sqlDao;
+
+    @Autowired
+    private SvFrequencyDaoInMemory instance;
+
+    private static Variant variant(int chr, int start, int end, String alt, int changeLength) {
+        return TestFactory.variantBuilder(chr, start, end, "", alt, changeLength).build();
+    }
+
+    private static float af(int ac, int an) {
+        return (float) ac / (float) an * 100f;
+    }
+
+    @Test
+    void deletionReturnsBestRepresentedMostSimilarMatch() {
+        FrequencyData result = instance.getFrequencyData(variant(7, 33300, 33700, "<DEL>", -401));
+        assertThat(result, equalTo(FrequencyData.of("gnomAD_v2_DEL_7_1", Frequency.of(FrequencySource.GNOMAD_SV, af(50, 20000)))));
+    }
+
+    @Test
+    void duplicationMatchesGainAndCnv() {
+        FrequencyData result = instance.getFrequencyData(variant(7, 33300, 33700, "<DUP>", 401));
+        assertThat(result, equalTo(FrequencyData.of("nsv1133641", Frequency.of(FrequencySource.DECIPHER, af(30, 600)))));
+    }
+
+    @Test
+    void insertionWithSimilarChangeLength() {
+        FrequencyData result = instance.getFrequencyData(variant(1, 724132, 724132, "<INS>", 2806));
+        assertThat(result, equalTo(FrequencyData.of("nsv544884", Frequency.of(FrequencySource.DGV, af(100, 1452)))));
+    }
+
+    @Test
+    void insertionWithDissimilarChangeLength() {
+        assertThat(instance.getFrequencyData(variant(1, 724132, 724132, "<INS>", 300)), equalTo(FrequencyData.empty()));
+    }
+
+    @Test
+    void shortInsertionsMatchOtherShortInsertions() {
+        assertThat(instance.getFrequencyData(variant(1, 521332, 521332, "<INS:ME>", 300)), equalTo(FrequencyData.of("nsv3000001", Frequency.of(FrequencySource.GONL, af(415, 755)))));
+        assertThat(instance.getFrequencyData(variant(1, 521332, 521332, "<INS:ME>", 1)), equalTo(FrequencyData.of("esv3304209", Frequency.of(FrequencySource.DGV, af(5, 185)))));
+    }
+
+    @Test
+    void poorlyDefinedFrequencyReturnsIdOnly() {
+        assertThat(instance.getFrequencyData(variant(18, 2806309, 2806425, "<INV>", 117)), equalTo(FrequencyData.of("nsv4316669")));
+    }
+
+    @Test
+    void noMatches() {
+        assertThat(instance.getFrequencyData(variant(5, 100, 200, "<DEL>", -101)), equalTo(FrequencyData.empty()));
+        assertThat(instance.getFrequencyData(variant(7, 20000, 20100, "<DEL>", -101)), equalTo(FrequencyData.empty()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1,     521332,    521332,  <INS:ME>,      1",
+            "1,     521332,    521332,  <INS:ME>,    300",
+            "1,     521332,    521632,  <INS:ME>,    300",
+            "1,     724132,    724132,  <INS>,      2806",
+            "1,     724131,    724132,  <INS>,      2806",
+            "1,     724132,    724132,  <INS>,       300",
+            "7,      33300,     33700,  <DEL>,      -401",
+            "7,      33350,     33670,  <DEL>,      -321",
+            "7,      33300,     33700,  <CNV:LOSS>, -401",
+            "7,      33300,     33700,  <CNV>,       401",
+            "7,      33300,     33700,  <DUP>,       401",
+            "7,      33300,     33700,  <INV>,       401",
+            "7,   10000000,  10000500,  <DEL>,      -501",
+            "7,   10000010,  10000500,  <DEL>,      -491",
+            "18,   2806309,   2806425,  <INV>,       117",
+            "5,        100,       200,  <DEL>,      -101",
+    })
+    void resultsMatchSqlDao(int chr, int start, int end, String alt, int changeLength) {
+        Variant variant = variant(chr, start, end, alt, changeLength);
+        assertThat(instance.getFrequencyData(variant), equalTo(sqlDao.getFrequencyData(variant)));
+    }
+}
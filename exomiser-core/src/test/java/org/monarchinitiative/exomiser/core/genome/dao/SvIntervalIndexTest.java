@@ -0,0 +1,124 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.model.SvMetaType;
+import org.monarchinitiative.svart.VariantType;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class SvIntervalIndexTest {
+
+    @Test
+    void emptyIndex() {
+        SvIntervalIndex instance = SvIntervalIndex.builder().build();
+        assertThat(instance.size(), equalTo(0));
+        assertThat(instance.intervals(1, SvMetaType.LOSS), nullValue());
+    }
+
+    @Test
+    void throwsExceptionWithNegativeChromosome() {
+        SvIntervalIndex.Builder builder = SvIntervalIndex.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.add(-1, 1, 100, -100, VariantType.DEL));
+    }
+
+    @Test
+    void intervalsArePartitionedByChromosomeAndMetaType() {
+        SvIntervalIndex.Builder builder = SvIntervalIndex.builder();
+        assertThat(builder.add(1, 100, 200, -101, VariantType.DEL), equalTo(0));
+        assertThat(builder.add(1, 100, 200, 101, VariantType.DUP), equalTo(1));
+        assertThat(builder.add(2, 100, 200, -101, VariantType.CNV_LOSS), equalTo(2));
+        assertThat(builder.add(1, 50, 200, 151, VariantType.INS), equalTo(3));
+        SvIntervalIndex instance = builder.build();
+
+        assertThat(instance.size(), equalTo(4));
+
+        SvIntervalIndex.Intervals chr1Losses = instance.intervals(1, SvMetaType.LOSS);
+        assertThat(chr1Losses.size(), equalTo(1));
+        assertThat(chr1Losses.row(0), equalTo(0));
+        assertThat(chr1Losses.variantType(0), equalTo(VariantType.DEL));
+
+        SvIntervalIndex.Intervals chr1Gains = instance.intervals(1, SvMetaType.GAIN);
+        assertThat(chr1Gains.size(), equalTo(2));
+        // sorted by start
+        assertThat(chr1Gains.start(0), equalTo(50));
+        assertThat(chr1Gains.end(0), equalTo(200));
+        assertThat(chr1Gains.changeLength(0), equalTo(151));
+        assertThat(chr1Gains.row(0), equalTo(3));
+        assertThat(chr1Gains.start(1), equalTo(100));
+        assertThat(chr1Gains.row(1), equalTo(1));
+
+        assertThat(instance.intervals(2, SvMetaType.LOSS).row(0), equalTo(2));
+        assertThat(instance.intervals(2, SvMetaType.GAIN), nullValue());
+        assertThat(instance.intervals(3, SvMetaType.LOSS), nullValue());
+        assertThat(instance.intervals(0, SvMetaType.LOSS), nullValue());
+    }
+
+    @Test
+    void intervalsWithTheSameStartAreInRowOrder() {
+        SvIntervalIndex.Builder builder = SvIntervalIndex.builder();
+        builder.add(1, 100, 300, -201, VariantType.DEL);
+        builder.add(1, 100, 200, -101, VariantType.DEL);
+        builder.add(1, 100, 400, -301, VariantType.DEL);
+        SvIntervalIndex.Intervals intervals = builder.build().intervals(1, SvMetaType.LOSS);
+        assertThat(intervals.row(0), equalTo(0));
+        assertThat(intervals.row(1), equalTo(1));
+        assertThat(intervals.row(2), equalTo(2));
+        assertThat(intervals.end(1), equalTo(200));
+    }
+
+    @Test
+    void firstIndexStartingAtOrAfter() {
+        SvIntervalIndex.Builder builder = SvIntervalIndex.builder();
+        for (int start : new int[]{10, 20, 20, 30, 40}) {
+            builder.add(1, start, start + 100, -101, VariantType.DEL);
+        }
+        SvIntervalIndex.Intervals intervals = builder.build().intervals(1, SvMetaType.LOSS);
+        assertThat(intervals.firstIndexStartingAtOrAfter(1), equalTo(0));
+        assertThat(intervals.firstIndexStartingAtOrAfter(10), equalTo(0));
+        assertThat(intervals.firstIndexStartingAtOrAfter(11), equalTo(1));
+        assertThat(intervals.firstIndexStartingAtOrAfter(20), equalTo(1));
+        assertThat(intervals.firstIndexStartingAtOrAfter(21), equalTo(3));
+        assertThat(intervals.firstIndexStartingAtOrAfter(40), equalTo(4));
+        assertThat(intervals.firstIndexStartingAtOrAfter(41), equalTo(5));
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        SvIntervalIndex.Builder builder = SvIntervalIndex.builder();
+        for (int i = 5000; i > 0; i--) {
+            builder.add(1, i, i + 10, -11, VariantType.DEL);
+        }
+        SvIntervalIndex instance = builder.build();
+        assertThat(instance.size(), equalTo(5000));
+        SvIntervalIndex.Intervals intervals = instance.intervals(1, SvMetaType.LOSS);
+        assertThat(intervals.start(0), equalTo(1));
+        assertThat(intervals.row(0), equalTo(4999));
+        assertThat(intervals.start(4999), equalTo(5000));
+    }
+}
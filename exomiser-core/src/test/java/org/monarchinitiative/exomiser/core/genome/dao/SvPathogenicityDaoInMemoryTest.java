@@ -0,0 +1,117 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.monarchinitiative.exomiser.core.genome.TestFactory;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.ClinVarData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.monarchinitiative.exomiser.core.prioritisers.config.TestDataSourceConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, SvPathogenicityDao.class, SvPathogenicityDaoInMemory.class})
+@Sql(scripts = {"file:src/test/resources/sql/create_sv_path.sql", "file:src/test/resources/sql/svPathogenicityDaoTestData.sql"})
+class SvPathogenicityDaoInMemoryTest {
+
+    @Autowired
+    private SvPathogenicityDao sqlDao;
+
+    @Autowired
+    private SvPathogenicityDaoInMemory instance;
+
+    private static Variant variant(int chr, int start, int end, String alt, int changeLength) {
+        return TestFactory.variantBuilder(chr, start, end, "", alt, changeLength).build();
+    }
+
+    private static ClinVarData clinVarData(String alleleId, ClinVarData.ClinSig clinSig, String reviewStatus) {
+        return ClinVarData.builder()
+                .alleleId(alleleId)
+                .primaryInterpretation(clinSig)
+                .reviewStatus(reviewStatus)
+                .build();
+    }
+
+    @Test
+    void exactMatch() {
+        PathogenicityData result = instance.getPathogenicityData(variant(1, 155205541, 155205595, "<DEL>", -54));
+        ClinVarData expectedClinVarData = clinVarData("10001", ClinVarData.ClinSig.PATHOGENIC, "CRITERIA_PROVIDED_SINGLE_SUBMITTER");
+        assertThat(result, equalTo(PathogenicityData.of(expectedClinVarData, List.of(PathogenicityScore.of(PathogenicitySource.CLINVAR, 1f)))));
+    }
+
+    @Test
+    void equallySimilarMatchesAreAllScoredInPositionOrder() {
+        PathogenicityData result = instance.getPathogenicityData(variant(3, 100, 199, "<DUP>", 100));
+        ClinVarData expectedClinVarData = clinVarData("10003", ClinVarData.ClinSig.PATHOGENIC, "REVIEWED_BY_EXPERT_PANEL");
+        List<PathogenicityScore> expectedScores = List.of(
+                PathogenicityScore.of(PathogenicitySource.CLINVAR, 1f),
+                PathogenicityScore.of(PathogenicitySource.CLINVAR, 0.6f)
+        );
+        assertThat(result, equalTo(PathogenicityData.of(expectedClinVarData, expectedScores)));
+    }
+
+    @Test
+    void cnvMatchesGainsAndLosses() {
+        PathogenicityData result = instance.getPathogenicityData(variant(3, 100, 199, "<CNV>", 0));
+        assertThat(result.getClinVarData(), equalTo(clinVarData("10006", ClinVarData.ClinSig.BENIGN, "CRITERIA_PROVIDED_SINGLE_SUBMITTER")));
+    }
+
+    @Test
+    void noMatches() {
+        assertThat(instance.getPathogenicityData(variant(5, 1, 100, "<DEL>", -100)), equalTo(PathogenicityData.empty()));
+        assertThat(instance.getPathogenicityData(variant(3, 100, 199, "<INV>", 0)), equalTo(PathogenicityData.empty()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1,  155205541, 155205595, <DEL>,        -54",
+            "1,  155205541, 155205690, <DEL>,       -150",
+            "3,        100,       199, <DUP>,        100",
+            "3,        100,       199, <CNV>,          0",
+            "3,        100,       199, <DEL>,       -100",
+            "7,      33350,     33670, <DEL>,       -320",
+            "8,    7268819,   7752586, <CNV:GAIN>, 483767",
+            "8,    7268819,   7752586, <DUP>,      483767",
+            "14, 105814886, 107285437, <DEL>,   -1470551",
+            "5,          1,       100, <DEL>,       -100",
+    })
+    void resultsMatchSqlDao(int chr, int start, int end, String alt, int changeLength) {
+        Variant variant = variant(chr, start, end, alt, changeLength);
+        assertThat(instance.getPathogenicityData(variant), equalTo(sqlDao.getPathogenicityData(variant)));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao.serialisers;
+
+import org.h2.mvstore.WriteBuffer;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.ClinVar;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class CompactAllelePropertiesDataTypeTest {
+
+    private static final AlleleProperties FULL_PROPERTIES = AlleleProperties.newBuilder()
+            .setRsId("rs1234567")
+            .putProperties("KG", 0.04f)
+            .putProperties("GNOMAD_E_NFE", 0.0123f)
+            .putProperties("GNOMAD_G_SAS", 12.5f)
+            .putProperties("PRIMATE_AI", 0.75f)
+            .putProperties("CADD", 23.4f)
+            .setClinVar(ClinVar.newBuilder()
+                    .setAlleleId("12345")
+                    .setPrimaryInterpretation(ClinVar.ClinSig.PATHOGENIC)
+                    .addSecondaryInterpretations(ClinVar.ClinSig.LIKELY_PATHOGENIC)
+                    .setReviewStatus("criteria_provided,_single_submitter")
+                    .putIncludedAlleles("54321", ClinVar.ClinSig.BENIGN)
+                    .build())
+            .build();
+
+    private static ByteBuffer write(CompactAllelePropertiesDataType instance, AlleleProperties alleleProperties) {
+        WriteBuffer writeBuffer = new WriteBuffer();
+        instance.write(writeBuffer, alleleProperties);
+        ByteBuffer buffer = writeBuffer.getBuffer();
+        buffer.flip();
+        return buffer;
+    }
+
+    private static AlleleProperties roundTrip(CompactAllelePropertiesDataType instance, AlleleProperties alleleProperties) {
+        ByteBuffer buffer = write(instance, alleleProperties);
+        AlleleProperties result = (AlleleProperties) instance.read(buffer);
+        assertThat(buffer.remaining(), equalTo(0));
+        return result;
+    }
+
+    @Test
+    void roundTripEmpty() {
+        AlleleProperties empty = AlleleProperties.getDefaultInstance();
+        assertThat(roundTrip(CompactAllelePropertiesDataType.INSTANCE, empty), equalTo(empty));
+    }
+
+    @Test
+    void roundTripAllFields() {
+        assertThat(roundTrip(CompactAllelePropertiesDataType.INSTANCE, FULL_PROPERTIES), equalTo(FULL_PROPERTIES));
+    }
+
+    @Test
+    void roundTripEveryKnownProperty() {
+        AlleleProperties.Builder builder = AlleleProperties.newBuilder();
+        float value = 0.5f;
+        for (String key : CompactAllelePropertiesDataType.PROPERTY_KEYS) {
+            builder.putProperties(key, value++);
+        }
+        AlleleProperties alleleProperties = builder.build();
+        assertThat(roundTrip(CompactAllelePropertiesDataType.INSTANCE, alleleProperties), equalTo(alleleProperties));
+    }
+
+    @Test
+    void roundTripNonNumericRsIds() {
+        for (String rsId : new String[]{".", "rs", "rs0123", "rs123a", "esv12345", "rs123456789012345678901"}) {
+            AlleleProperties alleleProperties = AlleleProperties.newBuilder().setRsId(rsId).putProperties("KG", 1f).build();
+            assertThat(roundTrip(CompactAllelePropertiesDataType.INSTANCE, alleleProperties), equalTo(alleleProperties));
+        }
+    }
+
+    @Test
+    void roundTripUnknownProperties() {
+        AlleleProperties alleleProperties = AlleleProperties.newBuilder()
+                .setRsId("rs12345")
+                .putProperties("KG", 0.04f)
+                .putProperties("NEW_SOURCE", 0.5f)
+                .putProperties("ANOTHER_NEW_SOURCE", 0.25f)
+                .build();
+        assertThat(roundTrip(CompactAllelePropertiesDataType.INSTANCE, alleleProperties), equalTo(alleleProperties));
+    }
+
+    @Test
+    void compactFormatIsSmallerThanProtobuf() {
+        AlleleProperties alleleProperties = AlleleProperties.newBuilder()
+                .setRsId("rs1234567")
+                .putProperties("GNOMAD_E_AFR", 0.04f)
+                .putProperties("GNOMAD_E_NFE", 0.0123f)
+                .putProperties("GNOMAD_G_NFE", 0.0223f)
+                .putProperties("TOPMED", 0.1f)
+                .build();
+        int compactSize = write(CompactAllelePropertiesDataType.INSTANCE, alleleProperties).remaining();
+        int protobufSize = alleleProperties.getSerializedSize();
+        assertThat(compactSize, lessThan(protobufSize / 2));
+    }
+
+    @Test
+    void lazyInstanceReadsEncodedValuesFromPage() {
+        List<AlleleProperties> values = List.of(
+                FULL_PROPERTIES,
+                AlleleProperties.getDefaultInstance(),
+                AlleleProperties.newBuilder().setRsId("esv12345").putProperties("NEW_SOURCE", 0.5f).build(),
+                AlleleProperties.newBuilder().putProperties("CADD", 12.5f).putProperties("REVEL", 0.8f).build()
+        );
+        WriteBuffer writeBuffer = new WriteBuffer();
+        CompactAllelePropertiesDataType.INSTANCE.write(writeBuffer, values.toArray(), values.size(), false);
+        ByteBuffer page = writeBuffer.getBuffer();
+        page.flip();
+
+        Object[] results = new Object[values.size()];
+        CompactAllelePropertiesDataType.LAZY_INSTANCE.read(page, results, results.length, false);
+        assertThat(page.remaining(), equalTo(0));
+        for (int i = 0; i < values.size(); i++) {
+            assertThat(results[i], instanceOf(CompactAlleleProperties.class));
+            assertThat(((CompactAlleleProperties) results[i]).toAlleleProperties(), equalTo(values.get(i)));
+        }
+    }
+
+    @Test
+    void lazyInstanceWritesEncodedValuesUnchanged() {
+        ByteBuffer buffer = write(CompactAllelePropertiesDataType.INSTANCE, FULL_PROPERTIES);
+        CompactAlleleProperties encoded = (CompactAlleleProperties) CompactAllelePropertiesDataType.LAZY_INSTANCE.read(buffer);
+
+        WriteBuffer writeBuffer = new WriteBuffer();
+        CompactAllelePropertiesDataType.LAZY_INSTANCE.write(writeBuffer, encoded);
+        ByteBuffer rewritten = writeBuffer.getBuffer();
+        rewritten.flip();
+        assertThat(CompactAllelePropertiesDataType.INSTANCE.read(rewritten), equalTo(FULL_PROPERTIES));
+    }
+}
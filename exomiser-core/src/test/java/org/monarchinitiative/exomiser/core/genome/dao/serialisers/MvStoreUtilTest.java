@@ -23,12 +23,17 @@
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
 import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
 
+import java.nio.file.Path;
+
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
@@ -49,4 +54,74 @@ public void alleleMapBuilder() throws Exception {
         assertThat(alleleMapBuilder.getKeyType(), equalTo(AlleleKeyDataType.INSTANCE));
         assertThat(alleleMapBuilder.getValueType(), equalTo(AllelePropertiesDataType.INSTANCE));
     }
-}
\ No newline at end of file
+
+    @Test
+    void alleleMapBuilderWithFormat() {
+        assertThat(MvStoreUtil.alleleMapBuilder(AllelePropertiesFormat.PROTOBUF).getValueType(), equalTo(AllelePropertiesDataType.INSTANCE));
+        assertThat(MvStoreUtil.alleleMapBuilder(AllelePropertiesFormat.COMPACT).getValueType(), equalTo(CompactAllelePropertiesDataType.INSTANCE));
+    }
+
+    @Test
+    void storeWithoutRecordedFormatIsProtobuf() {
+        MVStore mvStore = new MVStore.Builder().open();
+        MvStoreUtil.openAlleleMVMap(mvStore);
+        assertThat(MvStoreUtil.readAllelePropertiesFormat(mvStore), equalTo(AllelePropertiesFormat.PROTOBUF));
+    }
+
+    @Test
+    void openAlleleMVMapDetectsRecordedFormat(@TempDir Path tempDir) {
+        String fileName = tempDir.resolve("compact.mv.db").toString();
+        AlleleKey alleleKey = AlleleKey.newBuilder().setChr(1).setPosition(12345).setRef("A").setAlt("T").build();
+        AlleleProperties alleleProperties = AlleleProperties.newBuilder().setRsId("rs12345").putProperties("KG", 0.04f).build();
+
+        MVStore mvStore = new MVStore.Builder().fileName(fileName).open();
+        MVMap<AlleleKey, AlleleProperties> map = MvStoreUtil.openAlleleMVMap(mvStore, AllelePropertiesFormat.COMPACT);
+        assertThat(map.getValueType(), equalTo(CompactAllelePropertiesDataType.INSTANCE));
+        map.put(alleleKey, alleleProperties);
+        mvStore.close();
+
+        MVStore reOpened = new MVStore.Builder().fileName(fileName).readOnly().open();
+        assertThat(MvStoreUtil.readAllelePropertiesFormat(reOpened), equalTo(AllelePropertiesFormat.COMPACT));
+        MVMap<AlleleKey, AlleleProperties> reOpenedMap = MvStoreUtil.openAlleleMVMap(reOpened);
+        assertThat(reOpenedMap.getValueType(), equalTo(CompactAllelePropertiesDataType.INSTANCE));
+        assertThat(reOpenedMap.get(alleleKey), equalTo(alleleProperties));
+        reOpened.close();
+    }
+
+    @Test
+    void openAlleleLookupMVMapDoesNotDecodeCompactValues(@TempDir Path tempDir) {
+        String fileName = tempDir.resolve("compact.mv.db").toString();
+        AlleleKey alleleKey = AlleleKey.newBuilder().setChr(1).setPosition(12345).setRef("A").setAlt("T").build();
+        AlleleProperties alleleProperties = AlleleProperties.newBuilder().setRsId("rs12345").putProperties("KG", 0.04f).build();
+
+        MVStore mvStore = new MVStore.Builder().fileName(fileName).open();
+        MvStoreUtil.openAlleleMVMap(mvStore, AllelePropertiesFormat.COMPACT).put(alleleKey, alleleProperties);
+        mvStore.close();
+
+        MVStore reOpened = new MVStore.Builder().fileName(fileName).readOnly().open();
+        MVMap<AlleleKey, Object> lookupMap = MvStoreUtil.openAlleleLookupMVMap(reOpened);
+        assertThat(lookupMap.getValueType(), equalTo(CompactAllelePropertiesDataType.LAZY_INSTANCE));
+        Object value = lookupMap.get(alleleKey);
+        assertThat(value, instanceOf(CompactAlleleProperties.class));
+        assertThat(MvStoreUtil.toAlleleProperties(value), equalTo(alleleProperties));
+        reOpened.close();
+    }
+
+    @Test
+    void openAlleleLookupMVMapWithProtobufFormat() {
+        AlleleKey alleleKey = AlleleKey.newBuilder().setChr(1).setPosition(12345).setRef("A").setAlt("T").build();
+        AlleleProperties alleleProperties = AlleleProperties.newBuilder().setRsId("rs12345").putProperties("KG", 0.04f).build();
+        MVStore mvStore = new MVStore.Builder().open();
+        MvStoreUtil.openAlleleMVMap(mvStore).put(alleleKey, alleleProperties);
+
+        MVMap<AlleleKey, Object> lookupMap = MvStoreUtil.openAlleleLookupMVMap(mvStore);
+        assertThat(MvStoreUtil.toAlleleProperties(lookupMap.get(alleleKey)), equalTo(alleleProperties));
+    }
+
+    @Test
+    void openAlleleMVMapWithDifferentFormatThrowsException() {
+        MVStore mvStore = new MVStore.Builder().open();
+        MvStoreUtil.openAlleleMVMap(mvStore);
+        assertThrows(IllegalStateException.class, () -> MvStoreUtil.openAlleleMVMap(mvStore, AllelePropertiesFormat.COMPACT));
+    }
+}
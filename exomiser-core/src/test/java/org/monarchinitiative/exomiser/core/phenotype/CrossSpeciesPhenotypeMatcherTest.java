@@ -24,8 +24,10 @@
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.phenotype.dao.PhenotypeMatchMatrix;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,6 +35,7 @@
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
@@ -112,6 +115,51 @@ public void testGetBestForwardAndReciprocalMatches() throws Exception {
         assertThat(instance.findBestForwardAndReverseMatches(modelPhenotypes), equalTo(expected));
     }
 
+    @Test
+    public void testMatchesAnyPhenotype() {
+        assertThat(instance.matchesAnyPhenotype(model(List.of(bigNose.getId()))), equalTo(true));
+        assertThat(instance.matchesAnyPhenotype(model(List.of("HP:9999999", crookedToe.getId()))), equalTo(true));
+    }
+
+    @Test
+    public void testMatchesAnyPhenotypeNoMatch() {
+        // nose is an LCS, not a matched phenotype
+        assertThat(instance.matchesAnyPhenotype(model(List.of(nose.getId(), toe.getId()))), equalTo(false));
+        assertThat(instance.matchesAnyPhenotype(model(List.of())), equalTo(false));
+    }
+
+    @Test
+    public void testMatchesAnyPhenotypeInternedAfterMatcherCreated() {
+        assertThat(instance.matchesAnyPhenotype(model(List.of("HP:" + System.nanoTime()))), equalTo(false));
+    }
+
+    @Test
+    public void testMatchesAnyPhenotypeWithSeparateDictionaries() {
+        PhenotypeIdDictionary dictionary = new PhenotypeIdDictionary();
+        // interns different ids to the same indices as the dictionary of the instance
+        dictionary.internAll(List.of("HP:9999998", "HP:9999999"));
+        CrossSpeciesPhenotypeMatcher other = CrossSpeciesPhenotypeMatcher.of(dictionary, queryPhenotypeMatch);
+        Model model = model(List.of(bigNose.getId()));
+
+        assertThat(instance.matchesAnyPhenotype(model), equalTo(true));
+        assertThat(other.matchesAnyPhenotype(model), equalTo(true));
+        assertThat(other.matchesAnyPhenotype(model(List.of("HP:9999998"))), equalTo(false));
+    }
+
+    private static Model model(List<String> phenotypeIds) {
+        return new Model() {
+            @Override
+            public String getId() {
+                return "MODEL";
+            }
+
+            @Override
+            public List<String> getPhenotypeIds() {
+                return phenotypeIds;
+            }
+        };
+    }
+
     @Test
     public void testCanGetTheoreticalBestModel() {
         assertThat(instance.getQueryPhenotypeMatch(), equalTo(new QueryPhenotypeMatch(Organism.HUMAN, instance.getTermPhenotypeMatches())));
@@ -149,4 +197,103 @@ void testGetPhenodigmRawScoreMissingTermMatch() {
         PhenodigmMatchRawScore expected = new PhenodigmMatchRawScore(4.0, 8.0, ImmutableList.of(bigNose.getId()), bestPhenotypeMatches);
         assertThat(result, equalTo(expected));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetPhenodigmRawScoreNoMatchedTerms() {
+        List<String> modelPhenotypes = ImmutableList.of("HP:0000100", "HP:0000200");
+
+        PhenodigmMatchRawScore result = instance.matchPhenotypeIds(modelPhenotypes);
+
+        PhenodigmMatchRawScore expected = new PhenodigmMatchRawScore(0.0, 0.0, Collections.emptyList(), Collections.emptyList());
+        assertThat(result, equalTo(expected));
+    }
+
+    @Test
+    void testGetPhenodigmRawScoreRetainsModelPhenotypeOrderAndDuplicates() {
+        List<String> modelPhenotypes = ImmutableList.of(longToe.getId(), "HP:0000100", littleNose.getId(), longToe.getId());
+
+        PhenodigmMatchRawScore result = instance.matchPhenotypeIds(modelPhenotypes);
+
+        List<PhenotypeMatch> bestPhenotypeMatches = ImmutableList.of(noseMatch, bigToeLogToeMatch);
+        PhenodigmMatchRawScore expected = new PhenodigmMatchRawScore(2.0, 8.0, ImmutableList.of(longToe.getId(), littleNose.getId(), longToe.getId()), bestPhenotypeMatches);
+        assertThat(result, equalTo(expected));
+    }
+
+    @Test
+    void testGetBestForwardAndReverseMatchesTiesResolvedToFirstTerm() {
+        PhenotypeMatch bigNoseCrookedToeMatch = PhenotypeMatch.builder()
+                .query(bigNose).match(crookedToe).lcs(nose).score(1.5).build();
+        Map<PhenotypeTerm, Set<PhenotypeMatch>> tiedMatches = ImmutableMap.of(
+                bigNose, Sets.newHashSet(bigNoseSelfMatch, bigNoseCrookedToeMatch),
+                bigToe, Sets.newHashSet(bigToeSelfMatch, bigToeCrookedToeMatch)
+        );
+        CrossSpeciesPhenotypeMatcher tiedInstance = CrossSpeciesPhenotypeMatcher.of(Organism.HUMAN, tiedMatches);
+        // both query terms score 1.5 against crookedToe - the reverse match should be the first query term (in id order)
+        List<PhenotypeMatch> expected = ImmutableList.of(bigNoseCrookedToeMatch, bigToeCrookedToeMatch, bigNoseCrookedToeMatch);
+        assertThat(tiedInstance.findBestForwardAndReverseMatches(ImmutableList.of(crookedToe.getId())), equalTo(expected));
+    }
+
+    @Test
+    void throwsExceptionWithDuplicatePhenotypeMatches() {
+        PhenotypeTerm bigNoseAltLabel = PhenotypeTerm.of(bigNose.getId(), "Large nose");
+        PhenotypeMatch altLabelNoseMatch = PhenotypeMatch.builder()
+                .query(bigNoseAltLabel).match(littleNose).lcs(nose).simj(0.5).score(1.0).build();
+        Map<PhenotypeTerm, Set<PhenotypeMatch>> duplicateMatches = ImmutableMap.of(
+                bigNose, Sets.newHashSet(noseMatch),
+                bigNoseAltLabel, Sets.newHashSet(altLabelNoseMatch)
+        );
+        assertThrows(IllegalStateException.class, () -> CrossSpeciesPhenotypeMatcher.of(Organism.HUMAN, duplicateMatches));
+    }
+
+    private Map<PhenotypeTerm, PhenotypeMatchMatrix.Row> matrixRows(List<PhenotypeTerm> queryTerms, Map<PhenotypeTerm, Set<PhenotypeMatch>> phenotypeMatches) {
+        PhenotypeMatchMatrix.Builder builder = PhenotypeMatchMatrix.builder();
+        phenotypeMatches.values().stream()
+                .flatMap(Set::stream)
+                .forEach(match -> builder.add(match.getQueryPhenotypeId(), match.getMatchPhenotypeId(), match.getMatchPhenotype().getLabel(), match.getLcs().getId(), match.getLcs().getLabel(), match.getSimJ(), match.getIc(), match.getScore()));
+        PhenotypeMatchMatrix phenotypeMatchMatrix = builder.build();
+        Map<PhenotypeTerm, PhenotypeMatchMatrix.Row> rows = new LinkedHashMap<>();
+        queryTerms.forEach(queryTerm -> rows.put(queryTerm, phenotypeMatchMatrix.getRow(queryTerm)));
+        return rows;
+    }
+
+    @Test
+    void matrixRowsMatchTheSameAsPhenotypeMatches() {
+        // crooked toe has no matches
+        List<PhenotypeTerm> queryTerms = List.of(bigNose, bigToe, crookedToe);
+        Map<PhenotypeTerm, Set<PhenotypeMatch>> queryTermPhenotypeMatches = new LinkedHashMap<>(phenotypeMatches);
+        queryTermPhenotypeMatches.put(crookedToe, Set.of());
+        CrossSpeciesPhenotypeMatcher expected = CrossSpeciesPhenotypeMatcher.of(Organism.HUMAN, queryTermPhenotypeMatches);
+
+        CrossSpeciesPhenotypeMatcher matrixInstance = CrossSpeciesPhenotypeMatcher.ofMatrixRows(new PhenotypeIdDictionary(), Organism.HUMAN, matrixRows(queryTerms, phenotypeMatches));
+
+        assertThat(matrixInstance.getQueryTerms(), equalTo(queryTerms));
+        assertThat(matrixInstance.getBestPhenotypeMatches(), equalTo(expected.getBestPhenotypeMatches()));
+        assertThat(matrixInstance.getQueryPhenotypeMatch().getMaxMatchScore(), equalTo(expected.getQueryPhenotypeMatch().getMaxMatchScore()));
+        assertThat(matrixInstance.getQueryPhenotypeMatch().getBestAvgScore(), equalTo(expected.getQueryPhenotypeMatch().getBestAvgScore()));
+        assertThat(matrixInstance.getTermPhenotypeMatches(), equalTo(queryTermPhenotypeMatches));
+
+        List<List<String>> models = List.of(
+                List.of(),
+                List.of(littleNose.getId(), longToe.getId()),
+                List.of(bigNose.getId(), crookedToe.getId(), "HP:9999999"),
+                List.of(longToe.getId(), bigToe.getId(), crookedToe.getId(), littleNose.getId())
+        );
+        for (List<String> modelPhenotypes : models) {
+            assertThat(matrixInstance.matchPhenotypeIds(modelPhenotypes), equalTo(expected.matchPhenotypeIds(modelPhenotypes)));
+            assertThat(matrixInstance.findBestForwardAndReverseMatches(modelPhenotypes), equalTo(expected.findBestForwardAndReverseMatches(modelPhenotypes)));
+            Model model = model(modelPhenotypes);
+            assertThat(matrixInstance.matchesAnyPhenotype(model), equalTo(expected.matchesAnyPhenotype(model)));
+        }
+    }
+
+    @Test
+    void emptyMatrixRows() {
+        CrossSpeciesPhenotypeMatcher instance = CrossSpeciesPhenotypeMatcher.ofMatrixRows(new PhenotypeIdDictionary(), Organism.MOUSE, Map.of(bigNose, PhenotypeMatchMatrix.empty().getRow(bigNose)));
+
+        assertThat(instance.getOrganism(), equalTo(Organism.MOUSE));
+        assertThat(instance.getQueryTerms(), equalTo(List.of(bigNose)));
+        assertThat(instance.getBestPhenotypeMatches(), equalTo(Set.of()));
+        assertThat(instance.getTermPhenotypeMatches(), equalTo(Map.of(bigNose, Set.of())));
+        assertThat(instance.matchPhenotypeIds(List.of(bigNose.getId())).getBestPhenotypeMatches(), equalTo(List.of()));
+    }
+}
@@ -96,6 +96,24 @@ public void testScoreModelNoMatch() {
         assertThat(result.getBestPhenotypeMatches().isEmpty(), is(true));
     }
 
+    @Test
+    public void testScoreModelWithNoMatchingPhenotypesIsSameAsMatchingAllPhenotypes() {
+        List<PhenotypeTerm> queryTerms = TestPriorityServiceFactory.pfeifferSyndromePhenotypes();
+        PhenotypeMatcher mousePhenotypeMatcher = priorityService.getMousePhenotypeMatcherForTerms(queryTerms);
+
+        ModelScorer<Model> instance = PhenodigmModelScorer.forSingleCrossSpecies(mousePhenotypeMatcher);
+
+        Model model = new GeneOrthologModel("MOUSE:2", Organism.MOUSE, 12345, "GENE2", "MGI:23456", "gene2", List.of("MP:9999998", "MP:9999999"));
+        assertThat(mousePhenotypeMatcher.matchesAnyPhenotype(model), is(false));
+
+        ModelPhenotypeMatch<Model> result = instance.scoreModel(model);
+        PhenodigmMatchRawScore rawScore = mousePhenotypeMatcher.matchPhenotypeIds(model.getPhenotypeIds());
+
+        assertThat(result.getScore(), equalTo(0.0));
+        assertThat(result.getBestPhenotypeMatches(), equalTo(rawScore.getBestPhenotypeMatches()));
+        assertThat(rawScore.getSumModelBestMatchScores(), equalTo(0.0));
+    }
+
     @Test
     public void testScoreModelPerfectMatch() {
         List<PhenotypeTerm> queryTerms = TestPriorityServiceFactory.pfeifferSyndromePhenotypes();
@@ -0,0 +1,77 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class PhenotypeIdDictionaryTest {
+
+    private final PhenotypeIdDictionary instance = new PhenotypeIdDictionary();
+
+    @Test
+    void internReturnsSameIndexForSameId() {
+        int index = instance.intern("HP:0001156");
+        assertThat(instance.intern("HP:0001156"), equalTo(index));
+        assertThat(instance.intern(new String("HP:0001156")), equalTo(index));
+    }
+
+    @Test
+    void internReturnsDifferentIndicesForDifferentIds() {
+        assertThat(instance.intern("MP:0000031"), not(equalTo(instance.intern("ZP:0000031"))));
+    }
+
+    @Test
+    void indicesAreLessThanSize() {
+        int index = instance.intern("HP:0011304");
+        assertThat(index, lessThan(instance.size()));
+    }
+
+    @Test
+    void internAllEmpty() {
+        assertThat(instance.internAll(List.of()).length, equalTo(0));
+    }
+
+    @Test
+    void internAllReturnsSortedDistinctIndices() {
+        int first = instance.intern("HP:0010055");
+        int second = instance.intern("HP:0001363");
+
+        int[] indices = instance.internAll(List.of("HP:0001363", "HP:0010055", "HP:0001363"));
+
+        assertThat(indices, equalTo(new int[]{Math.min(first, second), Math.max(first, second)}));
+    }
+
+    @Test
+    void indicesAreAssignedPerDictionary() {
+        instance.intern("HP:0001156");
+        PhenotypeIdDictionary other = new PhenotypeIdDictionary();
+        assertThat(other.size(), equalTo(0));
+        assertThat(other.intern("HP:0011304"), equalTo(0));
+    }
+}
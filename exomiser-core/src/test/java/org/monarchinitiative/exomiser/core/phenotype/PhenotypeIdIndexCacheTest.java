@@ -0,0 +1,63 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class PhenotypeIdIndexCacheTest {
+
+    private final PhenotypeIdIndexCache instance = new PhenotypeIdIndexCache();
+    private final List<String> phenotypeIds = List.of("HP:0001363", "HP:0010055", "HP:0001363");
+
+    @Test
+    void getIndices() {
+        PhenotypeIdDictionary dictionary = new PhenotypeIdDictionary();
+        assertThat(instance.getIndices(dictionary, phenotypeIds), equalTo(dictionary.internAll(phenotypeIds)));
+    }
+
+    @Test
+    void getIndicesReturnsCachedIndicesForSameDictionary() {
+        PhenotypeIdDictionary dictionary = new PhenotypeIdDictionary();
+        int[] indices = instance.getIndices(dictionary, phenotypeIds);
+        assertThat(instance.getIndices(dictionary, phenotypeIds), sameInstance(indices));
+    }
+
+    @Test
+    void getIndicesInternsAgainForDifferentDictionary() {
+        PhenotypeIdDictionary dictionary = new PhenotypeIdDictionary();
+        int[] indices = instance.getIndices(dictionary, phenotypeIds);
+
+        PhenotypeIdDictionary other = new PhenotypeIdDictionary();
+        other.intern("HP:0000001");
+        int[] otherIndices = instance.getIndices(other, phenotypeIds);
+
+        assertThat(otherIndices, not(sameInstance(indices)));
+        assertThat(otherIndices, equalTo(other.internAll(phenotypeIds)));
+    }
+}
@@ -21,12 +21,15 @@
 package org.monarchinitiative.exomiser.core.phenotype;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.monarchinitiative.exomiser.core.phenotype.dao.PhenotypeMatchMatrix;
 import org.monarchinitiative.exomiser.core.phenotype.service.OntologyService;
 import org.monarchinitiative.exomiser.core.prioritisers.service.TestPriorityServiceFactory;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
@@ -71,6 +74,35 @@ public void testIntegrationWithModelScorer() {
 
     }
 
+    @Test
+    public void testPreloadedPhenotypeMappingsAreUsedInPlaceOfQueries() {
+        PhenotypeTerm bigNose = PhenotypeTerm.of("HP:0000001", "Big nose");
+        PhenotypeTerm littleNose = PhenotypeTerm.of("HP:0000003", "Little nose");
+        PhenotypeTerm nose = PhenotypeTerm.of("HP:0000002", "Nose");
+        OntologyService mockOntologyService = Mockito.mock(OntologyService.class);
+        Mockito.when(mockOntologyService.getMpoMatchMatrix()).thenReturn(PhenotypeMatchMatrix.builder()
+                .add(bigNose.getId(), "MP:0000001", "big nose", bigNose.getId(), bigNose.getLabel(), 1.0, 4.0, 2.0)
+                .add(bigNose.getId(), "MP:0000003", "little nose", nose.getId(), nose.getLabel(), 0.5, 2.0, 1.0)
+                .build());
+        PhenotypeMatchService instance = new PhenotypeMatchService(mockOntologyService);
+
+        PhenotypeMatcher mouseMatcher = instance.getMousePhenotypeMatcherForTerms(List.of(bigNose, littleNose));
+
+        assertThat(mouseMatcher.getOrganism(), equalTo(Organism.MOUSE));
+        assertThat(mouseMatcher.getQueryTerms(), equalTo(List.of(bigNose, littleNose)));
+        PhenotypeMatch bestMatch = PhenotypeMatch.builder()
+                .query(bigNose)
+                .match(PhenotypeTerm.of("MP:0000001", "big nose"))
+                .lcs(bigNose)
+                .simj(1.0)
+                .ic(4.0)
+                .score(2.0)
+                .build();
+        assertThat(mouseMatcher.getBestPhenotypeMatches(), equalTo(Set.of(bestMatch)));
+        assertThat(mouseMatcher.matchPhenotypeIds(List.of("MP:0000001")).getBestPhenotypeMatches(), equalTo(List.of(bestMatch)));
+        Mockito.verify(mockOntologyService, Mockito.never()).getMpoMatchesForHpoTerm(Mockito.any());
+    }
+
     /**
      * Simple class to enable testing the ModelScorer.
      */
@@ -166,6 +166,22 @@ public void testGetPhenotypeMatchesForHpoTerm() {
         assertThat(matches, equalTo(phenotypeMatches));
     }
 
+    @Test
+    public void testGetPhenotypeMatchMatrix() {
+        PhenotypeMatchMatrix matrix = instance.getPhenotypeMatchMatrix();
+        assertThat(matrix.size(), equalTo(5));
+        assertThat(matrix.numQueryTerms(), equalTo(1));
+        assertThat(matrix.getPhenotypeMatchesForHpoTerm(multicysticKidneyDysplasia), equalTo(phenotypeMatches));
+        // check the iteration order is the same as the SQL query
+        assertThat(new ArrayList<>(matrix.getPhenotypeMatchesForHpoTerm(multicysticKidneyDysplasia)), equalTo(new ArrayList<>(instance.getPhenotypeMatchesForHpoTerm(multicysticKidneyDysplasia))));
+    }
+
+    @Test
+    public void testGetPhenotypeMatchMatrixNonExistentHpoTermReturnsEmptySet() {
+        PhenotypeTerm nonExistentTerm = PhenotypeTerm.of("", "");
+        assertThat(instance.getPhenotypeMatchMatrix().getPhenotypeMatchesForHpoTerm(nonExistentTerm).isEmpty(), is(true));
+    }
+
     @Test
     void testGetIdToPhenotypeTerms() {
         PhenotypeTerm modeOfInheritance = PhenotypeTerm.of("HP:0000005", "Mode of inheritance");
@@ -0,0 +1,189 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.phenotype.dao;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class PhenotypeMatchMatrixTest {
+
+    private final PhenotypeTerm query = PhenotypeTerm.of("HP:0000003", "Multicystic kidney dysplasia");
+    private final PhenotypeTerm otherQuery = PhenotypeTerm.of("HP:0000107", "Renal cyst");
+
+    private final PhenotypeTerm renalDiverticulum = PhenotypeTerm.of("HP:0100877", "Renal diverticulum");
+    private final PhenotypeTerm nephrogenicRest = PhenotypeTerm.of("HP:0100880", "Nephrogenic rest");
+    private final PhenotypeTerm renalCyst = PhenotypeTerm.of("HP:0000107", "Renal cyst");
+    private final PhenotypeTerm abnormalRenalMorphology = PhenotypeTerm.of("HP:0012210", "Abnormal renal morphology");
+
+    private PhenotypeMatch match(PhenotypeTerm query, PhenotypeTerm match, PhenotypeTerm lcs, double simj, double ic, double score) {
+        return PhenotypeMatch.builder().query(query).match(match).lcs(lcs).simj(simj).ic(ic).score(score).build();
+    }
+
+    @Test
+    void emptyMatrix() {
+        PhenotypeMatchMatrix instance = PhenotypeMatchMatrix.empty();
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.size(), equalTo(0));
+        assertThat(instance.numQueryTerms(), equalTo(0));
+        assertThat(instance.getPhenotypeMatchesForHpoTerm(query), is(empty()));
+    }
+
+    @Test
+    void unknownQueryTermReturnsEmptySet() {
+        PhenotypeMatchMatrix instance = PhenotypeMatchMatrix.builder()
+                .add("HP:0000003", "HP:0100877", "Renal diverticulum", "HP:0000107", "Renal cyst", 0.769231, 5.347805, 2.028225214383722)
+                .build();
+        assertThat(instance.getPhenotypeMatchesForHpoTerm(PhenotypeTerm.of("HP:0000001", "All")), is(empty()));
+    }
+
+    @Test
+    void matchesAreGroupedByQueryTermInInsertionOrder() {
+        PhenotypeMatchMatrix instance = PhenotypeMatchMatrix.builder()
+                .add("HP:0000003", "HP:0100877", "Renal diverticulum", "HP:0000107", "Renal cyst", 0.769231, 5.347805, 2.028225214383722)
+                .add("HP:0000107", "HP:0100877", "Renal diverticulum", "HP:0000107", "Renal cyst", 0.9, 5.347805, 2.2)
+                .add("HP:0000003", "HP:0100880", "Nephrogenic rest", "HP:0012210", "Abnormal renal morphology", 0.75, 3.442544, 1.6068316612497417)
+                .build();
+
+        assertThat(instance.size(), equalTo(3));
+        assertThat(instance.numQueryTerms(), equalTo(2));
+
+        Set<PhenotypeMatch> queryMatches = instance.getPhenotypeMatchesForHpoTerm(query);
+        assertThat(new ArrayList<>(queryMatches), equalTo(List.of(
+                match(query, renalDiverticulum, renalCyst, 0.769231, 5.347805, 2.028225214383722),
+                match(query, nephrogenicRest, abnormalRenalMorphology, 0.75, 3.442544, 1.6068316612497417)
+        )));
+
+        assertThat(instance.getPhenotypeMatchesForHpoTerm(otherQuery), equalTo(Set.of(
+                match(otherQuery, renalDiverticulum, renalCyst, 0.9, 5.347805, 2.2)
+        )));
+    }
+
+    @Test
+    void rowReadsMatchesWithoutCreatingPhenotypeMatches() {
+        PhenotypeMatchMatrix instance = PhenotypeMatchMatrix.builder()
+                .add("HP:0000003", "HP:0100880", "Nephrogenic rest", "HP:0012210", "Abnormal renal morphology", 0.75, 3.442544, 1.6068316612497417)
+                .add("HP:0000003", "HP:0100877", "Renal diverticulum", "HP:0000107", "Renal cyst", 0.769231, 5.347805, 2.028225214383722)
+                .add("HP:0000107", "HP:0100877", "Renal diverticulum", "HP:0000107", "Renal cyst", 0.9, 5.347805, 2.2)
+                .build();
+
+        PhenotypeMatchMatrix.Row row = instance.getRow(query);
+        assertThat(row.getQueryTerm(), sameInstance(query));
+        assertThat(row.size(), equalTo(2));
+        assertThat(row.getMatchPhenotypeId(0), equalTo("HP:0100880"));
+        assertThat(row.getScore(0), equalTo(1.6068316612497417));
+        assertThat(row.getMatchPhenotypeId(1), equalTo("HP:0100877"));
+        assertThat(row.getScore(1), equalTo(2.028225214383722));
+        assertThat(row.getBestMatchIndex(), equalTo(1));
+        assertThat(row.getPhenotypeMatch(1), equalTo(match(query, renalDiverticulum, renalCyst, 0.769231, 5.347805, 2.028225214383722)));
+        assertThat(row.getPhenotypeMatches(), equalTo(instance.getPhenotypeMatchesForHpoTerm(query)));
+        assertThrows(IndexOutOfBoundsException.class, () -> row.getScore(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> row.getPhenotypeMatch(-1));
+    }
+
+    @Test
+    void rowBestMatchIndexIsFirstHighestScore() {
+        PhenotypeMatchMatrix instance = PhenotypeMatchMatrix.builder()
+                .add("HP:0000003", "HP:0100880", "Nephrogenic rest", "HP:0012210", "Abnormal renal morphology", 0.75, 3.442544, 2.0)
+                .add("HP:0000003", "HP:0100877", "Renal diverticulum", "HP:0000107", "Renal cyst", 0.769231, 5.347805, 2.0)
+                .build();
+        assertThat(instance.getRow(query).getBestMatchIndex(), equalTo(0));
+    }
+
+    @Test
+    void rowForUnknownQueryTermIsEmpty() {
+        PhenotypeMatchMatrix.Row row = PhenotypeMatchMatrix.empty().getRow(query);
+        assertThat(row.isEmpty(), is(true));
+        assertThat(row.size(), equalTo(0));
+        assertThat(row.getBestMatchIndex(), equalTo(-1));
+        assertThat(row.getPhenotypeMatches(), is(empty()));
+    }
+
+    @Test
+    void matchUsesSuppliedQueryTerm() {
+        PhenotypeMatchMatrix instance = PhenotypeMatchMatrix.builder()
+                .add("HP:0000003", "HP:0100877", "Renal diverticulum", "HP:0000107", "Renal cyst", 0.769231, 5.347805, 2.028225214383722)
+                .build();
+        PhenotypeMatch match = instance.getPhenotypeMatchesForHpoTerm(query).iterator().next();
+        assertThat(match.getQueryPhenotype(), sameInstance(query));
+    }
+
+    @Test
+    void termsAreInterned() {
+        PhenotypeMatchMatrix instance = PhenotypeMatchMatrix.builder()
+                .add("HP:0000003", "HP:0100877", "Renal diverticulum", "HP:0000107", "Renal cyst", 0.769231, 5.347805, 2.028225214383722)
+                .add("HP:0000107", "HP:0100877", "Renal diverticulum", "HP:0000107", "Renal cyst", 0.9, 5.347805, 2.2)
+                .build();
+        PhenotypeMatch queryMatch = instance.getPhenotypeMatchesForHpoTerm(query).iterator().next();
+        PhenotypeMatch otherQueryMatch = instance.getPhenotypeMatchesForHpoTerm(otherQuery).iterator().next();
+        assertThat(queryMatch.getMatchPhenotype(), sameInstance(otherQueryMatch.getMatchPhenotype()));
+        assertThat(queryMatch.getLcs(), sameInstance(otherQueryMatch.getLcs()));
+    }
+
+    @Test
+    void nullLabelIsEmpty() {
+        PhenotypeMatchMatrix instance = PhenotypeMatchMatrix.builder()
+                .add("HP:0000003", "HP:0100877", null, "HP:0000107", null, 0.769231, 5.347805, 2.028225214383722)
+                .build();
+        PhenotypeMatch match = instance.getPhenotypeMatchesForHpoTerm(query).iterator().next();
+        assertThat(match.getMatchPhenotype(), equalTo(PhenotypeTerm.of("HP:0100877", "")));
+        assertThat(match.getLcs(), equalTo(PhenotypeTerm.of("HP:0000107", "")));
+    }
+
+    @Test
+    void throwsExceptionWithNullHitId() {
+        PhenotypeMatchMatrix.Builder builder = PhenotypeMatchMatrix.builder();
+        assertThrows(NullPointerException.class, () -> builder.add("HP:0000003", null, "Renal diverticulum", "HP:0000107", "Renal cyst", 0.769231, 5.347805, 2.028225214383722));
+    }
+
+    @Test
+    void buildsLargeMatrix() {
+        PhenotypeMatchMatrix.Builder builder = PhenotypeMatchMatrix.builder();
+        int numQueries = 100;
+        int numHits = 50;
+        for (int hit = 0; hit < numHits; hit++) {
+            for (int queryTerm = 0; queryTerm < numQueries; queryTerm++) {
+                builder.add("HP:" + queryTerm, "MP:" + hit, "hit " + hit, "HP:0000118", "Phenotypic abnormality", 0.5, 1.0, hit);
+            }
+        }
+        PhenotypeMatchMatrix instance = builder.build();
+        assertThat(instance.size(), equalTo(numQueries * numHits));
+        assertThat(instance.numQueryTerms(), equalTo(numQueries));
+
+        Set<PhenotypeMatch> matches = instance.getPhenotypeMatchesForHpoTerm(PhenotypeTerm.of("HP:42", "query 42"));
+        assertThat(matches.size(), equalTo(numHits));
+        double expectedScore = 0;
+        for (PhenotypeMatch match : matches) {
+            assertThat(match.getScore(), equalTo(expectedScore++));
+        }
+    }
+}
@@ -36,15 +36,19 @@
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatch;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
 import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
 import org.monarchinitiative.exomiser.core.phenotype.dao.MousePhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.PhenotypeMatchMatrix;
 import org.monarchinitiative.exomiser.core.phenotype.dao.ZebraFishPhenotypeOntologyDao;
 
 import java.util.Collections;
 import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 /**
@@ -157,4 +161,67 @@ void testReturnsCurrentHpoIdsWhenGivenObsoleteIds() {
         assertThat(instance.getCurrentHpoIds(ImmutableList.of("HP:0009902", obsoleteThinEarHelixId)), equalTo(expected));
         assertThat(instance.getCurrentHpoIds(ImmutableList.of("HP:0009902", currentThinEarHelixId, obsoleteThinEarHelixId)), equalTo(expected));
     }
+
+    @Test
+    void preloadedPhenotypeMappingsAreUsedInPlaceOfDaos() {
+        PhenotypeTerm cleftHelixMatch = PhenotypeTerm.of("MP:0009902", "cleft helix");
+        PhenotypeTerm helixAbnormality = PhenotypeTerm.of("HP:0011039", "Abnormality of the helix");
+        Mockito.when(mockHpoDao.getPhenotypeMatchMatrix()).thenReturn(PhenotypeMatchMatrix.builder()
+                .add(cleftHelix.getId(), thinEarHelix.getId(), thinEarHelix.getLabel(), helixAbnormality.getId(), helixAbnormality.getLabel(), 0.5, 4.0, 1.414)
+                .build());
+        Mockito.when(mockMpoDao.getPhenotypeMatchMatrix()).thenReturn(PhenotypeMatchMatrix.builder()
+                .add(cleftHelix.getId(), cleftHelixMatch.getId(), cleftHelixMatch.getLabel(), cleftHelix.getId(), cleftHelix.getLabel(), 1.0, 8.0, 2.828)
+                .build());
+        Mockito.when(mockZpoDao.getPhenotypeMatchMatrix()).thenReturn(PhenotypeMatchMatrix.empty());
+
+        instance = new OntologyServiceImpl(mockHpoDao, mockMpoDao, mockZpoDao, true);
+        assertThat(instance.getHpoMatchMatrix().size(), equalTo(1));
+        assertThat(instance.getMpoMatchMatrix().size(), equalTo(1));
+        // empty tables are not used
+        assertThat(instance.getZpoMatchMatrix(), is(nullValue()));
+
+        PhenotypeMatch hpMatch = PhenotypeMatch.builder()
+                .query(cleftHelix)
+                .match(thinEarHelix)
+                .lcs(helixAbnormality)
+                .simj(0.5)
+                .ic(4.0)
+                .score(1.414)
+                .build();
+        assertThat(instance.getHpoMatchesForHpoTerm(cleftHelix), equalTo(Set.of(hpMatch)));
+
+        PhenotypeMatch mpMatch = PhenotypeMatch.builder()
+                .query(cleftHelix)
+                .match(cleftHelixMatch)
+                .lcs(cleftHelix)
+                .simj(1.0)
+                .ic(8.0)
+                .score(2.828)
+                .build();
+        assertThat(instance.getMpoMatchesForHpoTerm(cleftHelix), equalTo(Set.of(mpMatch)));
+        assertThat(instance.getMpoMatchesForHpoTerm(thinEarHelix), equalTo(Collections.emptySet()));
+
+        Mockito.verify(mockHpoDao, Mockito.never()).getPhenotypeMatchesForHpoTerm(Mockito.any());
+        Mockito.verify(mockMpoDao, Mockito.never()).getPhenotypeMatchesForHpoTerm(Mockito.any());
+    }
+
+    @Test
+    void emptyPreloadedPhenotypeMappingsFallBackToDao() {
+        Mockito.when(mockHpoDao.getPhenotypeMatchMatrix()).thenReturn(PhenotypeMatchMatrix.empty());
+        Mockito.when(mockMpoDao.getPhenotypeMatchMatrix()).thenReturn(PhenotypeMatchMatrix.empty());
+        Mockito.when(mockZpoDao.getPhenotypeMatchMatrix()).thenReturn(PhenotypeMatchMatrix.empty());
+
+        instance = new OntologyServiceImpl(mockHpoDao, mockMpoDao, mockZpoDao, true);
+
+        assertThat(instance.getZpoMatchesForHpoTerm(cleftHelix), equalTo(Collections.emptySet()));
+        Mockito.verify(mockZpoDao).getPhenotypeMatchesForHpoTerm(cleftHelix);
+    }
+
+    @Test
+    void phenotypeMappingsNotPreloadedByDefault() {
+        assertThat(instance.getHpoMatchMatrix(), is(nullValue()));
+        Mockito.verify(mockHpoDao, Mockito.never()).getPhenotypeMatchMatrix();
+        Mockito.verify(mockMpoDao, Mockito.never()).getPhenotypeMatchMatrix();
+        Mockito.verify(mockZpoDao, Mockito.never()).getPhenotypeMatchMatrix();
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers;
+
+import org.jblas.FloatMatrix;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
+import org.monarchinitiative.exomiser.core.prioritisers.util.InMemoryDataMatrix;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class ExomeWalkerPriorityTest {
+
+    // spans several blocks of rows with a partial final block
+    private static final int NUM_GENES = 2500;
+    // entrez ids are offset from the row indices so that a mix-up of the two is detected
+    private static final int ENTREZ_ID_OFFSET = 10_000;
+
+    private static final DataMatrix DATA_MATRIX = randomDataMatrix();
+
+    private static DataMatrix randomDataMatrix() {
+        Random random = new Random(42);
+        FloatMatrix matrix = new FloatMatrix(NUM_GENES, NUM_GENES);
+        for (int i = 0; i < matrix.data.length; i++) {
+            matrix.data[i] = random.nextFloat() / 1000f;
+        }
+        Map<Integer, Integer> entrezIdToRowIndex = new HashMap<>();
+        for (int row = 0; row < NUM_GENES; row++) {
+            entrezIdToRowIndex.put(row + ENTREZ_ID_OFFSET, row);
+        }
+        return new InMemoryDataMatrix(matrix, entrezIdToRowIndex);
+    }
+
+    /**
+     * The original sequential implementation - sums each seed gene column into the proximity vector in turn and reads
+     * the score for each gene from it.
+     */
+    private static List<Double> expectedScores(List<Integer> seedGenes, List<Gene> genes) {
+        FloatMatrix proximityVector = FloatMatrix.EMPTY;
+        boolean first = true;
+        for (Integer seedGeneEntrezId : seedGenes) {
+            if (!DATA_MATRIX.containsGene(seedGeneEntrezId)) {
+                continue;
+            }
+            FloatMatrix column = DATA_MATRIX.getColumnMatrixForGene(seedGeneEntrezId);
+            if (first) {
+                proximityVector = column;
+                first = false;
+            } else {
+                proximityVector = proximityVector.add(column);
+            }
+        }
+        List<Double> scores = new ArrayList<>();
+        for (Gene gene : genes) {
+            if (DATA_MATRIX.containsGene(gene.getEntrezGeneID())) {
+                scores.add((double) proximityVector.get(DATA_MATRIX.getRowIndexForGene(gene.getEntrezGeneID()), 0));
+            } else {
+                scores.add(0d);
+            }
+        }
+        return scores;
+    }
+
+    private static List<Gene> allGenesAndUnknownGenes() {
+        List<Gene> genes = new ArrayList<>();
+        for (int row = NUM_GENES - 1; row >= 0; row--) {
+            genes.add(new Gene("GENE" + row, row + ENTREZ_ID_OFFSET));
+        }
+        genes.add(new Gene("UNKNOWN1", 1));
+        genes.add(new Gene("UNKNOWN2", NUM_GENES + ENTREZ_ID_OFFSET));
+        return genes;
+    }
+
+    private static List<Integer> randomSeedGenes(int numSeedGenes) {
+        Random random = new Random(numSeedGenes);
+        List<Integer> seedGenes = new ArrayList<>();
+        for (int i = 0; i < numSeedGenes; i++) {
+            seedGenes.add(random.nextInt(NUM_GENES) + ENTREZ_ID_OFFSET);
+        }
+        return seedGenes;
+    }
+
+    private static List<Double> prioritiseScores(ExomeWalkerPriority instance, List<Gene> genes) {
+        return instance.prioritise(List.of(), genes).map(ExomeWalkerPriorityResult::getScore).collect(toList());
+    }
+
+    @Test
+    void prioritiseScoresAreIdenticalToSequentialSumOfSeedGeneColumns() {
+        List<Gene> genes = allGenesAndUnknownGenes();
+        for (int numSeedGenes : List.of(1, 2, 7, 100, 500)) {
+            List<Integer> seedGenes = randomSeedGenes(numSeedGenes);
+            ExomeWalkerPriority instance = new ExomeWalkerPriority(DATA_MATRIX, seedGenes);
+            assertThat(prioritiseScores(instance, genes), equalTo(expectedScores(seedGenes, genes)));
+        }
+    }
+
+    @Test
+    void prioritiseIgnoresSeedGenesNotInMatrix() {
+        List<Gene> genes = allGenesAndUnknownGenes();
+        List<Integer> seedGenes = List.of(1, 12, ENTREZ_ID_OFFSET + 3, 2, ENTREZ_ID_OFFSET + 2000, ENTREZ_ID_OFFSET + 3);
+        ExomeWalkerPriority instance = new ExomeWalkerPriority(DATA_MATRIX, seedGenes);
+
+        assertThat(instance.getSeedGenes(), equalTo(List.of(ENTREZ_ID_OFFSET + 3, ENTREZ_ID_OFFSET + 2000, ENTREZ_ID_OFFSET + 3)));
+        assertThat(prioritiseScores(instance, genes), equalTo(expectedScores(seedGenes, genes)));
+    }
+
+    @Test
+    void prioritiseReturnsResultsInGeneOrder() {
+        List<Gene> genes = allGenesAndUnknownGenes();
+        ExomeWalkerPriority instance = new ExomeWalkerPriority(DATA_MATRIX, randomSeedGenes(10));
+
+        List<Integer> resultGeneIds = instance.prioritise(List.of(), genes).map(ExomeWalkerPriorityResult::getGeneId).collect(toList());
+        assertThat(resultGeneIds, equalTo(genes.stream().map(Gene::getEntrezGeneID).collect(toList())));
+    }
+
+    @Test
+    void prioritiseNoSeedGenesInMatrix() {
+        List<Gene> genes = allGenesAndUnknownGenes();
+        ExomeWalkerPriority instance = new ExomeWalkerPriority(DATA_MATRIX, List.of(1, 2));
+
+        assertThat(prioritiseScores(instance, genes), equalTo(Collections.nCopies(genes.size(), 0d)));
+    }
+
+    @Test
+    void prioritizeGenesAddsSameResultsAsPrioritise() {
+        List<Gene> genes = allGenesAndUnknownGenes();
+        List<Integer> seedGenes = randomSeedGenes(50);
+        ExomeWalkerPriority instance = new ExomeWalkerPriority(DATA_MATRIX, seedGenes);
+
+        instance.prioritizeGenes(List.of(), genes);
+
+        List<Double> scores = genes.stream()
+                .map(gene -> gene.getPriorityResult(ExomeWalkerPriorityResult.class).getScore())
+                .collect(toList());
+        assertThat(scores, equalTo(expectedScores(seedGenes, genes)));
+    }
+}
@@ -25,8 +25,10 @@
  */
 package org.monarchinitiative.exomiser.core.prioritisers;
 
+import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.phenotype.ModelPhenotypeMatch;
 import org.monarchinitiative.exomiser.core.phenotype.Organism;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeTerm;
 import org.monarchinitiative.exomiser.core.prioritisers.model.*;
@@ -139,6 +141,54 @@ public void testGetHumanScoreMatchesTopModelScore() {
         assertThat(instance.getDiseaseMatches(), equalTo(List.of(topGeneModel, poorMatchModel)));
     }
 
+    @Test
+    public void testGetPhenotypeEvidenceIsBestModelOfEachOrganismInOrganismOrder() {
+        GeneModelPhenotypeMatch fishModel = stubGeneModelPhenotypeMatch(Organism.FISH, 0.4);
+        GeneModelPhenotypeMatch mouseModel = stubGeneModelPhenotypeMatch(Organism.MOUSE, 0.6);
+        GeneModelPhenotypeMatch poorMouseModel = stubGeneModelPhenotypeMatch(Organism.MOUSE, 0.2);
+        GeneModelPhenotypeMatch humanModel = stubGeneModelPhenotypeMatch(Organism.HUMAN, 0.8);
+
+        List<GeneModelPhenotypeMatch> models = List.of(fishModel, poorMouseModel, humanModel, mouseModel);
+        instance = new HiPhivePriorityResult(geneId, geneSymbol, score, queryPhenotypeTerms, models, ppiEvidence, ppiScore, false);
+
+        assertThat(instance.getPhenotypeEvidence(), equalTo(List.of(humanModel, mouseModel, fishModel)));
+        assertThat(instance.getHumanScore(), equalTo(0.8));
+        assertThat(instance.getMouseScore(), equalTo(0.6));
+        assertThat(instance.getFishScore(), equalTo(0.4));
+    }
+
+    @Test
+    public void testCompatibleDiseaseMatchesAreSelectedByModeOfInheritance() {
+        Disease dominantDisease = Disease.builder().diseaseId("OMIM:11111").diseaseName("dominant disease").inheritanceMode(InheritanceMode.AUTOSOMAL_DOMINANT).build();
+        Disease recessiveDisease = Disease.builder().diseaseId("OMIM:22222").diseaseName("recessive disease").inheritanceMode(InheritanceMode.AUTOSOMAL_RECESSIVE).build();
+        GeneModelPhenotypeMatch dominantModel = new GeneModelPhenotypeMatch(0.6, new GeneDiseaseModel("gene1_disease1", Organism.HUMAN, dominantDisease), Collections.emptyList());
+        GeneModelPhenotypeMatch recessiveModel = new GeneModelPhenotypeMatch(0.8, new GeneDiseaseModel("gene1_disease2", Organism.HUMAN, recessiveDisease), Collections.emptyList());
+        instance = new HiPhivePriorityResult(geneId, geneSymbol, score, queryPhenotypeTerms, List.of(dominantModel, recessiveModel), ppiEvidence, ppiScore, false);
+
+        assertThat(instance.getDiseaseMatches(), equalTo(List.of(recessiveModel, dominantModel)));
+        assertThat(instance.getCompatibleDiseaseMatches(ModeOfInheritance.ANY), equalTo(List.of(
+                ModelPhenotypeMatch.of(0.8, recessiveDisease, List.of()),
+                ModelPhenotypeMatch.of(0.6, dominantDisease, List.of()))));
+        assertThat(instance.getCompatibleDiseaseMatches(ModeOfInheritance.AUTOSOMAL_DOMINANT), equalTo(List.of(ModelPhenotypeMatch.of(0.6, dominantDisease, List.of()))));
+        assertThat(instance.getCompatibleDiseaseMatches(ModeOfInheritance.X_RECESSIVE), equalTo(List.of()));
+    }
+
+    @Test
+    public void testDiseaseMatchesIncludeZeroScoreHumanModels() {
+        GeneModelPhenotypeMatch zeroScoreHumanModel = stubGeneModelPhenotypeMatch(Organism.HUMAN, 0);
+        instance = new HiPhivePriorityResult(geneId, geneSymbol, score, queryPhenotypeTerms, List.of(zeroScoreHumanModel), ppiEvidence, ppiScore, false);
+
+        assertThat(instance.getHumanScore(), equalTo(0d));
+        assertThat(instance.getPhenotypeEvidence(), equalTo(List.of()));
+        assertThat(instance.getDiseaseMatches(), equalTo(List.of(zeroScoreHumanModel)));
+    }
+
+    @Test
+    public void testNoDiseaseMatchesWithNoPhenotypeEvidence() {
+        assertThat(instance.getDiseaseMatches(), equalTo(List.of()));
+        assertThat(instance.getCompatibleDiseaseMatches(ModeOfInheritance.AUTOSOMAL_DOMINANT), equalTo(List.of()));
+    }
+
     @Test
     public void testGetMouseScoreIsZeroWithNoDiseaseEvidence() {
         assertThat(instance.getMouseScore(), equalTo(0d));
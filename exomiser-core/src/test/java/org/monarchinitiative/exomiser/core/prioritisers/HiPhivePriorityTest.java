@@ -285,6 +285,71 @@ public void testPrioritizeGenesInBenchmarkingMode() {
 
     }
 
+    @Test
+    public void testPrioritiseGenesSpanningSeveralScoringBatches() {
+        // add enough genes without models to split the genes across several scoring batches, with the genes with
+        // models at either end of the list along with a duplicate gene.
+        List<Gene> genes = new ArrayList<>();
+        genes.add(new Gene("FGFR2", 2263));
+        genes.add(new Gene("ROR2", 4920));
+        for (int i = 0; i < 2500; i++) {
+            genes.add(new Gene("GENE" + i, 1_000_000 + i));
+        }
+        genes.add(new Gene("FREM2", 341640));
+        genes.add(new Gene("ZNF738", 148203));
+        genes.add(new Gene("FGFR2", 2263));
+
+        HiPhivePriority instance = new HiPhivePriority(HiPhiveOptions.builder()
+                .runParams("human,mouse,fish")
+                .build(), DataMatrix.empty(), priorityService);
+
+        List<HiPhivePriorityResult> results = instance.prioritise(hpoIds, genes).collect(toList());
+        assertThat(results.size(), equalTo(genes.size()));
+
+        Map<String, List<Double>> geneScores = expectedHumanMouseFishScores();
+        results.stream()
+                .filter(result -> geneScores.containsKey(result.getGeneSymbol()))
+                .forEach(checkScores(geneScores));
+        results.stream()
+                .filter(result -> result.getGeneSymbol().startsWith("GENE"))
+                .forEach(result -> assertThat(result.getScore(), equalTo(0.0)));
+    }
+
+    @Test
+    public void testPrioritiseWithSuppliedScoringExecutor() {
+        HiPhiveOptions options = HiPhiveOptions.builder()
+                .runParams("human,mouse,fish")
+                .build();
+        HiPhivePriority defaultExecutor = new HiPhivePriority(options, DataMatrix.empty(), priorityService);
+        HiPhivePriority callerRunsExecutor = new HiPhivePriority(options, DataMatrix.empty(), priorityService, Runnable::run);
+
+        List<HiPhivePriorityResult> expected = defaultExecutor.prioritise(hpoIds, getGenes()).collect(toList());
+        List<HiPhivePriorityResult> actual = callerRunsExecutor.prioritise(hpoIds, getGenes()).collect(toList());
+
+        assertThat(actual.size(), equalTo(expected.size()));
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getGeneSymbol(), equalTo(expected.get(i).getGeneSymbol()));
+            assertThat(actual.get(i).getScore(), equalTo(expected.get(i).getScore()));
+            assertThat(actual.get(i).getPhenotypeEvidence(), equalTo(expected.get(i).getPhenotypeEvidence()));
+        }
+    }
+
+    @Test
+    public void testPrioritiseReturnsSameModelsInSameOrderForRepeatedRuns() {
+        HiPhivePriority instance = new HiPhivePriority(HiPhiveOptions.builder()
+                .runParams("human,mouse,fish")
+                .build(), DataMatrix.empty(), priorityService);
+
+        List<HiPhivePriorityResult> first = instance.prioritise(hpoIds, getGenes()).collect(toList());
+        List<HiPhivePriorityResult> second = instance.prioritise(hpoIds, getGenes()).collect(toList());
+
+        assertThat(first.size(), equalTo(second.size()));
+        for (int i = 0; i < first.size(); i++) {
+            assertThat(first.get(i).getGeneSymbol(), equalTo(second.get(i).getGeneSymbol()));
+            assertThat(first.get(i).getPhenotypeEvidence(), equalTo(second.get(i).getPhenotypeEvidence()));
+        }
+    }
+
     @Test
     public void testToString() {
         HiPhivePriority instance = new HiPhivePriority(HiPhiveOptions.defaults(), DataMatrix.empty(), priorityService);
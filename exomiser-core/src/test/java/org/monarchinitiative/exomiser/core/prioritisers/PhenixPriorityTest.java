@@ -0,0 +1,151 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.prioritisers.util.HpoAnnotationSnapshot;
+import org.monarchinitiative.exomiser.core.prioritisers.util.ScoreDistributionSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class PhenixPriorityTest {
+
+    private static final Path PHENIX_TEST_DATA = Paths.get("src/test/resources/prioritisers/phenix");
+
+    private static final List<String> HPO_IDS = List.of("HP:0000252", "HP:0000256");
+
+    private static Path copyPhenixData(Path tempDir) throws IOException {
+        Path phenixDataDir = tempDir.resolve("phenix");
+        Files.createDirectories(phenixDataDir.resolve("out"));
+        try (Stream<Path> files = Files.walk(PHENIX_TEST_DATA)) {
+            for (Path file : files.filter(Files::isRegularFile).collect(toList())) {
+                Files.copy(file, phenixDataDir.resolve(PHENIX_TEST_DATA.relativize(file).toString()));
+            }
+        }
+        return phenixDataDir;
+    }
+
+    private static List<Gene> genes() {
+        return List.of(
+                new Gene("ROR2", 4920),
+                new Gene("UNANNOTATED", 9999),
+                new Gene("FGFR2", 2263),
+                new Gene("GENE1", 1000)
+        );
+    }
+
+    private static List<PhenixPriorityResult> prioritise(PhenixPriority instance) {
+        return instance.prioritise(HPO_IDS, genes()).collect(toList());
+    }
+
+    @Test
+    void prioritiseReturnsResultsInGeneOrder(@TempDir Path tempDir) throws IOException {
+        PhenixPriority instance = new PhenixPriority(copyPhenixData(tempDir).toString(), false);
+
+        List<Integer> resultGeneIds = prioritise(instance).stream().map(PhenixPriorityResult::getGeneId).collect(toList());
+
+        assertThat(resultGeneIds, equalTo(List.of(4920, 9999, 2263, 1000)));
+    }
+
+    @Test
+    void prioritiseScoresGenes(@TempDir Path tempDir) throws IOException {
+        PhenixPriority instance = new PhenixPriority(copyPhenixData(tempDir).toString(), false);
+
+        List<PhenixPriorityResult> results = prioritise(instance);
+        PhenixPriorityResult ror2 = results.get(0);
+        PhenixPriorityResult unannotated = results.get(1);
+        PhenixPriorityResult fgfr2 = results.get(2);
+        PhenixPriorityResult gene1 = results.get(3);
+
+        assertThat(unannotated, equalTo(new PhenixPriorityResult(9999, "UNANNOTATED", 0, 0, 0)));
+        // FGFR2 is annotated with both query terms so is the best match
+        assertThat(fgfr2.getScore(), greaterThan(gene1.getScore()));
+        assertThat(gene1.getScore(), greaterThan(ror2.getScore()));
+        assertThat(fgfr2.getHTMLCode(), not(containsString("p-value: 1.000000")));
+        // GENE1 has no 2 term distribution so uses the 1 term distribution
+        assertThat(gene1.getHTMLCode(), not(containsString("p-value: 1.000000")));
+    }
+
+    @Test
+    void prioritiseIsRepeatable(@TempDir Path tempDir) throws IOException {
+        PhenixPriority instance = new PhenixPriority(copyPhenixData(tempDir).toString(), false);
+
+        assertThat(prioritise(instance), equalTo(prioritise(instance)));
+    }
+
+    @Test
+    void prioritiseWritesAndUsesScoreDistributionSnapshots(@TempDir Path tempDir) throws IOException {
+        Path phenixDataDir = copyPhenixData(tempDir);
+        List<PhenixPriorityResult> expected = prioritise(new PhenixPriority(phenixDataDir.toString(), false));
+
+        Path twoTermDistributions = phenixDataDir.resolve("out/2.out");
+        Path oneTermDistributions = phenixDataDir.resolve("out/1.out");
+        assertThat(Files.exists(ScoreDistributionSnapshot.snapshotFileFor(twoTermDistributions)), is(true));
+        assertThat(Files.exists(ScoreDistributionSnapshot.snapshotFileFor(oneTermDistributions)), is(true));
+        Files.delete(twoTermDistributions);
+        Files.delete(oneTermDistributions);
+
+        assertThat(prioritise(new PhenixPriority(phenixDataDir.toString(), false)), equalTo(expected));
+    }
+
+    @Test
+    void prioritiseWritesAndUsesHpoAnnotationSnapshot(@TempDir Path tempDir) throws IOException {
+        Path phenixDataDir = copyPhenixData(tempDir);
+        List<PhenixPriorityResult> expected = prioritise(new PhenixPriority(phenixDataDir.toString(), false));
+        assertThat(Files.exists(phenixDataDir.resolve(HpoAnnotationSnapshot.FILE_NAME)), is(true));
+
+        // blank out the annotations without changing the size or modification time so that only the snapshot is valid
+        Path annotationFile = phenixDataDir.resolve("ALL_SOURCES_ALL_FREQUENCIES_genes_to_phenotype.txt");
+        FileTime lastModified = Files.getLastModifiedTime(annotationFile);
+        byte[] blankAnnotations = new byte[(int) Files.size(annotationFile)];
+        Arrays.fill(blankAnnotations, (byte) '#');
+        Files.write(annotationFile, blankAnnotations);
+        Files.setLastModifiedTime(annotationFile, lastModified);
+
+        assertThat(prioritise(new PhenixPriority(phenixDataDir.toString(), false)), equalTo(expected));
+    }
+
+    @Test
+    void prioritisersShareLoadedData(@TempDir Path tempDir) throws IOException {
+        PhenixData phenixData = new PhenixData(copyPhenixData(tempDir).toString());
+
+        List<PhenixPriorityResult> expected = prioritise(new PhenixPriority(phenixData, false));
+
+        assertThat(prioritise(new PhenixPriority(phenixData, false)), equalTo(expected));
+        assertThat(phenixData.getHpo(), sameInstance(phenixData.getHpo()));
+    }
+}
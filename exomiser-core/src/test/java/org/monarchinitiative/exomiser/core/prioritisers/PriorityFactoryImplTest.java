@@ -28,6 +28,7 @@
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatchService;
 import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
 import org.monarchinitiative.exomiser.core.phenotype.dao.MousePhenotypeOntologyDao;
@@ -44,6 +45,7 @@
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -109,7 +111,10 @@ public void testmakePrioritiserForPhivePriority() {
 
     @Test
     public void testmakePrioritiserForPhenixPriorityThrowsRuntimeExceptionDueToMissingPhenixData() {
-        assertThrows(NullPointerException.class, () -> instance.makePhenixPrioritiser());
+        // the PhenIX data is loaded lazily the first time the prioritiser is run
+        PhenixPriority phenixPriority = instance.makePhenixPrioritiser();
+        assertThat(phenixPriority, instanceOf(PhenixPriority.class));
+        assertThrows(NullPointerException.class, () -> phenixPriority.prioritise(List.of("HP:0000118"), List.of(new Gene("FGFR2", 2263))));
     }
 
 }
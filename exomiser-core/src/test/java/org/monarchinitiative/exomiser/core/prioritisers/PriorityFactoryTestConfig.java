@@ -31,6 +31,7 @@
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -49,4 +50,9 @@ Path phenixDataDirectory() {
         return Paths.get("stubPhenixDataDir");
     }
 
+    @Bean
+    Executor hiPhiveScoringExecutor() {
+        return Runnable::run;
+    }
+
 }
@@ -40,8 +40,10 @@
 
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 /**
@@ -151,4 +153,22 @@ public void testMultipleDiseaseDataAssociatedWithGeneId() {
 
         assertThat(instance.getDiseaseDataAssociatedWithGeneId(5555), equalTo(List.of(disease1, disease2)));
     }
+
+    @Test
+    public void testGetDiseaseDataAssociatedWithGenes() {
+        List<Disease> diseases = instance.getDiseaseDataAssociatedWithGenes(List.of(2263, 2222, 3333, 4444, 5555, 1));
+        assertThat(diseases, hasItem(disease));
+        for (int geneId : List.of(2263, 2222, 3333, 4444, 5555)) {
+            List<Disease> geneDiseases = diseases.stream()
+                    .filter(geneDisease -> geneDisease.getAssociatedGeneId() == geneId)
+                    .collect(Collectors.toList());
+            assertThat(geneDiseases, equalTo(instance.getDiseaseDataAssociatedWithGeneId(geneId)));
+        }
+    }
+
+    @Test
+    public void testGetDiseaseDataAssociatedWithGenesOnlyReturnsDiseasesForGenes() {
+        assertThat(instance.getDiseaseDataAssociatedWithGenes(List.of(5555)), equalTo(instance.getDiseaseDataAssociatedWithGeneId(5555)));
+        assertThat(instance.getDiseaseDataAssociatedWithGenes(List.of()), equalTo(List.of()));
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.service;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class GeneDiseaseIndexTest {
+
+    private final Disease fgfr2DiseaseA = Disease.builder().diseaseId("OMIM:101600").associatedGeneId(2263).associatedGeneSymbol("FGFR2").build();
+    private final Disease fgfr2DiseaseB = Disease.builder().diseaseId("OMIM:123150").associatedGeneId(2263).associatedGeneSymbol("FGFR2").build();
+    private final Disease ror2Disease = Disease.builder().diseaseId("OMIM:113000").associatedGeneId(4920).associatedGeneSymbol("ROR2").build();
+
+    private final GeneDiseaseIndex instance = GeneDiseaseIndex.of(List.of(ror2Disease, fgfr2DiseaseB, fgfr2DiseaseA));
+
+    @Test
+    void emptyIndex() {
+        GeneDiseaseIndex emptyIndex = GeneDiseaseIndex.of(List.of());
+        assertThat(emptyIndex.numGenes(), equalTo(0));
+        assertThat(emptyIndex.numDiseases(), equalTo(0));
+        assertThat(emptyIndex.getDiseasesForGeneId(2263), equalTo(List.of()));
+    }
+
+    @Test
+    void getDiseasesForGeneId() {
+        assertThat(instance.getDiseasesForGeneId(4920), equalTo(List.of(ror2Disease)));
+    }
+
+    @Test
+    void getDiseasesForGeneIdRetainsInputOrder() {
+        assertThat(instance.getDiseasesForGeneId(2263), equalTo(List.of(fgfr2DiseaseB, fgfr2DiseaseA)));
+    }
+
+    @Test
+    void getDiseasesForUnknownGeneId() {
+        assertThat(instance.getDiseasesForGeneId(0), equalTo(List.of()));
+        assertThat(instance.getDiseasesForGeneId(3000), equalTo(List.of()));
+        assertThat(instance.getDiseasesForGeneId(Integer.MAX_VALUE), equalTo(List.of()));
+    }
+
+    @Test
+    void getDiseasesForGeneIdIsUnmodifiable() {
+        assertThrows(UnsupportedOperationException.class, () -> instance.getDiseasesForGeneId(4920).add(fgfr2DiseaseA));
+    }
+
+    @Test
+    void numGenesAndDiseases() {
+        assertThat(instance.numGenes(), equalTo(2));
+        assertThat(instance.numDiseases(), equalTo(3));
+    }
+}
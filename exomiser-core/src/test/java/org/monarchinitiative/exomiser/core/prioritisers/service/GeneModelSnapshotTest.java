@@ -0,0 +1,152 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneOrthologModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class GeneModelSnapshotTest {
+
+    private static final long CHECKSUM = 1234567890L;
+
+    private final Map<Organism, List<GeneModel>> testModels = Map.of(
+            Organism.HUMAN, TestPrioritiserDataFileReader.readDiseaseModelData("src/test/resources/prioritisers/disease-models"),
+            Organism.MOUSE, TestPrioritiserDataFileReader.readOrganismData("src/test/resources/prioritisers/mouse-models"),
+            Organism.FISH, TestPrioritiserDataFileReader.readOrganismData("src/test/resources/prioritisers/fish-models")
+    );
+
+    @Test
+    void writeThenRead(@TempDir Path tempDir) throws IOException {
+        Path snapshotFile = tempDir.resolve("test" + GeneModelSnapshot.FILE_EXTENSION);
+        assertThat(GeneModelSnapshot.write(snapshotFile, CHECKSUM, testModels), is(true));
+
+        Map<Organism, List<GeneModel>> models = GeneModelSnapshot.read(snapshotFile, CHECKSUM).orElseThrow();
+
+        for (Organism organism : Organism.values()) {
+            assertThat(models.get(organism), equalTo(testModels.get(organism)));
+        }
+        assertThat(diseases(models.get(Organism.HUMAN)), equalTo(diseases(testModels.get(Organism.HUMAN))));
+        assertThat(tempDirContents(tempDir), equalTo(List.of(snapshotFile)));
+    }
+
+    private List<Path> tempDirContents(Path tempDir) throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.collect(toList());
+        }
+    }
+
+    @Test
+    void writeToMissingDirectoryReturnsFalse(@TempDir Path tempDir) throws IOException {
+        Path snapshotFile = tempDir.resolve("missing-directory").resolve("test" + GeneModelSnapshot.FILE_EXTENSION);
+        assertThat(GeneModelSnapshot.write(snapshotFile, CHECKSUM, testModels), is(false));
+        assertThat(tempDirContents(tempDir), equalTo(List.of()));
+    }
+
+    @Test
+    void writeDeletesTempFileOnFailure(@TempDir Path tempDir) throws IOException {
+        // a non-empty directory can't be replaced by the snapshot
+        Path snapshotFile = tempDir.resolve("test" + GeneModelSnapshot.FILE_EXTENSION);
+        Files.createDirectories(snapshotFile.resolve("occupied"));
+
+        assertThat(GeneModelSnapshot.write(snapshotFile, CHECKSUM, testModels), is(false));
+        assertThat(tempDirContents(tempDir), equalTo(List.of(snapshotFile)));
+    }
+
+    private List<Disease> diseases(List<GeneModel> models) {
+        return models.stream().map(model -> ((GeneDiseaseModel) model).getDisease()).collect(toList());
+    }
+
+    @Test
+    void writeThenReadNullAndEmptyValues(@TempDir Path tempDir) {
+        GeneModel nullValues = new GeneOrthologModel("MGI:1_1", Organism.MOUSE, 1, null, null, null, List.of());
+        Disease disease = Disease.builder().diseaseId("OMIM:1").associatedGeneId(1).build();
+        GeneModel emptyDisease = new GeneDiseaseModel("OMIM:1_1", Organism.HUMAN, disease);
+        Map<Organism, List<GeneModel>> models = Map.of(Organism.HUMAN, List.of(emptyDisease), Organism.MOUSE, List.of(nullValues));
+
+        Path snapshotFile = tempDir.resolve("test" + GeneModelSnapshot.FILE_EXTENSION);
+        GeneModelSnapshot.write(snapshotFile, CHECKSUM, models);
+
+        Map<Organism, List<GeneModel>> snapshotModels = GeneModelSnapshot.read(snapshotFile, CHECKSUM).orElseThrow();
+        assertThat(snapshotModels.get(Organism.HUMAN), equalTo(List.of(emptyDisease)));
+        assertThat(snapshotModels.get(Organism.MOUSE), equalTo(List.of(nullValues)));
+        assertThat(snapshotModels.get(Organism.FISH), equalTo(List.of()));
+    }
+
+    @Test
+    void writeHumanModelWithoutDiseaseThrowsException(@TempDir Path tempDir) {
+        GeneModel noDisease = new GeneDiseaseModel("OMIM:1_1", Organism.HUMAN, 1, "GENE1", "OMIM:1", "disease", List.of("HP:0000001"));
+        Path snapshotFile = tempDir.resolve("test" + GeneModelSnapshot.FILE_EXTENSION);
+        assertThrows(IllegalArgumentException.class, () -> GeneModelSnapshot.write(snapshotFile, CHECKSUM, Map.of(Organism.HUMAN, List.of(noDisease))));
+    }
+
+    @Test
+    void readMissingSnapshot(@TempDir Path tempDir) {
+        assertThat(GeneModelSnapshot.read(tempDir.resolve("missing.models"), CHECKSUM), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void readStaleSnapshot(@TempDir Path tempDir) {
+        Path snapshotFile = tempDir.resolve("test" + GeneModelSnapshot.FILE_EXTENSION);
+        GeneModelSnapshot.write(snapshotFile, CHECKSUM, testModels);
+
+        assertThat(GeneModelSnapshot.read(snapshotFile, CHECKSUM + 1), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void readCorruptSnapshot(@TempDir Path tempDir) throws IOException {
+        Path snapshotFile = tempDir.resolve("test" + GeneModelSnapshot.FILE_EXTENSION);
+        GeneModelSnapshot.write(snapshotFile, CHECKSUM, testModels);
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        Files.write(snapshotFile, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThat(GeneModelSnapshot.read(snapshotFile, CHECKSUM), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void readUnknownFormat(@TempDir Path tempDir) throws IOException {
+        Path snapshotFile = tempDir.resolve("test" + GeneModelSnapshot.FILE_EXTENSION);
+        Files.write(snapshotFile, new byte[64]);
+
+        assertThat(GeneModelSnapshot.read(snapshotFile, CHECKSUM), equalTo(Optional.empty()));
+    }
+}
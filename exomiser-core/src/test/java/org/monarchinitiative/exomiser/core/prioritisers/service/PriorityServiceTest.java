@@ -0,0 +1,121 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.service;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.prioritisers.dao.TestDiseaseDao;
+import org.monarchinitiative.exomiser.core.prioritisers.model.Disease;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneDiseaseModel;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneOrthologModel;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class PriorityServiceTest {
+
+    private final GeneModel fgfr2MouseA = new GeneOrthologModel("MGI:95523_1", Organism.MOUSE, 2263, "FGFR2", "MGI:95523", "Fgfr2", List.of("MP:0000031"));
+    private final GeneModel ror2Mouse = new GeneOrthologModel("MGI:1347521_1", Organism.MOUSE, 4920, "ROR2", "MGI:1347521", "Ror2", List.of("MP:0000062"));
+    private final GeneModel fgfr2MouseB = new GeneOrthologModel("MGI:95523_2", Organism.MOUSE, 2263, "FGFR2", "MGI:95523", "Fgfr2", List.of("MP:0000081"));
+
+    private final PriorityService instance = new PriorityService(new TestModelService(List.of(), List.of(fgfr2MouseA, ror2Mouse, fgfr2MouseB), List.of()), null, null);
+
+    @Test
+    void getModelsForOrganismByEntrezGeneId() {
+        Map<Integer, List<GeneModel>> modelsByGene = instance.getModelsForOrganismByEntrezGeneId(Organism.MOUSE);
+
+        assertThat(modelsByGene.size(), equalTo(2));
+        assertThat(modelsByGene.get(2263), equalTo(List.of(fgfr2MouseA, fgfr2MouseB)));
+        assertThat(modelsByGene.get(4920), equalTo(List.of(ror2Mouse)));
+    }
+
+    @Test
+    void getModelsForOrganismByEntrezGeneIdNoModels() {
+        assertThat(instance.getModelsForOrganismByEntrezGeneId(Organism.FISH), equalTo(Map.of()));
+    }
+
+    @Test
+    void getModelsForOrganismByEntrezGeneIdIsBuiltOnce() {
+        assertThat(instance.getModelsForOrganismByEntrezGeneId(Organism.MOUSE), sameInstance(instance.getModelsForOrganismByEntrezGeneId(Organism.MOUSE)));
+    }
+
+    @Test
+    void getModelsForOrganismByEntrezGeneIdIsUnmodifiable() {
+        Map<Integer, List<GeneModel>> modelsByGene = instance.getModelsForOrganismByEntrezGeneId(Organism.MOUSE);
+        assertThrows(UnsupportedOperationException.class, () -> modelsByGene.put(1, List.of()));
+        assertThrows(UnsupportedOperationException.class, () -> modelsByGene.get(2263).add(ror2Mouse));
+    }
+
+    @Test
+    void getDiseaseDataAssociatedWithGeneIdLoadsAllDiseasesOnce() {
+        Disease fgfr2Disease = Disease.builder().diseaseId("OMIM:101600").associatedGeneId(2263).associatedGeneSymbol("FGFR2").build();
+        Disease ror2Disease = Disease.builder().diseaseId("OMIM:113000").associatedGeneId(4920).associatedGeneSymbol("ROR2").build();
+        List<GeneModel> diseaseModels = List.of(new GeneDiseaseModel("OMIM:101600_2263", Organism.HUMAN, fgfr2Disease), new GeneDiseaseModel("OMIM:113000_4920", Organism.HUMAN, ror2Disease));
+        List<Collection<Integer>> bulkQueries = new ArrayList<>();
+        TestDiseaseDao diseaseDao = new TestDiseaseDao(List.of(fgfr2Disease, ror2Disease)) {
+            @Override
+            public List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId) {
+                throw new AssertionError("Unexpected query for gene " + geneId);
+            }
+
+            @Override
+            public List<Disease> getDiseaseDataAssociatedWithGenes(Collection<Integer> geneIds) {
+                bulkQueries.add(geneIds);
+                return List.of(fgfr2Disease, ror2Disease);
+            }
+        };
+        PriorityService priorityService = new PriorityService(new TestModelService(diseaseModels, List.of(), List.of()), null, diseaseDao);
+
+        assertThat(priorityService.getDiseaseDataAssociatedWithGeneId(2263), equalTo(List.of(fgfr2Disease)));
+        assertThat(priorityService.getDiseaseDataAssociatedWithGeneId(4920), equalTo(List.of(ror2Disease)));
+        assertThat(priorityService.getDiseaseDataAssociatedWithGeneId(1), equalTo(List.of()));
+        assertThat(bulkQueries.size(), equalTo(1));
+        assertThat(Set.copyOf(bulkQueries.get(0)), equalTo(Set.of(2263, 4920)));
+    }
+
+    @Test
+    void getDiseaseDataAssociatedWithGeneIdFallsBackToQueryPerGene() {
+        Disease fgfr2Disease = Disease.builder().diseaseId("OMIM:101600").associatedGeneId(2263).associatedGeneSymbol("FGFR2").build();
+        Disease otherFgfr2Disease = Disease.builder().diseaseId("OMIM:123500").associatedGeneId(2263).associatedGeneSymbol("FGFR2").build();
+        List<GeneModel> diseaseModels = List.of(new GeneDiseaseModel("OMIM:101600_2263", Organism.HUMAN, fgfr2Disease), new GeneDiseaseModel("OMIM:123500_2263", Organism.HUMAN, otherFgfr2Disease));
+        AtomicInteger numGeneQueries = new AtomicInteger();
+        TestDiseaseDao diseaseDao = new TestDiseaseDao(List.of(fgfr2Disease, otherFgfr2Disease)) {
+            @Override
+            public List<Disease> getDiseaseDataAssociatedWithGeneId(int geneId) {
+                numGeneQueries.incrementAndGet();
+                return super.getDiseaseDataAssociatedWithGeneId(geneId);
+            }
+        };
+        PriorityService priorityService = new PriorityService(new TestModelService(diseaseModels, List.of(), List.of()), null, diseaseDao);
+
+        assertThat(priorityService.getDiseaseDataAssociatedWithGeneId(2263), equalTo(List.of(fgfr2Disease, otherFgfr2Disease)));
+        assertThat(priorityService.getDiseaseDataAssociatedWithGeneId(2263), equalTo(List.of(fgfr2Disease, otherFgfr2Disease)));
+        assertThat(numGeneQueries.get(), equalTo(1));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.phenotype.Organism;
+import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class SnapshotModelServiceTest {
+
+    private static final long CHECKSUM = 42L;
+
+    private final List<GeneModel> diseaseModels = TestPrioritiserDataFileReader.readDiseaseModelData("src/test/resources/prioritisers/disease-models");
+    private final List<GeneModel> mouseModels = TestPrioritiserDataFileReader.readOrganismData("src/test/resources/prioritisers/mouse-models");
+    private final List<GeneModel> fishModels = TestPrioritiserDataFileReader.readOrganismData("src/test/resources/prioritisers/fish-models");
+
+    private static class CountingModelService extends TestModelService {
+
+        private final AtomicInteger numQueries = new AtomicInteger();
+
+        CountingModelService(List<GeneModel> diseaseModels, List<GeneModel> mouseModels, List<GeneModel> fishModels) {
+            super(diseaseModels, mouseModels, fishModels);
+        }
+
+        @Override
+        public List<GeneModel> getHumanGeneDiseaseModels() {
+            numQueries.incrementAndGet();
+            return super.getHumanGeneDiseaseModels();
+        }
+
+        @Override
+        public List<GeneModel> getMouseGeneOrthologModels() {
+            numQueries.incrementAndGet();
+            return super.getMouseGeneOrthologModels();
+        }
+
+        @Override
+        public List<GeneModel> getFishGeneOrthologModels() {
+            numQueries.incrementAndGet();
+            return super.getFishGeneOrthologModels();
+        }
+    }
+
+    private void assertContainsTestModels(ModelService instance) {
+        assertThat(instance.getHumanGeneDiseaseModels(), equalTo(diseaseModels));
+        assertThat(instance.getMouseGeneOrthologModels(), equalTo(mouseModels));
+        assertThat(instance.getFishGeneOrthologModels(), equalTo(fishModels));
+    }
+
+    @Test
+    void loadsModelsFromDelegateAndWritesSnapshotWhenSnapshotIsMissing(@TempDir Path tempDir) {
+        Path snapshotFile = tempDir.resolve("phenotype" + GeneModelSnapshot.FILE_EXTENSION);
+        CountingModelService delegate = new CountingModelService(diseaseModels, mouseModels, fishModels);
+
+        SnapshotModelService instance = new SnapshotModelService(delegate, snapshotFile, CHECKSUM);
+
+        assertContainsTestModels(instance);
+        assertThat(delegate.numQueries.get(), equalTo(3));
+        assertThat(Files.exists(snapshotFile), is(true));
+    }
+
+    @Test
+    void loadsModelsFromSnapshot(@TempDir Path tempDir) {
+        Path snapshotFile = tempDir.resolve("phenotype" + GeneModelSnapshot.FILE_EXTENSION);
+        new SnapshotModelService(new TestModelService(diseaseModels, mouseModels, fishModels), snapshotFile, CHECKSUM);
+
+        CountingModelService delegate = new CountingModelService(diseaseModels, mouseModels, fishModels);
+        SnapshotModelService instance = new SnapshotModelService(delegate, snapshotFile, CHECKSUM);
+
+        assertContainsTestModels(instance);
+        assertThat(delegate.numQueries.get(), equalTo(0));
+    }
+
+    @Test
+    void loadsModelsFromDelegateAndReplacesStaleSnapshot(@TempDir Path tempDir) {
+        Path snapshotFile = tempDir.resolve("phenotype" + GeneModelSnapshot.FILE_EXTENSION);
+        new SnapshotModelService(new TestModelService(diseaseModels, List.of(mouseModels.get(0)), fishModels), snapshotFile, CHECKSUM);
+
+        CountingModelService delegate = new CountingModelService(diseaseModels, mouseModels, fishModels);
+        SnapshotModelService instance = new SnapshotModelService(delegate, snapshotFile, CHECKSUM + 1);
+
+        assertContainsTestModels(instance);
+        assertThat(delegate.numQueries.get(), equalTo(3));
+        assertThat(GeneModelSnapshot.read(snapshotFile, CHECKSUM + 1).orElseThrow().get(Organism.MOUSE), equalTo(mouseModels));
+    }
+
+    @Test
+    void doesNotWriteSnapshotWithMissingModels(@TempDir Path tempDir) {
+        Path snapshotFile = tempDir.resolve("phenotype" + GeneModelSnapshot.FILE_EXTENSION);
+
+        SnapshotModelService instance = new SnapshotModelService(new TestModelService(diseaseModels, List.of(), fishModels), snapshotFile, CHECKSUM);
+
+        assertThat(instance.getMouseGeneOrthologModels(), equalTo(List.of()));
+        assertThat(Files.exists(snapshotFile), is(false));
+    }
+
+    @Test
+    void loadsModelsFromDelegateWhenSnapshotCannotBeWritten(@TempDir Path tempDir) {
+        Path snapshotFile = tempDir.resolve("missing-directory").resolve("phenotype" + GeneModelSnapshot.FILE_EXTENSION);
+
+        SnapshotModelService instance = new SnapshotModelService(new TestModelService(diseaseModels, mouseModels, fishModels), snapshotFile, CHECKSUM);
+
+        assertContainsTestModels(instance);
+        assertThat(Files.exists(snapshotFile), is(false));
+    }
+}
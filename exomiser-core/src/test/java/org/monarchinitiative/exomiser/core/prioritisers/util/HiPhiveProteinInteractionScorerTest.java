@@ -22,6 +22,8 @@
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
 import org.jblas.FloatMatrix;
 import org.junit.jupiter.api.Test;
 import org.monarchinitiative.exomiser.core.phenotype.Organism;
@@ -29,9 +31,7 @@
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneMatch;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModelPhenotypeMatch;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -165,4 +165,76 @@ public void geneInNetworkClosestHitTwoNetworks() {
         assertThat(closestPhenoMatchInNetwork.getBestMatchModels(), equalTo(ImmutableList.of(model3)));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void geneInNetworkTiedScoresGoToFirstHighQualityGene() {
+        // genes 2 and 4 are equally close to gene 3 with the same phenotype score
+        GeneModelPhenotypeMatch model4 = geneModelMatch(4, 0.7, "MONDO:4");
+        GeneModelPhenotypeMatch model2 = geneModelMatch(2, 0.7, "MONDO:2");
+
+        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = LinkedListMultimap.create();
+        bestGeneModels.put(model4.getEntrezGeneId(), model4);
+        bestGeneModels.put(model2.getEntrezGeneId(), model2);
+
+        HiPhiveProteinInteractionScorer instance = new HiPhiveProteinInteractionScorer(dataMatrix, bestGeneModels, HIGH_QUALITY_PHENO_SCORE_CUT_OFF);
+
+        GeneMatch closestPhenoMatchInNetwork = instance.getClosestPhenoMatchInNetwork(3);
+        assertThat(closestPhenoMatchInNetwork.getMatchGeneId(), equalTo(4));
+        assertThat(closestPhenoMatchInNetwork.getScore(), closeTo(0.57d, 0.001));
+        // a high quality gene is matched to the other high quality gene, not itself
+        assertThat(instance.getClosestPhenoMatchInNetwork(2).getMatchGeneId(), equalTo(4));
+        assertThat(instance.getClosestPhenoMatchInNetwork(4).getMatchGeneId(), equalTo(2));
+        // genes in the other network have no connection to the high-quality genes
+        assertThat(instance.getClosestPhenoMatchInNetwork(5), equalTo(GeneMatch.NO_HIT));
+    }
+
+    @Test
+    public void closestPhenoMatchInNetworkIsBestWeightedCellOfRow() {
+        // larger than a single block of rows, to check the parallel scan of the rows
+        int size = 2_500;
+        SplittableRandom random = new SplittableRandom(42);
+        FloatMatrix matrix = new FloatMatrix(size, size);
+        Map<Integer, Integer> geneIdToRowIndex = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            geneIdToRowIndex.put(i + 1, i);
+            for (int j = 0; j < size; j++) {
+                // include lots of zeros and ties
+                matrix.put(i, j, random.nextInt(4) == 0 ? 0f : random.nextInt(100) / 1000f);
+            }
+        }
+        DataMatrix largeDataMatrix = new InMemoryDataMatrix(matrix, geneIdToRowIndex);
+
+        ListMultimap<Integer, GeneModelPhenotypeMatch> bestGeneModels = LinkedListMultimap.create();
+        List<Integer> highQualityGenes = new ArrayList<>();
+        List<Float> highQualityScores = new ArrayList<>();
+        // not in ascending order, to check that ties go to the first high quality gene
+        for (int geneId = size; geneId >= 1; geneId -= 37) {
+            double phenoScore = 0.61 + random.nextInt(4) / 10.0;
+            bestGeneModels.put(geneId, geneModelMatch(geneId, phenoScore, "MONDO:" + geneId));
+            highQualityGenes.add(geneId);
+            highQualityScores.add((float) phenoScore);
+        }
+
+        HiPhiveProteinInteractionScorer instance = new HiPhiveProteinInteractionScorer(largeDataMatrix, bestGeneModels, HIGH_QUALITY_PHENO_SCORE_CUT_OFF);
+
+        for (int queryGeneId = 1; queryGeneId <= size; queryGeneId++) {
+            int row = queryGeneId - 1;
+            int expectedGeneId = -1;
+            float expectedScore = 0;
+            for (int i = 0; i < highQualityGenes.size(); i++) {
+                int geneId = highQualityGenes.get(i);
+                float cellScore = matrix.get(row, geneId - 1) * highQualityScores.get(i);
+                if (geneId != queryGeneId && cellScore > expectedScore) {
+                    expectedScore = cellScore;
+                    expectedGeneId = geneId;
+                }
+            }
+            GeneMatch geneMatch = instance.getClosestPhenoMatchInNetwork(queryGeneId);
+            if (expectedGeneId == -1) {
+                assertThat(geneMatch, equalTo(GeneMatch.NO_HIT));
+            } else {
+                assertThat(geneMatch.getMatchGeneId(), equalTo(expectedGeneId));
+                assertThat(geneMatch.getScore(), equalTo(0.5 + expectedScore));
+            }
+        }
+    }
+}
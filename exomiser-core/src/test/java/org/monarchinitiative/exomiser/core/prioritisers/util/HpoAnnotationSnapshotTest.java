@@ -0,0 +1,116 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class HpoAnnotationSnapshotTest {
+
+    private final HpoAnnotationSnapshot snapshot = new HpoAnnotationSnapshot(
+            Map.of("HP:0000001", 0.0, "HP:0000252", 2.5, "HP:0000256", 3.0),
+            Map.of("2263", List.of("HP:0000252", "HP:0000256"), "4920", List.of("HP:0000256"))
+    );
+
+    private static List<Path> writeSourceFiles(Path tempDir) throws IOException {
+        Path oboFile = Files.write(tempDir.resolve("hp.obo"), "format-version: 1.2\n".getBytes());
+        Path annotationFile = Files.write(tempDir.resolve("genes_to_phenotype.txt"), "2263\tFGFR2\tMicrocephaly\tHP:0000252\n".getBytes());
+        return List.of(oboFile, annotationFile);
+    }
+
+    @Test
+    void writeThenRead(@TempDir Path tempDir) throws IOException {
+        List<Path> sourceFiles = writeSourceFiles(tempDir);
+        Path snapshotFile = tempDir.resolve(HpoAnnotationSnapshot.FILE_NAME);
+
+        assertThat(snapshot.write(snapshotFile, sourceFiles), is(true));
+        HpoAnnotationSnapshot instance = HpoAnnotationSnapshot.read(snapshotFile, sourceFiles).orElseThrow();
+
+        assertThat(instance.getInformationContentByTermId(), equalTo(snapshot.getInformationContentByTermId()));
+        assertThat(instance.getTermIdsByGeneId(), equalTo(snapshot.getTermIdsByGeneId()));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".tmp")).collect(Collectors.toList()), empty());
+        }
+    }
+
+    @Test
+    void writeToMissingDirectory(@TempDir Path tempDir) throws IOException {
+        List<Path> sourceFiles = writeSourceFiles(tempDir);
+        Path snapshotFile = tempDir.resolve("missing").resolve(HpoAnnotationSnapshot.FILE_NAME);
+
+        assertThat(snapshot.write(snapshotFile, sourceFiles), is(false));
+        assertThat(Files.exists(snapshotFile), is(false));
+    }
+
+    @Test
+    void readMissingSnapshot(@TempDir Path tempDir) throws IOException {
+        List<Path> sourceFiles = writeSourceFiles(tempDir);
+
+        assertThat(HpoAnnotationSnapshot.read(tempDir.resolve(HpoAnnotationSnapshot.FILE_NAME), sourceFiles), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void readStaleSnapshot(@TempDir Path tempDir) throws IOException {
+        List<Path> sourceFiles = writeSourceFiles(tempDir);
+        Path snapshotFile = tempDir.resolve(HpoAnnotationSnapshot.FILE_NAME);
+        snapshot.write(snapshotFile, sourceFiles);
+        Path annotationFile = sourceFiles.get(1);
+        Files.setLastModifiedTime(annotationFile, FileTime.fromMillis(Files.getLastModifiedTime(annotationFile).toMillis() + 60_000));
+
+        assertThat(HpoAnnotationSnapshot.read(snapshotFile, sourceFiles), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void readTruncatedSnapshot(@TempDir Path tempDir) throws IOException {
+        List<Path> sourceFiles = writeSourceFiles(tempDir);
+        Path snapshotFile = tempDir.resolve(HpoAnnotationSnapshot.FILE_NAME);
+        snapshot.write(snapshotFile, sourceFiles);
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        Files.write(snapshotFile, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertThat(HpoAnnotationSnapshot.read(snapshotFile, sourceFiles), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void readUnknownFormat(@TempDir Path tempDir) throws IOException {
+        List<Path> sourceFiles = writeSourceFiles(tempDir);
+        Path snapshotFile = Files.write(tempDir.resolve(HpoAnnotationSnapshot.FILE_NAME), new byte[64]);
+
+        assertThat(HpoAnnotationSnapshot.read(snapshotFile, sourceFiles), equalTo(Optional.empty()));
+    }
+}
@@ -30,6 +30,7 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.FloatBuffer;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -141,6 +142,16 @@ public void testGetColumnMatrixForGeneInIndex() {
 //        }
     }
 
+    @Test
+    public void testGetColumnForGeneInIndex() {
+        FloatBuffer column = instance.getColumnForGene(3333);
+        assertThat(column.isReadOnly(), is(true));
+        assertThat(column.limit(), equalTo(4));
+        float[] values = new float[column.limit()];
+        column.get(values);
+        assertThat(new FloatMatrix(values), equalTo(new FloatMatrix(new float[]{0.3f, 1.3f, 2.3f, 3.3f})));
+    }
+
     @Test
     public void testMakeSubMatrix() {
         float[][] matrix = {{0.0f, 0.1f, 0.2f}, {1.0f, 1.1f, 1.2f}, {2.0f, 2.1f, 2.2f}};
@@ -0,0 +1,168 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.jblas.FloatMatrix;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class MappedDataMatrixTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static InMemoryDataMatrix inMemoryDataMatrix() {
+        float[][] matrix = {
+                {0.0f, 0.1f, 0.2f, 0.3f},
+                {1.0f, 1.1f, 1.2f, 1.3f},
+                {2.0f, 2.1f, 2.2f, 2.3f},
+                {3.0f, 3.1f, 3.2f, 3.3f}
+        };
+        Map<Integer, Integer> entrezIdToRowIndex = new TreeMap<>();
+        // deliberately not in row order
+        entrezIdToRowIndex.put(2222, 0);
+        entrezIdToRowIndex.put(1111, 1);
+        entrezIdToRowIndex.put(4444, 2);
+        entrezIdToRowIndex.put(3333, 3);
+        return new InMemoryDataMatrix(new FloatMatrix(matrix), entrezIdToRowIndex);
+    }
+
+    private MappedDataMatrix writeAndOpen(DataMatrix dataMatrix) {
+        Path matrixPath = tempDir.resolve("matrix" + MappedDataMatrix.FILE_EXTENSION);
+        DataMatrixIO.writeMappedDataMatrix(dataMatrix, matrixPath);
+        return MappedDataMatrix.open(matrixPath);
+    }
+
+    private void assertMatricesEqual(DataMatrix actual, DataMatrix expected) {
+        assertThat(actual.numRows(), equalTo(expected.numRows()));
+        assertThat(actual.numColumns(), equalTo(expected.numColumns()));
+        assertThat(actual.getEntrezIdToRowIndex(), equalTo(expected.getEntrezIdToRowIndex()));
+        for (Integer entrezId : expected.getEntrezIdToRowIndex().keySet()) {
+            assertThat(actual.containsGene(entrezId), is(true));
+            assertThat(actual.getRowIndexForGene(entrezId), equalTo(expected.getRowIndexForGene(entrezId)));
+            assertThat(actual.getColumnMatrixForGene(entrezId), equalTo(expected.getColumnMatrixForGene(entrezId)));
+        }
+        assertThat(actual.getMatrix(), equalTo(expected.getMatrix()));
+    }
+
+    @Test
+    void writeAndOpenMatchesOriginal() {
+        DataMatrix expected = inMemoryDataMatrix();
+        MappedDataMatrix instance = writeAndOpen(expected);
+        assertMatricesEqual(instance, expected);
+    }
+
+    @Test
+    void missingGene() {
+        MappedDataMatrix instance = writeAndOpen(inMemoryDataMatrix());
+        assertThat(instance.containsGene(9999), is(false));
+        assertThat(instance.getRowIndexForGene(9999), is(nullValue()));
+        assertThat(instance.getColumnMatrixForGene(9999), is(nullValue()));
+        assertThat(instance.getColumnForGene(9999), is(nullValue()));
+    }
+
+    @Test
+    void getColumnForGeneIsReadOnlyView() {
+        MappedDataMatrix instance = writeAndOpen(inMemoryDataMatrix());
+        FloatBuffer column = instance.getColumnForGene(4444);
+        assertThat(column.isReadOnly(), is(true));
+        assertThat(column.remaining(), equalTo(4));
+        assertThat(column.get(0), equalTo(0.2f));
+        assertThat(column.get(1), equalTo(1.2f));
+        assertThat(column.get(2), equalTo(2.2f));
+        assertThat(column.get(3), equalTo(3.2f));
+        // reading one view does not affect another
+        column.get();
+        assertThat(instance.getColumnForGene(4444).position(), equalTo(0));
+    }
+
+    @Test
+    void matrixSplitIntoSeveralMappedRegions() {
+        DataMatrix expected = inMemoryDataMatrix();
+        Path matrixPath = tempDir.resolve("regions.rwm");
+        DataMatrixIO.writeMappedDataMatrix(expected, matrixPath);
+        // room for three columns of four floats per region
+        MappedDataMatrix instance = MappedDataMatrix.open(matrixPath, 3 * 4 * Float.BYTES);
+        assertThat(instance.toString(), containsString("numRegions=2"));
+        assertMatricesEqual(instance, expected);
+    }
+
+    @Test
+    void emptyMatrix() {
+        MappedDataMatrix instance = writeAndOpen(new InMemoryDataMatrix(new FloatMatrix(0, 0), Map.of()));
+        assertThat(instance.numRows(), equalTo(0));
+        assertThat(instance.getEntrezIdToRowIndex().isEmpty(), is(true));
+        assertThat(instance.getMatrix().isEmpty(), is(true));
+    }
+
+    @Test
+    void convertMapToMappedDataMatrix() throws IOException {
+        // copied as the MVStore file can only be opened once in a JVM and other tests do not close the original
+        Path mapPath = Files.copy(Paths.get("src/test/resources/prioritisers/test_ppi_matrix.mv"), tempDir.resolve("test_ppi_matrix.mv"));
+        Path matrixPath = tempDir.resolve("test_ppi_matrix.rwm");
+        DataMatrixIO.convertMapToMappedDataMatrix(mapPath, matrixPath);
+
+        DataMatrix expected = DataMatrixIO.loadInMemoryDataMatrix(mapPath);
+        DataMatrix instance = DataMatrixIO.loadMappedDataMatrix(matrixPath);
+        assertThat(instance.numRows(), equalTo(10));
+        assertMatricesEqual(instance, expected);
+    }
+
+    @Test
+    void writeThrowsExceptionWithInvalidRowIndex() {
+        FloatMatrix floatMatrix = new FloatMatrix(2, 2);
+        DataMatrix invalid = new InMemoryDataMatrix(floatMatrix, Map.of(1, 0, 2, 2));
+        Path matrixPath = tempDir.resolve("invalid.rwm");
+        assertThrows(IllegalArgumentException.class, () -> DataMatrixIO.writeMappedDataMatrix(invalid, matrixPath));
+    }
+
+    @Test
+    void openThrowsExceptionForWrongFileType() throws IOException {
+        Path notAMatrix = tempDir.resolve("not_a_matrix.rwm");
+        Files.write(notAMatrix, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IllegalStateException.class, () -> MappedDataMatrix.open(notAMatrix));
+    }
+
+    @Test
+    void openThrowsExceptionForTruncatedFile() throws IOException {
+        Path matrixPath = tempDir.resolve("truncated.rwm");
+        DataMatrixIO.writeMappedDataMatrix(inMemoryDataMatrix(), matrixPath);
+        byte[] bytes = Files.readAllBytes(matrixPath);
+        Files.write(matrixPath, Arrays.copyOf(bytes, bytes.length - Float.BYTES));
+        assertThrows(IllegalStateException.class, () -> MappedDataMatrix.open(matrixPath));
+    }
+}
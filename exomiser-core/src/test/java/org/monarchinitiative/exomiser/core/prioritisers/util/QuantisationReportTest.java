@@ -0,0 +1,108 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.jblas.FloatMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class QuantisationReportTest {
+
+    @Test
+    void topRows() {
+        float[] values = {0.5f, 0.1f, 0.9f, 0.5f, 0.7f};
+        assertThat(QuantisationReport.topRows(values, 3, -1), equalTo(new int[]{2, 4, 0}));
+        // excludes the self-hit and ties go to the lowest index
+        assertThat(QuantisationReport.topRows(values, 3, 2), equalTo(new int[]{4, 0, 3}));
+        assertThat(QuantisationReport.topRows(values, 10, 2), equalTo(new int[]{4, 0, 3, 1}));
+        assertThat(QuantisationReport.topRows(new float[]{1f}, 10, 0), equalTo(new int[0]));
+    }
+
+    @Test
+    void identicalMatrices() {
+        InMemoryDataMatrix matrix = QuantisedDataMatrixTest.randomWalkLikeMatrix(20, 1);
+        QuantisationReport instance = QuantisationReport.compare(matrix, matrix);
+        assertThat(instance.getNumColumns(), equalTo(20));
+        assertThat(instance.getTopK(), equalTo(QuantisationReport.DEFAULT_TOP_K));
+        assertThat(instance.getMaxAbsoluteError(), equalTo(0.0));
+        assertThat(instance.getMeanAbsoluteError(), equalTo(0.0));
+        assertThat(instance.getMaxNormalisedError(), equalTo(0.0));
+        assertThat(instance.getTopHitAgreement(), equalTo(1.0));
+        assertThat(instance.getMeanTopHitScoreLoss(), equalTo(0.0));
+        assertThat(instance.getMeanTopKOverlap(), equalTo(1.0));
+    }
+
+    @Test
+    void differentTopHit() {
+        Map<Integer, Integer> index = Map.of(1, 0, 2, 1, 3, 2);
+        FloatMatrix expected = new FloatMatrix(new float[][]{
+                {1f, 0f, 0f},
+                {0.5f, 1f, 0f},
+                {0.4f, 0f, 1f},
+        });
+        FloatMatrix actual = new FloatMatrix(new float[][]{
+                {1f, 0f, 0f},
+                {0.4f, 1f, 0f},
+                {0.5f, 0f, 1f},
+        });
+        QuantisationReport instance = QuantisationReport.compare(new InMemoryDataMatrix(expected, index), new InMemoryDataMatrix(actual, index), List.of(1, 99), 1);
+        // gene 99 isn't in the matrix so is ignored
+        assertThat(instance.getNumColumns(), equalTo(1));
+        assertThat(instance.getTopHitAgreement(), equalTo(0.0));
+        assertThat(instance.getMeanTopHitScoreLoss(), closeTo(0.2, 1e-6));
+        assertThat(instance.getMeanTopKOverlap(), equalTo(0.0));
+        assertThat(instance.getMaxAbsoluteError(), closeTo(0.1, 1e-6));
+        assertThat(instance.getMaxNormalisedError(), closeTo(0.1, 1e-6));
+    }
+
+    @Test
+    void throwsExceptionWithDifferentIndices() {
+        InMemoryDataMatrix first = new InMemoryDataMatrix(new FloatMatrix(1, 1), Map.of(1, 0));
+        InMemoryDataMatrix second = new InMemoryDataMatrix(new FloatMatrix(1, 1), Map.of(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> QuantisationReport.compare(first, second));
+    }
+
+    /**
+     * Benchmark of the half-precision matrix against the float32 rankings of a random-walk-like matrix.
+     */
+    @Test
+    void quantisedRankingAccuracy() {
+        InMemoryDataMatrix reference = QuantisedDataMatrixTest.randomWalkLikeMatrix(300, 42);
+        List<Integer> benchmarkGenes = IntStream.range(0, 100).mapToObj(i -> 1000 + i * 7).collect(Collectors.toList());
+
+        QuantisationReport half = QuantisationReport.compare(reference, QuantisedDataMatrix.of(reference), benchmarkGenes, 10);
+        assertThat(half.getMaxNormalisedError(), lessThan(0x1p-11));
+        assertThat(half.getTopHitAgreement(), greaterThan(0.99));
+        assertThat(half.getMeanTopHitScoreLoss(), lessThan(1e-3));
+        assertThat(half.getMeanTopKOverlap(), greaterThan(0.99));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.jblas.FloatMatrix;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class QuantisedDataMatrixTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Creates a symmetric matrix with a similar distribution to the random walk matrix - a large diagonal with most
+     * other values several orders of magnitude smaller.
+     */
+    static InMemoryDataMatrix randomWalkLikeMatrix(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        FloatMatrix floatMatrix = new FloatMatrix(size, size);
+        for (int i = 0; i < size; i++) {
+            floatMatrix.put(i, i, (float) (0.5 + random.nextDouble() * 0.5));
+            for (int j = 0; j < i; j++) {
+                float value = random.nextInt(10) == 0 ? 0f : (float) Math.exp(-5 - random.nextDouble() * 10);
+                floatMatrix.put(i, j, value);
+                floatMatrix.put(j, i, value);
+            }
+        }
+        Map<Integer, Integer> entrezIdToRowIndex = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            entrezIdToRowIndex.put(1000 + i * 7, i);
+        }
+        return new InMemoryDataMatrix(floatMatrix, entrezIdToRowIndex);
+    }
+
+    @Test
+    void halfRoundTripsAllValues() {
+        for (int bits = 0; bits < (1 << 16); bits++) {
+            float value = QuantisedDataMatrix.decodeHalf(bits);
+            if (!Float.isNaN(value)) {
+                assertThat(QuantisedDataMatrix.encodeHalf(value) & 0xFFFF, equalTo(bits));
+            }
+        }
+    }
+
+    @Test
+    void encodeHalf() {
+        assertThat(QuantisedDataMatrix.encodeHalf(0f), equalTo((short) 0));
+        assertThat(QuantisedDataMatrix.encodeHalf(1f), equalTo((short) 0x3C00));
+        assertThat(QuantisedDataMatrix.encodeHalf(-2f), equalTo((short) 0xC000));
+        assertThat(QuantisedDataMatrix.encodeHalf(65504f), equalTo((short) 0x7BFF));
+        assertThat(QuantisedDataMatrix.encodeHalf(65520f), equalTo((short) 0x7C00));
+        assertThat(QuantisedDataMatrix.encodeHalf(Float.POSITIVE_INFINITY), equalTo((short) 0x7C00));
+        // smallest subnormal and half of it, which rounds to even i.e. zero
+        assertThat(QuantisedDataMatrix.encodeHalf(0x1p-24f), equalTo((short) 1));
+        assertThat(QuantisedDataMatrix.encodeHalf(0x1p-25f), equalTo((short) 0));
+        // 1 + 2^-11 is half way between 1 and the next half, so rounds to the even 1
+        assertThat(QuantisedDataMatrix.encodeHalf(1f + 0x1p-11f), equalTo((short) 0x3C00));
+        assertThat(QuantisedDataMatrix.encodeHalf(1f + 0x1p-11f + 0x1p-20f), equalTo((short) 0x3C01));
+        assertThat(Float.isNaN(QuantisedDataMatrix.decodeHalf(QuantisedDataMatrix.encodeHalf(Float.NaN))), is(true));
+    }
+
+    @Test
+    void halfPrecisionError() {
+        InMemoryDataMatrix original = randomWalkLikeMatrix(50, 1);
+        QuantisedDataMatrix instance = QuantisedDataMatrix.of(original);
+        FloatMatrix expected = original.getMatrix();
+        for (int column = 0; column < 50; column++) {
+            float columnMax = expected.getColumn(column).max();
+            for (int row = 0; row < 50; row++) {
+                float value = expected.get(row, column);
+                // relative error of 2^-11 for normal halves, absolute error of 2^-25 of the column max for subnormals
+                double tolerance = Math.max(value * 0x1p-11, columnMax * 0x1p-25);
+                assertThat((double) instance.get(row, column), closeTo(value, tolerance));
+            }
+        }
+    }
+
+    @Test
+    void allZeroColumn() {
+        FloatMatrix floatMatrix = new FloatMatrix(new float[][]{
+                {0f, 0.5f},
+                {0f, 0.5f}
+        });
+        QuantisedDataMatrix instance = QuantisedDataMatrix.of(new InMemoryDataMatrix(floatMatrix, Map.of(1, 0, 2, 1)));
+        assertThat(instance.getColumnMatrixForGene(1), equalTo(new FloatMatrix(new float[]{0f, 0f})));
+        assertThat(instance.getColumnMatrixForGene(2), equalTo(new FloatMatrix(new float[]{0.5f, 0.5f})));
+    }
+
+    @Test
+    void throwsExceptionWithNegativeValues() {
+        FloatMatrix floatMatrix = new FloatMatrix(new float[][]{
+                {0f, -0.5f},
+                {0f, 0.5f}
+        });
+        InMemoryDataMatrix dataMatrix = new InMemoryDataMatrix(floatMatrix, Map.of(1, 0, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> QuantisedDataMatrix.of(dataMatrix));
+    }
+
+    @Test
+    void dataMatrixMethods() {
+        InMemoryDataMatrix original = randomWalkLikeMatrix(20, 3);
+        QuantisedDataMatrix instance = QuantisedDataMatrix.of(original);
+        assertThat(instance.numRows(), equalTo(20));
+        assertThat(instance.numColumns(), equalTo(20));
+        assertThat(instance.cellBytes(), equalTo(20L * 20 * Short.BYTES));
+        assertThat(instance.getEntrezIdToRowIndex(), equalTo(original.getEntrezIdToRowIndex()));
+        assertThat(instance.containsGene(1007), is(true));
+        assertThat(instance.containsGene(1008), is(false));
+        assertThat(instance.getRowIndexForGene(1007), equalTo(1));
+        assertThat(instance.getColumnMatrixForGene(1008), is(nullValue()));
+
+        FloatMatrix matrix = instance.getMatrix();
+        for (int column = 0; column < 20; column++) {
+            FloatMatrix columnMatrix = instance.getColumnMatrixForGene(1000 + column * 7);
+            assertThat(columnMatrix, equalTo(matrix.getColumn(column)));
+            for (int row = 0; row < 20; row++) {
+                assertThat(instance.get(row, column), equalTo(matrix.get(row, column)));
+            }
+        }
+    }
+
+    @Test
+    void writeAndLoad() {
+        QuantisedDataMatrix expected = QuantisedDataMatrix.of(randomWalkLikeMatrix(30, 4));
+        Path matrixPath = tempDir.resolve("matrix" + QuantisedDataMatrix.FILE_EXTENSION);
+        DataMatrixIO.writeQuantisedDataMatrix(expected, matrixPath);
+        assertThat(matrixPath.toFile().length(), equalTo(QuantisedDataMatrix.HEADER_BYTES + 30L * 8 + expected.cellBytes()));
+
+        QuantisedDataMatrix instance = DataMatrixIO.loadQuantisedDataMatrix(matrixPath);
+        assertThat(instance.getEntrezIdToRowIndex(), equalTo(expected.getEntrezIdToRowIndex()));
+        assertThat(instance.getMatrix(), equalTo(expected.getMatrix()));
+    }
+
+    @Test
+    void loadThrowsExceptionForWrongFileType() throws IOException {
+        Path notAMatrix = tempDir.resolve("not_a_matrix.rwq");
+        Files.write(notAMatrix, new byte[16]);
+        assertThrows(IllegalStateException.class, () -> DataMatrixIO.loadQuantisedDataMatrix(notAMatrix));
+    }
+
+    @Test
+    void convertMapToQuantisedDataMatrix() throws IOException {
+        // copied as the MVStore file can only be opened once in a JVM and other tests do not close the original
+        Path mapPath = Files.copy(Paths.get("src/test/resources/prioritisers/test_ppi_matrix.mv"), tempDir.resolve("test_ppi_matrix.mv"));
+        Path matrixPath = tempDir.resolve("test_ppi_matrix.rwq");
+        QuantisedDataMatrix converted = DataMatrixIO.convertMapToQuantisedDataMatrix(mapPath, matrixPath);
+
+        DataMatrix reference = DataMatrixIO.loadInMemoryDataMatrix(mapPath);
+        QuantisedDataMatrix instance = DataMatrixIO.loadQuantisedDataMatrix(matrixPath);
+        assertThat(instance.getMatrix(), equalTo(converted.getMatrix()));
+
+        QuantisationReport report = QuantisationReport.compare(reference, instance);
+        assertThat(report.getNumColumns(), equalTo(10));
+        assertThat(report.getTopHitAgreement(), equalTo(1.0));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class ScoreDistributionContainerTest {
+
+    private static Path writeDistributions(Path tempDir) throws IOException {
+        Path outDir = Files.createDirectories(tempDir.resolve("out"));
+        Files.write(outDir.resolve("1.out"), (">2263_1000\n0.0-1.0\n1.0-0.1\n" +
+                ">1000_1000\n0.0-1.0\n0.5-0.2\n1.0-0.05\n").getBytes());
+        Files.write(outDir.resolve("2.out"), ">2263_1000\n0.0-1.0\n0.5-0.4\n2.0-0.01\n".getBytes());
+        Files.write(outDir.resolve("2_symmetric.out"), ">2263_1000\n0.0-1.0\n3.0-0.001\n".getBytes());
+        return tempDir;
+    }
+
+    private static String distributionsFolder(Path dir) {
+        return dir.toString() + "/";
+    }
+
+    @Test
+    void getDistribution(@TempDir Path tempDir) throws IOException {
+        ScoreDistributionContainer instance = new ScoreDistributionContainer(distributionsFolder(writeDistributions(tempDir)), false);
+
+        ScoreDistribution distribution = instance.getDistribution("2263", 2);
+        assertThat(distribution.getScores(), equalTo(new double[]{0.0, 0.5, 2.0}));
+        assertThat(distribution.getPvalue(0.3, 1000), equalTo(0.4));
+    }
+
+    @Test
+    void getSymmetricDistribution(@TempDir Path tempDir) throws IOException {
+        ScoreDistributionContainer instance = new ScoreDistributionContainer(distributionsFolder(writeDistributions(tempDir)), true);
+
+        assertThat(instance.getDistribution("2263", 2).getScores(), equalTo(new double[]{0.0, 3.0}));
+    }
+
+    @Test
+    void getDistributionFallsBackToFewerQueryTerms(@TempDir Path tempDir) throws IOException {
+        ScoreDistributionContainer instance = new ScoreDistributionContainer(distributionsFolder(writeDistributions(tempDir)), false);
+
+        assertThat(instance.getDistribution("1000", 2).getScores(), equalTo(new double[]{0.0, 0.5, 1.0}));
+        assertThat(instance.getDistribution("2263", 2).getScores(), equalTo(new double[]{0.0, 0.5, 2.0}));
+    }
+
+    @Test
+    void getDistributionLimitsNumberOfQueryTerms(@TempDir Path tempDir) throws IOException {
+        ScoreDistributionContainer instance = new ScoreDistributionContainer(distributionsFolder(writeDistributions(tempDir)), false);
+
+        // there are no distributions for 3-20 query terms, so the 2 term distribution is used
+        assertThat(instance.getDistribution("2263", 50).getScores(), equalTo(new double[]{0.0, 0.5, 2.0}));
+    }
+
+    @Test
+    void getDistributionUnknownGene(@TempDir Path tempDir) throws IOException {
+        ScoreDistributionContainer instance = new ScoreDistributionContainer(distributionsFolder(writeDistributions(tempDir)), false);
+
+        assertThat(instance.getDistribution("9999", 2), nullValue());
+        assertThat(instance.getDistribution("2263", 0), nullValue());
+    }
+
+    @Test
+    void getDistributionForNumQueryTerms(@TempDir Path tempDir) throws IOException {
+        ScoreDistributionContainer instance = new ScoreDistributionContainer(distributionsFolder(writeDistributions(tempDir)), false, 1);
+
+        assertThat(instance.getDistribution("2263").getScores(), equalTo(new double[]{0.0, 1.0}));
+    }
+
+    @Test
+    void writesSnapshotOfParsedDistributions(@TempDir Path tempDir) throws IOException {
+        Path dir = writeDistributions(tempDir);
+        new ScoreDistributionContainer(distributionsFolder(dir), false).getDistribution("2263", 2);
+        Path sourceFile = dir.resolve("out/2.out");
+        Path snapshotFile = ScoreDistributionSnapshot.snapshotFileFor(sourceFile);
+        assertThat(Files.exists(snapshotFile), is(true));
+
+        Files.delete(sourceFile);
+        ScoreDistributionContainer instance = new ScoreDistributionContainer(distributionsFolder(dir), false);
+
+        assertThat(instance.getDistribution("2263", 2).getScores(), equalTo(new double[]{0.0, 0.5, 2.0}));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class ScoreDistributionSnapshotTest {
+
+    private final ScoreDistribution fgfr2 = new ScoreDistribution(new double[]{0.0, 0.5, 1.0}, new double[]{1.0, 0.5, 0.1}, 1000);
+    private final ScoreDistribution ror2 = new ScoreDistribution(new double[]{0.0, 2.0}, new double[]{1.0, 0.001}, 10000);
+
+    private Path writeSourceFile(Path tempDir) throws IOException {
+        Path sourceFile = tempDir.resolve("2.out");
+        Files.write(sourceFile, ">2263_1000\n0.0-1.0\n".getBytes());
+        return sourceFile;
+    }
+
+    private Map<String, ScoreDistribution> distributions() {
+        Map<String, ScoreDistribution> distributions = new LinkedHashMap<>();
+        distributions.put("2263", fgfr2);
+        distributions.put("4920", ror2);
+        return distributions;
+    }
+
+    private Path writeSnapshot(Path sourceFile) {
+        Path snapshotFile = ScoreDistributionSnapshot.snapshotFileFor(sourceFile);
+        assertThat(ScoreDistributionSnapshot.write(snapshotFile, sourceFile, distributions()), is(true));
+        return snapshotFile;
+    }
+
+    private static void assertSameDistribution(ScoreDistribution actual, ScoreDistribution expected) {
+        assertThat(actual.getScores(), equalTo(expected.getScores()));
+        assertThat(actual.getPvalues(), equalTo(expected.getPvalues()));
+        assertThat(actual.getNumberRandomizations(), equalTo(expected.getNumberRandomizations()));
+    }
+
+    @Test
+    void snapshotFileFor(@TempDir Path tempDir) {
+        assertThat(ScoreDistributionSnapshot.snapshotFileFor(tempDir.resolve("2_symmetric.out")), equalTo(tempDir.resolve("2_symmetric.dist")));
+    }
+
+    @Test
+    void writeThenRead(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = writeSourceFile(tempDir);
+        Path snapshotFile = writeSnapshot(sourceFile);
+
+        ScoreDistributionSnapshot instance = ScoreDistributionSnapshot.read(snapshotFile, sourceFile).orElseThrow();
+
+        assertThat(instance.size(), equalTo(2));
+        assertSameDistribution(instance.getDistribution("2263"), fgfr2);
+        assertSameDistribution(instance.getDistribution("4920"), ror2);
+        assertThat(instance.getDistribution("1000"), nullValue());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.collect(Collectors.toList()), containsInAnyOrder(sourceFile, snapshotFile));
+        }
+    }
+
+    @Test
+    void writeToMissingDirectory(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = writeSourceFile(tempDir);
+        Path snapshotFile = tempDir.resolve("missing").resolve("2.dist");
+
+        assertThat(ScoreDistributionSnapshot.write(snapshotFile, sourceFile, distributions()), is(false));
+        assertThat(Files.exists(snapshotFile), is(false));
+    }
+
+    @Test
+    void readWithMissingSourceFile(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = writeSourceFile(tempDir);
+        Path snapshotFile = writeSnapshot(sourceFile);
+        Files.delete(sourceFile);
+
+        assertThat(ScoreDistributionSnapshot.read(snapshotFile, sourceFile).isPresent(), is(true));
+    }
+
+    @Test
+    void readMissingSnapshot(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = writeSourceFile(tempDir);
+        assertThat(ScoreDistributionSnapshot.read(tempDir.resolve("2.dist"), sourceFile), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void readStaleSnapshot(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = writeSourceFile(tempDir);
+        Path snapshotFile = writeSnapshot(sourceFile);
+        Files.setLastModifiedTime(sourceFile, FileTime.fromMillis(Files.getLastModifiedTime(sourceFile).toMillis() + 60_000));
+
+        assertThat(ScoreDistributionSnapshot.read(snapshotFile, sourceFile), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void readCorruptSnapshot(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = writeSourceFile(tempDir);
+        Path snapshotFile = writeSnapshot(sourceFile);
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        Files.write(snapshotFile, Arrays.copyOf(bytes, bytes.length - 8));
+
+        assertThat(ScoreDistributionSnapshot.read(snapshotFile, sourceFile), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void readUnknownFormat(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = writeSourceFile(tempDir);
+        Path snapshotFile = tempDir.resolve("2.dist");
+        Files.write(snapshotFile, new byte[64]);
+
+        assertThat(ScoreDistributionSnapshot.read(snapshotFile, sourceFile), equalTo(Optional.empty()));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.prioritisers.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class ScoreDistributionTest {
+
+    private static final double ROUND_FACTOR = 1000d;
+
+    /**
+     * The original implementation - scans the scores for the first which is not less than the rounded score.
+     */
+    private static double linearScanPvalue(double[] scores, double[] pvalues, double numberRandomizations, double score) {
+        double rounded = Math.rint(score * ROUND_FACTOR) / ROUND_FACTOR;
+        if (scores[scores.length - 1] < rounded) {
+            return 1 / numberRandomizations;
+        }
+        for (int i = 0; i < scores.length; i++) {
+            if (rounded <= scores[i]) {
+                return pvalues[i];
+            }
+        }
+        return 1;
+    }
+
+    private static List<Double> toList(double[] values) {
+        List<Double> list = new ArrayList<>(values.length);
+        for (double value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Test
+    void getPvalue() {
+        ScoreDistribution instance = new ScoreDistribution(new double[]{0.0, 0.5, 1.0, 2.0}, new double[]{1.0, 0.5, 0.1, 0.01}, 1000);
+
+        assertThat(instance.getPvalue(-1.0, ROUND_FACTOR), equalTo(1.0));
+        assertThat(instance.getPvalue(0.0, ROUND_FACTOR), equalTo(1.0));
+        assertThat(instance.getPvalue(0.25, ROUND_FACTOR), equalTo(0.5));
+        assertThat(instance.getPvalue(0.5, ROUND_FACTOR), equalTo(0.5));
+        assertThat(instance.getPvalue(0.5001, ROUND_FACTOR), equalTo(0.5));
+        assertThat(instance.getPvalue(1.9, ROUND_FACTOR), equalTo(0.01));
+        assertThat(instance.getPvalue(2.0, ROUND_FACTOR), equalTo(0.01));
+        assertThat(instance.getPvalue(2.1, ROUND_FACTOR), equalTo(1 / 1000d));
+        assertThat(instance.getPvalue(Double.NaN, ROUND_FACTOR), equalTo(1.0));
+    }
+
+    @Test
+    void getPvalueSortedScoresIsSameAsLinearScan() {
+        Random random = new Random(42);
+        for (int numScores : List.of(1, 2, 3, 10, 100, 1001)) {
+            double[] scores = new double[numScores];
+            double[] pvalues = new double[numScores];
+            double score = 0;
+            for (int i = 0; i < numScores; i++) {
+                // include runs of tied scores
+                score += random.nextInt(4) == 0 ? 0 : Math.rint(random.nextDouble() * 100) / ROUND_FACTOR;
+                scores[i] = score;
+                pvalues[i] = 1d - (double) i / numScores;
+            }
+            ScoreDistribution instance = new ScoreDistribution(scores, pvalues, 10_000);
+            ScoreDistribution parsedInstance = new ScoreDistribution();
+            parsedInstance.setDistribution(toList(scores), toList(pvalues), 10_000);
+
+            for (int i = 0; i < 1000; i++) {
+                double query = random.nextDouble() * (score + 0.1) - 0.05;
+                double expected = linearScanPvalue(scores, pvalues, 10_000, query);
+                assertThat(instance.getPvalue(query, ROUND_FACTOR), equalTo(expected));
+                assertThat(parsedInstance.getPvalue(query, ROUND_FACTOR), equalTo(expected));
+            }
+            for (double tiedScore : scores) {
+                assertThat(instance.getPvalue(tiedScore, ROUND_FACTOR), equalTo(linearScanPvalue(scores, pvalues, 10_000, tiedScore)));
+            }
+        }
+    }
+
+    @Test
+    void getPvalueUnsortedScoresUsesLinearScan() {
+        double[] scores = {0.0, 1.0, 0.5, 2.0};
+        double[] pvalues = {1.0, 0.1, 0.5, 0.01};
+        ScoreDistribution instance = new ScoreDistribution(scores, pvalues, 1000);
+
+        for (double query : new double[]{0.0, 0.25, 0.5, 0.75, 1.5, 2.0}) {
+            assertThat(instance.getPvalue(query, ROUND_FACTOR), equalTo(linearScanPvalue(scores, pvalues, 1000, query)));
+        }
+    }
+
+    @Test
+    void scoresAndPvaluesMustBeSameLength() {
+        assertThrows(IllegalArgumentException.class, () -> new ScoreDistribution(new double[]{0.0, 1.0}, new double[]{1.0}, 1000));
+    }
+}
@@ -0,0 +1,19 @@
+DROP TABLE IF EXISTS sv_path;
+
+CREATE TABLE sv_path
+(
+    chromosome    SMALLINT NOT NULL,
+    start         INTEGER  NOT NULL,
+    "end"         INTEGER  NOT NULL,
+    change_length INTEGER  NOT NULL,
+    variant_type  CHARACTER VARYING(20),
+    dbvar_id      CHARACTER VARYING(20),
+    source        CHARACTER VARYING(20),
+    rcv_id        CHARACTER VARYING(20),
+    allele_id     CHARACTER VARYING(20),
+    clin_sig      CHARACTER VARYING(42),
+    clin_rev_stat CHARACTER VARYING(55)
+);
+
+CREATE INDEX sv_path
+    ON sv_path (chromosome, start, "end");
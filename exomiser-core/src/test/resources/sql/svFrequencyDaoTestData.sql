@@ -0,0 +1,19 @@
+INSERT INTO sv_freq (chromosome, start, "end", change_length, variant_type, dbvar_id, source, source_id, allele_count, allele_number)
+VALUES
+-- insertions
+(1, 521332, 521332, 300, 'INS_ME', 'nsv3000001', 'GONL', 'gonl_1', 415, 755),
+(1, 521332, 521332, 1, 'INS_ME', 'esv3304209', 'DGV', 'esv3304209', 5, 185),
+(1, 724132, 724132, 2806, 'INS', 'nsv544884', 'DGV', 'nsv544884', 100, 1452),
+(1, 724140, 724140, 300, 'INS', 'nsv544885', 'DBVAR', 'nsv544885', 10, 1000),
+-- unrecognised variant type
+(2, 1000, 2000, 1000, 'NOT_A_TYPE', 'nsv0', 'DBVAR', 'nsv0', 10, 1000),
+-- deletions and CNVs
+(7, 33300, 33700, -401, 'DEL', 'nsv1133639', 'DBVAR', 'nsv1133639', 100, 1000),
+(7, 33300, 33700, -401, 'DEL', 'nsv1133640', 'DBVAR', 'nsv1133640', 0, 1000),
+(7, 33310, 33690, -381, 'DEL', 'gnomAD_v2_DEL_7_1', 'GNOMAD-SV', 'gnomAD_v2_DEL_7_1', 50, 20000),
+(7, 33320, 33700, 381, 'CNV', 'esv2659019', 'DGV', 'esv2659019', 5, 100),
+(7, 33340, 33690, 0, 'DUP', 'nsv1133641', 'DECIPHER', '1234', 30, 600),
+(7, 33300, 33700, 401, 'INV', 'nsv1133642', 'DBVAR', 'nsv1133642', 10, 100),
+(7, 10000000, 10000500, -501, 'DEL', '.', 'GONL', 'gonl_2', 4, 498),
+-- inversions with too few alleles to report a frequency
+(18, 2806309, 2806425, 117, 'INV', 'nsv4316669', 'DBVAR', 'nsv4316669', 1, 5);
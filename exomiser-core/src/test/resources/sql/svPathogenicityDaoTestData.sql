@@ -0,0 +1,12 @@
+INSERT INTO sv_path (chromosome, start, "end", change_length, variant_type, dbvar_id, source, rcv_id, allele_id, clin_sig, clin_rev_stat)
+VALUES
+(1, 155205541, 155205595, -54, 'DEL', 'nsv1', 'CLINVAR', 'RCV000001', '10001', 'PATHOGENIC', 'CRITERIA_PROVIDED_SINGLE_SUBMITTER'),
+(1, 155205541, 155205700, -159, 'DEL', 'nsv2', 'CLINVAR', 'RCV000002', '10002', 'LIKELY_PATHOGENIC', 'CRITERIA_PROVIDED_SINGLE_SUBMITTER'),
+-- two equally similar matches for 3:100-199 and one excluded
+(3, 90, 199, 110, 'DUP', 'nsv3', 'CLINVAR', 'RCV000003', '10003', 'PATHOGENIC', 'REVIEWED_BY_EXPERT_PANEL'),
+(3, 100, 209, 110, 'CNV_GAIN', 'nsv4', 'CLINVAR', 'RCV000004', '10004', 'UNCERTAIN_SIGNIFICANCE', 'CRITERIA_PROVIDED_SINGLE_SUBMITTER'),
+(3, 100, 199, 100, 'DUP', 'nsv5', 'CLINVAR', 'RCV000005', '10005', 'UNKNOWN', 'NO_ASSERTION_PROVIDED'),
+(3, 100, 199, -100, 'DEL', 'nsv6', 'CLINVAR', 'RCV000006', '10006', 'BENIGN', 'CRITERIA_PROVIDED_SINGLE_SUBMITTER'),
+(7, 33350, 33670, -320, 'DEL', 'nsv7', 'CLINVAR', 'RCV000007', '10007', 'NOT_PROVIDED', 'NO_ASSERTION_PROVIDED'),
+(8, 7268819, 7752586, 483767, 'CNV', 'nsv8', 'CLINVAR', 'RCV000008', '10008', 'BENIGN', 'CRITERIA_PROVIDED_MULTIPLE_SUBMITTERS_NO_CONFLICTS'),
+(14, 105814886, 107285437, -1470551, 'DEL', 'nsv9', 'CLINVAR', 'RCV000009', '10009', 'UNCERTAIN_SIGNIFICANCE', 'CRITERIA_PROVIDED_SINGLE_SUBMITTER');
@@ -0,0 +1,92 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.monarchinitiative.exomiser.data.genome;
+
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.monarchinitiative.exomiser.core.genome.dao.AllelePresenceFilter;
+import org.monarchinitiative.exomiser.core.genome.dao.DataFileChecksum;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.MvStoreUtil;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+
+/**
+ * Writes the {@link AllelePresenceFilter} of a finished variants database, e.g. 2109_hg19_variants.mv.db, alongside the
+ * database as 2109_hg19_variants.bloom. The database must have been compacted before the filter is written as the
+ * filter records the {@link DataFileChecksum} of the database file.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class AllelePresenceFilterWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AllelePresenceFilterWriter.class);
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private static final String MV_STORE_EXTENSION = ".mv.db";
+    private static final String FILTER_EXTENSION = ".bloom";
+
+    private AllelePresenceFilterWriter() {
+    }
+
+    /**
+     * @return the path of the presence filter for the variants database
+     */
+    public static Path presenceFilterPath(Path variantsDatabasePath) {
+        String fileName = variantsDatabasePath.getFileName().toString();
+        if (fileName.endsWith(MV_STORE_EXTENSION)) {
+            fileName = fileName.substring(0, fileName.length() - MV_STORE_EXTENSION.length());
+        }
+        return variantsDatabasePath.resolveSibling(fileName + FILTER_EXTENSION);
+    }
+
+    /**
+     * Writes the presence filter of the alleles in the variants database.
+     *
+     * @return the path of the filter
+     */
+    public static Path write(Path variantsDatabasePath) {
+        Path presenceFilterPath = presenceFilterPath(variantsDatabasePath);
+        long sourceChecksum = DataFileChecksum.of(variantsDatabasePath);
+        MVStore mvStore = new MVStore.Builder()
+                .fileName(variantsDatabasePath.toString())
+                .readOnly()
+                .open();
+        try {
+            MVMap<AlleleKey, AlleleProperties> alleleMVMap = MvStoreUtil.openAlleleMVMap(mvStore);
+            logger.info("Writing allele presence filter of {} alleles to {}", alleleMVMap.sizeAsLong(), presenceFilterPath);
+            AllelePresenceFilter.Builder presenceFilterBuilder = AllelePresenceFilter.builder(alleleMVMap.sizeAsLong(), FALSE_POSITIVE_PROBABILITY);
+            Cursor<AlleleKey, AlleleProperties> cursor = alleleMVMap.cursor(null);
+            while (cursor.hasNext()) {
+                presenceFilterBuilder.put(cursor.next());
+            }
+            presenceFilterBuilder.writeTo(presenceFilterPath, sourceChecksum);
+        } finally {
+            mvStore.close();
+        }
+        return presenceFilterPath;
+    }
+}
@@ -21,6 +21,7 @@
 package org.monarchinitiative.exomiser.data.genome;
 
 import org.monarchinitiative.exomiser.core.genome.GenomeAssembly;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.AllelePropertiesFormat;
 import org.monarchinitiative.exomiser.core.genome.jannovar.JannovarDataFactory;
 import org.monarchinitiative.exomiser.core.genome.jannovar.TranscriptSource;
 import org.monarchinitiative.exomiser.data.genome.config.AssemblyResources;
@@ -54,6 +55,11 @@ public class BuildRunner implements ApplicationRunner {
     public static final String BUILD_CLINVAR = "clinvar";
     public static final String BUILD_VARIANT_DB = "variants";
     public static final String BUILD_GENOME_DB = "genome";
+    public static final String CONVERT_VARIANT_DB = "convert-variants";
+    public static final String VARIANT_DB_FORMAT = "variants-format";
+    public static final String VARIANT_DB_BLOCK_STORE = "variants-block-store";
+    public static final String CADD_SNV_SCORES = "cadd-snv-scores";
+    public static final String REMM_SCORES = "remm-scores";
 
     private final Path buildDir;
     private final AssemblyResources hg19Resources;
@@ -84,6 +90,9 @@ public void run(ApplicationArguments args) throws Exception {
         // --transcripts
         // OR
         // --transcripts=ensembl,ucsc
+        // --convert-variants=/path/to/existing/1711_hg19_variants.mv.db
+        // --variants-format=compact (default) OR protobuf
+        // --variants-block-store (also write the variants to a memory-mapped sorted-block store)
 
         if (!args.containsOption("assembly")) {
             throw new IllegalArgumentException("Missing assembly argument");
@@ -109,12 +118,12 @@ public void run(ApplicationArguments args) throws Exception {
         AssemblyResources assemblyResources = getAssemblyResourcesForAssembly(assembly);
         Map<String, AlleleResource> alleleResources = assemblyResources.getAlleleResources();
 
-        Set<String> optionalArgs = Set.of(BUILD_TRANSCRIPT, BUILD_CLINVAR, BUILD_VARIANT_DB, BUILD_GENOME_DB);
+        Set<String> optionalArgs = Set.of(BUILD_TRANSCRIPT, BUILD_CLINVAR, BUILD_VARIANT_DB, BUILD_GENOME_DB, CONVERT_VARIANT_DB, CADD_SNV_SCORES, REMM_SCORES);
         if (shouldBuildAllData(args, optionalArgs)) {
             logger.info("BUILDING ALLL THIe THINGS!");
             buildTranscriptData(buildInfo, outPath, List.of(TranscriptSource.values()));
             buildClinVarData(buildInfo, outPath, alleleResources.get("clinvar"));
-            buildVariantData(buildInfo, outPath, new ArrayList<>(alleleResources.values()));
+            buildVariantData(buildInfo, outPath, new ArrayList<>(alleleResources.values()), args.containsOption(VARIANT_DB_BLOCK_STORE));
             buildGenomeData(buildInfo, outPath, assemblyResources);
         }
 
@@ -132,13 +141,29 @@ public void run(ApplicationArguments args) throws Exception {
         if (args.containsOption(BUILD_VARIANT_DB)) {
             List<String> optionValues = parseOptionValues(args.getOptionValues(BUILD_VARIANT_DB));
             List<AlleleResource> userDefinedAlleleResources = assemblyResources.getUserDefinedResources(optionValues);
-            buildVariantData(buildInfo, outPath, userDefinedAlleleResources);
+            buildVariantData(buildInfo, outPath, userDefinedAlleleResources, args.containsOption(VARIANT_DB_BLOCK_STORE));
         }
 
         if (args.containsOption(BUILD_GENOME_DB)) {
             buildGenomeData(buildInfo, outPath, assemblyResources);
         }
 
+        if (args.containsOption(CONVERT_VARIANT_DB)) {
+            Path sourcePath = Path.of(args.getOptionValues(CONVERT_VARIANT_DB).get(0));
+            AllelePropertiesFormat format = args.containsOption(VARIANT_DB_FORMAT) ? AllelePropertiesFormat.valueOf(args.getOptionValues(VARIANT_DB_FORMAT).get(0).toUpperCase()) : AllelePropertiesFormat.COMPACT;
+            convertVariantData(buildInfo, outPath, sourcePath, format);
+        }
+
+        if (args.containsOption(CADD_SNV_SCORES)) {
+            Path sourcePath = Path.of(args.getOptionValues(CADD_SNV_SCORES).get(0));
+            convertScoreData(outPath.resolve(buildString + "_cadd_snv.scores"), sourcePath, DenseScoreConverter.Format.CADD_SNV);
+        }
+
+        if (args.containsOption(REMM_SCORES)) {
+            Path sourcePath = Path.of(args.getOptionValues(REMM_SCORES).get(0));
+            convertScoreData(outPath.resolve(buildString + "_remm.scores"), sourcePath, DenseScoreConverter.Format.REMM);
+        }
+
         logger.info("Finished build {}", buildInfo.getBuildString());
     }
 
@@ -164,16 +189,29 @@ private void buildClinVarData(BuildInfo buildInfo, Path outPath, AlleleResource
         clinVarWhiteListBuildRunner.run();
     }
 
-    private void buildVariantData(BuildInfo buildInfo, Path outPath, List<AlleleResource> userDefinedAlleleResources) {
+    private void buildVariantData(BuildInfo buildInfo, Path outPath, List<AlleleResource> userDefinedAlleleResources, boolean writeSortedBlockStore) {
         logger.info("Downloading variant resources - {}", userDefinedAlleleResources.stream()
                 .map(AlleleResource::getName)
                 .collect(toList()));
         userDefinedAlleleResources.parallelStream().forEach(ResourceDownloader::download);
         logger.info("Building variant database...");
-        VariantDatabaseBuildRunner variantDatabaseBuildRunner = new VariantDatabaseBuildRunner(buildInfo, outPath, userDefinedAlleleResources);
+        VariantDatabaseBuildRunner variantDatabaseBuildRunner = new VariantDatabaseBuildRunner(buildInfo, outPath, userDefinedAlleleResources, writeSortedBlockStore);
         variantDatabaseBuildRunner.run();
     }
 
+    private void convertVariantData(BuildInfo buildInfo, Path outPath, Path sourcePath, AllelePropertiesFormat format) {
+        logger.info("Converting variant database {} to {} format...", sourcePath, format);
+        Path convertedPath = outPath.resolve(buildInfo.getBuildString() + "_variants.mv.db");
+        VariantDatabaseConverter variantDatabaseConverter = new VariantDatabaseConverter(sourcePath, convertedPath, format);
+        variantDatabaseConverter.run();
+    }
+
+    private void convertScoreData(Path outputPath, Path sourcePath, DenseScoreConverter.Format format) {
+        logger.info("Converting {} scores {} to dense score store...", format, sourcePath);
+        DenseScoreConverter denseScoreConverter = new DenseScoreConverter(sourcePath, outputPath, format);
+        denseScoreConverter.run();
+    }
+
     private void buildGenomeData(BuildInfo buildInfo, Path outPath, AssemblyResources assemblyResources) {
         logger.info("Building genome database...");
         Path genomePath = assemblyResources.getGenomeDataPath();
@@ -0,0 +1,127 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.data.genome;
+
+import org.monarchinitiative.exomiser.core.genome.dao.CaddDaoDense;
+import org.monarchinitiative.exomiser.core.genome.dao.DataFileChecksum;
+import org.monarchinitiative.exomiser.core.genome.dao.DenseScoreStoreWriter;
+import org.monarchinitiative.exomiser.data.genome.model.parsers.ChromosomeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Converts a bgzipped CADD whole-genome SNV or REMM tsv file into a memory-mapped
+ * {@link org.monarchinitiative.exomiser.core.genome.dao.DenseScoreStore}. The input is expected to be sorted by
+ * position within each chromosome, as is required for tabix indexing. The store records the checksum of the input so
+ * that it is only used alongside the same tabix file.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class DenseScoreConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DenseScoreConverter.class);
+
+    public enum Format {
+        /**
+         * #Chrom Pos Ref Alt RawScore PHRED - one PHRED score for each of the three possible alt alleles. PHRED scores
+         * are capped at 99 so a scale of 655 keeps the quantisation error below 0.001.
+         */
+        CADD_SNV(3, 655f),
+        /**
+         * #CHROM POS REMM_SCORE - a single score in the range 0-1 for each position.
+         */
+        REMM(1, 65534f);
+
+        private final int scoresPerPosition;
+        private final float scale;
+
+        Format(int scoresPerPosition, float scale) {
+            this.scoresPerPosition = scoresPerPosition;
+            this.scale = scale;
+        }
+
+        public int getScoresPerPosition() {
+            return scoresPerPosition;
+        }
+
+        public float getScale() {
+            return scale;
+        }
+    }
+
+    private final Path sourcePath;
+    private final Path outputPath;
+    private final Format format;
+
+    public DenseScoreConverter(Path sourcePath, Path outputPath, Format format) {
+        this.sourcePath = Objects.requireNonNull(sourcePath);
+        this.outputPath = Objects.requireNonNull(outputPath);
+        this.format = Objects.requireNonNull(format);
+    }
+
+    /**
+     * @return the number of scores written to the new store
+     */
+    public long run() {
+        if (!Files.exists(sourcePath)) {
+            throw new IllegalArgumentException("Unable to find score file " + sourcePath);
+        }
+        logger.info("Converting {} scores from {} to {}", format, sourcePath, outputPath);
+        long skipped = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(sourcePath)), StandardCharsets.UTF_8));
+             DenseScoreStoreWriter writer = new DenseScoreStoreWriter(outputPath, DataFileChecksum.of(sourcePath), format.getScoresPerPosition(), format.getScale())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                byte chr = ChromosomeParser.parseChr(fields[0]);
+                int index = format == Format.CADD_SNV ? CaddDaoDense.snvScoreIndex(fields[2], fields[3]) : 0;
+                if (chr == 0 || index < 0) {
+                    skipped++;
+                    continue;
+                }
+                int position = Integer.parseInt(fields[1]);
+                float score = Float.parseFloat(format == Format.CADD_SNV ? fields[5] : fields[2]);
+                writer.write(chr, position, index, score);
+                if (writer.getNumScores() % 100_000_000 == 0) {
+                    logger.info("Written {} scores", writer.getNumScores());
+                }
+            }
+            logger.info("Written {} scores to {}, skipped {} lines", writer.getNumScores(), outputPath, skipped);
+            return writer.getNumScores();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read score file " + sourcePath, e);
+        }
+    }
+}
@@ -20,9 +20,13 @@
 
 package org.monarchinitiative.exomiser.data.genome;
 
+import org.h2.mvstore.Cursor;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
 import org.h2.mvstore.MVStoreTool;
+import org.monarchinitiative.exomiser.core.genome.dao.AllelePresenceFilter;
+import org.monarchinitiative.exomiser.core.genome.dao.DataFileChecksum;
+import org.monarchinitiative.exomiser.core.genome.dao.SortedBlockAlleleStoreWriter;
 import org.monarchinitiative.exomiser.core.genome.dao.serialisers.MvStoreUtil;
 import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
 import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
@@ -39,7 +43,10 @@
 import java.util.List;
 
 /**
- * Main class for handling parsing of the {@link AlleleResource} and reading these into the variants.mv.db database.
+ * Main class for handling parsing of the {@link AlleleResource} and reading these into the variants.mv.db database. An
+ * {@link AllelePresenceFilter} of the alleles in the database is written alongside this as variants.bloom and, optionally,
+ * a copy of the database as a {@link org.monarchinitiative.exomiser.core.genome.dao.SortedBlockAlleleStore} as
+ * variants.alleles
  *
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
  */
@@ -50,11 +57,21 @@ public class VariantDatabaseBuildRunner {
     private final Path buildPath;
     private final BuildInfo buildInfo;
     private final List<AlleleResource> alleleResources;
+    private final boolean writeSortedBlockStore;
 
     public VariantDatabaseBuildRunner(BuildInfo buildInfo, Path buildPath, List<AlleleResource> alleleResources) {
+        this(buildInfo, buildPath, alleleResources, false);
+    }
+
+    /**
+     * @param writeSortedBlockStore also write the alleles to a memory-mapped sorted-block store
+     * @since 13.2.0
+     */
+    public VariantDatabaseBuildRunner(BuildInfo buildInfo, Path buildPath, List<AlleleResource> alleleResources, boolean writeSortedBlockStore) {
         this.buildPath = buildPath;
         this.buildInfo = buildInfo;
         this.alleleResources = alleleResources;
+        this.writeSortedBlockStore = writeSortedBlockStore;
     }
 
     public void run() {
@@ -74,11 +91,36 @@ public void run() {
             throw new IllegalStateException("Error writing to MVStore " + fileName, e);
         }
 
-        MVMap<AlleleKey, AlleleProperties> alleleMVMap = MvStoreUtil.openAlleleMVMap(mvStore);
-        logger.info("Written {} alleles to store", alleleMVMap.size());
-
         // super-important step for producing as small a store as possible, Could double (or more?) when this is in progress
+        // n.b. this re-writes the file, so needs to happen before the presence filter and sorted-block store record the
+        // checksum of the file
         logger.info("Compacting store...");
         MVStoreTool.compact(fileName, true);
+
+        AllelePresenceFilterWriter.write(Path.of(fileName));
+
+        if (writeSortedBlockStore) {
+            // the indexer will have closed the store
+            MVStore readOnlyStore = new MVStore.Builder()
+                    .fileName(fileName)
+                    .readOnly()
+                    .open();
+            MVMap<AlleleKey, AlleleProperties> alleleMVMap = MvStoreUtil.openAlleleMVMap(readOnlyStore);
+            Path sortedBlockStorePath = buildPath.resolve(buildInfo.getBuildString() + "_variants.alleles");
+            writeSortedBlockStore(alleleMVMap, sortedBlockStorePath, DataFileChecksum.of(Path.of(fileName)));
+            readOnlyStore.close();
+        }
+    }
+
+    private void writeSortedBlockStore(MVMap<AlleleKey, AlleleProperties> alleleMVMap, Path sortedBlockStorePath, long sourceChecksum) {
+        logger.info("Writing sorted-block allele store to {}", sortedBlockStorePath);
+        // the MVMap cursor returns the alleles in chromosome and position order, as required by the writer
+        try (SortedBlockAlleleStoreWriter sortedBlockAlleleStoreWriter = new SortedBlockAlleleStoreWriter(sortedBlockStorePath, sourceChecksum)) {
+            Cursor<AlleleKey, AlleleProperties> cursor = alleleMVMap.cursor(null);
+            while (cursor.hasNext()) {
+                AlleleKey alleleKey = cursor.next();
+                sortedBlockAlleleStoreWriter.write(alleleKey, cursor.getValue());
+            }
+        }
     }
 }
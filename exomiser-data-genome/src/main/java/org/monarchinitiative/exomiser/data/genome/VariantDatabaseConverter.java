@@ -0,0 +1,110 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.data.genome;
+
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.MVStoreTool;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.AllelePropertiesFormat;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.MvStoreUtil;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Re-writes an existing variants.mv.db into a new store with the alleles stored in the specified
+ * {@link AllelePropertiesFormat}. The format of the source store is detected automatically. The
+ * {@link org.monarchinitiative.exomiser.core.genome.dao.AllelePresenceFilter} of the new store is written alongside it.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public class VariantDatabaseConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantDatabaseConverter.class);
+
+    private final Path sourcePath;
+    private final Path outputPath;
+    private final AllelePropertiesFormat outputFormat;
+
+    public VariantDatabaseConverter(Path sourcePath, Path outputPath, AllelePropertiesFormat outputFormat) {
+        this.sourcePath = Objects.requireNonNull(sourcePath);
+        this.outputPath = Objects.requireNonNull(outputPath);
+        this.outputFormat = Objects.requireNonNull(outputFormat);
+        if (sourcePath.toAbsolutePath().normalize().equals(outputPath.toAbsolutePath().normalize())) {
+            throw new IllegalArgumentException("Output path must be different to the source path " + sourcePath);
+        }
+    }
+
+    /**
+     * @return the number of alleles written to the new store
+     */
+    public long run() {
+        if (!Files.exists(sourcePath)) {
+            throw new IllegalArgumentException("Unable to find variant store " + sourcePath);
+        }
+        if (Files.exists(outputPath)) {
+            throw new IllegalArgumentException("Output variant store " + outputPath + " already exists");
+        }
+        MVStore sourceStore = new MVStore.Builder()
+                .fileName(sourcePath.toString())
+                .readOnly()
+                .open();
+        MVStore outputStore = new MVStore.Builder()
+                .fileName(outputPath.toString())
+                .compress()
+                .open();
+        // this is key to keep the size of the store down when building otherwise it gets enormous
+        outputStore.setVersionsToKeep(0);
+
+        long count = 0;
+        try {
+            logger.info("Converting {} alleles from {} to {} format", MvStoreUtil.readAllelePropertiesFormat(sourceStore), sourcePath, outputFormat);
+            MVMap<AlleleKey, AlleleProperties> sourceMap = MvStoreUtil.openAlleleMVMap(sourceStore);
+            MVMap<AlleleKey, AlleleProperties> outputMap = MvStoreUtil.openAlleleMVMap(outputStore, outputFormat);
+            Cursor<AlleleKey, AlleleProperties> cursor = sourceMap.cursor(null);
+            while (cursor.hasNext()) {
+                AlleleKey alleleKey = cursor.next();
+                outputMap.put(alleleKey, cursor.getValue());
+                if (++count % 10_000_000 == 0) {
+                    logger.info("Written {} alleles", count);
+                    outputStore.commit();
+                }
+            }
+            logger.info("Written {} alleles to {}", count, outputPath);
+        } finally {
+            sourceStore.close();
+            outputStore.close();
+        }
+
+        // super-important step for producing as small a store as possible
+        logger.info("Compacting store...");
+        MVStoreTool.compact(outputPath.toString(), true);
+        AllelePresenceFilterWriter.write(outputPath);
+        return count;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.data.genome;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.tribble.SimpleFeature;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+import htsjdk.tribble.readers.TabixReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.genome.GenomeAssembly;
+import org.monarchinitiative.exomiser.core.genome.dao.*;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityScore;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.Position;
+import org.monarchinitiative.svart.Strand;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class DenseScoreConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path writeGzip(String fileName, String content) {
+        Path path = tempDir.resolve(fileName);
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(path))) {
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return path;
+    }
+
+    /**
+     * Writes the lines as a bgzipped file with a tabix index, as the CADD and REMM files are distributed.
+     */
+    private Path writeTabix(String fileName, List<String> headerLines, List<String> rows) throws IOException {
+        Path path = tempDir.resolve(fileName);
+        TabixIndexCreator indexCreator = new TabixIndexCreator(new TabixFormat(TabixFormat.GENERIC_FLAGS, 1, 2, 2, '#', 0));
+        try (BlockCompressedOutputStream outputStream = new BlockCompressedOutputStream(path.toFile())) {
+            for (String line : headerLines) {
+                outputStream.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            for (String row : rows) {
+                String[] fields = row.split("\t");
+                int position = Integer.parseInt(fields[1]);
+                indexCreator.addFeature(new SimpleFeature(fields[0], position, position), outputStream.getFilePointer());
+                outputStream.write((row + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            outputStream.flush();
+            Index index = indexCreator.finalizeIndex(outputStream.getFilePointer());
+            index.write(Path.of(path + ".tbi"));
+        }
+        return path;
+    }
+
+    /**
+     * Reads the header and first data rows from a bgzipped score file, e.g. a released CADD or REMM file.
+     */
+    private static List<List<String>> readHeaderAndRows(Path path, int maxRows) throws IOException {
+        List<String> headerLines = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null && rows.size() < maxRows) {
+                if (line.startsWith("#")) {
+                    headerLines.add(line);
+                } else if (!line.isEmpty()) {
+                    rows.add(line);
+                }
+            }
+        }
+        return List.of(headerLines, rows);
+    }
+
+    private static TabixDataSource tabixDataSource(Path path) {
+        return new PooledTabixDataSource(path.toString(), () -> {
+            try {
+                return new TabixReaderAdaptor(new TabixReader(path.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, 1);
+    }
+
+    private static VariantEvaluation variant(String chr, int pos, String ref, String alt) {
+        GenomeAssembly genomeAssembly = GenomeAssembly.HG19;
+        return VariantEvaluation.builder()
+                .with(genomeAssembly.getContigByName(chr), "", Strand.POSITIVE, CoordinateSystem.FULLY_CLOSED, Position.of(pos), ref, alt)
+                .genomeAssembly(genomeAssembly)
+                .build();
+    }
+
+    private static void assertEquivalent(VariantEvaluation variant, PathogenicitySource source, PathogenicityData expected, PathogenicityData actual, float scale) {
+        if (expected.hasPredictedScore(source) != actual.hasPredictedScore(source)) {
+            fail("Expected " + expected + " but was " + actual + " for " + variant);
+        }
+        if (expected.hasPredictedScore(source)) {
+            PathogenicityScore expectedScore = expected.getPredictedScore(source);
+            PathogenicityScore actualScore = actual.getPredictedScore(source);
+            assertThat(variant.toString(), (double) actualScore.getRawScore(), closeTo(expectedScore.getRawScore(), 0.5 / scale + 1e-6));
+        }
+    }
+
+    /**
+     * Converts the CADD SNV rows and checks that the {@link CaddDaoDense} returns the same scores as the tabix
+     * {@link CaddDao} for every row, along with the alleles which are not in the file.
+     */
+    private void assertCaddDaoDenseIsEquivalentToCaddDao(List<String> headerLines, List<String> rows) throws IOException {
+        Path tabixPath = writeTabix("cadd_snv.tsv.gz", headerLines, rows);
+        Path scoresPath = tempDir.resolve("cadd_snv.scores");
+        new DenseScoreConverter(tabixPath, scoresPath, DenseScoreConverter.Format.CADD_SNV).run();
+
+        DenseScoreStore denseScoreStore = DenseScoreStore.open(scoresPath);
+        assertThat(denseScoreStore.getSourceChecksum(), equalTo(DataFileChecksum.of(tabixPath)));
+
+        TabixDataSource caddSnvTabixDataSource = tabixDataSource(tabixPath);
+        CaddDao caddDao = new CaddDao(new NoOpTabixDataSource("CADD InDels"), caddSnvTabixDataSource);
+        CaddDaoDense caddDaoDense = new CaddDaoDense(denseScoreStore, caddDao);
+        float scale = DenseScoreConverter.Format.CADD_SNV.getScale();
+        for (String row : rows) {
+            String[] fields = row.split("\t");
+            int position = Integer.parseInt(fields[1]);
+            for (String alt : List.of("A", "C", "G", "T")) {
+                VariantEvaluation variant = variant(fields[0], position, fields[2], alt);
+                assertEquivalent(variant, PathogenicitySource.CADD, caddDao.getPathogenicityData(variant), caddDaoDense.getPathogenicityData(variant), scale);
+            }
+            // positions next to the row, which may or may not be in the file
+            VariantEvaluation nextVariant = variant(fields[0], position + 1, "A", "C");
+            assertEquivalent(nextVariant, PathogenicitySource.CADD, caddDao.getPathogenicityData(nextVariant), caddDaoDense.getPathogenicityData(nextVariant), scale);
+        }
+        caddSnvTabixDataSource.close();
+    }
+
+    /**
+     * Converts the REMM rows and checks that the {@link RemmDaoDense} returns the same scores as the tabix
+     * {@link RemmDao} for SNVs, deletions and insertions at every row.
+     */
+    private void assertRemmDaoDenseIsEquivalentToRemmDao(List<String> headerLines, List<String> rows) throws IOException {
+        Path tabixPath = writeTabix("remm.tsv.gz", headerLines, rows);
+        Path scoresPath = tempDir.resolve("remm.scores");
+        new DenseScoreConverter(tabixPath, scoresPath, DenseScoreConverter.Format.REMM).run();
+
+        DenseScoreStore denseScoreStore = DenseScoreStore.open(scoresPath);
+        assertThat(denseScoreStore.getSourceChecksum(), equalTo(DataFileChecksum.of(tabixPath)));
+
+        TabixDataSource remmTabixDataSource = tabixDataSource(tabixPath);
+        RemmDao remmDao = new RemmDao(remmTabixDataSource);
+        RemmDaoDense remmDaoDense = new RemmDaoDense(denseScoreStore);
+        float scale = DenseScoreConverter.Format.REMM.getScale();
+        for (String row : rows) {
+            String[] fields = row.split("\t");
+            int position = Integer.parseInt(fields[1]);
+            List<VariantEvaluation> variants = List.of(
+                    variant(fields[0], position, "A", "T"),
+                    variant(fields[0], position - 1, "A", "T"),
+                    variant(fields[0], position, "ACGT", "A"),
+                    variant(fields[0], position, "A", "ACGT")
+            );
+            for (VariantEvaluation variant : variants) {
+                assertEquivalent(variant, PathogenicitySource.REMM, remmDao.getPathogenicityData(variant), remmDaoDense.getPathogenicityData(variant), scale);
+            }
+        }
+        remmTabixDataSource.close();
+    }
+
+    @Test
+    void caddDaoDenseIsEquivalentToCaddDao() throws IOException {
+        List<String> headerLines = List.of(
+                "## CADD GRCh37-v1.4 (c) University of Washington, Hudson-Alpha Institute for Biotechnology and Berlin Institute of Health 2013-2018. All rights reserved.",
+                "#Chrom\tPos\tRef\tAlt\tRawScore\tPHRED");
+        List<String> rows = List.of(
+                "1\t10001\tT\tA\t0.337217\t6.046",
+                "1\t10001\tT\tC\t0.143634\t4.044",
+                "1\t10001\tT\tG\t0.202685\t4.700",
+                "1\t10002\tA\tC\t0.367838\t6.339",
+                "1\t10002\tA\tG\t0.246093\t5.159",
+                "1\t10002\tA\tT\t0.348694\t6.155",
+                "1\t10004\tC\tA\t-0.124572\t1.640",
+                "1\t10004\tC\tG\t-0.087521\t1.862",
+                "1\t10004\tC\tT\t0.040218\t3.032",
+                "2\t179446218\tG\tA\t6.724117\t34.000",
+                "2\t179446218\tG\tC\t7.103411\t35.000",
+                "2\t179446218\tG\tT\t9.876543\t48.999",
+                "X\t153296777\tC\tT\t3.921003\t23.400",
+                "MT\t16000\tG\tA\t0.521000\t7.612");
+        assertCaddDaoDenseIsEquivalentToCaddDao(headerLines, rows);
+    }
+
+    @Test
+    void remmDaoDenseIsEquivalentToRemmDao() throws IOException {
+        List<String> headerLines = List.of("#CHROM\tPOS\tREMM_SCORE");
+        List<String> rows = List.of(
+                "1\t10001\t0.123",
+                "1\t10002\t0.456",
+                "1\t10004\t0.999",
+                "1\t10005\t0.001",
+                "1\t10006\t1.0",
+                "2\t179446218\t0.877",
+                "X\t153296777\t0.5",
+                "MT\t16000\t0.05");
+        assertRemmDaoDenseIsEquivalentToRemmDao(headerLines, rows);
+    }
+
+    /**
+     * Checks the conversion against the start of a released CADD whole-genome SNV file, e.g.
+     * {@code -Dexomiser.test.cadd-snv-path=/data/cadd/1.4/whole_genome_SNVs.tsv.gz}
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "exomiser.test.cadd-snv-path", matches = ".+")
+    void caddDaoDenseIsEquivalentToCaddDaoForReleasedFile() throws IOException {
+        List<List<String>> headerAndRows = readHeaderAndRows(Path.of(System.getProperty("exomiser.test.cadd-snv-path")), 300_000);
+        assertCaddDaoDenseIsEquivalentToCaddDao(headerAndRows.get(0), headerAndRows.get(1));
+    }
+
+    /**
+     * Checks the conversion against the start of a released REMM file, e.g.
+     * {@code -Dexomiser.test.remm-path=/data/remm/ReMM.v0.3.1.post1.hg38.tsv.gz}
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "exomiser.test.remm-path", matches = ".+")
+    void remmDaoDenseIsEquivalentToRemmDaoForReleasedFile() throws IOException {
+        List<List<String>> headerAndRows = readHeaderAndRows(Path.of(System.getProperty("exomiser.test.remm-path")), 300_000);
+        assertRemmDaoDenseIsEquivalentToRemmDao(headerAndRows.get(0), headerAndRows.get(1));
+    }
+
+    @Test
+    void throwsExceptionWhenSourceDoesNotExist() {
+        DenseScoreConverter instance = new DenseScoreConverter(tempDir.resolve("missing.tsv.gz"), tempDir.resolve("out.scores"), DenseScoreConverter.Format.REMM);
+        assertThrows(IllegalArgumentException.class, instance::run);
+    }
+
+    @Test
+    void convertRemm() {
+        Path sourcePath = writeGzip("remm.tsv.gz", String.join("\n",
+                "## REMM score",
+                "#CHROM\tPOS\tREMM_SCORE",
+                "1\t10001\t0.123",
+                "1\t10002\t0.456",
+                "1\t10004\t0.999",
+                "MT\t5\t0.5",
+                "GL000192.1\t1\t0.5",
+                ""));
+        Path outputPath = tempDir.resolve("remm.scores");
+        long count = new DenseScoreConverter(sourcePath, outputPath, DenseScoreConverter.Format.REMM).run();
+        assertThat(count, equalTo(4L));
+
+        DenseScoreStore store = DenseScoreStore.open(outputPath);
+        assertThat(store.getScoresPerPosition(), equalTo(1));
+        assertThat((double) store.getScore(1, 10001, 0), closeTo(0.123, 0.00001));
+        assertThat((double) store.getScore(1, 10002, 0), closeTo(0.456, 0.00001));
+        assertThat(store.getScore(1, 10003, 0), is(Float.NaN));
+        assertThat((double) store.getScore(1, 10004, 0), closeTo(0.999, 0.00001));
+        assertThat((double) store.getScore(25, 5, 0), closeTo(0.5, 0.00001));
+    }
+
+    @Test
+    void convertCaddSnvs() {
+        Path sourcePath = writeGzip("cadd.tsv.gz", String.join("\n",
+                "## CADD GRCh37-v1.4 (c) University of Washington, Hudson-Alpha Institute for Biotechnology and Berlin Institute of Health 2013-2018. All rights reserved.",
+                "#Chrom\tPos\tRef\tAlt\tRawScore\tPHRED",
+                "1\t10001\tT\tA\t0.337\t6.046",
+                "1\t10001\tT\tC\t0.143\t4.044",
+                "1\t10001\tT\tG\t0.202\t4.700",
+                "2\t20\tA\tC\t3.5\t35.1",
+                ""));
+        Path outputPath = tempDir.resolve("cadd_snv.scores");
+        long count = new DenseScoreConverter(sourcePath, outputPath, DenseScoreConverter.Format.CADD_SNV).run();
+        assertThat(count, equalTo(4L));
+
+        DenseScoreStore store = DenseScoreStore.open(outputPath);
+        assertThat(store.getScoresPerPosition(), equalTo(3));
+        assertThat((double) store.getScore(1, 10001, CaddDaoDense.snvScoreIndex("T", "A")), closeTo(6.046, 0.001));
+        assertThat((double) store.getScore(1, 10001, CaddDaoDense.snvScoreIndex("T", "C")), closeTo(4.044, 0.001));
+        assertThat((double) store.getScore(1, 10001, CaddDaoDense.snvScoreIndex("T", "G")), closeTo(4.700, 0.001));
+        assertThat((double) store.getScore(2, 20, CaddDaoDense.snvScoreIndex("A", "C")), closeTo(35.1, 0.001));
+        assertThat(store.getScore(2, 20, CaddDaoDense.snvScoreIndex("A", "T")), is(Float.NaN));
+    }
+}
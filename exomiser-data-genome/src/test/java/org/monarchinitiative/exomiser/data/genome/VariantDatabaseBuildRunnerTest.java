@@ -0,0 +1,159 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.data.genome;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.genome.GenomeAssembly;
+import org.monarchinitiative.exomiser.core.genome.dao.AllelePresenceFilter;
+import org.monarchinitiative.exomiser.core.genome.dao.DataFileChecksum;
+import org.monarchinitiative.exomiser.core.genome.dao.SortedBlockAlleleStore;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.MvStoreUtil;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+import org.monarchinitiative.exomiser.data.genome.indexers.AlleleConverter;
+import org.monarchinitiative.exomiser.data.genome.model.Allele;
+import org.monarchinitiative.exomiser.data.genome.model.AlleleProperty;
+import org.monarchinitiative.exomiser.data.genome.model.AlleleResource;
+import org.monarchinitiative.exomiser.data.genome.model.BuildInfo;
+import org.monarchinitiative.exomiser.data.genome.model.archive.Archive;
+import org.monarchinitiative.exomiser.data.genome.model.parsers.Parser;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class VariantDatabaseBuildRunnerTest {
+
+    private static class TestAlleleResource implements AlleleResource {
+
+        private final List<Allele> alleles;
+
+        TestAlleleResource(List<Allele> alleles) {
+            this.alleles = alleles;
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public URL getResourceUrl() {
+            return null;
+        }
+
+        @Override
+        public Archive getArchive() {
+            return null;
+        }
+
+        @Override
+        public Parser<Allele> getParser() {
+            return null;
+        }
+
+        @Override
+        public Stream<Allele> parseResource() {
+            return alleles.stream();
+        }
+    }
+
+    private static Allele allele(int chr, int pos, String ref, String alt) {
+        Allele allele = new Allele(chr, pos, ref, alt);
+        allele.addValue(AlleleProperty.KG, 0.01f);
+        return allele;
+    }
+
+    @Test
+    void writesVariantsDatabaseAndPresenceFilter(@TempDir Path buildPath) {
+        List<Allele> alleles = List.of(
+                allele(1, 12345, "A", "T"),
+                allele(1, 12345, "A", "G"),
+                allele(2, 23456, "AC", "A"),
+                allele(23, 34567, "G", "GTT")
+        );
+        BuildInfo buildInfo = BuildInfo.of(GenomeAssembly.HG19, "2109");
+
+        VariantDatabaseBuildRunner instance = new VariantDatabaseBuildRunner(buildInfo, buildPath, List.of(new TestAlleleResource(alleles)));
+        instance.run();
+
+        Path mvStorePath = buildPath.resolve("2109_hg19_variants.mv.db");
+        Path presenceFilterPath = buildPath.resolve("2109_hg19_variants.bloom");
+        assertThat(Files.exists(mvStorePath), is(true));
+        assertThat(Files.exists(presenceFilterPath), is(true));
+
+        AllelePresenceFilter presenceFilter = AllelePresenceFilter.map(presenceFilterPath, DataFileChecksum.of(mvStorePath)).orElseThrow();
+        assertThat(presenceFilter.getNumKeys(), equalTo((long) alleles.size()));
+
+        MVStore mvStore = new MVStore.Builder().fileName(mvStorePath.toString()).readOnly().open();
+        MVMap<AlleleKey, AlleleProperties> alleleMap = MvStoreUtil.openAlleleMVMap(mvStore);
+        assertThat(alleleMap.size(), equalTo(alleles.size()));
+        for (Allele allele : alleles) {
+            AlleleKey alleleKey = AlleleConverter.toAlleleKey(allele);
+            assertThat(alleleMap.containsKey(alleleKey), is(true));
+            assertThat(presenceFilter.mightContain(alleleKey), is(true));
+        }
+        mvStore.close();
+        assertThat(Files.exists(buildPath.resolve("2109_hg19_variants.alleles")), is(false));
+    }
+
+    @Test
+    void writesSortedBlockStore(@TempDir Path buildPath) {
+        List<Allele> alleles = List.of(
+                allele(1, 12345, "A", "T"),
+                allele(1, 12345, "A", "G"),
+                allele(2, 23456, "AC", "A"),
+                allele(23, 34567, "G", "GTT")
+        );
+        BuildInfo buildInfo = BuildInfo.of(GenomeAssembly.HG19, "2109");
+
+        VariantDatabaseBuildRunner instance = new VariantDatabaseBuildRunner(buildInfo, buildPath, List.of(new TestAlleleResource(alleles)), true);
+        instance.run();
+
+        Path sortedBlockStorePath = buildPath.resolve("2109_hg19_variants.alleles");
+        assertThat(Files.exists(sortedBlockStorePath), is(true));
+
+        SortedBlockAlleleStore sortedBlockAlleleStore = SortedBlockAlleleStore.open(sortedBlockStorePath);
+        assertThat(sortedBlockAlleleStore.size(), equalTo((long) alleles.size()));
+        Path mvStorePath = buildPath.resolve("2109_hg19_variants.mv.db");
+        assertThat(sortedBlockAlleleStore.getSourceChecksum(), equalTo(DataFileChecksum.of(mvStorePath)));
+
+        MVStore mvStore = new MVStore.Builder().fileName(mvStorePath.toString()).readOnly().open();
+        MVMap<AlleleKey, AlleleProperties> alleleMap = MvStoreUtil.openAlleleMVMap(mvStore);
+        for (Allele allele : alleles) {
+            AlleleKey alleleKey = AlleleConverter.toAlleleKey(allele);
+            assertThat(sortedBlockAlleleStore.get(alleleKey), equalTo(alleleMap.get(alleleKey)));
+        }
+        mvStore.close();
+    }
+}
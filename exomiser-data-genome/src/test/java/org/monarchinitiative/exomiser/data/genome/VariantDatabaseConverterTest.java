@@ -0,0 +1,134 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.data.genome;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.exomiser.core.genome.dao.AllelePresenceFilter;
+import org.monarchinitiative.exomiser.core.genome.dao.DataFileChecksum;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.AllelePropertiesFormat;
+import org.monarchinitiative.exomiser.core.genome.dao.serialisers.MvStoreUtil;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleKey;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.AlleleProperties;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto.ClinVar;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class VariantDatabaseConverterTest {
+
+    private static Map<AlleleKey, AlleleProperties> writeProtobufStore(Path storePath) {
+        Map<AlleleKey, AlleleProperties> alleles = new TreeMap<>((a, b) -> a.toString().compareTo(b.toString()));
+        for (int i = 1; i <= 1000; i++) {
+            AlleleKey alleleKey = AlleleKey.newBuilder().setChr(1 + i % 3).setPosition(10_000 + i).setRef("A").setAlt("T").build();
+            AlleleProperties.Builder builder = AlleleProperties.newBuilder()
+                    .setRsId("rs" + i)
+                    .putProperties("KG", i / 1000f)
+                    .putProperties("GNOMAD_E_NFE", i / 10000f);
+            if (i % 100 == 0) {
+                builder.setClinVar(ClinVar.newBuilder().setAlleleId(String.valueOf(i)).setPrimaryInterpretation(ClinVar.ClinSig.PATHOGENIC));
+            }
+            alleles.put(alleleKey, builder.build());
+        }
+        MVStore mvStore = new MVStore.Builder().fileName(storePath.toString()).open();
+        MvStoreUtil.openAlleleMVMap(mvStore).putAll(alleles);
+        mvStore.close();
+        return alleles;
+    }
+
+    @Test
+    void convertProtobufToCompact(@TempDir Path tempDir) {
+        Path sourcePath = tempDir.resolve("2109_hg19_variants.mv.db");
+        Map<AlleleKey, AlleleProperties> alleles = writeProtobufStore(sourcePath);
+
+        Path outputPath = tempDir.resolve("2109_hg19_variants_compact.mv.db");
+        VariantDatabaseConverter instance = new VariantDatabaseConverter(sourcePath, outputPath, AllelePropertiesFormat.COMPACT);
+        assertThat(instance.run(), equalTo((long) alleles.size()));
+
+        MVStore converted = new MVStore.Builder().fileName(outputPath.toString()).readOnly().open();
+        assertThat(MvStoreUtil.readAllelePropertiesFormat(converted), equalTo(AllelePropertiesFormat.COMPACT));
+        MVMap<AlleleKey, AlleleProperties> convertedMap = MvStoreUtil.openAlleleMVMap(converted);
+        assertThat(convertedMap.size(), equalTo(alleles.size()));
+        alleles.forEach((alleleKey, alleleProperties) -> assertThat(convertedMap.get(alleleKey), equalTo(alleleProperties)));
+        converted.close();
+    }
+
+    @Test
+    void writesPresenceFilterOfConvertedStore(@TempDir Path tempDir) {
+        Path sourcePath = tempDir.resolve("source.mv.db");
+        Map<AlleleKey, AlleleProperties> alleles = writeProtobufStore(sourcePath);
+
+        Path outputPath = tempDir.resolve("2109_hg19_variants.mv.db");
+        new VariantDatabaseConverter(sourcePath, outputPath, AllelePropertiesFormat.COMPACT).run();
+
+        Path presenceFilterPath = tempDir.resolve("2109_hg19_variants.bloom");
+        AllelePresenceFilter presenceFilter = AllelePresenceFilter.map(presenceFilterPath, DataFileChecksum.of(outputPath)).orElseThrow();
+        assertThat(presenceFilter.getNumKeys(), equalTo((long) alleles.size()));
+        alleles.keySet().forEach(alleleKey -> assertThat(presenceFilter.mightContain(alleleKey), is(true)));
+        // the filter is tied to the converted store, not the source
+        assertThat(AllelePresenceFilter.map(presenceFilterPath, DataFileChecksum.of(sourcePath)), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void convertCompactBackToProtobuf(@TempDir Path tempDir) {
+        Path sourcePath = tempDir.resolve("source.mv.db");
+        Map<AlleleKey, AlleleProperties> alleles = writeProtobufStore(sourcePath);
+        Path compactPath = tempDir.resolve("compact.mv.db");
+        new VariantDatabaseConverter(sourcePath, compactPath, AllelePropertiesFormat.COMPACT).run();
+
+        Path protobufPath = tempDir.resolve("protobuf.mv.db");
+        new VariantDatabaseConverter(compactPath, protobufPath, AllelePropertiesFormat.PROTOBUF).run();
+
+        MVStore converted = new MVStore.Builder().fileName(protobufPath.toString()).readOnly().open();
+        assertThat(MvStoreUtil.readAllelePropertiesFormat(converted), equalTo(AllelePropertiesFormat.PROTOBUF));
+        MVMap<AlleleKey, AlleleProperties> convertedMap = MvStoreUtil.openAlleleMVMap(converted);
+        alleles.forEach((alleleKey, alleleProperties) -> assertThat(convertedMap.get(alleleKey), equalTo(alleleProperties)));
+        converted.close();
+    }
+
+    @Test
+    void throwsExceptionWhenOutputIsSource(@TempDir Path tempDir) {
+        Path sourcePath = tempDir.resolve("source.mv.db");
+        assertThrows(IllegalArgumentException.class, () -> new VariantDatabaseConverter(sourcePath, sourcePath, AllelePropertiesFormat.COMPACT));
+    }
+
+    @Test
+    void throwsExceptionWhenOutputExists(@TempDir Path tempDir) {
+        Path sourcePath = tempDir.resolve("source.mv.db");
+        writeProtobufStore(sourcePath);
+        Path outputPath = tempDir.resolve("output.mv.db");
+        writeProtobufStore(outputPath);
+        VariantDatabaseConverter instance = new VariantDatabaseConverter(sourcePath, outputPath, AllelePropertiesFormat.COMPACT);
+        assertThrows(IllegalArgumentException.class, instance::run);
+    }
+}
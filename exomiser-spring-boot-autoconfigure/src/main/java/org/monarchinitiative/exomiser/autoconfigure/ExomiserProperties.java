@@ -23,6 +23,8 @@
 import org.monarchinitiative.exomiser.autoconfigure.genome.Hg19GenomeProperties;
 import org.monarchinitiative.exomiser.autoconfigure.genome.Hg38GenomeProperties;
 import org.monarchinitiative.exomiser.autoconfigure.phenotype.PhenotypeProperties;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisFactory;
+import org.monarchinitiative.exomiser.core.analysis.util.CombinedScorePvalueCalculator;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
@@ -37,6 +39,18 @@ public class ExomiserProperties {
 
     private String workingDirectory;
 
+    /**
+     * Number of threads used to annotate and filter the variants of a sample. Values greater than 1 will run a
+     * parallel, order-preserving pipeline producing results identical to the default sequential loading.
+     */
+    private int variantProcessingThreads = AnalysisFactory.DEFAULT_VARIANT_PROCESSING_THREADS;
+
+    /**
+     * Number of combined scores bootstrapped to calculate the gene p-values. Larger populations give a finer resolution
+     * of p-values at the cost of memory and set-up time.
+     */
+    private int pvalueBootstrapPopulation = CombinedScorePvalueCalculator.DEFAULT_BOOTSTRAP_POPULATION;
+
     //exomiser.phenotype...
     @NestedConfigurationProperty
     private PhenotypeProperties phenotype = new PhenotypeProperties();
@@ -64,6 +78,22 @@ public void setWorkingDirectory(String workingDirectory) {
         this.workingDirectory = workingDirectory;
     }
 
+    public int getVariantProcessingThreads() {
+        return variantProcessingThreads;
+    }
+
+    public void setVariantProcessingThreads(int variantProcessingThreads) {
+        this.variantProcessingThreads = variantProcessingThreads;
+    }
+
+    public int getPvalueBootstrapPopulation() {
+        return pvalueBootstrapPopulation;
+    }
+
+    public void setPvalueBootstrapPopulation(int pvalueBootstrapPopulation) {
+        this.pvalueBootstrapPopulation = pvalueBootstrapPopulation;
+    }
+
     public PhenotypeProperties getPhenotype() {
         return phenotype;
     }
@@ -34,6 +34,8 @@ public abstract class AbstractGenomeProperties implements GenomeProperties {
     private final GenomeAssembly assembly;
     private TranscriptSource transcriptSource = TranscriptSource.ENSEMBL;
     private String dataVersion = "";
+    private VariantStoreType variantsStore = VariantStoreType.MVSTORE;
+    private SvStoreType svStore = SvStoreType.IN_MEMORY;
 
     private Path dataDirectory;
 
@@ -47,10 +49,19 @@ public abstract class AbstractGenomeProperties implements GenomeProperties {
     private String remmPath = "";
     private String localFrequencyPath = "";
 
+    // Optional dense memory-mapped score files built from the CADD SNV and REMM tabix files. When present these are
+    // used to look up SNV scores in place of the tabix files.
+    private String caddSnvScoresPath = "";
+    private String remmScoresPath = "";
+
     // 'special' tabix datasource for quickly testing new pathogenicity data sources before plumbing them into the main
     // datastore
     private String testPathogenicityScorePath = "";
 
+    // Number of threads used to query the variant data sources concurrently. These are mostly blocked on I/O. This also
+    // bounds the number of readers opened of each tabix file.
+    private int ioThreads = Runtime.getRuntime().availableProcessors();
+
     protected AbstractGenomeProperties(GenomeAssembly assembly) {
         this.assembly = assembly;
     }
@@ -89,6 +100,30 @@ public void setTranscriptSource(String name) {
         this.transcriptSource = TranscriptSource.parseValue(name);
     }
 
+    public VariantStoreType getVariantsStore() {
+        return variantsStore;
+    }
+
+    public void setVariantsStore(VariantStoreType variantsStore) {
+        this.variantsStore = variantsStore;
+    }
+
+    public SvStoreType getSvStore() {
+        return svStore;
+    }
+
+    public void setSvStore(SvStoreType svStore) {
+        this.svStore = svStore;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
     public String getVariantWhiteListPath() {
         return variantWhiteListPath;
     }
@@ -121,6 +156,22 @@ public void setRemmPath(String remmPath) {
         this.remmPath = remmPath;
     }
 
+    public String getCaddSnvScoresPath() {
+        return caddSnvScoresPath;
+    }
+
+    public void setCaddSnvScoresPath(String caddSnvScoresPath) {
+        this.caddSnvScoresPath = caddSnvScoresPath;
+    }
+
+    public String getRemmScoresPath() {
+        return remmScoresPath;
+    }
+
+    public void setRemmScoresPath(String remmScoresPath) {
+        this.remmScoresPath = remmScoresPath;
+    }
+
     public String getLocalFrequencyPath() {
         return localFrequencyPath;
     }
@@ -62,6 +62,8 @@ public interface GenomeAnalysisServiceConfiguration {
 
     PathogenicityDao caddDao();
 
+    PathogenicityDao caddTabixDao();
+
     PathogenicityDao testPathScoreDao();
 
     // Structural Variant Dao
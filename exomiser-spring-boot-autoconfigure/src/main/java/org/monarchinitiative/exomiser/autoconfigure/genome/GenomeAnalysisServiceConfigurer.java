@@ -23,16 +23,20 @@
 import de.charite.compbio.jannovar.data.JannovarData;
 import org.h2.mvstore.MVStore;
 import org.monarchinitiative.exomiser.core.genome.*;
-import org.monarchinitiative.exomiser.core.genome.dao.AllelePropertiesDaoAdapter;
-import org.monarchinitiative.exomiser.core.genome.dao.RegulatoryFeatureDao;
-import org.monarchinitiative.exomiser.core.genome.dao.TadDao;
+import org.monarchinitiative.exomiser.core.genome.dao.*;
 import org.monarchinitiative.exomiser.core.model.ChromosomalRegionIndex;
 import org.monarchinitiative.exomiser.core.model.RegulatoryFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Acts as a manual version of Spring component discovery and DI. This is required as there can be more than one
@@ -52,8 +56,16 @@ public abstract class GenomeAnalysisServiceConfigurer implements GenomeAnalysisS
     protected final DataSource genomeDataSource;
 
     protected final JannovarData jannovarData;
+    // null when the sorted-block variants store has been selected
+    @Nullable
     protected final MVStore mvStore;
 
+    protected final ExecutorService ioExecutor;
+
+    // kept so that the presence filter counts can be logged on shutdown
+    @Nullable
+    private AllelePropertiesDaoMvStore allelePropertiesDaoMvStore;
+
     protected GenomeAnalysisServiceConfigurer(GenomeProperties genomeProperties, Path exomiserDataDirectory) {
         this.genomeProperties = genomeProperties;
         logger.debug("Loading data sources for {} {} {}", genomeProperties.getDataVersion(), genomeProperties.getAssembly(), genomeProperties
@@ -65,6 +77,31 @@ protected GenomeAnalysisServiceConfigurer(GenomeProperties genomeProperties, Pat
 
         this.jannovarData = genomeDataSourceLoader.getJannovarData();
         this.mvStore = genomeDataSourceLoader.getMvStore();
+        this.ioExecutor = Executors.newFixedThreadPool(genomeProperties.getIoThreads(), namedDaemonThreadFactory("exomiser-" + genomeProperties.getAssembly() + "-io"));
+    }
+
+    private static ThreadFactory namedDaemonThreadFactory(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Shuts down the I/O executor and closes the tabix data sources, which will report their query latency, and logs
+     * the allele presence filter counts.
+     *
+     * @since 13.2.0
+     */
+    @PreDestroy
+    public void closeIoResources() {
+        ioExecutor.shutdown();
+        genomeDataSourceLoader.closeTabixDataSources();
+        if (allelePropertiesDaoMvStore != null) {
+            allelePropertiesDaoMvStore.logPresenceFilterCounts();
+        }
     }
 
     protected VariantAnnotator buildVariantAnnotator() {
@@ -72,12 +109,78 @@ protected VariantAnnotator buildVariantAnnotator() {
         return new JannovarVariantAnnotator(genomeProperties.getAssembly(), jannovarData, regulatoryRegionIndex);
     }
 
+    /**
+     * @return the {@link AllelePropertiesDao} for the variants store selected in the {@link GenomeProperties}
+     * @since 13.2.0
+     */
+    protected AllelePropertiesDao buildAllelePropertiesDao() {
+        SortedBlockAlleleStore sortedBlockAlleleStore = genomeDataSourceLoader.getSortedBlockAlleleStore();
+        if (sortedBlockAlleleStore != null) {
+            return new AllelePropertiesDaoSortedBlock(sortedBlockAlleleStore);
+        }
+        allelePropertiesDaoMvStore = new AllelePropertiesDaoMvStore(mvStore, genomeDataSourceLoader.getAllelePresenceFilter());
+        return allelePropertiesDaoMvStore;
+    }
+
+    /**
+     * @return a {@link RemmDaoDense} if a dense REMM score store has been configured, otherwise a tabix-backed {@link RemmDao}
+     * @since 13.2.0
+     */
+    protected PathogenicityDao buildRemmDao() {
+        DenseScoreStore remmScoreStore = genomeDataSourceLoader.getRemmScoreStore();
+        if (remmScoreStore != null) {
+            return new RemmDaoDense(remmScoreStore);
+        }
+        return new RemmDao(genomeDataSourceLoader.getRemmTabixDataSource());
+    }
+
+    /**
+     * @return a {@link CaddDaoDense} if a dense CADD SNV score store has been configured, otherwise the tabix-backed
+     * {@link CaddDao} bean. InDels are always looked up from the CADD InDel tabix file using the {@link CaddDao} bean
+     * so that these lookups are cached.
+     * @since 13.2.0
+     */
+    protected PathogenicityDao buildCaddDao() {
+        DenseScoreStore caddSnvScoreStore = genomeDataSourceLoader.getCaddSnvScoreStore();
+        if (caddSnvScoreStore != null) {
+            return new CaddDaoDense(caddSnvScoreStore, caddTabixDao());
+        }
+        return caddTabixDao();
+    }
+
+    /**
+     * @since 13.2.0
+     */
+    protected PathogenicityDao buildCaddTabixDao() {
+        return new CaddDao(genomeDataSourceLoader.getCaddIndelTabixDataSource(), genomeDataSourceLoader.getCaddSnvTabixDataSource());
+    }
+
+    /**
+     * @return the structural variant {@link FrequencyDao} for the SV store selected in the {@link GenomeProperties}
+     * @since 13.2.0
+     */
+    protected FrequencyDao buildSvFrequencyDao() {
+        if (genomeProperties.getSvStore() == SvStoreType.SQL) {
+            return new SvFrequencyDao(genomeDataSource);
+        }
+        return new SvFrequencyDaoInMemory(genomeDataSource);
+    }
+
+    /**
+     * @return the structural variant {@link PathogenicityDao} for the SV store selected in the {@link GenomeProperties}
+     * @since 13.2.0
+     */
+    protected PathogenicityDao buildSvPathogenicityDao() {
+        if (genomeProperties.getSvStore() == SvStoreType.SQL) {
+            return new SvPathogenicityDao(genomeDataSource);
+        }
+        return new SvPathogenicityDaoInMemory(genomeDataSource);
+    }
+
     //This method is calling the public interface of the concrete implementation so that the caching works on the DAOs
     protected VariantDataService buildVariantDataService() {
-        AllelePropertiesDaoAdapter allelePropertiesDaoAdapter = new AllelePropertiesDaoAdapter(allelePropertiesDao());
         return VariantDataServiceImpl.builder()
-                .defaultFrequencyDao(allelePropertiesDaoAdapter)
-                .defaultPathogenicityDao(allelePropertiesDaoAdapter)
+                .allelePropertiesDao(allelePropertiesDao())
                 .localFrequencyDao(localFrequencyDao())
                 .remmDao(remmDao())
                 .caddDao(caddDao())
@@ -85,6 +188,7 @@ protected VariantDataService buildVariantDataService() {
                 .svFrequencyDao(svFrequencyDao())
                 .svPathogenicityDao(svPathogenicityDao())
                 .variantWhiteList(variantWhiteList())
+                .ioExecutor(ioExecutor)
                 .build();
     }
 
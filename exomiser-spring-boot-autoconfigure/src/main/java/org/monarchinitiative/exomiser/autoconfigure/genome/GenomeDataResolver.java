@@ -100,6 +100,24 @@ public Path getVariantsMvStorePath() {
         return resolveAbsoluteResourcePath(mvStoreFileName);
     }
 
+    /**
+     * @return the path of the optional presence filter for the variants database, e.g. 2109_hg19_variants.bloom
+     * @since 13.2.0
+     */
+    public Path getVariantsPresenceFilterPath() {
+        String filterFileName = String.format("%s_variants.bloom", versionAssemblyPrefix);
+        return resolveAbsoluteResourcePath(filterFileName);
+    }
+
+    /**
+     * @return the path of the optional sorted-block store of the variants database, e.g. 2109_hg19_variants.alleles
+     * @since 13.2.0
+     */
+    public Path getVariantsSortedBlockStorePath() {
+        String storeFileName = String.format("%s_variants.alleles", versionAssemblyPrefix);
+        return resolveAbsoluteResourcePath(storeFileName);
+    }
+
     public Path getGenomeDbPath() {
         //omit the .h2.db extensions
         String dbFileName = String.format("%s_genome", versionAssemblyPrefix);
@@ -22,12 +22,17 @@
 
 import de.charite.compbio.jannovar.data.JannovarData;
 import org.h2.mvstore.MVStore;
+import org.monarchinitiative.exomiser.autoconfigure.ExomiserAutoConfigurationException;
 import org.monarchinitiative.exomiser.core.genome.dao.*;
 import org.monarchinitiative.exomiser.core.genome.jannovar.JannovarDataSourceLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -44,7 +49,12 @@ public class GenomeDataSourceLoader {
     private final GenomeDataResolver genomeDataResolver;
 
     private final JannovarData jannovarData;
+    @Nullable
     private final MVStore mvStore;
+    @Nullable
+    private final AllelePresenceFilter allelePresenceFilter;
+    @Nullable
+    private final SortedBlockAlleleStore sortedBlockAlleleStore;
 
     private final VariantWhiteList variantWhiteList;
 
@@ -55,6 +65,12 @@ public class GenomeDataSourceLoader {
     private final TabixDataSource remmTabixDataSource;
     private final TabixDataSource testPathogenicityTabixDataSource;
 
+    //Dense score stores
+    @Nullable
+    private final DenseScoreStore caddSnvScoreStore;
+    @Nullable
+    private final DenseScoreStore remmScoreStore;
+
     public GenomeDataSourceLoader(GenomeProperties genomeProperties, GenomeDataResolver genomeDataResolver) {
         logger.debug("Loading {} genome data sources...", genomeProperties.getAssembly());
         this.genomeProperties = genomeProperties;
@@ -66,7 +82,14 @@ public GenomeDataSourceLoader(GenomeProperties genomeProperties, GenomeDataResol
         // shenanigans, but I've left the code here as a reminder.
         // start this here as it'll take a while longer than all the others put together
 //        CompletableFuture<JannovarData> jannovarDataFuture = loadJannovarDataAsync();
-        this.mvStore = loadMvStore();
+        // only one of the variants stores is opened - the sorted-block store replaces the MVStore when selected
+        boolean useMvStore = genomeProperties.getVariantsStore() == VariantStoreType.MVSTORE;
+        this.sortedBlockAlleleStore = useMvStore ? null : loadSortedBlockAlleleStore();
+        // fail before opening the MVStore if the optional dense score stores are missing
+        this.caddSnvScoreStore = getDenseScoreStoreOrNull("CADD snv", genomeProperties.getCaddSnvScoresPath(), genomeProperties.getCaddSnvPath());
+        this.remmScoreStore = getDenseScoreStoreOrNull("REMM", genomeProperties.getRemmScoresPath(), genomeProperties.getRemmPath());
+        this.mvStore = useMvStore ? loadMvStore() : null;
+        this.allelePresenceFilter = useMvStore ? loadAllelePresenceFilter() : null;
         this.variantWhiteList = loadVariantWhiteList();
 
         this.localFrequencyTabixDataSource = getTabixDataSourceOrDefault("LOCAL", genomeProperties.getLocalFrequencyPath());
@@ -101,6 +124,35 @@ private MVStore loadMvStore() {
         return MvStoreDataSourceLoader.openMvStore(mvStoreAbsolutePath);
     }
 
+    @Nullable
+    private AllelePresenceFilter loadAllelePresenceFilter() {
+        Path presenceFilterPath = genomeDataResolver.getVariantsPresenceFilterPath();
+        if (Files.exists(presenceFilterPath)) {
+            logger.debug("Mapping allele presence filter from {}", presenceFilterPath);
+            long variantsDatabaseChecksum = DataFileChecksum.of(genomeDataResolver.getVariantsMvStorePath());
+            return AllelePresenceFilter.map(presenceFilterPath, variantsDatabaseChecksum).orElse(null);
+        }
+        logger.debug("No allele presence filter found at {}", presenceFilterPath);
+        return null;
+    }
+
+    private SortedBlockAlleleStore loadSortedBlockAlleleStore() {
+        Path storePath = genomeDataResolver.getVariantsSortedBlockStorePath();
+        if (!Files.exists(storePath)) {
+            throw new ExomiserAutoConfigurationException("Unable to find sorted-block variants store " + storePath + ". Please check the data directory or set the variants-store property to " + VariantStoreType.MVSTORE);
+        }
+        logger.debug("Mapping sorted-block variants store from {}", storePath);
+        SortedBlockAlleleStore sortedBlockAlleleStore = SortedBlockAlleleStore.open(storePath);
+        // the MVStore is not needed at runtime when using the sorted-block store, so might have been removed to save space
+        Path mvStorePath = genomeDataResolver.getVariantsMvStorePath();
+        if (!Files.exists(mvStorePath)) {
+            logger.info("Unable to check {} against the variants database {} as this is not present", storePath, mvStorePath);
+        } else if (sortedBlockAlleleStore.getSourceChecksum() != DataFileChecksum.of(mvStorePath)) {
+            throw new ExomiserAutoConfigurationException("Sorted-block variants store " + storePath + " was built from a different variants database to " + mvStorePath + ". Please re-build the sorted-block store or set the variants-store property to " + VariantStoreType.MVSTORE);
+        }
+        return sortedBlockAlleleStore;
+    }
+
     private VariantWhiteList loadVariantWhiteList() {
         Path variantWhiteListPath = genomeDataResolver.resolvePathOrNullIfEmpty(genomeProperties.getVariantWhiteListPath());
         if (variantWhiteListPath != null) {
@@ -113,7 +165,7 @@ private TabixDataSource getTabixDataSourceOrDefault(String dataSourceName, Strin
         Path path = genomeDataResolver.resolvePathOrNullIfEmpty(tabixPath);
         if (path != null) {
             logger.info("Opening {} data from source: {}", dataSourceName, path);
-            return TabixDataSourceLoader.load(path);
+            return TabixDataSourceLoader.load(path, genomeProperties.getIoThreads());
         } else {
             logger.debug("Data for {} is not configured. THIS WILL LEAD TO ERRORS IF REQUIRED DURING ANALYSIS. Check the application.properties is pointing to a valid file.", dataSourceName);
             String message = "Data for " + dataSourceName + " is not configured. Check the application.properties is pointing to a valid file.";
@@ -121,14 +173,58 @@ private TabixDataSource getTabixDataSourceOrDefault(String dataSourceName, Strin
         }
     }
 
+    @Nullable
+    private DenseScoreStore getDenseScoreStoreOrNull(String dataSourceName, String scoresPath, String tabixPath) {
+        Path path = genomeDataResolver.resolvePathOrNullIfEmpty(scoresPath);
+        if (path == null) {
+            return null;
+        }
+        if (!Files.exists(path)) {
+            throw new ExomiserAutoConfigurationException("Unable to find " + dataSourceName + " scores " + path + ". Check the application.properties is pointing to a valid file.");
+        }
+        logger.info("Mapping {} scores from {}", dataSourceName, path);
+        DenseScoreStore denseScoreStore = DenseScoreStore.open(path);
+        // the scores are converted from the tabix file, so a store left over from a previous release must not be used
+        Path sourcePath = genomeDataResolver.resolvePathOrNullIfEmpty(tabixPath);
+        if (sourcePath == null || !Files.exists(sourcePath)) {
+            logger.info("Unable to check {} scores {} against their tabix file as this is not present", dataSourceName, path);
+        } else if (denseScoreStore.getSourceChecksum() != DataFileChecksum.of(sourcePath)) {
+            throw new ExomiserAutoConfigurationException(dataSourceName + " scores " + path + " were converted from a different file to " + sourcePath + ". Please re-build the scores or remove the scores path from the application.properties");
+        }
+        return denseScoreStore;
+    }
+
     public JannovarData getJannovarData() {
         return jannovarData;
     }
 
+    /**
+     * @return the MVStore variants database, or null if the sorted-block variants store has been selected
+     */
+    @Nullable
     public MVStore getMvStore() {
         return mvStore;
     }
 
+    /**
+     * @return the presence filter for the variants database, or null if there isn't one or the sorted-block variants
+     * store has been selected
+     * @since 13.2.0
+     */
+    @Nullable
+    public AllelePresenceFilter getAllelePresenceFilter() {
+        return allelePresenceFilter;
+    }
+
+    /**
+     * @return the sorted-block variants store, or null if the MVStore has been selected as the variants store
+     * @since 13.2.0
+     */
+    @Nullable
+    public SortedBlockAlleleStore getSortedBlockAlleleStore() {
+        return sortedBlockAlleleStore;
+    }
+
     public VariantWhiteList getVariantWhiteList() {
         return variantWhiteList;
     }
@@ -153,6 +249,39 @@ public TabixDataSource getTestPathogenicityTabixDataSource() {
         return testPathogenicityTabixDataSource;
     }
 
+    /**
+     * @return the dense CADD SNV score store, or null if one has not been configured
+     * @since 13.2.0
+     */
+    @Nullable
+    public DenseScoreStore getCaddSnvScoreStore() {
+        return caddSnvScoreStore;
+    }
+
+    /**
+     * @return the dense REMM score store, or null if one has not been configured
+     * @since 13.2.0
+     */
+    @Nullable
+    public DenseScoreStore getRemmScoreStore() {
+        return remmScoreStore;
+    }
+
+    /**
+     * Closes the tabix data sources, which log the number of queries made of each and their latency.
+     *
+     * @since 13.2.0
+     */
+    public void closeTabixDataSources() {
+        for (TabixDataSource tabixDataSource : List.of(localFrequencyTabixDataSource, caddSnvTabixDataSource, caddIndelTabixDataSource, remmTabixDataSource, testPathogenicityTabixDataSource)) {
+            try {
+                tabixDataSource.close();
+            } catch (IOException e) {
+                logger.error("Unable to close {}", tabixDataSource.getSource(), e);
+            }
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
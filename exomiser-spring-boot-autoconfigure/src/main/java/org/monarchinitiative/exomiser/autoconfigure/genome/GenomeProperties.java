@@ -47,12 +47,24 @@ interface GenomeProperties {
 
     void setTranscriptSource(String name);
 
+    VariantStoreType getVariantsStore();
+
+    void setVariantsStore(VariantStoreType variantsStore);
+
+    SvStoreType getSvStore();
+
+    void setSvStore(SvStoreType svStore);
+
     Path getDataDirectory();
 
     void setDataDirectory(String dataDirectory);
 
     HikariDataSource genomeDataSource();
 
+    int getIoThreads();
+
+    void setIoThreads(int ioThreads);
+
     //Optional tabix variant data
 
     String getVariantWhiteListPath();
@@ -71,6 +83,16 @@ interface GenomeProperties {
 
     void setRemmPath(String remmPath);
 
+    //Optional dense memory-mapped score data, used in preference to the tabix files for SNVs when set
+
+    String getCaddSnvScoresPath();
+
+    void setCaddSnvScoresPath(String caddSnvScoresPath);
+
+    String getRemmScoresPath();
+
+    void setRemmScoresPath(String remmScoresPath);
+
     String getLocalFrequencyPath();
 
     void setLocalFrequencyPath(String localFrequencyPath);
@@ -57,7 +57,11 @@ public JannovarData jannovarData() {
         return jannovarData;
     }
 
+    /**
+     * The MVStore is only opened when this is selected as the variants store.
+     */
     @Bean("hg19mvStore")
+    @ConditionalOnProperty(name = "exomiser.hg19.variants-store", havingValue = "mvstore", matchIfMissing = true)
     public MVStore mvStore() {
         return mvStore;
     }
@@ -68,7 +72,9 @@ public MVStore mvStore() {
      */
     @PreDestroy
     public synchronized void closeMvStore() {
-        mvStore.close();
+        if (mvStore != null) {
+            mvStore.close();
+        }
     }
 
     @Bean("hg19variantAnnotator")
@@ -105,7 +111,7 @@ public GenomeAnalysisService genomeAnalysisService() {
     @Bean("hg19allelePropertiesDao")
     @Override
     public AllelePropertiesDao allelePropertiesDao() {
-        return new AllelePropertiesDaoMvStore(genomeDataSourceLoader.getMvStore());
+        return buildAllelePropertiesDao();
     }
 
     @Bean("hg19localFrequencyDao")
@@ -116,14 +122,20 @@ public FrequencyDao localFrequencyDao() {
 
     @Bean("hg19remmDao")
     @Override
-    public RemmDao remmDao() {
-        return new RemmDao(genomeDataSourceLoader.getRemmTabixDataSource());
+    public PathogenicityDao remmDao() {
+        return buildRemmDao();
     }
 
     @Bean("hg19caddDao")
     @Override
-    public CaddDao caddDao() {
-        return new CaddDao(genomeDataSourceLoader.getCaddIndelTabixDataSource(), genomeDataSourceLoader.getCaddSnvTabixDataSource());
+    public PathogenicityDao caddDao() {
+        return buildCaddDao();
+    }
+
+    @Bean("hg19caddTabixDao")
+    @Override
+    public PathogenicityDao caddTabixDao() {
+        return buildCaddTabixDao();
     }
 
     @Bean("hg19testPathDao")
@@ -135,12 +147,12 @@ public PathogenicityDao testPathScoreDao() {
     @Bean("hg19svFrequencyDao")
     @Override
     public FrequencyDao svFrequencyDao() {
-        return new SvFrequencyDao(genomeDataSource);
+        return buildSvFrequencyDao();
     }
 
     @Bean("hg19svPathogenicityDao")
     @Override
     public PathogenicityDao svPathogenicityDao() {
-        return new SvPathogenicityDao(genomeDataSource);
+        return buildSvPathogenicityDao();
     }
 }
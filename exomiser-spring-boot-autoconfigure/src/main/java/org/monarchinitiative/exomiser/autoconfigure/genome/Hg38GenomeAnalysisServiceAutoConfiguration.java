@@ -57,7 +57,11 @@ public JannovarData jannovarData() {
         return jannovarData;
     }
 
+    /**
+     * The MVStore is only opened when this is selected as the variants store.
+     */
     @Bean("hg38mvStore")
+    @ConditionalOnProperty(name = "exomiser.hg38.variants-store", havingValue = "mvstore", matchIfMissing = true)
     public MVStore mvStore() {
         return mvStore;
     }
@@ -68,7 +72,9 @@ public MVStore mvStore() {
      */
     @PreDestroy
     public synchronized void closeMvStore() {
-        mvStore.close();
+        if (mvStore != null) {
+            mvStore.close();
+        }
     }
 
     @Bean("hg38variantAnnotator")
@@ -105,7 +111,7 @@ public GenomeAnalysisService genomeAnalysisService() {
     @Bean("hg38allelePropertiesDao")
     @Override
     public AllelePropertiesDao allelePropertiesDao() {
-        return new AllelePropertiesDaoMvStore(mvStore());
+        return buildAllelePropertiesDao();
     }
 
     @Bean("hg38localFrequencyDao")
@@ -116,14 +122,20 @@ public FrequencyDao localFrequencyDao() {
 
     @Bean("hg38remmDao")
     @Override
-    public RemmDao remmDao() {
-        return new RemmDao(genomeDataSourceLoader.getRemmTabixDataSource());
+    public PathogenicityDao remmDao() {
+        return buildRemmDao();
     }
 
     @Bean("hg38caddDao")
     @Override
-    public CaddDao caddDao() {
-        return new CaddDao(genomeDataSourceLoader.getCaddIndelTabixDataSource(), genomeDataSourceLoader.getCaddSnvTabixDataSource());
+    public PathogenicityDao caddDao() {
+        return buildCaddDao();
+    }
+
+    @Bean("hg38caddTabixDao")
+    @Override
+    public PathogenicityDao caddTabixDao() {
+        return buildCaddTabixDao();
     }
 
     @Bean("hg38testPathDao")
@@ -135,12 +147,12 @@ public PathogenicityDao testPathScoreDao() {
     @Bean("hg38svFrequencyDao")
     @Override
     public FrequencyDao svFrequencyDao() {
-        return new SvFrequencyDao(genomeDataSource);
+        return buildSvFrequencyDao();
     }
 
     @Bean("hg38svPathogenicityDao")
     @Override
     public PathogenicityDao svPathogenicityDao() {
-        return new SvPathogenicityDao(genomeDataSource);
+        return buildSvPathogenicityDao();
     }
 }
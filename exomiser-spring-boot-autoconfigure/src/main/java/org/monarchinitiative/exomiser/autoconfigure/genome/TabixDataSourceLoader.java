@@ -20,14 +20,13 @@
 
 package org.monarchinitiative.exomiser.autoconfigure.genome;
 
-import htsjdk.tribble.readers.TabixReader;
 import org.monarchinitiative.exomiser.autoconfigure.ExomiserAutoConfigurationException;
+import org.monarchinitiative.exomiser.core.genome.dao.PooledTabixDataSource;
 import org.monarchinitiative.exomiser.core.genome.dao.TabixDataSource;
-import org.monarchinitiative.exomiser.core.genome.dao.TabixReaderAdaptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 
 /**
@@ -41,14 +40,25 @@ private TabixDataSourceLoader() {
         //uninstantiable - static helper class.
     }
 
+    /**
+     * Loads the tabix file as a {@link PooledTabixDataSource} with up to one reader per available processor, the
+     * default number of I/O threads.
+     */
     public static TabixDataSource load(Path pathToTabixGzFile) {
-        TabixReader tabixReader;
+        return load(pathToTabixGzFile, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Loads the tabix file as a {@link PooledTabixDataSource} so that it can be queried concurrently.
+     *
+     * @param maxReaders the maximum number of readers of the file to open
+     */
+    public static TabixDataSource load(Path pathToTabixGzFile, int maxReaders) {
         try {
             logger.debug("Loading TabixDataSource from {}", pathToTabixGzFile);
-            tabixReader = new TabixReader(pathToTabixGzFile.toAbsolutePath().toString());
-        } catch (IOException e) {
+            return PooledTabixDataSource.of(pathToTabixGzFile, maxReaders);
+        } catch (UncheckedIOException e) {
             throw new ExomiserAutoConfigurationException("Failed to load/find file " + pathToTabixGzFile + ". Please check exomiser properties file points to a valid tabix .gz file.", e);
         }
-        return new TabixReaderAdaptor(tabixReader);
     }
 }
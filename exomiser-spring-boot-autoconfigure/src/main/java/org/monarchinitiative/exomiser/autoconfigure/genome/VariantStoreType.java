@@ -0,0 +1,39 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2021 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.autoconfigure.genome;
+
+/**
+ * The backend used to look up the allele frequency and pathogenicity data from the variants database. This is set with
+ * the {@code exomiser.hg19.variants-store} and {@code exomiser.hg38.variants-store} properties.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ * @since 13.2.0
+ */
+public enum VariantStoreType {
+    /**
+     * The MVStore variants database, e.g. 2109_hg19_variants.mv.db. This is the default.
+     */
+    MVSTORE,
+    /**
+     * The memory-mapped sorted-block store written alongside the MVStore by the data build, e.g. 2109_hg19_variants.alleles
+     */
+    SORTED_BLOCK
+}
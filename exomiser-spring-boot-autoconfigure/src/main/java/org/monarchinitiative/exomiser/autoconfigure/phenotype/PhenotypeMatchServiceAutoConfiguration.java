@@ -21,15 +21,21 @@
 package org.monarchinitiative.exomiser.autoconfigure.phenotype;
 
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatchService;
+import org.monarchinitiative.exomiser.core.phenotype.service.OntologyServiceImpl;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
 
 /**
+ * The {@link OntologyServiceImpl} is excluded from the component scan as it is configured by the
+ * {@link PrioritiserAutoConfiguration} according to the {@link PhenotypeProperties}.
+ *
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
  */
 @Configuration
 @ConditionalOnClass(PhenotypeMatchService.class)
-@ComponentScan("org.monarchinitiative.exomiser.core.phenotype")
+@ComponentScan(value = "org.monarchinitiative.exomiser.core.phenotype",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = OntologyServiceImpl.class))
 public class PhenotypeMatchServiceAutoConfiguration {
 }
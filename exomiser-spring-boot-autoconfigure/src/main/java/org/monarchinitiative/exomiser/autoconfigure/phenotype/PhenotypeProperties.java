@@ -42,6 +42,8 @@ public class PhenotypeProperties {
 
     private String dataVersion = "";
 
+    private String dbName;
+
     @Bean
     @ConfigurationProperties("exomiser.phenotype.datasource")
     public DataSourceProperties phenotypeDataSourceProperties() {
@@ -61,6 +63,15 @@ public HikariDataSource phenotypeDataSource(DataSourceProperties phenotypeDataSo
     private String randomWalkIndexFileName = "rw_string_9_05_id2index.gz";
     private boolean randomWalkPreload = false;
 
+    //HP-HP, HP-MP and HP-ZP mappings, pre-loaded into memory by the OntologyServiceImpl
+    private boolean phenotypeMappingsPreload = false;
+
+    //HUMAN, MOUSE and FISH models, read by the PriorityService from a binary snapshot next to the phenotype database
+    private boolean modelsSnapshot = false;
+
+    //Number of threads shared by all the HiPhive prioritisers to score the models, whatever the number of concurrent analyses
+    private int hiPhiveScoringThreads = Runtime.getRuntime().availableProcessors();
+
     //Phenix data
     private String phenixDataDir = "phenix";
     private String hpoFileName = "hp.obo";
@@ -82,6 +93,14 @@ public void setDataVersion(String dataVersion) {
         this.dataVersion = dataVersion;
     }
 
+    public String getDbName() {
+        return dbName;
+    }
+
+    public void setDbName(String dbName) {
+        this.dbName = dbName;
+    }
+
     public String getRandomWalkFileName() {
         return randomWalkFileName;
     }
@@ -106,6 +125,30 @@ public void setRandomWalkPreload(boolean randomWalkPreload) {
         this.randomWalkPreload = randomWalkPreload;
     }
 
+    public boolean isPhenotypeMappingsPreload() {
+        return phenotypeMappingsPreload;
+    }
+
+    public void setPhenotypeMappingsPreload(boolean phenotypeMappingsPreload) {
+        this.phenotypeMappingsPreload = phenotypeMappingsPreload;
+    }
+
+    public boolean isModelsSnapshot() {
+        return modelsSnapshot;
+    }
+
+    public void setModelsSnapshot(boolean modelsSnapshot) {
+        this.modelsSnapshot = modelsSnapshot;
+    }
+
+    public int getHiPhiveScoringThreads() {
+        return hiPhiveScoringThreads;
+    }
+
+    public void setHiPhiveScoringThreads(int hiPhiveScoringThreads) {
+        this.hiPhiveScoringThreads = hiPhiveScoringThreads;
+    }
+
     public String getPhenixDataDir() {
         return phenixDataDir;
     }
@@ -136,6 +179,9 @@ public String toString() {
                 "dataVersion='" + dataVersion + '\'' +
                 ", randomWalkFileName='" + randomWalkFileName + '\'' +
                 ", randomWalkIndexFileName='" + randomWalkIndexFileName + '\'' +
+                ", phenotypeMappingsPreload=" + phenotypeMappingsPreload +
+                ", modelsSnapshot=" + modelsSnapshot +
+                ", hiPhiveScoringThreads=" + hiPhiveScoringThreads +
                 ", phenixDataDir='" + phenixDataDir + '\'' +
                 ", hpoFileName='" + hpoFileName + '\'' +
                 ", hpoAnnotationFile='" + hpoAnnotationFile + '\'' +
@@ -21,10 +21,23 @@
 package org.monarchinitiative.exomiser.autoconfigure.phenotype;
 
 import org.monarchinitiative.exomiser.autoconfigure.DataDirectoryAutoConfiguration;
+import org.monarchinitiative.exomiser.autoconfigure.ExomiserAutoConfigurationException;
 import org.monarchinitiative.exomiser.autoconfigure.UndefinedDataDirectoryException;
+import org.monarchinitiative.exomiser.core.genome.dao.DataFileChecksum;
+import org.monarchinitiative.exomiser.core.phenotype.dao.HumanPhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.MousePhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.dao.ZebraFishPhenotypeOntologyDao;
+import org.monarchinitiative.exomiser.core.phenotype.service.OntologyService;
+import org.monarchinitiative.exomiser.core.phenotype.service.OntologyServiceImpl;
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityFactory;
+import org.monarchinitiative.exomiser.core.prioritisers.service.GeneModelSnapshot;
+import org.monarchinitiative.exomiser.core.prioritisers.service.ModelService;
+import org.monarchinitiative.exomiser.core.prioritisers.service.ModelServiceImpl;
+import org.monarchinitiative.exomiser.core.prioritisers.service.SnapshotModelService;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrixIO;
+import org.monarchinitiative.exomiser.core.prioritisers.util.MappedDataMatrix;
+import org.monarchinitiative.exomiser.core.prioritisers.util.QuantisedDataMatrix;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -35,6 +48,7 @@
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 
 import java.io.IOException;
 import java.nio.file.DirectoryIteratorException;
@@ -44,6 +58,11 @@
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
@@ -166,6 +185,14 @@ public DataMatrix randomWalkMatrix() {
             Path randomWalkIndexFilePath = phenotypeDataDirectory().resolve(randomWalkIndexFileNameValue);
             return DataMatrixIO.loadInMemoryDataMatrixFromFile(randomWalkFilePath.toString(), randomWalkIndexFilePath.toString(), true);
         }
+        if (randomWalkFileNameValue.endsWith(MappedDataMatrix.FILE_EXTENSION)) {
+            logger.debug("Using memory-mapped random-walk matrix from {}", randomWalkFilePath);
+            return DataMatrixIO.loadMappedDataMatrix(randomWalkFilePath);
+        }
+        if (randomWalkFileNameValue.endsWith(QuantisedDataMatrix.FILE_EXTENSION)) {
+            logger.info("Loading quantised random-walk matrix from {}", randomWalkFilePath);
+            return DataMatrixIO.loadQuantisedDataMatrix(randomWalkFilePath);
+        }
         if (phenotypeProperties.isRandomWalkPreload()) {
             logger.info("Pre-loading in-memory random-walk matrix from {}", randomWalkFilePath);
             return DataMatrixIO.loadInMemoryDataMatrix(randomWalkFilePath);
@@ -174,4 +201,81 @@ public DataMatrix randomWalkMatrix() {
         return DataMatrixIO.loadOffHeapDataMatrix(randomWalkFilePath);
     }
 
+    /**
+     * The executor shared by all the HiPhive prioritisers to score the models, so that the number of scoring threads is
+     * bounded by {@code exomiser.phenotype.hi-phive-scoring-threads} however many analyses are run concurrently.
+     *
+     * @since 13.2.0
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(name = "hiPhiveScoringExecutor")
+    public ExecutorService hiPhiveScoringExecutor() {
+        int scoringThreads = phenotypeProperties.getHiPhiveScoringThreads();
+        if (scoringThreads < 1) {
+            throw new ExomiserAutoConfigurationException("exomiser.phenotype.hi-phive-scoring-threads must be greater than 0, but was " + scoringThreads);
+        }
+        logger.debug("Scoring HiPhive models using {} threads", scoringThreads);
+        return Executors.newFixedThreadPool(scoringThreads, namedDaemonThreadFactory("exomiser-hiphive-scorer"));
+    }
+
+    private static ThreadFactory namedDaemonThreadFactory(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The default {@link OntologyServiceImpl}, which queries the phenotype mappings from the database for each HPO term.
+     *
+     * @since 13.2.0
+     */
+    @Bean
+    @ConditionalOnProperty(value = "exomiser.phenotype.phenotype-mappings-preload", havingValue = "false", matchIfMissing = true)
+    public OntologyService ontologyService(HumanPhenotypeOntologyDao hpoDao, MousePhenotypeOntologyDao mpoDao, ZebraFishPhenotypeOntologyDao zpoDao) {
+        return new OntologyServiceImpl(hpoDao, mpoDao, zpoDao);
+    }
+
+    /**
+     * An {@link OntologyServiceImpl} which loads the HP-HP, HP-MP and HP-ZP mappings into memory on startup.
+     *
+     * @since 13.2.0
+     */
+    @Bean
+    @ConditionalOnProperty(value = "exomiser.phenotype.phenotype-mappings-preload", havingValue = "true")
+    public OntologyService preloadedOntologyService(HumanPhenotypeOntologyDao hpoDao, MousePhenotypeOntologyDao mpoDao, ZebraFishPhenotypeOntologyDao zpoDao) {
+        logger.info("Pre-loading phenotype mappings");
+        return new OntologyServiceImpl(hpoDao, mpoDao, zpoDao, true);
+    }
+
+    /**
+     * Replaces the SQL {@link ModelServiceImpl} used by the PriorityService with one which loads the models from a
+     * binary snapshot written next to the phenotype database on the first run. The snapshot is re-written from the
+     * database whenever this changes.
+     *
+     * @return a {@link SnapshotModelService} for the phenotype database, or the original {@link ModelServiceImpl} if
+     * the database file cannot be found.
+     * @since 13.2.0
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "exomiser.phenotype.models-snapshot", havingValue = "true")
+    public ModelService snapshotModelService(ModelServiceImpl modelServiceImpl) {
+        String dbName = phenotypeProperties.getDbName() == null ? String.format("%s_phenotype", phenotypeProperties.getDataVersion()) : phenotypeProperties.getDbName();
+        Path databaseFile = Stream.of(".mv.db", ".h2.db")
+                .map(extension -> phenotypeDataDirectory.resolve(dbName + extension))
+                .filter(Files::isRegularFile)
+                .findFirst()
+                .orElse(null);
+        if (databaseFile == null) {
+            logger.warn("Unable to find phenotype database {} in {} - loading models from database", dbName, phenotypeDataDirectory);
+            return modelServiceImpl;
+        }
+        Path snapshotFile = phenotypeDataDirectory.resolve(dbName + GeneModelSnapshot.FILE_EXTENSION);
+        logger.debug("Using models snapshot {}", snapshotFile);
+        return new SnapshotModelService(modelServiceImpl, snapshotFile, DataFileChecksum.of(databaseFile));
+    }
+
 }
@@ -25,6 +25,8 @@
 import org.monarchinitiative.exomiser.core.genome.GenomeAnalysisServiceProvider;
 import org.monarchinitiative.exomiser.core.genome.GenomeAssembly;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatchService;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisFactory;
+import org.springframework.beans.BeansException;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.support.NoOpCacheManager;
@@ -32,8 +34,10 @@
 import org.springframework.context.annotation.Configuration;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
@@ -87,6 +91,23 @@ public void testHg38OnlyAutoConfiguration() {
         assertThat(phenotypeMatchService, instanceOf(PhenotypeMatchService.class));
     }
 
+    @Test
+    public void testAnalysisFactoryUsesVariantProcessingThreadsFromExomiserProperties() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710", "exomiser.phenotype.data-version=1710", "exomiser.variant-processing-threads=4");
+        assertThat(context.getBean(AnalysisFactory.class).getVariantProcessingThreads(), equalTo(4));
+    }
+
+    @Test
+    public void testAnalysisFactoryUsesDefaultVariantProcessingThreads() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710", "exomiser.phenotype.data-version=1710");
+        assertThat(context.getBean(AnalysisFactory.class).getVariantProcessingThreads(), equalTo(AnalysisFactory.DEFAULT_VARIANT_PROCESSING_THREADS));
+    }
+
+    @Test
+    public void testInvalidVariantProcessingThreadsFromExomiserProperties() {
+        assertThrows(BeansException.class, () -> load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710", "exomiser.phenotype.data-version=1710", "exomiser.variant-processing-threads=0"));
+    }
+
     @Configuration
     @ImportAutoConfiguration(value = ExomiserAutoConfiguration.class)
     protected static class EmptyConfiguration {
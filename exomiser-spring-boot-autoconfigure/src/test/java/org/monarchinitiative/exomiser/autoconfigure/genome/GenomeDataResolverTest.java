@@ -146,6 +146,26 @@ void testGetVariantsMvStorePath() {
                 .toAbsolutePath()));
     }
 
+    @Test
+    void testGetVariantsPresenceFilterPath() {
+        GenomeProperties genomeProperties = new Hg19GenomeProperties();
+        genomeProperties.setDataVersion("1710");
+
+        GenomeDataResolver instance = new GenomeDataResolver(genomeProperties, exomiserDataDirectory);
+        assertThat(instance.getVariantsPresenceFilterPath(), equalTo(exomiserDataDirectory.resolve("1710_hg19/1710_hg19_variants.bloom")
+                .toAbsolutePath()));
+    }
+
+    @Test
+    void testGetVariantsSortedBlockStorePath() {
+        GenomeProperties genomeProperties = new Hg19GenomeProperties();
+        genomeProperties.setDataVersion("1710");
+
+        GenomeDataResolver instance = new GenomeDataResolver(genomeProperties, exomiserDataDirectory);
+        assertThat(instance.getVariantsSortedBlockStorePath(), equalTo(exomiserDataDirectory.resolve("1710_hg19/1710_hg19_variants.alleles")
+                .toAbsolutePath()));
+    }
+
     @Test
     void testGetGenomeDbPath() {
         GenomeProperties genomeProperties = new Hg19GenomeProperties();
@@ -23,21 +23,37 @@
 import de.charite.compbio.jannovar.data.JannovarData;
 import org.h2.mvstore.MVStore;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.monarchinitiative.exomiser.autoconfigure.AbstractAutoConfigurationTest;
 import org.monarchinitiative.exomiser.core.genome.*;
 import org.monarchinitiative.exomiser.core.genome.dao.*;
+import org.monarchinitiative.exomiser.core.proto.AlleleProto;
+import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
  */
 public class Hg19GenomeAnalysisServiceAutoConfigurationTest extends AbstractAutoConfigurationTest {
 
+    @TempDir
+    Path tempDir;
+
     @Test
     public void genomeAnalysisService() throws Exception {
 
@@ -52,11 +68,22 @@ public void genomeAnalysisService() throws Exception {
         assertThat(context.getBean("hg19variantDataService"), instanceOf(VariantDataService.class));
         assertThat(context.getBean("hg19genomeDataService"), instanceOf(GenomeDataService.class));
 
-        assertThat(context.getBean("hg19allelePropertiesDao"), instanceOf(AllelePropertiesDao.class));
+        assertThat(context.getBean("hg19allelePropertiesDao"), instanceOf(AllelePropertiesDaoMvStore.class));
 
         assertThat(context.getBean("hg19remmDao"), instanceOf(RemmDao.class));
         assertThat(context.getBean("hg19caddDao"), instanceOf(CaddDao.class));
+        assertThat(context.getBean("hg19caddDao"), sameInstance(context.getBean("hg19caddTabixDao")));
         assertThat(context.getBean("hg19localFrequencyDao"), instanceOf(LocalFrequencyDao.class));
+        assertThat(context.getBean("hg19svFrequencyDao"), instanceOf(SvFrequencyDaoInMemory.class));
+        assertThat(context.getBean("hg19svPathogenicityDao"), instanceOf(SvPathogenicityDaoInMemory.class));
+    }
+
+    @Test
+    public void genomeAnalysisServiceWithSqlSvStore() throws Exception {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710", "exomiser.hg19.sv-store=sql");
+
+        assertThat(context.getBean("hg19svFrequencyDao"), instanceOf(SvFrequencyDao.class));
+        assertThat(context.getBean("hg19svPathogenicityDao"), instanceOf(SvPathogenicityDao.class));
     }
 
     @Test
@@ -68,6 +95,104 @@ public void genomeAnalysisServiceWithOptionalTestPathDao() throws Exception {
         assertThat(context.getBean("hg19testPathDao"), instanceOf(TestPathogenicityScoreDao.class));
     }
 
+    @Test
+    public void genomeAnalysisServiceWithMvStoreVariantsStore() throws Exception {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710", "exomiser.hg19.variants-store=mvstore");
+
+        assertThat(context.getBean("hg19allelePropertiesDao"), instanceOf(AllelePropertiesDaoMvStore.class));
+    }
+
+    @Test
+    public void genomeAnalysisServiceWithMissingSortedBlockVariantsStore() throws Exception {
+        Throwable thrown = assertThrows(BeanCreationException.class, () ->
+                load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710", "exomiser.hg19.variants-store=sorted-block"));
+        assertThat(thrown.getMessage(), containsString("1710_hg19_variants.alleles"));
+    }
+
+    private Path copyHg19DataDirectory() throws IOException {
+        Path hg19DataDirectory = Files.createDirectory(tempDir.resolve("1710_hg19"));
+        try (Stream<Path> files = Files.list(TEST_DATA.resolve("1710_hg19"))) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.copy(file, hg19DataDirectory.resolve(file.getFileName()));
+            }
+        }
+        return hg19DataDirectory;
+    }
+
+    private static void writeSortedBlockStore(Path hg19DataDirectory, long sourceChecksum) {
+        Path storePath = hg19DataDirectory.resolve("1710_hg19_variants.alleles");
+        try (SortedBlockAlleleStoreWriter writer = new SortedBlockAlleleStoreWriter(storePath, sourceChecksum)) {
+            AlleleProto.AlleleKey alleleKey = AlleleProto.AlleleKey.newBuilder().setChr(1).setPosition(12345).setRef("A").setAlt("T").build();
+            writer.write(alleleKey, AlleleProto.AlleleProperties.newBuilder().setRsId("rs12345").build());
+        }
+    }
+
+    @Test
+    public void genomeAnalysisServiceWithSortedBlockVariantsStoreDoesNotOpenMvStore() throws Exception {
+        Path hg19DataDirectory = copyHg19DataDirectory();
+        writeSortedBlockStore(hg19DataDirectory, DataFileChecksum.of(hg19DataDirectory.resolve("1710_hg19_variants.mv.db")));
+
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710", "exomiser.hg19.data-directory=" + hg19DataDirectory, "exomiser.hg19.variants-store=sorted-block");
+
+        assertThat(context.getBean("hg19allelePropertiesDao"), instanceOf(AllelePropertiesDaoSortedBlock.class));
+        assertThat(context.containsBean("hg19mvStore"), is(false));
+    }
+
+    @Test
+    public void genomeAnalysisServiceWithSortedBlockVariantsStoreFromDifferentDatabase() throws Exception {
+        Path hg19DataDirectory = copyHg19DataDirectory();
+        writeSortedBlockStore(hg19DataDirectory, DataFileChecksum.of(hg19DataDirectory.resolve("1710_hg19_variants.mv.db")) + 1);
+
+        Throwable thrown = assertThrows(BeanCreationException.class, () ->
+                load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710", "exomiser.hg19.data-directory=" + hg19DataDirectory, "exomiser.hg19.variants-store=sorted-block"));
+        assertThat(thrown.getMessage(), containsString("was built from a different variants database"));
+    }
+
+    @Test
+    public void genomeAnalysisServiceWithDenseScoreStores() throws Exception {
+        Path remmTabixPath = TEST_DATA.resolve("remm/remmData.tsv.gz").toAbsolutePath();
+        Path remmScoresPath = tempDir.resolve("remm.scores");
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(remmScoresPath, DataFileChecksum.of(remmTabixPath), 1, 65534f)) {
+            writer.write(1, 12345, 0, 0.5f);
+        }
+        // no CADD tabix file is configured, so this store can't be checked
+        Path caddSnvScoresPath = tempDir.resolve("cadd_snv.scores");
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(caddSnvScoresPath, 0L, 3, 655f)) {
+            writer.write(1, 12345, 0, 12.3f);
+        }
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710",
+                "exomiser.hg19.remm-path=" + remmTabixPath,
+                "exomiser.hg19.remm-scores-path=" + remmScoresPath.toAbsolutePath(),
+                "exomiser.hg19.cadd-snv-scores-path=" + caddSnvScoresPath.toAbsolutePath());
+
+        assertThat(context.getBean("hg19remmDao"), instanceOf(RemmDaoDense.class));
+        assertThat(context.getBean("hg19caddDao"), instanceOf(CaddDaoDense.class));
+        // the InDels are looked up from the Spring-managed, and hence cacheable, tabix DAO
+        assertThat(context.getBean("hg19caddTabixDao"), instanceOf(CaddDao.class));
+    }
+
+    @Test
+    public void genomeAnalysisServiceWithDenseScoreStoreFromDifferentTabixFile() throws Exception {
+        Path remmTabixPath = TEST_DATA.resolve("remm/remmData.tsv.gz").toAbsolutePath();
+        Path remmScoresPath = tempDir.resolve("remm.scores");
+        try (DenseScoreStoreWriter writer = new DenseScoreStoreWriter(remmScoresPath, DataFileChecksum.of(remmTabixPath) + 1, 1, 65534f)) {
+            writer.write(1, 12345, 0, 0.5f);
+        }
+        Throwable thrown = assertThrows(BeanCreationException.class, () ->
+                load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710",
+                        "exomiser.hg19.remm-path=" + remmTabixPath,
+                        "exomiser.hg19.remm-scores-path=" + remmScoresPath.toAbsolutePath()));
+        assertThat(thrown.getMessage(), containsString("were converted from a different file"));
+    }
+
+    @Test
+    public void genomeAnalysisServiceWithMissingDenseScoreStore() throws Exception {
+        Path remmScoresPath = tempDir.resolve("remm.scores");
+        Throwable thrown = assertThrows(BeanCreationException.class, () ->
+                load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.hg19.data-version=1710", "exomiser.hg19.remm-scores-path=" + remmScoresPath.toAbsolutePath()));
+        assertThat(thrown.getMessage(), containsString("remm.scores"));
+    }
+
     @Configuration
     @ImportAutoConfiguration(value = Hg19GenomeAnalysisServiceAutoConfiguration.class)
     protected static class EmptyConfiguration {
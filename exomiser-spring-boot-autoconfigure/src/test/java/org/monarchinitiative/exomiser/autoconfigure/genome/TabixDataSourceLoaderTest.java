@@ -22,6 +22,7 @@
 
 import org.junit.jupiter.api.Test;
 import org.monarchinitiative.exomiser.autoconfigure.ExomiserAutoConfigurationException;
+import org.monarchinitiative.exomiser.core.genome.dao.PooledTabixDataSource;
 import org.monarchinitiative.exomiser.core.genome.dao.TabixDataSource;
 
 import java.nio.file.Path;
@@ -29,6 +30,8 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -38,13 +41,23 @@ public class TabixDataSourceLoaderTest {
 
     @Test
     public void testUnresolvableResource() throws Exception {
-        assertThrows(ExomiserAutoConfigurationException.class, () ->TabixDataSourceLoader.load(Paths.get("wibble")));
+        assertThrows(ExomiserAutoConfigurationException.class, () ->TabixDataSourceLoader.load(Paths.get("wibble"), 2));
     }
 
     @Test
     public void testLoadResource() throws Exception {
+        Path remmTabixFilePath = Paths.get("src/test/resources/data/remm/remmData.tsv.gz");
+        TabixDataSource tabixDataSource = TabixDataSourceLoader.load(remmTabixFilePath, 2);
+        assertThat(tabixDataSource.getSource(), equalTo(remmTabixFilePath.toAbsolutePath().toString()));
+        assertThat(tabixDataSource, instanceOf(PooledTabixDataSource.class));
+        assertThat(tabixDataSource.supportsConcurrentQueries(), is(true));
+    }
+
+    @Test
+    public void testLoadResourceWithDefaultMaxReaders() {
         Path remmTabixFilePath = Paths.get("src/test/resources/data/remm/remmData.tsv.gz");
         TabixDataSource tabixDataSource = TabixDataSourceLoader.load(remmTabixFilePath);
         assertThat(tabixDataSource.getSource(), equalTo(remmTabixFilePath.toAbsolutePath().toString()));
+        assertThat(tabixDataSource, instanceOf(PooledTabixDataSource.class));
     }
-}
\ No newline at end of file
+}
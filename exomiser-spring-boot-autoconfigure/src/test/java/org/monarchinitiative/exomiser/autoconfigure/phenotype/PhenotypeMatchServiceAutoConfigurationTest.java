@@ -23,14 +23,20 @@
 import org.junit.jupiter.api.Test;
 import org.monarchinitiative.exomiser.autoconfigure.AbstractAutoConfigurationTest;
 import org.monarchinitiative.exomiser.core.phenotype.PhenotypeMatchService;
+import org.monarchinitiative.exomiser.core.phenotype.service.OntologyService;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Set;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 /**
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
@@ -42,6 +48,19 @@ public void testAutoConfiguresPhenotypeMatchService() {
         load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.phenotype.data-version=1710");
         PhenotypeMatchService phenotypeMatchService = (PhenotypeMatchService) context.getBean("phenotypeMatchService");
         assertThat(phenotypeMatchService, instanceOf(PhenotypeMatchService.class));
+        assertThat(context.containsBean("preloadedOntologyService"), is(false));
+        assertThat(context.getBeansOfType(OntologyService.class).keySet(), equalTo(Set.of("ontologyService")));
+    }
+
+    @Test
+    public void testAutoConfiguresPhenotypeMatchServiceWithPreloadedPhenotypeMappings() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.phenotype.data-version=1710", "exomiser.phenotype.phenotype-mappings-preload=true");
+        PhenotypeMatchService phenotypeMatchService = (PhenotypeMatchService) context.getBean("phenotypeMatchService");
+        assertThat(phenotypeMatchService, instanceOf(PhenotypeMatchService.class));
+        PhenotypeProperties phenotypeProperties = context.getBean(PhenotypeProperties.class);
+        assertThat(phenotypeProperties.isPhenotypeMappingsPreload(), is(true));
+        assertThat(context.getBean(OntologyService.class), sameInstance(context.getBean("preloadedOntologyService")));
+        assertThat(context.getBeansOfType(OntologyService.class).keySet(), equalTo(Set.of("preloadedOntologyService")));
     }
 
     @Configuration
@@ -21,9 +21,16 @@
 package org.monarchinitiative.exomiser.autoconfigure.phenotype;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.monarchinitiative.exomiser.autoconfigure.AbstractAutoConfigurationTest;
 import org.monarchinitiative.exomiser.autoconfigure.DataDirectoryAutoConfiguration;
+import org.monarchinitiative.exomiser.core.prioritisers.service.ModelService;
+import org.monarchinitiative.exomiser.core.prioritisers.service.ModelServiceImpl;
+import org.monarchinitiative.exomiser.core.prioritisers.service.SnapshotModelService;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
+import org.monarchinitiative.exomiser.core.prioritisers.util.MappedDataMatrix;
+import org.monarchinitiative.exomiser.core.prioritisers.util.QuantisedDataMatrix;
+import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.cache.CacheManager;
@@ -32,8 +39,11 @@
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -149,6 +159,24 @@ public void randomWalkMatrixLoadInMemory() {
         assertThat(dataMatrix.numColumns(), equalTo(10));
     }
 
+    @Test
+    public void randomWalkMatrixMemoryMapped() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.random-walk-file-name=rw_string_10.rwm");
+        DataMatrix dataMatrix = (DataMatrix) context.getBean("randomWalkMatrix");
+        assertThat(dataMatrix, instanceOf(MappedDataMatrix.class));
+        assertThat(dataMatrix.numRows(), equalTo(10));
+        assertThat(dataMatrix.numColumns(), equalTo(10));
+    }
+
+    @Test
+    public void randomWalkMatrixQuantised() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.random-walk-file-name=rw_string_10.rwq");
+        DataMatrix dataMatrix = (DataMatrix) context.getBean("randomWalkMatrix");
+        assertThat(dataMatrix, instanceOf(QuantisedDataMatrix.class));
+        assertThat(dataMatrix.numRows(), equalTo(10));
+        assertThat(dataMatrix.numColumns(), equalTo(10));
+    }
+
     @Test
     public void randomWalkMatrixCanBeOverriden() {
         load(UserConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.randomWalkFileName=wibble.gz", "exomiser.randomWalkIndexFileName=wibbleIndex.gz");
@@ -156,6 +184,33 @@ public void randomWalkMatrixCanBeOverriden() {
         assertThat(dataMatrix, not(nullValue()));
     }
 
+    @Test
+    public void modelServiceLoadsModelsFromDatabaseByDefault() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION);
+        assertThat(context.getBean(ModelService.class), instanceOf(ModelServiceImpl.class));
+    }
+
+    @Test
+    public void modelServiceLoadsModelsFromSnapshot(@TempDir Path tempDir) throws IOException {
+        Path phenotypeDataDir = TEST_DATA.resolve("1710_phenotype");
+        Files.copy(phenotypeDataDir.resolve("1710_phenotype.h2.db"), tempDir.resolve("1710_phenotype.h2.db"));
+        Files.copy(phenotypeDataDir.resolve("rw_string_10.mv"), tempDir.resolve("rw_string_10.mv"));
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.data-directory=" + tempDir, "exomiser.phenotype.models-snapshot=true");
+        assertThat(context.getBean(ModelService.class), instanceOf(SnapshotModelService.class));
+    }
+
+    @Test
+    public void hiPhiveScoringExecutorIsBoundedByScoringThreads() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.hi-phive-scoring-threads=2");
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) context.getBean("hiPhiveScoringExecutor");
+        assertThat(executor.getMaximumPoolSize(), equalTo(2));
+    }
+
+    @Test
+    public void hiPhiveScoringExecutorThrowsExceptionWithNoScoringThreads() {
+        assertThrows(BeanCreationException.class, () -> load(EmptyConfiguration.class, TEST_DATA_ENV, DATA_VERSION, "exomiser.phenotype.hi-phive-scoring-threads=0"));
+    }
+
     @Configuration
     @ImportAutoConfiguration(PrioritiserAutoConfiguration.class)
     protected static class EmptyConfiguration {